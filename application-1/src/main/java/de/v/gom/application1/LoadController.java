@@ -0,0 +1,104 @@
+package de.v.gom.application1;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 부하 테스트(load-test) 용 upstream. 요청마다 지연 시간, 응답 크기, 에러 비율을 지정한다.
+ * <pre>
+ * GET /load/{name}?latency=20&jitter=5&size=4096&errorRate=0.01&errorStatus=503
+ * </pre>
+ * latency / jitter 는 ms 이며 응답은 latency ± jitter 뒤에 완료된다. 지연 동안 Tomcat thread 를 점유하지 않으므로 지연이 처리량을 제한하지 않는다.
+ * errorRate 비율의 요청은 errorStatus 로 응답한다.
+ * <p>
+ * 응답 body 는 정확히 size byte 의 JSON 이다. 들어가는 만큼 사용자 목록을 채우고 남는 크기는 padding 문자열로 맞춘다.
+ */
+@RestController
+@RequestMapping("/load")
+public class LoadController {
+    private static final int MAX_SIZE = 1024 * 1024;
+    private static final byte[] PREFIX = "{\"users\":[".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PADDING = "],\"padding\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SUFFIX = "\"}".getBytes(StandardCharsets.US_ASCII);
+    // JSON 형태의 응답. (gateway 의 압축 / body 변환 필터가 실제와 비슷하게 동작하도록) 쉼표로 구분한 사용자 목록과 각 사용자의 끝 위치
+    private static final byte[] USERS;
+    private static final int[] USER_ENDS;
+
+    static {
+        StringBuilder users = new StringBuilder(MAX_SIZE + 64);
+        List<Integer> ends = new ArrayList<>();
+        for (int i = 0; users.length() < MAX_SIZE; i++) {
+            users.append(i > 0 ? "," : "").append("{\"id\":").append(i).append(",\"name\":\"user-").append(i).append("\"}");
+            ends.add(users.length());
+        }
+        USERS = users.toString().getBytes(StandardCharsets.US_ASCII);
+        USER_ENDS = ends.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @GetMapping("/{name}")
+    public CompletableFuture<ResponseEntity<byte[]>> load(@PathVariable String name,
+                                                          @RequestParam(defaultValue = "0") long latency,
+                                                          @RequestParam(defaultValue = "0") long jitter,
+                                                          @RequestParam(defaultValue = "128") int size,
+                                                          @RequestParam(defaultValue = "0") double errorRate,
+                                                          @RequestParam(defaultValue = "500") int errorStatus) {
+        if (latency < 0 || jitter < 0 || size < 0 || size > MAX_SIZE || errorRate < 0 || errorRate > 1
+            || errorStatus < 100 || errorStatus > 599) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        ResponseEntity<byte[]> response = random.nextDouble() < errorRate
+            ? ResponseEntity.status(errorStatus).<byte[]>build()
+            : ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).header("X-Load-Name", name).body(payload(size));
+        long delay = jitter > 0 ? Math.max(0, latency + random.nextLong(-jitter, jitter + 1)) : latency;
+        if (delay == 0) {
+            return CompletableFuture.completedFuture(response);
+        }
+        return CompletableFuture.supplyAsync(() -> response, CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * 정확히 size byte 인 JSON. {"users":[...],"padding":"xxx"} 형태이며, 이보다 작으면 padding 한 문자열 / 숫자로 대신한다.
+     */
+    static byte[] payload(int size) {
+        byte[] payload = new byte[size];
+        int fixed = PREFIX.length + PADDING.length + SUFFIX.length;
+        if (size < fixed) {
+            if (size == 1) {
+                payload[0] = '0';
+            } else if (size > 1) {
+                Arrays.fill(payload, (byte) 'x');
+                payload[0] = '"';
+                payload[size - 1] = '"';
+            }
+            return payload;
+        }
+        // 들어가는 사용자 수. 사용자가 없으면 빈 목록이다.
+        int found = Arrays.binarySearch(USER_ENDS, size - fixed);
+        int count = found >= 0 ? found + 1 : -found - 1;
+        int users = count > 0 ? USER_ENDS[count - 1] : 0;
+        int position = 0;
+        System.arraycopy(PREFIX, 0, payload, position, PREFIX.length);
+        position += PREFIX.length;
+        System.arraycopy(USERS, 0, payload, position, users);
+        position += users;
+        System.arraycopy(PADDING, 0, payload, position, PADDING.length);
+        position += PADDING.length;
+        Arrays.fill(payload, position, size - SUFFIX.length, (byte) 'x');
+        System.arraycopy(SUFFIX, 0, payload, size - SUFFIX.length, SUFFIX.length);
+        return payload;
+    }
+}
@@ -6,14 +6,18 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 @Slf4j
 @RestController
 public class RouterRestController {
-    Long id = 0L;
+    // 요청은 여러 Tomcat thread 에서 동시에 처리된다.
+    private final AtomicLong id = new AtomicLong();
 
     @GetMapping("/router")
     public String getRouter() {
-        log.debug("GET /router - {}", ++id);
+        long id = this.id.incrementAndGet();
+        log.debug("GET /router - {}", id);
         return "router: " + id;
     }
 }
@@ -21,10 +25,12 @@ public class RouterRestController {
 @Slf4j
 @Controller
 class RouterMvcController {
-    Long id = 0L;
+    private final AtomicLong id = new AtomicLong();
+
     @GetMapping("/mvc/router")
     public String getRouter(Model model) {
-        log.debug("GET /mvc/router - {}", ++id);
+        long id = this.id.incrementAndGet();
+        log.debug("GET /mvc/router - {}", id);
         model.addAttribute("id", id);
         return "router";
     }
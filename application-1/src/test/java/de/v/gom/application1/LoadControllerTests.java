@@ -0,0 +1,29 @@
+package de.v.gom.application1;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+class LoadControllerTests {
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(DeserializationFeature.FAIL_ON_TRAILING_TOKENS);
+
+    @Test
+    void payloadIsValidJsonOfRequestedSize() {
+        IntStream.concat(IntStream.rangeClosed(1, 300), IntStream.of(4096, 65_537, 1024 * 1024)).forEach(size -> {
+            byte[] payload = LoadController.payload(size);
+            assertThat(payload).hasSize(size);
+            assertThatCode(() -> this.objectMapper.readTree(payload)).as("size %d", size).doesNotThrowAnyException();
+        });
+        assertThat(LoadController.payload(0)).isEmpty();
+    }
+
+    @Test
+    void payloadContainsUsers() throws Exception {
+        assertThat(this.objectMapper.readTree(LoadController.payload(4096)).get("users").size()).isGreaterThan(100);
+    }
+}
@@ -0,0 +1,90 @@
+package de.v.gom.sample.benchmark;
+
+import de.v.gom.sample.gateway.router.table.DynamicRouteTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link DynamicRouteTable} 의 route lookup 지연. writer 없이 조회만 하는 경우(lookup)와
+ * writer 하나가 route 를 계속 추가 / 삭제하는 동안 조회하는 경우(concurrent)를 비교한다.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DynamicRouteTableBenchmark {
+    private static final PathRoutePredicateFactory PATH = new PathRoutePredicateFactory();
+
+    @Param({"100", "1000"})
+    public int routes;
+
+    private DynamicRouteTable table;
+    private ServerWebExchange exchange;
+    private int writes;
+
+    @Setup
+    public void setUp() {
+        this.table = new DynamicRouteTable();
+        for (int i = 0; i < this.routes; i++) {
+            this.table.add(route("tenant-" + i));
+        }
+        // 마지막 route 가 매칭되는 경우
+        this.exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/tenant-" + (this.routes - 1) + "/orders/1"));
+    }
+
+    @Benchmark
+    @Group("lookup")
+    public Route lookupOnly() {
+        return this.firstMatch();
+    }
+
+    @Benchmark
+    @Group("concurrent")
+    @GroupThreads(3)
+    public Route lookupWhileWriting() {
+        return this.firstMatch();
+    }
+
+    @Benchmark
+    @Group("concurrent")
+    @GroupThreads(1)
+    public DynamicRouteTable.Snapshot write() {
+        String id = "dynamic-" + (this.writes++ % 100);
+        if (this.table.snapshot().byId().containsKey(id)) {
+            return this.table.remove(id);
+        }
+        return this.table.add(route(id));
+    }
+
+    private Route firstMatch() {
+        for (Route route : this.table.snapshot().routes()) {
+            if (Boolean.TRUE.equals(route.getPredicate().apply(this.exchange).block())) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private static Route route(String id) {
+        String pattern = "/" + id + "/**";
+        return DynamicRouteTable.route(id)
+            .uri("http://localhost:8080")
+            .asyncPredicate(PATH.applyAsync(config -> config.setPatterns(List.of(pattern))))
+            .build();
+    }
+}
@@ -0,0 +1,74 @@
+package de.v.gom.sample.benchmark;
+
+import de.v.gom.sample.gateway.filter.CustomBadGatewayFilter;
+import de.v.gom.sample.gateway.filter.header.HeaderMutationGatewayFilterFactory;
+import de.v.gom.sample.gateway.router.predicate.FilterPredicate;
+import de.v.gom.sample.gateway.router.predicate.OrderFilterPredicate;
+import de.v.gom.sample.gateway.router.predicate.Router;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import java.util.List;
+
+/**
+ * 루트 gateway 의 Router 가 구성한 필터 체인의 요청당 비용.
+ * <p>
+ * 각 benchmark 는 요청마다 새로운 MockServerWebExchange 를 만든다. exchange 생성 비용은 {@link #baseline()} 으로 측정한다.
+ */
+@State(Scope.Benchmark)
+public class FilterChainBenchmark {
+    private GatewayFixtures.Chain empty;
+    private GatewayFixtures.Chain filterRouter;
+    private GatewayFixtures.Chain orderFilterRouter;
+    private GatewayFixtures.Chain customBadGateway;
+
+    @Setup
+    public void setUp() {
+        this.empty = GatewayFixtures.chain(List.of());
+        this.filterRouter = chainOf(new FilterPredicate(GatewayFixtures.circuitBreakerHedge(), new HeaderMutationGatewayFilterFactory()));
+        this.orderFilterRouter = chainOf(new OrderFilterPredicate());
+        this.customBadGateway = GatewayFixtures.chain(List.of(new CustomBadGatewayFilter()));
+    }
+
+    @Benchmark
+    public Object baseline() {
+        MockServerWebExchange exchange = exchange("/filter_java/users/1");
+        this.empty.filter(exchange).block();
+        return exchange;
+    }
+
+    // headerMutation(addRequestHeader + addResponseHeader) + rewritePath + circuitBreakerHedge
+    @Benchmark
+    public Object filterRouter() {
+        MockServerWebExchange exchange = exchange("/filter_java/users/1");
+        this.filterRouter.filter(exchange).block();
+        return exchange;
+    }
+
+    // order 0, 1, 2 의 lambda 필터
+    @Benchmark
+    public Object orderFilterRouter() {
+        MockServerWebExchange exchange = exchange("/order_filter_java/users/1");
+        this.orderFilterRouter.filter(exchange).block();
+        return exchange;
+    }
+
+    @Benchmark
+    public Object customBadGatewayFilter() {
+        MockServerWebExchange exchange = exchange("/custom_filter_java/users/1");
+        this.customBadGateway.filter(exchange).block();
+        return exchange;
+    }
+
+    private static GatewayFixtures.Chain chainOf(Router router) {
+        return GatewayFixtures.chain(GatewayFixtures.route(router.id(), router).getFilters());
+    }
+
+    private static MockServerWebExchange exchange(String path) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(path));
+    }
+}
@@ -0,0 +1,108 @@
+package de.v.gom.sample.benchmark;
+
+import de.v.gom.sample.gateway.filter.PrefixRewritePathGatewayFilterFactory;
+import de.v.gom.sample.gateway.filter.breaker.CircuitBreakerHedgeGatewayFilterFactory;
+import de.v.gom.sample.gateway.filter.breaker.RouteBreakers;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AddRequestHeaderGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.factory.AddResponseHeaderGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.handler.predicate.MethodRoutePredicateFactory;
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.builder.Buildable;
+import org.springframework.cloud.gateway.route.builder.PredicateSpec;
+import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Router bean 이 정의한 route 를 Spring context 없이 만들고, FilteringWebHandler 와 같은 순서로 필터를 실행한다.
+ */
+final class GatewayFixtures {
+    private static final GenericApplicationContext CONTEXT = new GenericApplicationContext();
+
+    static {
+        // Router DSL(GatewayFilterSpec / PredicateSpec)이 사용하는 factory 만 등록한다. RewritePath 는 루트 gateway 와 같은 factory 를 사용한다.
+        CONTEXT.registerBean(PathRoutePredicateFactory.class);
+        CONTEXT.registerBean(MethodRoutePredicateFactory.class);
+        CONTEXT.registerBean(AddRequestHeaderGatewayFilterFactory.class);
+        CONTEXT.registerBean(AddResponseHeaderGatewayFilterFactory.class);
+        CONTEXT.registerBean(PrefixRewritePathGatewayFilterFactory.class);
+        CONTEXT.refresh();
+    }
+
+    private GatewayFixtures() {
+    }
+
+    /**
+     * FilterPredicate 가 사용하는 circuit breaker. hedge 요청은 upstream 응답이 느린 경우에만 보내므로 benchmark 에서는 보내지 않는다.
+     */
+    static CircuitBreakerHedgeGatewayFilterFactory circuitBreakerHedge() {
+        ObjectProvider<List<HttpHeadersFilter>> headersFilters =
+            CONTEXT.getBeanProvider(ResolvableType.forClassWithGenerics(List.class, HttpHeadersFilter.class));
+        return new CircuitBreakerHedgeGatewayFilterFactory(new RouteBreakers(new SimpleMeterRegistry()), HttpClient.create(),
+            headersFilters, null);
+    }
+
+    static Route route(String id, Function<PredicateSpec, Buildable<Route>> router) {
+        return new RouteLocatorBuilder(CONTEXT).routes()
+            .route(id, router)
+            .build()
+            .getRoutes()
+            .blockFirst();
+    }
+
+    /**
+     * route 필터를 order 순으로 정렬한 chain. Ordered 가 아닌 필터만 목록 순서대로 order 를 부여한다. 마지막 필터 이후에는 upstream 호출 대신 응답을 완료한다.
+     */
+    static Chain chain(List<GatewayFilter> filters) {
+        List<GatewayFilter> ordered = new ArrayList<>(filters.size());
+        for (int i = 0; i < filters.size(); i++) {
+            GatewayFilter filter = filters.get(i);
+            ordered.add(filter instanceof Ordered ? filter : new OrderedGatewayFilter(filter, i + 1));
+        }
+        AnnotationAwareOrderComparator.sort(ordered);
+        return new Chain(List.copyOf(ordered), exchange -> exchange.getResponse().setComplete());
+    }
+
+    record Chain(List<GatewayFilter> filters, Function<ServerWebExchange, Mono<Void>> upstream) {
+
+        Mono<Void> filter(ServerWebExchange exchange) {
+            return new Step(0).filter(exchange);
+        }
+
+        private final class Step implements GatewayFilterChain {
+            private final int index;
+
+            private Step(int index) {
+                this.index = index;
+            }
+
+            @Override
+            public Mono<Void> filter(ServerWebExchange exchange) {
+                if (this.index < filters.size()) {
+                    return filters.get(this.index).filter(exchange, new Step(this.index + 1));
+                }
+                return upstream.apply(exchange);
+            }
+        }
+
+        Chain withUpstream(Function<ServerWebExchange, Mono<Void>> upstream) {
+            return new Chain(this.filters, upstream);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package de.v.gom.sample.benchmark;
+
+import com.example.gatewayparsing.gateway.filter.JsonProjection;
+import com.example.gatewayparsing.gateway.filter.JsonProjectionGatewayFilter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.cloud.gateway.filter.factory.rewrite.ModifyResponseBodyGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * gateway-parsing 의 응답 body 변환 비용. 기존 modifyResponseBody(String, String) 와 streaming projection 을 비교한다.
+ * <p>
+ * upstream 응답은 8KB 단위 DataBuffer 로 나누어 전달한다.
+ */
+@State(Scope.Benchmark)
+public class ResponseRewriteBenchmark {
+    private static final int CHUNK_SIZE = 8 * 1024;
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    // projection 대상이 아닌 배열 항목 수
+    @Param({"0", "1000", "100000"})
+    public int extraItems;
+
+    private List<byte[]> chunks;
+    private GatewayFixtures.Chain modifyResponseBody;
+    private GatewayFixtures.Chain jsonProjection;
+
+    @Setup
+    public void setUp() {
+        this.chunks = split(userBody(this.extraItems).getBytes(StandardCharsets.UTF_8));
+
+        ModifyResponseBodyGatewayFilterFactory factory =
+            new ModifyResponseBodyGatewayFilterFactory(ServerCodecConfigurer.create().getReaders(), Set.of(), Set.of());
+        this.modifyResponseBody = GatewayFixtures.chain(List.of(factory.apply(new ModifyResponseBodyGatewayFilterFactory.Config()
+                .setRewriteFunction(String.class, String.class, (exchange, body) -> Mono.just(treeProjection(body))))))
+            .withUpstream(this::upstream);
+
+        JsonProjection projection = JsonProjection.builder(OBJECT_MAPPER.getFactory())
+            .field("id", "id", JsonProjection.Type.INT)
+            .field("data.name", "username", JsonProjection.Type.TEXT)
+            .field("data.age", "age", JsonProjection.Type.INT)
+            .build();
+        this.jsonProjection = GatewayFixtures.chain(List.of(new JsonProjectionGatewayFilter(projection)))
+            .withUpstream(this::upstream);
+    }
+
+    @Benchmark
+    public Object modifyResponseBody() {
+        return this.rewrite(this.modifyResponseBody);
+    }
+
+    @Benchmark
+    public Object jsonProjection() {
+        return this.rewrite(this.jsonProjection);
+    }
+
+    private Object rewrite(GatewayFixtures.Chain chain) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/custom_filter_java"));
+        chain.filter(exchange).block();
+        return exchange.getResponse().getBodyAsString().block();
+    }
+
+    private Mono<Void> upstream(ServerWebExchange exchange) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Flux.fromIterable(this.chunks)
+            .map(chunk -> (DataBuffer) DefaultDataBufferFactory.sharedInstance.wrap(chunk)));
+    }
+
+    // 기존 CustomFilterPredicate 의 RewriteFunction 과 같은 변환
+    private static String treeProjection(String body) {
+        try {
+            JsonNode jsonNode = OBJECT_MAPPER.readTree(body);
+            int id = jsonNode.path("id").asInt();
+            String username = jsonNode.path("data").path("name").asText();
+            int age = jsonNode.path("data").path("age").asInt();
+            return OBJECT_MAPPER.writeValueAsString(Map.of("id", id, "username", username, "age", age));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String userBody(int extraItems) {
+        StringBuilder body = new StringBuilder("{\"id\":\"17\",\"items\":[");
+        for (int i = 0; i < extraItems; i++) {
+            if (i > 0) {
+                body.append(',');
+            }
+            body.append("{\"name\":\"item-").append(i).append("\",\"age\":").append(i).append('}');
+        }
+        return body.append("],\"data\":{\"name\":\"coli\",\"age\":30}}").toString();
+    }
+
+    private static List<byte[]> split(byte[] body) {
+        List<byte[]> chunks = new ArrayList<>();
+        for (int offset = 0; offset < body.length; offset += CHUNK_SIZE) {
+            chunks.add(Arrays.copyOfRange(body, offset, Math.min(body.length, offset + CHUNK_SIZE)));
+        }
+        return chunks;
+    }
+}
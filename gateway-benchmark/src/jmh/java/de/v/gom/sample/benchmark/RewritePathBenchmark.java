@@ -0,0 +1,64 @@
+package de.v.gom.sample.benchmark;
+
+import de.v.gom.sample.gateway.filter.PrefixRewrite;
+import de.v.gom.sample.gateway.filter.PrefixRewritePathGatewayFilterFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.cloud.gateway.filter.factory.RewritePathGatewayFilterFactory;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * FilterPredicate 의 rewritePath("/filter_java/(?<segment>.*)", "/filter_test_2/${segment}") 비용.
+ * 정규식 기반 RewritePathGatewayFilterFactory 와 PrefixRewritePathGatewayFilterFactory 를 비교한다.
+ */
+@State(Scope.Benchmark)
+public class RewritePathBenchmark {
+    private static final String REGEXP = "/filter_java/(?<segment>.*)";
+    private static final String REPLACEMENT = "/filter_test_2/${segment}";
+    private static final String PATH = "/filter_java/users/1/orders";
+
+    private Pattern pattern;
+    private PrefixRewrite prefixRewrite;
+    private GatewayFixtures.Chain regexFilter;
+    private GatewayFixtures.Chain prefixFilter;
+
+    @Setup
+    public void setUp() {
+        this.pattern = Pattern.compile(REGEXP);
+        this.prefixRewrite = PrefixRewrite.compile(REGEXP, REPLACEMENT);
+        this.regexFilter = GatewayFixtures.chain(List.of(new RewritePathGatewayFilterFactory()
+            .apply(config -> config.setRegexp(REGEXP).setReplacement(REPLACEMENT))));
+        this.prefixFilter = GatewayFixtures.chain(List.of(new PrefixRewritePathGatewayFilterFactory()
+            .apply(config -> config.setRegexp(REGEXP).setReplacement(REPLACEMENT))));
+    }
+
+    @Benchmark
+    public String regexPath() {
+        return this.pattern.matcher(PATH).replaceAll(REPLACEMENT);
+    }
+
+    @Benchmark
+    public String prefixPath() {
+        return this.prefixRewrite.apply(PATH);
+    }
+
+    @Benchmark
+    public Object regexFilter() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(PATH));
+        this.regexFilter.filter(exchange).block();
+        return exchange;
+    }
+
+    @Benchmark
+    public Object prefixFilter() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(PATH));
+        this.prefixFilter.filter(exchange).block();
+        return exchange;
+    }
+}
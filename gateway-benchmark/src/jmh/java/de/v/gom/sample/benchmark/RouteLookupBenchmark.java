@@ -0,0 +1,73 @@
+package de.v.gom.sample.benchmark;
+
+import de.v.gom.sample.gateway.router.index.RouteIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * route 수에 따른 route lookup 비용. RoutePredicateHandlerMapping 의 선형 탐색과 {@link RouteIndex} 를 비교한다.
+ */
+@State(Scope.Benchmark)
+public class RouteLookupBenchmark {
+    @Param({"100", "1000", "10000"})
+    public int routes;
+
+    private List<Route> ordered;
+    private RouteIndex index;
+    private String path;
+
+    @Setup
+    public void setUp() {
+        PathRoutePredicateFactory factory = new PathRoutePredicateFactory();
+        this.ordered = new ArrayList<>(this.routes);
+        for (int i = 0; i < this.routes; i++) {
+            String pattern = "/tenant-" + i + "/**";
+            this.ordered.add(Route.async()
+                .id("tenant-" + i)
+                .uri("http://localhost:8080")
+                .asyncPredicate(factory.applyAsync(config -> config.setPatterns(List.of(pattern))))
+                .build());
+        }
+        this.index = RouteIndex.compile(this.ordered);
+        // 마지막 route 가 매칭되는 선형 탐색의 최악의 경우
+        this.path = "/tenant-" + (this.routes - 1) + "/orders/1";
+    }
+
+    @Benchmark
+    public Route linear() {
+        return firstMatch(this.ordered, exchange(this.path));
+    }
+
+    @Benchmark
+    public Route indexed() {
+        ServerWebExchange exchange = exchange(this.path);
+        PathContainer path = PathContainer.parsePath(exchange.getRequest().getURI().getRawPath());
+        return firstMatch(this.index.candidates(HttpMethod.GET, path), exchange);
+    }
+
+    private static Route firstMatch(List<Route> routes, ServerWebExchange exchange) {
+        for (Route route : routes) {
+            if (Boolean.TRUE.equals(route.getPredicate().apply(exchange).block())) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private static ServerWebExchange exchange(String path) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(path));
+    }
+}
@@ -0,0 +1,102 @@
+package de.v.gom.sample.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.v.gom.sample.gateway.filter.PrefixRewritePathGatewayFilterFactory;
+import de.v.gom.sample.gateway.router.compiled.CompiledRouteBuilder;
+import de.v.gom.sample.gateway.router.compiled.CompiledRouteTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.cloud.gateway.config.GatewayProperties;
+import org.springframework.cloud.gateway.filter.FilterDefinition;
+import org.springframework.cloud.gateway.filter.factory.AddRequestHeaderGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.factory.AddResponseHeaderGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.factory.GatewayFilterFactory;
+import org.springframework.cloud.gateway.handler.predicate.MethodRoutePredicateFactory;
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
+import org.springframework.cloud.gateway.handler.predicate.RoutePredicateFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinitionRouteLocator;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.format.support.DefaultFormattingConversionService;
+import org.springframework.validation.Errors;
+import org.springframework.validation.Validator;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * route 수에 따른 시작 시 route 생성 비용. RouteDefinition 을 RouteDefinitionRouteLocator 로 변환하는 경우와
+ * 생성된 route table 이 {@link CompiledRouteBuilder} 로 만드는 경우를 비교한다.
+ * <p>
+ * route 는 Path / Method predicate 와 AddRequestHeader / AddResponseHeader / RewritePath 필터를 사용한다. (filter_test route 와 같은 구성)
+ */
+@State(Scope.Benchmark)
+public class RouteTableStartupBenchmark {
+    @Param({"1000", "10000"})
+    public int routes;
+
+    private final List<RoutePredicateFactory> predicates = List.of(new PathRoutePredicateFactory(), new MethodRoutePredicateFactory());
+    private final List<GatewayFilterFactory> filters = List.of(new AddRequestHeaderGatewayFilterFactory(),
+        new AddResponseHeaderGatewayFilterFactory(), new PrefixRewritePathGatewayFilterFactory());
+    private ConfigurationService configurationService;
+    private List<RouteDefinition> definitions;
+    private CompiledRouteTable table;
+
+    @Setup
+    public void setUp() {
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.refresh();
+        this.configurationService = new ConfigurationService(context.getBeanFactory(),
+            DefaultFormattingConversionService::new, NoOpValidator::new);
+        this.definitions = new ArrayList<>(this.routes);
+        for (int i = 0; i < this.routes; i++) {
+            this.definitions.add(new RouteDefinition("tenant-" + i + "=http://localhost:8080,Path=/tenant-" + i + "/**,Method=GET"));
+            this.definitions.get(i).setFilters(List.of(
+                new FilterDefinition("AddRequestHeader=X-Tenant, tenant-" + i),
+                new FilterDefinition("AddResponseHeader=X-Response-Test, testResponse"),
+                new FilterDefinition("RewritePath=/tenant-" + i + "/(?<segment>.*), /$\\{segment}")));
+        }
+        // GeneratedRouteTable 이 생성하는 코드와 같은 호출
+        this.table = builder -> {
+            for (int i = 0; i < this.routes; i++) {
+                builder.route("tenant-" + i, "http://localhost:8080", 0)
+                    .path(true, "/tenant-" + i + "/**")
+                    .method("GET")
+                    .addRequestHeader("X-Tenant", "tenant-" + i)
+                    .addResponseHeader("X-Response-Test", "testResponse")
+                    .rewritePath("/tenant-" + i + "/(?<segment>.*)", "/$\\{segment}")
+                    .add();
+            }
+        };
+    }
+
+    @Benchmark
+    public List<Route> routeDefinitions() {
+        return new RouteDefinitionRouteLocator(() -> Flux.fromIterable(this.definitions), this.predicates, this.filters,
+            new GatewayProperties(), this.configurationService).getRoutes().collectList().block();
+    }
+
+    @Benchmark
+    public List<Route> compiled() {
+        return new CompiledRouteBuilder(this.predicates, this.filters, List.of(), definitions -> List.of(), new ObjectMapper())
+            .build(this.table);
+    }
+
+    private static final class NoOpValidator implements Validator {
+
+        @Override
+        public boolean supports(Class<?> clazz) {
+            return false;
+        }
+
+        @Override
+        public void validate(Object target, Errors errors) {
+        }
+    }
+}
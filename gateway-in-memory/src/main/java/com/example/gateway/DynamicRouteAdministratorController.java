@@ -1,36 +1,62 @@
 package com.example.gateway;
 
+import com.example.gatewaysupport.route.RouteDescriptor;
+import com.example.gatewaysupport.route.RouteDescriptorCache;
+import com.example.gatewaysupport.route.RouteDescriptorPage;
+import com.example.gatewaysupport.route.RouteImportResult;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.util.Map;
-
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/v1/routes/in-memory")
 public class DynamicRouteAdministratorController {
     private final DynamicRouteAdministratorService dynamicRouteService;
-    private final RouteInformationFunction routeInformationFunction;
+    private final RouteDescriptorCache routeDescriptorCache;
     // Route 추가
     @PostMapping
     public Mono<Void> addRoute(@RequestBody RouteDefinition routeDefinition) {
         return dynamicRouteService.addRoute(routeDefinition);
     }
 
+    // NDJSON 으로 여러 Route 를 한 번에 추가 (줄 단위로 읽으며, 읽지 못한 줄은 그 줄만 실패로 응답)
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<RouteImportResult> importRoutes(@RequestBody Flux<String> lines) {
+        return dynamicRouteService.importRoutes(lines);
+    }
+
+    // Route 삭제
+    @DeleteMapping("/{id}")
+    public Mono<Void> deleteRoute(@PathVariable String id) {
+        return dynamicRouteService.deleteRoute(id);
+    }
+
     @GetMapping
     public Flux<RouteDefinition> getRouteDefinitions() {
         return dynamicRouteService.getRoutesDefinitions();
     }
 
+    // 라우팅 테이블이 갱신될 때만 다시 만드는 route 정보를 id 순으로 페이지 단위 조회
     @GetMapping("/route")
-    public Flux<Map<String, Object>> getRoutes() {
-        return dynamicRouteService.getRoutes().map(this.routeInformationFunction);
+    public Mono<RouteDescriptorPage> getRoutes(@RequestParam(required = false) String prefix,
+                                               @RequestParam(defaultValue = "0") int page,
+                                               @RequestParam(defaultValue = "100") int size) {
+        return routeDescriptorCache.page(prefix, page, size);
+    }
+
+    @GetMapping(value = "/route/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<RouteDescriptor> streamRoutes(@RequestParam(required = false) String prefix) {
+        return routeDescriptorCache.stream(prefix);
     }
 }
@@ -0,0 +1,129 @@
+package com.example.gateway;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinitionRepository;
+import org.springframework.cloud.gateway.support.NotFoundException;
+import org.springframework.util.ObjectUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * InMemoryRouteDefinitionRepository 와 같이 route 를 메모리에 보관하고, 변경을 {@link RouteJournal} 에 기록하는 RouteDefinitionRepository.
+ * <p>
+ * bean 초기화 시점(서버가 요청을 받기 전)에 journal 을 재생하여 route 를 복구하고,
+ * compactInterval 마다 journal 의 레코드 수가 compactThreshold 이상이면 snapshot 으로 압축한다.
+ * <p>
+ * 같은 route id 의 메모리 반영과 journal 기록은 route id 별 lock 안에서 함께 수행하므로,
+ * 동시에 저장해도 메모리와 journal 의 마지막 값이 달라지지 않는다. 메모리에 먼저 반영해야 압축 중인 snapshot 이나 새 journal 중 한 곳에는 기록된다.
+ * journal 기록은 파일 I/O (append, fsync, segment 교체 시 mmap) 이므로 event loop 가 아닌 boundedElastic 에서 lock 과 함께 수행한다.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class JournaledRouteDefinitionRepository implements RouteDefinitionRepository, InitializingBean, DisposableBean {
+    private static final int LOCK_STRIPES = 64;
+
+    private final Map<String, RouteDefinition> routes = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final Object[] locks = newLocks();
+    private final RouteJournal journal;
+    private final Duration compactInterval;
+    private final int compactThreshold;
+    private Disposable compaction;
+
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        long start = System.nanoTime();
+        Collection<RouteDefinition> routes = journal.recover();
+        for (RouteDefinition route : routes) {
+            this.routes.put(route.getId(), route);
+        }
+        log.info("Restored {} routes from journal in {}ms", routes.size(), (System.nanoTime() - start) / 1_000_000);
+        this.compaction = Flux.interval(compactInterval, compactInterval, Schedulers.boundedElastic())
+            .filter(tick -> journal.records() >= compactThreshold)
+            .subscribe(tick -> this.compact());
+    }
+
+    @Override
+    public Flux<RouteDefinition> getRouteDefinitions() {
+        return Flux.defer(() -> Flux.fromIterable(this.copy()));
+    }
+
+    @Override
+    public Mono<Void> save(Mono<RouteDefinition> route) {
+        return route.flatMap(r -> {
+            if (ObjectUtils.isEmpty(r.getId())) {
+                return Mono.error(new IllegalArgumentException("id may not be empty"));
+            }
+            return Mono.<Void>fromRunnable(() -> {
+                synchronized (this.lock(r.getId())) {
+                    routes.put(r.getId(), r);
+                    journal.put(r);
+                }
+            }).subscribeOn(Schedulers.boundedElastic());
+        });
+    }
+
+    @Override
+    public Mono<Void> delete(Mono<String> routeId) {
+        return routeId.flatMap(id -> Mono.<Void>defer(() -> {
+            synchronized (this.lock(id)) {
+                if (routes.remove(id) == null) {
+                    return Mono.error(new NotFoundException("RouteDefinition not found: " + id));
+                }
+                journal.delete(id);
+            }
+            return Mono.empty();
+        }).subscribeOn(Schedulers.boundedElastic()));
+    }
+
+    @Override
+    public void destroy() {
+        if (this.compaction != null) {
+            this.compaction.dispose();
+        }
+        // 다음 기동 시 journal 재생 없이 snapshot 만 읽도록 종료 전에 압축한다.
+        if (journal.records() > 0) {
+            this.compact();
+        }
+        journal.close();
+    }
+
+    private void compact() {
+        try {
+            journal.compact(this::copy);
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to compact route journal", e);
+        }
+    }
+
+    private List<RouteDefinition> copy() {
+        synchronized (routes) {
+            return List.copyOf(routes.values());
+        }
+    }
+
+    private Object lock(String id) {
+        return this.locks[Math.floorMod(id.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static Object[] newLocks() {
+        Object[] locks = new Object[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        return locks;
+    }
+}
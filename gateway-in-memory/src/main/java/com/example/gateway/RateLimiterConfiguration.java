@@ -0,0 +1,26 @@
+package com.example.gateway;
+
+import com.example.gatewaysupport.ratelimit.LocalRateLimiterGatewayFilterFactory;
+import com.example.gatewaysupport.ratelimit.TokenBucketStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RateLimiterConfiguration {
+
+    /**
+     * 모든 LocalRateLimiter 필터가 공유하는 token bucket 저장소. bucket 수를 max-keys 로 제한한다.
+     */
+    @Bean
+    public TokenBucketStore tokenBucketStore(MeterRegistry meterRegistry,
+                                             @Value("${gateway.rate-limiter.max-keys:100000}") int maxKeys) {
+        return new TokenBucketStore(maxKeys, meterRegistry);
+    }
+
+    @Bean
+    public LocalRateLimiterGatewayFilterFactory localRateLimiterGatewayFilterFactory(TokenBucketStore tokenBucketStore) {
+        return new LocalRateLimiterGatewayFilterFactory(tokenBucketStore);
+    }
+}
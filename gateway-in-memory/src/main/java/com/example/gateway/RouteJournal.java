@@ -0,0 +1,301 @@
+package com.example.gateway;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * route 변경(저장 / 삭제)을 로컬 디스크에 기록하는 append-only journal.
+ * <p>
+ * 디렉터리에는 세대(generation) 번호가 붙은 snapshot 과 journal 파일이 있다.
+ * snapshot-N 은 journal-N 을 기록하기 시작한 시점의 전체 route 이며, 복구 시에는 가장 최근 snapshot 위에
+ * 그 세대 이후의 journal 을 순서대로 재생한다. journal 은 memory-mapped 파일에 바로 기록하므로 append 에 system call 이 없다.
+ * <p>
+ * 레코드 형식: [payload 길이(int)][CRC32(int)][op(byte)][payload]. 길이가 0 이면 기록의 끝이며,
+ * 비정상 종료로 중간까지만 기록된 레코드는 CRC 로 걸러내고 그 위치부터 다시 기록한다.
+ */
+@Slf4j
+public class RouteJournal implements Closeable {
+    private static final int MAGIC = 0x52544a31; // "RTJ1"
+    private static final int FILE_HEADER = Integer.BYTES;
+    private static final int RECORD_HEADER = Integer.BYTES * 2 + 1;
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final String JOURNAL = "journal-";
+    private static final String SNAPSHOT = "snapshot-";
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+    private final int segmentSize;
+    private final boolean fsync;
+    private final Object compaction = new Object();
+
+    private long generation;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int records;
+
+    public RouteJournal(Path directory, ObjectMapper objectMapper, int segmentSize, boolean fsync) {
+        this.directory = directory;
+        this.objectMapper = objectMapper;
+        this.segmentSize = segmentSize;
+        this.fsync = fsync;
+    }
+
+    /**
+     * 최근 snapshot 과 이후의 journal 을 재생하여 route 를 복구하고, 마지막 journal 에 이어서 기록할 준비를 한다.
+     */
+    public synchronized Collection<RouteDefinition> recover() throws IOException {
+        Files.createDirectories(this.directory);
+        long snapshot = this.generations(SNAPSHOT).stream().mapToLong(Long::longValue).max().orElse(0);
+        List<Long> journals = this.generations(JOURNAL).stream().filter(generation -> generation >= snapshot).sorted().toList();
+
+        Map<String, RouteDefinition> routes = new LinkedHashMap<>();
+        if (snapshot > 0) {
+            this.replaySnapshot(this.file(SNAPSHOT, snapshot), routes);
+        }
+        for (int i = 0; i < journals.size() - 1; i++) {
+            try (FileChannel channel = FileChannel.open(this.file(JOURNAL, journals.get(i)), StandardOpenOption.READ)) {
+                this.replay(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), routes);
+            }
+        }
+        this.open(journals.isEmpty() ? Math.max(snapshot, 1) : journals.get(journals.size() - 1), routes);
+        this.deleteOlderThan(snapshot);
+        log.info("Recovered {} routes from journal: snapshot={}, journals={}", routes.size(), snapshot, journals);
+        return routes.values();
+    }
+
+    public void put(RouteDefinition route) {
+        try {
+            this.append(PUT, this.objectMapper.writeValueAsBytes(route));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void delete(String id) {
+        this.append(DELETE, id.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 현재 journal 에 기록된 레코드 수.
+     */
+    public synchronized int records() {
+        return this.records;
+    }
+
+    /**
+     * 새로운 세대의 journal 로 전환한 뒤 전체 route 를 snapshot 으로 기록하고 이전 세대 파일을 삭제한다.
+     * snapshot 을 기록하는 동안에도 변경은 새 journal 에 기록되며, snapshot 에 이미 반영된 변경이 다시 재생되어도 결과는 같다.
+     */
+    public void compact(Supplier<Collection<RouteDefinition>> state) throws IOException {
+        synchronized (this.compaction) {
+            List<RouteDefinition> routes;
+            long next;
+            synchronized (this) {
+                routes = List.copyOf(state.get());
+                next = this.generation + 1;
+                this.close();
+                this.open(next, null);
+            }
+            long start = System.nanoTime();
+            this.writeSnapshot(next, routes);
+            this.deleteOlderThan(next);
+            log.info("Compacted route journal: generation={}, routes={}, elapsed={}ms",
+                next, routes.size(), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (this.channel == null) {
+            return;
+        }
+        try {
+            this.buffer.force();
+            this.channel.close();
+        } catch (IOException e) {
+            log.warn("Failed to close route journal: generation={}", this.generation, e);
+        }
+        this.channel = null;
+        this.buffer = null;
+    }
+
+    private synchronized void append(byte op, byte[] payload) {
+        if (this.buffer == null) {
+            throw new IllegalStateException("route journal is not open");
+        }
+        int length = RECORD_HEADER + payload.length;
+        int position = this.buffer.position();
+        if (position + length + Integer.BYTES > this.buffer.capacity()) {
+            this.grow(position + length + Integer.BYTES);
+        }
+        // 길이를 마지막에 기록하여 중간에 종료되어도 불완전한 레코드가 끝(0)으로 읽히게 한다.
+        this.buffer.putInt(position + Integer.BYTES, checksum(op, payload));
+        this.buffer.put(position + Integer.BYTES * 2, op);
+        this.buffer.put(position + RECORD_HEADER, payload);
+        this.buffer.putInt(position, payload.length);
+        this.buffer.position(position + length);
+        if (this.fsync) {
+            this.buffer.force(position, length);
+        }
+        this.records++;
+    }
+
+    /**
+     * journal 파일을 열고 기록할 위치를 찾는다. routes 가 주어지면 기존 레코드를 재생한다.
+     */
+    private void open(long generation, Map<String, RouteDefinition> routes) throws IOException {
+        FileChannel channel = FileChannel.open(this.file(JOURNAL, generation),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(this.segmentSize, channel.size()));
+        int records = 0;
+        int position = FILE_HEADER;
+        if (buffer.getInt(0) == 0) {
+            buffer.putInt(0, MAGIC);
+        } else if (routes != null) {
+            int[] result = this.replay(buffer, routes);
+            position = result[0];
+            records = result[1];
+            if (position + Integer.BYTES <= buffer.capacity() && buffer.getInt(position) != 0) {
+                log.warn("Discarding incomplete route journal record: generation={}, position={}", generation, position);
+                for (int i = position; i < buffer.capacity(); i++) {
+                    buffer.put(i, (byte) 0);
+                }
+            }
+        }
+        buffer.position(position);
+        this.generation = generation;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.records = records;
+    }
+
+    private void grow(int required) {
+        int capacity = this.buffer.capacity();
+        long size = Math.max((long) capacity * 2, required);
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("route journal is full: generation=" + this.generation);
+        }
+        try {
+            int position = this.buffer.position();
+            this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            this.buffer.position(position);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 레코드를 순서대로 적용하고 [다음 레코드 위치, 레코드 수] 를 반환한다.
+     */
+    private int[] replay(ByteBuffer buffer, Map<String, RouteDefinition> routes) throws IOException {
+        if (buffer.limit() < FILE_HEADER || buffer.getInt(0) != MAGIC) {
+            throw new IllegalStateException("not a route journal: " + this.directory);
+        }
+        int position = FILE_HEADER;
+        int records = 0;
+        while (position + RECORD_HEADER <= buffer.limit()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + RECORD_HEADER + length > buffer.limit()) {
+                break;
+            }
+            byte op = buffer.get(position + Integer.BYTES * 2);
+            byte[] payload = new byte[length];
+            buffer.get(position + RECORD_HEADER, payload);
+            if (checksum(op, payload) != buffer.getInt(position + Integer.BYTES)) {
+                break;
+            }
+            if (op == PUT) {
+                RouteDefinition route = this.objectMapper.readValue(payload, RouteDefinition.class);
+                routes.put(route.getId(), route);
+            } else {
+                routes.remove(new String(payload, StandardCharsets.UTF_8));
+            }
+            position += RECORD_HEADER + length;
+            records++;
+        }
+        return new int[]{position, records};
+    }
+
+    private void replaySnapshot(Path file, Map<String, RouteDefinition> routes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            int end = this.replay(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), routes)[0];
+            if (end != channel.size()) {
+                throw new IllegalStateException("corrupted route snapshot: " + file);
+            }
+        }
+    }
+
+    private void writeSnapshot(long generation, List<RouteDefinition> routes) throws IOException {
+        Path target = this.file(SNAPSHOT, generation);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024));
+            out.writeInt(MAGIC);
+            for (RouteDefinition route : routes) {
+                byte[] payload = this.objectMapper.writeValueAsBytes(route);
+                out.writeInt(payload.length);
+                out.writeInt(checksum(PUT, payload));
+                out.writeByte(PUT);
+                out.write(payload);
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void deleteOlderThan(long generation) throws IOException {
+        for (String prefix : List.of(SNAPSHOT, JOURNAL)) {
+            for (long old : this.generations(prefix)) {
+                if (old < generation) {
+                    Files.deleteIfExists(this.file(prefix, old));
+                }
+            }
+        }
+    }
+
+    private List<Long> generations(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(this.directory)) {
+            return files.map(file -> file.getFileName().toString())
+                .filter(name -> name.startsWith(prefix) && name.length() == prefix.length() + 16)
+                .map(name -> Long.parseLong(name.substring(prefix.length())))
+                .toList();
+        }
+    }
+
+    private Path file(String prefix, long generation) {
+        return this.directory.resolve(prefix + String.format("%016d", generation));
+    }
+
+    private static int checksum(byte op, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(op);
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
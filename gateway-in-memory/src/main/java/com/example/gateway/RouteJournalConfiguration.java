@@ -0,0 +1,32 @@
+package com.example.gateway;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * gateway.route-journal.enabled=true 인 경우 InMemoryRouteDefinitionRepository 대신 로컬 journal 에 변경을 기록하는 repository 를 사용한다.
+ * GatewayAutoConfiguration 의 inMemoryRouteDefinitionRepository 는 RouteDefinitionRepository bean 이 있으면 생성되지 않는다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "gateway.route-journal.enabled", havingValue = "true")
+public class RouteJournalConfiguration {
+
+    @Bean
+    public JournaledRouteDefinitionRepository journaledRouteDefinitionRepository(
+        ObjectMapper objectMapper,
+        @Value("${gateway.route-journal.directory:./route-journal}") Path directory,
+        @Value("${gateway.route-journal.segment-size:64MB}") DataSize segmentSize,
+        @Value("${gateway.route-journal.fsync:false}") boolean fsync,
+        @Value("${gateway.route-journal.compact-interval:1m}") Duration compactInterval,
+        @Value("${gateway.route-journal.compact-threshold:10000}") int compactThreshold) {
+        RouteJournal journal = new RouteJournal(directory, objectMapper, Math.toIntExact(segmentSize.toBytes()), fsync);
+        return new JournaledRouteDefinitionRepository(journal, compactInterval, compactThreshold);
+    }
+}
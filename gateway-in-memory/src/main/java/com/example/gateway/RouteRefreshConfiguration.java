@@ -0,0 +1,71 @@
+package com.example.gateway;
+
+import com.example.gatewaysupport.route.DeltaRouteLocator;
+import com.example.gatewaysupport.route.EventRouteRefresher;
+import com.example.gatewaysupport.route.RouteDescriptorCache;
+import com.example.gatewaysupport.route.RouteImporter;
+import com.example.gatewaysupport.route.RouteInformationFunction;
+import com.example.gatewaysupport.route.RouteRefresher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.gateway.config.GatewayProperties;
+import org.springframework.cloud.gateway.filter.factory.GatewayFilterFactory;
+import org.springframework.cloud.gateway.handler.predicate.RoutePredicateFactory;
+import org.springframework.cloud.gateway.route.CompositeRouteLocator;
+import org.springframework.cloud.gateway.route.RouteDefinitionWriter;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+public class RouteRefreshConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "gateway.delta-refresh.enabled", havingValue = "false", matchIfMissing = true)
+    public RouteRefresher eventRouteRefresher(ApplicationEventPublisher publisher) {
+        return new EventRouteRefresher(publisher);
+    }
+
+    /**
+     * gateway.delta-refresh.enabled=true 인 경우 CachingRouteLocator 대신 변경된 route 만 다시 생성하는 DeltaRouteLocator 를 사용한다.
+     * GatewayAutoConfiguration 의 cachedCompositeRouteLocator 는 같은 이름의 bean 이 있으면 생성되지 않는다.
+     */
+    @Bean(name = "cachedCompositeRouteLocator", destroyMethod = "destroy")
+    @Primary
+    @ConditionalOnProperty(name = "gateway.delta-refresh.enabled", havingValue = "true")
+    public DeltaRouteLocator cachedCompositeRouteLocator(List<RouteLocator> routeLocators,
+                                                         List<RoutePredicateFactory> predicates,
+                                                         List<GatewayFilterFactory> gatewayFilterFactories,
+                                                         GatewayProperties gatewayProperties,
+                                                         ConfigurationService configurationService,
+                                                         @Value("${gateway.delta-refresh.debounce:50ms}") Duration debounce) {
+        return new DeltaRouteLocator(new CompositeRouteLocator(Flux.fromIterable(routeLocators)), predicates,
+            gatewayFilterFactories, gatewayProperties, configurationService, debounce);
+    }
+
+    @Bean
+    public RouteImporter routeImporter(RouteDefinitionWriter routeDefinitionWriter, RouteRefresher routeRefresher,
+                                       Validator validator, ObjectMapper objectMapper) {
+        return new RouteImporter(routeDefinitionWriter, routeRefresher, validator, objectMapper);
+    }
+
+    // 조회 API 가 사용하는 route 정보. 라우팅 테이블이 갱신될 때만 다시 만든다.
+    @Bean
+    public RouteInformationFunction routeInformationFunction() {
+        return new RouteInformationFunction();
+    }
+
+    @Bean
+    public RouteDescriptorCache routeDescriptorCache(RouteLocator routeLocator, RouteInformationFunction routeInformationFunction) {
+        return new RouteDescriptorCache(routeLocator, routeInformationFunction);
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.gateway;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.cloud.gateway.support.NotFoundException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JournaledRouteDefinitionRepositoryTests {
+    private static final int WRITERS = 4;
+    private static final int WRITES = 2_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path directory;
+
+    /**
+     * 같은 route id 를 여러 thread 에서 동시에 저장 / 삭제해도 journal 을 재생한 결과가 메모리와 같아야 한다.
+     */
+    @Test
+    void journalMatchesMemoryAfterConcurrentWrites() throws Exception {
+        JournaledRouteDefinitionRepository repository = this.repository();
+        repository.afterPropertiesSet();
+
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch started = new CountDownLatch(WRITERS);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            int writer = w;
+            writers.add(executor.submit(() -> {
+                started.countDown();
+                started.await();
+                for (int i = 0; i < WRITES; i++) {
+                    String id = "route-" + (i % 8);
+                    if (i % 5 == 4) {
+                        repository.delete(Mono.just(id)).onErrorResume(NotFoundException.class, e -> Mono.empty()).block();
+                    } else {
+                        repository.save(Mono.just(route(id, "http://writer-" + writer + ":" + (8000 + i)))).block();
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> writer : writers) {
+            writer.get();
+        }
+        executor.shutdown();
+        Map<String, URI> memory = uris(repository.getRouteDefinitions().collectList().block());
+        repository.destroy();
+
+        try (RouteJournal journal = this.journal()) {
+            assertThat(uris(journal.recover())).isEqualTo(memory);
+        }
+    }
+
+    @Test
+    void deletingUnknownRouteFailsWithoutJournaling() throws Exception {
+        JournaledRouteDefinitionRepository repository = this.repository();
+        repository.afterPropertiesSet();
+
+        assertThatThrownBy(() -> repository.delete(Mono.just("unknown")).block()).isInstanceOf(NotFoundException.class);
+        repository.destroy();
+
+        try (RouteJournal journal = this.journal()) {
+            assertThat(journal.recover()).isEmpty();
+            assertThat(journal.records()).isZero();
+        }
+    }
+
+    @Test
+    void writesJournalOffEventLoop() throws Exception {
+        List<String> threads = new CopyOnWriteArrayList<>();
+        RouteJournal journal = new RouteJournal(this.directory, this.objectMapper, 64 * 1024, false) {
+            @Override
+            public void put(RouteDefinition route) {
+                threads.add(Thread.currentThread().getName());
+                super.put(route);
+            }
+        };
+        JournaledRouteDefinitionRepository repository = new JournaledRouteDefinitionRepository(journal, Duration.ofHours(1), Integer.MAX_VALUE);
+        repository.afterPropertiesSet();
+
+        // Netty event loop 와 같은 non-blocking thread 에서 저장한다.
+        repository.save(Mono.just(route("route-1", "http://localhost:8080")).publishOn(Schedulers.parallel())).block();
+        repository.destroy();
+
+        assertThat(threads).singleElement().asString().startsWith("boundedElastic");
+    }
+
+    private JournaledRouteDefinitionRepository repository() {
+        return new JournaledRouteDefinitionRepository(this.journal(), Duration.ofHours(1), Integer.MAX_VALUE);
+    }
+
+    private RouteJournal journal() {
+        return new RouteJournal(this.directory, this.objectMapper, 64 * 1024, false);
+    }
+
+    private static Map<String, URI> uris(Iterable<RouteDefinition> routes) {
+        List<RouteDefinition> list = new ArrayList<>();
+        routes.forEach(list::add);
+        return list.stream().collect(Collectors.toMap(RouteDefinition::getId, RouteDefinition::getUri));
+    }
+
+    private static RouteDefinition route(String id, String uri) {
+        RouteDefinition route = new RouteDefinition();
+        route.setId(id);
+        route.setUri(URI.create(uri));
+        return route;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.gateway;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RouteJournalTests {
+    private static final int SEGMENT_SIZE = 4 * 1024;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysPutsAndDeletesInOrder() throws IOException {
+        try (RouteJournal journal = this.journal()) {
+            assertThat(journal.recover()).isEmpty();
+            journal.put(route("a", "http://a"));
+            journal.put(route("b", "http://b"));
+            journal.put(route("a", "http://a2"));
+            journal.delete("b");
+            journal.put(route("c", "http://c"));
+        }
+
+        try (RouteJournal journal = this.journal()) {
+            Collection<RouteDefinition> routes = journal.recover();
+            assertThat(routes).extracting(RouteDefinition::getId).containsExactly("a", "c");
+            assertThat(routes.iterator().next().getUri()).hasToString("http://a2");
+            assertThat(journal.records()).isEqualTo(5);
+        }
+    }
+
+    @Test
+    void growsBeyondInitialMapping() throws IOException {
+        try (RouteJournal journal = this.journal()) {
+            journal.recover();
+            for (int i = 0; i < 500; i++) {
+                journal.put(route("route-" + i, "http://localhost:" + (8000 + i)));
+            }
+        }
+
+        try (RouteJournal journal = this.journal()) {
+            assertThat(journal.recover()).hasSize(500);
+        }
+    }
+
+    @Test
+    void compactsIntoSnapshotAndKeepsLaterChanges() throws IOException {
+        try (RouteJournal journal = this.journal()) {
+            journal.recover();
+            journal.put(route("a", "http://a"));
+            journal.put(route("b", "http://b"));
+            journal.compact(() -> List.of(route("a", "http://a"), route("b", "http://b")));
+            journal.delete("a");
+            assertThat(journal.records()).isEqualTo(1);
+        }
+
+        assertThat(this.files()).containsExactlyInAnyOrder("snapshot-0000000000000002", "journal-0000000000000002");
+        try (RouteJournal journal = this.journal()) {
+            assertThat(journal.recover()).extracting(RouteDefinition::getId).containsExactly("b");
+        }
+    }
+
+    @Test
+    void discardsIncompleteTailRecord() throws IOException {
+        try (RouteJournal journal = this.journal()) {
+            journal.recover();
+            journal.put(route("a", "http://a"));
+            journal.put(route("b", "http://b"));
+        }
+        Path file = this.directory.resolve("journal-0000000000000001");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // 두 번째 레코드의 payload 일부를 덮어써서 기록 도중 종료된 상황을 만든다.
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+            channel.read(header, Integer.BYTES);
+            int second = Integer.BYTES + 9 + header.flip().getInt();
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 0}), second + 9);
+        }
+
+        try (RouteJournal journal = this.journal()) {
+            assertThat(journal.recover()).extracting(RouteDefinition::getId).containsExactly("a");
+            journal.put(route("c", "http://c"));
+        }
+        try (RouteJournal journal = this.journal()) {
+            assertThat(journal.recover()).extracting(RouteDefinition::getId).containsExactly("a", "c");
+        }
+    }
+
+    private RouteJournal journal() {
+        return new RouteJournal(this.directory, this.objectMapper, SEGMENT_SIZE, false);
+    }
+
+    private List<String> files() throws IOException {
+        try (Stream<Path> files = Files.list(this.directory)) {
+            return files.map(file -> file.getFileName().toString()).toList();
+        }
+    }
+
+    private static RouteDefinition route(String id, String uri) {
+        RouteDefinition route = new RouteDefinition();
+        route.setId(id);
+        route.setUri(URI.create(uri));
+        return route;
+    }
+}
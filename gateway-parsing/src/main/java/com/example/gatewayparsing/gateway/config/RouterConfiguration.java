@@ -1,6 +1,8 @@
 package com.example.gatewayparsing.gateway.config;
 
+import com.example.gatewayparsing.gateway.filter.JsonProjectionGatewayFilterFactory;
 import com.example.gatewayparsing.gateway.predicate.Router;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.gateway.route.RouteLocator;
@@ -26,4 +28,10 @@ public class RouterConfiguration {
         return routerLocatorBuilder
             .build();
     }
+
+    // RouteDefinition 에서 JsonProjection 필터로 사용한다.
+    @Bean
+    public JsonProjectionGatewayFilterFactory jsonProjectionGatewayFilterFactory(ObjectMapper objectMapper) {
+        return new JsonProjectionGatewayFilterFactory(objectMapper.getFactory());
+    }
 }
@@ -0,0 +1,73 @@
+package com.example.gatewayparsing.gateway.filter;
+
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.cloud.gateway.support.GatewayToStringStyler.filterToStringCreator;
+
+/**
+ * body 를 변환하는 필터를 {@link ResponseBodyGuard} 를 만족하는 응답에만 적용한다.
+ * <p>
+ * 감싼 필터가 만든 응답 decorator 를 꺼내 두고, upstream 응답을 쓰는 시점에 조건을 만족하면 그 decorator 로,
+ * 아니면 원래 응답으로 body 를 보낸다. 조건을 만족하지 않는 응답의 DataBuffer 는 복사하거나 합치지 않고 그대로 전달된다.
+ */
+public class GuardedResponseBodyGatewayFilter implements GatewayFilter, Ordered {
+    private final GatewayFilter delegate;
+    private final ResponseBodyGuard guard;
+
+    public GuardedResponseBodyGatewayFilter(GatewayFilter delegate, ResponseBodyGuard guard) {
+        this.delegate = delegate;
+        this.guard = guard;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpResponse original = exchange.getResponse();
+        return this.delegate.filter(exchange, decorated ->
+            chain.filter(decorated.mutate().response(new GuardedResponse(original, decorated.getResponse())).build()));
+    }
+
+    // 감싼 필터와 같은 순서로 실행한다. (modifyResponseBody 는 NettyWriteResponseFilter 보다 먼저 응답을 감싼다)
+    @Override
+    public int getOrder() {
+        return this.delegate instanceof Ordered ordered ? ordered.getOrder() : NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+
+    @Override
+    public String toString() {
+        return filterToStringCreator(this)
+            .append("delegate", this.delegate)
+            .toString();
+    }
+
+    private class GuardedResponse extends ServerHttpResponseDecorator {
+        private final ServerHttpResponse transforming;
+
+        GuardedResponse(ServerHttpResponse original, ServerHttpResponse transforming) {
+            super(original);
+            this.transforming = transforming;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            return this.target().writeWith(body);
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return this.target().writeAndFlushWith(body);
+        }
+
+        private ServerHttpResponse target() {
+            return guard.matches(this.getStatusCode(), this.getHeaders()) ? this.transforming : this.getDelegate();
+        }
+    }
+}
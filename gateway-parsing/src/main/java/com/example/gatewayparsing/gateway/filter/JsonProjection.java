@@ -0,0 +1,243 @@
+package com.example.gatewayparsing.gateway.filter;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import com.fasterxml.jackson.core.io.NumberInput;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON 에서 지정한 경로의 값만 뽑아 새로운 JSON 으로 만드는 projection 설정.
+ * <p>
+ * {@link Projector} 는 non-blocking Jackson parser 로 body 를 조각(chunk) 단위로 읽으며,
+ * 지정한 경로의 scalar 값만 보관하므로 body 전체나 JsonNode tree 를 메모리에 만들지 않는다.
+ * 값의 변환은 JsonNode 의 asInt / asText 와 같다. (값이 없으면 0 또는 "")
+ */
+public final class JsonProjection {
+    // array 안의 값은 필드 경로에 포함되지 않는다.
+    private static final Node ARRAY = new Node();
+    private static final Node UNMATCHED = new Node();
+
+    private final JsonFactory jsonFactory;
+    private final List<Field> fields;
+    private final Node root;
+
+    private JsonProjection(JsonFactory jsonFactory, List<Field> fields) {
+        this.jsonFactory = jsonFactory;
+        this.fields = List.copyOf(fields);
+        this.root = new Node();
+        for (Field field : this.fields) {
+            Node node = this.root;
+            for (String segment : field.path()) {
+                node = node.children.computeIfAbsent(segment, s -> new Node());
+            }
+            node.field = field;
+        }
+    }
+
+    public static Builder builder(JsonFactory jsonFactory) {
+        return new Builder(jsonFactory);
+    }
+
+    public Projector newProjector() throws IOException {
+        return new Projector();
+    }
+
+    public enum Type {
+        INT {
+            @Override
+            Object read(JsonParser parser, JsonToken token) throws IOException {
+                return switch (token) {
+                    case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parser.getNumberValue().intValue();
+                    case VALUE_STRING -> NumberInput.parseAsInt(parser.getText(), 0);
+                    case VALUE_TRUE -> 1;
+                    default -> 0;
+                };
+            }
+
+            @Override
+            Object defaultValue() {
+                return 0;
+            }
+
+            @Override
+            void write(JsonGenerator generator, Object value) throws IOException {
+                generator.writeNumber((Integer) value);
+            }
+        },
+        TEXT {
+            @Override
+            Object read(JsonParser parser, JsonToken token) throws IOException {
+                return switch (token) {
+                    case VALUE_STRING, VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT, VALUE_TRUE, VALUE_FALSE, VALUE_NULL -> parser.getText();
+                    default -> "";
+                };
+            }
+
+            @Override
+            Object defaultValue() {
+                return "";
+            }
+
+            @Override
+            void write(JsonGenerator generator, Object value) throws IOException {
+                generator.writeString((String) value);
+            }
+        };
+
+        abstract Object read(JsonParser parser, JsonToken token) throws IOException;
+
+        abstract Object defaultValue();
+
+        abstract void write(JsonGenerator generator, Object value) throws IOException;
+    }
+
+    record Field(int index, List<String> path, String name, Type type) {
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private Field field;
+    }
+
+    public static final class Builder {
+        private final JsonFactory jsonFactory;
+        private final List<Field> fields = new ArrayList<>();
+
+        private Builder(JsonFactory jsonFactory) {
+            this.jsonFactory = jsonFactory;
+        }
+
+        /**
+         * @param path "data.name" 처럼 '.' 으로 구분한 경로
+         * @param name 출력 JSON 의 필드명
+         */
+        public Builder field(String path, String name, Type type) {
+            this.fields.add(new Field(this.fields.size(), List.of(path.split("\\.")), name, type));
+            return this;
+        }
+
+        public JsonProjection build() {
+            return new JsonProjection(this.jsonFactory, this.fields);
+        }
+    }
+
+    /**
+     * 하나의 body 를 projection 한다. 요청마다 새로 만들어야 하며 thread-safe 하지 않다.
+     */
+    public final class Projector {
+        private final JsonParser parser;
+        private final ByteBufferFeeder feeder;
+        private final Object[] values;
+        private final Deque<Node> containers = new ArrayDeque<>();
+        private Node pending = JsonProjection.this.root;
+
+        private Projector() throws IOException {
+            this.parser = JsonProjection.this.jsonFactory.createNonBlockingByteBufferParser();
+            this.feeder = (ByteBufferFeeder) this.parser.getNonBlockingInputFeeder();
+            this.values = new Object[JsonProjection.this.fields.size()];
+            for (Field field : JsonProjection.this.fields) {
+                this.values[field.index()] = field.type().defaultValue();
+            }
+        }
+
+        public void feed(byte[] bytes, int offset, int length) throws IOException {
+            this.feed(ByteBuffer.wrap(bytes, offset, length));
+        }
+
+        /**
+         * buffer 를 복사하지 않고 parser 에 넘긴다. 반환할 때 buffer 의 내용은 모두 읽은 상태이므로 호출한 쪽에서 해제해도 된다.
+         */
+        public void feed(ByteBuffer buffer) throws IOException {
+            this.feeder.feedInput(buffer);
+            this.drain();
+        }
+
+        /**
+         * 입력을 마치고 projection 결과 JSON 을 반환한다.
+         */
+        public byte[] finish() throws IOException {
+            this.feeder.endOfInput();
+            this.drain();
+            this.parser.close();
+
+            ByteArrayOutputStream output = new ByteArrayOutputStream(64);
+            try (JsonGenerator generator = JsonProjection.this.jsonFactory.createGenerator(output)) {
+                generator.writeStartObject();
+                for (Field field : JsonProjection.this.fields) {
+                    generator.writeFieldName(field.name());
+                    field.type().write(generator, this.values[field.index()]);
+                }
+                generator.writeEndObject();
+            }
+            return output.toByteArray();
+        }
+
+        public Object value(String name) {
+            for (Field field : JsonProjection.this.fields) {
+                if (field.name().equals(name)) {
+                    return this.values[field.index()];
+                }
+            }
+            throw new IllegalArgumentException("Unknown field: " + name);
+        }
+
+        private void drain() throws IOException {
+            JsonToken token;
+            while ((token = this.parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                this.handle(token);
+            }
+        }
+
+        private void handle(JsonToken token) throws IOException {
+            switch (token) {
+                case FIELD_NAME -> {
+                    Node container = this.containers.peek();
+                    Node child = container == null ? null : container.children.get(this.parser.currentName());
+                    this.pending = child == null ? UNMATCHED : child;
+                }
+                case START_OBJECT -> {
+                    Node node = this.valueNode();
+                    this.reset(node);
+                    this.containers.push(node);
+                }
+                case START_ARRAY -> {
+                    this.reset(this.valueNode());
+                    this.containers.push(ARRAY);
+                }
+                case END_OBJECT, END_ARRAY -> this.containers.pop();
+                default -> {
+                    Field field = this.valueNode().field;
+                    if (field != null) {
+                        this.values[field.index()] = field.type().read(this.parser, token);
+                    }
+                }
+            }
+        }
+
+        private Node valueNode() {
+            if (this.containers.isEmpty()) {
+                return JsonProjection.this.root;
+            }
+            return this.containers.peek() == ARRAY ? UNMATCHED : this.pending;
+        }
+
+        // 같은 필드가 다시 나오면 JsonNode 와 같이 마지막 값을 사용한다. object / array 값은 기본값으로 취급한다.
+        private void reset(Node node) {
+            if (node.field != null) {
+                this.values[node.field.index()] = node.field.type().defaultValue();
+            }
+        }
+    }
+}
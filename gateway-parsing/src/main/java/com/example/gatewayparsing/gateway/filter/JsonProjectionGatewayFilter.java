@@ -0,0 +1,104 @@
+package com.example.gatewayparsing.gateway.filter;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * upstream 응답 body 를 {@link JsonProjection} 으로 변환하는 필터.
+ * <p>
+ * modifyResponseBody(String.class, String.class, ...) 와 달리 body 를 String / JsonNode 로 만들지 않고,
+ * DataBuffer 를 받는 즉시 복사 없이 parser 에 넘기고 해제한다. 따라서 요청당 메모리는 body 크기와 관계없이 projection 결과 크기로 제한된다.
+ * 4xx 응답의 body 는 예외 메시지로 사용하므로 {@link #MAX_ERROR_BODY_SIZE} 까지만 읽는다.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class JsonProjectionGatewayFilter implements GatewayFilter, Ordered {
+    static final int MAX_ERROR_BODY_SIZE = 8 * 1024;
+
+    private final JsonProjection projection;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        return chain.filter(exchange.mutate().response(new ProjectionResponse(exchange.getResponse())).build());
+    }
+
+    // ModifyResponseBodyGatewayFilterFactory 와 같은 순서로 NettyWriteResponseFilter 보다 먼저 응답을 감싼다.
+    @Override
+    public int getOrder() {
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+
+    private class ProjectionResponse extends ServerHttpResponseDecorator {
+
+        ProjectionResponse(ServerHttpResponse delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpStatusCode status = getStatusCode();
+            if (status != null && status.is4xxClientError()) {
+                // 4xx 응답은 기존과 같이 body 를 메시지로 하는 예외로 변환한다. 최대 크기를 넘는 부분은 읽지 않고 버린다.
+                return DataBufferUtils.join(DataBufferUtils.takeUntilByteCount(body, MAX_ERROR_BODY_SIZE))
+                    .map(buffer -> {
+                        String message = buffer.toString(StandardCharsets.UTF_8);
+                        DataBufferUtils.release(buffer);
+                        return message;
+                    })
+                    .defaultIfEmpty("")
+                    .flatMap(message -> {
+                        log.error("Client Exception: {}", message);
+                        return Mono.error(new ResponseStatusException(status, message));
+                    });
+            }
+            return Mono.fromCallable(projection::newProjector)
+                .flatMap(projector -> Flux.<DataBuffer>from(body)
+                    .handle((buffer, sink) -> {
+                        try (DataBuffer.ByteBufferIterator buffers = buffer.readableByteBuffers()) {
+                            while (buffers.hasNext()) {
+                                projector.feed(buffers.next());
+                            }
+                        } catch (IOException e) {
+                            sink.error(e);
+                        } finally {
+                            DataBufferUtils.release(buffer);
+                        }
+                    })
+                    .then(Mono.fromCallable(projector::finish)))
+                .onErrorMap(IOException.class, e -> {
+                    log.error("JsonParsing Error: {}", e.getMessage());
+                    return new ResponseStatusException(HttpStatus.BAD_REQUEST, "JsonParsing Error : " + e.getMessage());
+                })
+                .flatMap(projected -> {
+                    HttpHeaders headers = getDelegate().getHeaders();
+                    headers.remove(HttpHeaders.TRANSFER_ENCODING);
+                    headers.setContentLength(projected.length);
+                    return getDelegate().writeWith(Mono.just(bufferFactory().wrap(projected)));
+                });
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return writeWith(Flux.from(body).flatMapSequential(p -> p));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.gatewayparsing.gateway.filter;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link JsonProjectionGatewayFilter} 를 {@link ResponseBodyGuard} 를 만족하는 응답에만 적용하는 필터.
+ * <p>
+ * RouteDefinition 에서는 다음과 같이 사용한다.
+ * <pre>
+ * filters:
+ *   - name: JsonProjection
+ *     args:
+ *       fields: id:id:INT, data.name:username:TEXT, data.age:age:INT
+ *       contentTypes: application/json, application/*+json
+ *       maxContentLength: 1MB
+ *       statuses: SUCCESSFUL, CLIENT_ERROR
+ * </pre>
+ * Router DSL 에서는 f.filter(jsonProjection.apply(config -> ...)) 로 사용한다.
+ */
+public class JsonProjectionGatewayFilterFactory extends AbstractGatewayFilterFactory<JsonProjectionGatewayFilterFactory.Config> {
+    private final JsonFactory jsonFactory;
+
+    public JsonProjectionGatewayFilterFactory(JsonFactory jsonFactory) {
+        super(Config.class);
+        this.jsonFactory = jsonFactory;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        JsonProjection.Builder projection = JsonProjection.builder(this.jsonFactory);
+        for (String field : config.getFields()) {
+            String[] parts = field.trim().split(":");
+            String path = parts[0];
+            String name = parts.length > 1 ? parts[1] : path.substring(path.lastIndexOf('.') + 1);
+            JsonProjection.Type type = parts.length > 2 ? JsonProjection.Type.valueOf(parts[2].toUpperCase()) : JsonProjection.Type.TEXT;
+            projection.field(path, name, type);
+        }
+        List<HttpStatus.Series> statuses = List.copyOf(config.getStatuses());
+        ResponseBodyGuard.Builder guard = ResponseBodyGuard.builder()
+            .contentType(config.getContentTypes().toArray(MediaType[]::new))
+            .status(status -> statuses.isEmpty() || statuses.contains(HttpStatus.Series.resolve(status.value())));
+        if (config.getMaxContentLength() != null) {
+            guard.maxContentLength(config.getMaxContentLength());
+        }
+        return guard.build().guard(new JsonProjectionGatewayFilter(projection.build()));
+    }
+
+    @Getter
+    @Setter
+    public static class Config {
+        // "경로:출력 필드명:INT|TEXT". 필드명을 생략하면 경로의 마지막 segment, type 을 생략하면 TEXT 를 사용한다.
+        private List<String> fields = new ArrayList<>();
+        // 변환할 Content-Type. 지정하지 않으면 검사하지 않는다.
+        private List<MediaType> contentTypes = new ArrayList<>();
+        // 지정하지 않으면 검사하지 않는다.
+        private DataSize maxContentLength;
+        // 변환할 응답 상태. 지정하지 않으면 모든 상태를 변환한다.
+        private List<HttpStatus.Series> statuses = new ArrayList<>();
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.gatewayparsing.gateway.filter;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * 응답 body 를 변환하는 필터가 어떤 응답을 변환할지 정하는 조건. 조건을 모두 만족하는 응답만 변환하고, 나머지는 그대로 흘려보낸다.
+ * <ul>
+ *     <li>contentType: Content-Type 이 하나라도 포함(includes) 되어야 한다. 지정하지 않으면 검사하지 않는다.</li>
+ *     <li>maxContentLength: Content-Length 가 이 값 이하여야 한다. Content-Length 가 없는(chunked) 응답은 검사하지 않는다.</li>
+ *     <li>status: 응답 상태가 조건을 만족해야 한다.</li>
+ * </ul>
+ * 응답 헤더를 받은 뒤, body 를 읽기 전에 판단한다.
+ */
+public final class ResponseBodyGuard {
+    private final List<MediaType> contentTypes;
+    private final long maxContentLength;
+    private final Predicate<HttpStatusCode> status;
+
+    private ResponseBodyGuard(List<MediaType> contentTypes, long maxContentLength, Predicate<HttpStatusCode> status) {
+        this.contentTypes = List.copyOf(contentTypes);
+        this.maxContentLength = maxContentLength;
+        this.status = status;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * body 를 변환하는 필터(modifyResponseBody, {@link JsonProjectionGatewayFilter} 등) 가 이 조건을 만족하는 응답에만 적용되도록 감싼다.
+     */
+    public GatewayFilter guard(GatewayFilter bodyFilter) {
+        return new GuardedResponseBodyGatewayFilter(bodyFilter, this);
+    }
+
+    public boolean matches(HttpStatusCode status, HttpHeaders headers) {
+        if (status != null && !this.status.test(status)) {
+            return false;
+        }
+        long contentLength = headers.getContentLength();
+        if (contentLength > this.maxContentLength) {
+            return false;
+        }
+        if (this.contentTypes.isEmpty()) {
+            return true;
+        }
+        MediaType contentType;
+        try {
+            contentType = headers.getContentType();
+        } catch (RuntimeException e) {
+            return false;
+        }
+        return contentType != null && this.contentTypes.stream().anyMatch(type -> type.includes(contentType));
+    }
+
+    public static final class Builder {
+        private final List<MediaType> contentTypes = new ArrayList<>();
+        private long maxContentLength = Long.MAX_VALUE;
+        private Predicate<HttpStatusCode> status = code -> true;
+
+        private Builder() {
+        }
+
+        /**
+         * 변환할 Content-Type. application/*+json 과 같은 wildcard 를 사용할 수 있다.
+         */
+        public Builder contentType(MediaType... contentTypes) {
+            this.contentTypes.addAll(List.of(contentTypes));
+            return this;
+        }
+
+        public Builder maxContentLength(DataSize maxContentLength) {
+            this.maxContentLength = maxContentLength.toBytes();
+            return this;
+        }
+
+        public Builder status(Predicate<HttpStatusCode> status) {
+            this.status = status;
+            return this;
+        }
+
+        public ResponseBodyGuard build() {
+            return new ResponseBodyGuard(this.contentTypes, this.maxContentLength, this.status);
+        }
+    }
+}
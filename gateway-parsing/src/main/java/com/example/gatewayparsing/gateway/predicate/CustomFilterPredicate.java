@@ -1,28 +1,37 @@
 package com.example.gatewayparsing.gateway.predicate;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.example.gatewayparsing.gateway.filter.JsonProjection;
+import com.example.gatewayparsing.gateway.filter.JsonProjectionGatewayFilter;
+import com.example.gatewayparsing.gateway.filter.ResponseBodyGuard;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.cloud.gateway.filter.factory.rewrite.RewriteFunction;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.route.Route;
 import org.springframework.cloud.gateway.route.builder.Buildable;
 import org.springframework.cloud.gateway.route.builder.PredicateSpec;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
-import org.springframework.web.server.ResponseStatusException;
-import reactor.core.publisher.Mono;
+import org.springframework.util.unit.DataSize;
 
-import java.util.Map;
-import java.util.Objects;
-
-@Slf4j
 @Component
-@RequiredArgsConstructor
 public class CustomFilterPredicate implements Router {
-    private final ObjectMapper objectMapper;
+    private final GatewayFilter userProjectionFilter;
+
+    public CustomFilterPredicate(ObjectMapper objectMapper) {
+        // 응답 body 에서 id, data.name, data.age 만 추출하여 { "id", "username", "age" } 로 응답한다.
+        JsonProjection projection = JsonProjection.builder(objectMapper.getFactory())
+            .field("id", "id", JsonProjection.Type.INT)
+            .field("data.name", "username", JsonProjection.Type.TEXT)
+            .field("data.age", "age", JsonProjection.Type.INT)
+            .build();
+        // JSON 이 아니거나 너무 큰 응답, 5xx 응답은 변환하지 않고 그대로 전달한다. (JSON 4xx 응답은 기존과 같이 예외로 변환)
+        ResponseBodyGuard guard = ResponseBodyGuard.builder()
+            .contentType(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"))
+            .maxContentLength(DataSize.ofMegabytes(1))
+            .status(status -> status.is2xxSuccessful() || status.is4xxClientError())
+            .build();
+        this.userProjectionFilter = guard.guard(new JsonProjectionGatewayFilter(projection));
+    }
 
     @Override
     public String id() {
@@ -36,39 +45,11 @@ public class CustomFilterPredicate implements Router {
             .path("/custom_filter_java")
             .filters(f ->
                 f
-                    .modifyResponseBody(String.class, String.class, getStringStringRewriteFunction())
+                    // body 전체를 String 으로 만들지 않고 stream 으로 읽으면서 필요한 값만 추출한다.
+                    .filter(this.userProjectionFilter)
                     .rewritePath("/custom_filter_java", "/api")
             )
             // CustomBadGatewayFilter 필터 등록
             .uri("http://localhost:8083/api");
     }
-
-    private RewriteFunction<String, String> getStringStringRewriteFunction() {
-        return (exchange, s) -> {
-
-            if (Objects.requireNonNull(exchange.getResponse().getStatusCode()).is4xxClientError()) {
-                log.error("Client Exception: {}", s);
-                return Mono.error(new ResponseStatusException(exchange.getResponse().getStatusCode(), s));
-            }
-            try {
-
-                JsonNode jsonNode = this.objectMapper.readTree(s);
-                int id = jsonNode.path("id").asInt();
-                String username = jsonNode.path("data").path("name").asText();
-                int age = jsonNode.path("data").path("age").asInt();
-
-                log.info("id: {}, username: {}, age: {}", id, username, age);
-                Map<String, Object> newBody = Map.of("id", id, "username", username, "age", age);
-                return Mono.just(this.objectMapper.writeValueAsString(newBody));
-
-            } catch (NullPointerException e) {
-                log.error("Server Exception: {}", e.getMessage());
-                return Mono.error(new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Response Status is not found : " + e.getMessage()));
-            } catch (JsonProcessingException e) {
-                log.error("JsonParsing Error: {}", e.getMessage());
-                return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "JsonParsing Error : " + e.getMessage()));
-            }
-
-        };
-    }
 }
@@ -0,0 +1,135 @@
+package com.example.gatewayparsing.gateway.filter;
+
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GuardedResponseBodyGatewayFilterTests {
+    private static final String BODY = JsonProjectionFixtures.userBody(10);
+
+    private final GatewayFilter filter = ResponseBodyGuard.builder()
+        .contentType(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"))
+        .maxContentLength(DataSize.ofKilobytes(1))
+        .status(status -> status.is2xxSuccessful() || status.is4xxClientError())
+        .build()
+        .guard(new JsonProjectionGatewayFilter(JsonProjectionFixtures.userProjection()));
+
+    @Test
+    void transformsMatchingResponse() {
+        MockServerWebExchange exchange = this.exchange();
+
+        this.filter.filter(exchange, this.upstream(HttpStatus.OK, MediaType.APPLICATION_JSON, -1, new ArrayList<>())).block();
+
+        assertThat(exchange.getResponse().getBodyAsString().block())
+            .isEqualTo("{\"id\":17,\"username\":\"coli\",\"age\":30}");
+    }
+
+    @Test
+    void transformsVendorJson() {
+        MockServerWebExchange exchange = this.exchange();
+        MediaType vendorJson = MediaType.parseMediaType("application/vnd.user+json;charset=UTF-8");
+
+        this.filter.filter(exchange, this.upstream(HttpStatus.OK, vendorJson, -1, new ArrayList<>())).block();
+
+        assertThat(exchange.getResponse().getBodyAsString().block())
+            .isEqualTo("{\"id\":17,\"username\":\"coli\",\"age\":30}");
+    }
+
+    @Test
+    void passesThroughOtherContentType() {
+        this.assertPassesThrough(HttpStatus.OK, MediaType.IMAGE_PNG, -1);
+    }
+
+    @Test
+    void passesThroughServerError() {
+        this.assertPassesThrough(HttpStatus.INTERNAL_SERVER_ERROR, MediaType.APPLICATION_JSON, -1);
+    }
+
+    @Test
+    void passesThroughLargeResponse() {
+        this.assertPassesThrough(HttpStatus.OK, MediaType.APPLICATION_JSON, DataSize.ofKilobytes(2).toBytes());
+    }
+
+    @Test
+    void buildsGuardFromFilterConfig() {
+        JsonProjectionGatewayFilterFactory factory = new JsonProjectionGatewayFilterFactory(JsonProjectionFixtures.OBJECT_MAPPER.getFactory());
+        GatewayFilter configured = factory.apply(config -> {
+            config.setFields(List.of("id:id:INT", "data.name:username", "data.age:age:INT"));
+            config.setContentTypes(List.of(MediaType.APPLICATION_JSON));
+            config.setMaxContentLength(DataSize.ofKilobytes(1));
+            config.setStatuses(List.of(HttpStatus.Series.SUCCESSFUL));
+        });
+
+        MockServerWebExchange transformed = this.exchange();
+        configured.filter(transformed, this.upstream(HttpStatus.OK, MediaType.APPLICATION_JSON, -1, new ArrayList<>())).block();
+        MockServerWebExchange passed = this.exchange();
+        configured.filter(passed, this.upstream(HttpStatus.OK, MediaType.TEXT_PLAIN, -1, new ArrayList<>())).block();
+
+        assertThat(transformed.getResponse().getBodyAsString().block())
+            .isEqualTo("{\"id\":17,\"username\":\"coli\",\"age\":30}");
+        assertThat(passed.getResponse().getBodyAsString().block()).isEqualTo(BODY);
+    }
+
+    private void assertPassesThrough(HttpStatus status, MediaType contentType, long contentLength) {
+        MockServerWebExchange exchange = this.exchange();
+        List<DataBuffer> written = new ArrayList<>();
+        List<DataBuffer> received = new ArrayList<>();
+        ServerWebExchange recording = exchange.mutate().response(new ServerHttpResponseDecorator(exchange.getResponse()) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                return super.writeWith(Flux.from(body).doOnNext(received::add));
+            }
+        }).build();
+
+        this.filter.filter(recording, this.upstream(status, contentType, contentLength, written)).block();
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(status);
+        assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo(BODY);
+        // 변환하지 않는 응답은 upstream 의 DataBuffer 가 복사되지 않고 그대로 전달된다.
+        assertThat(received).satisfiesExactly(
+            first -> assertThat(first).isSameAs(written.get(0)),
+            second -> assertThat(second).isSameAs(written.get(1)));
+    }
+
+    private MockServerWebExchange exchange() {
+        return MockServerWebExchange.from(MockServerHttpRequest.post("/custom_filter_java"));
+    }
+
+    /**
+     * NettyWriteResponseFilter 와 같이 상태와 헤더를 설정한 뒤 body 를 두 개의 DataBuffer 로 나누어 쓴다.
+     */
+    private GatewayFilterChain upstream(HttpStatus status, MediaType contentType, long contentLength, List<DataBuffer> written) {
+        return exchange -> {
+            exchange.getResponse().setStatusCode(status);
+            exchange.getResponse().getHeaders().setContentType(contentType);
+            if (contentLength >= 0) {
+                exchange.getResponse().getHeaders().setContentLength(contentLength);
+            }
+            byte[] bytes = BODY.getBytes(StandardCharsets.UTF_8);
+            int half = bytes.length / 2;
+            Flux<DataBuffer> body = Flux.just(
+                    exchange.getResponse().bufferFactory().wrap(Arrays.copyOfRange(bytes, 0, half)),
+                    exchange.getResponse().bufferFactory().wrap(Arrays.copyOfRange(bytes, half, bytes.length)))
+                .doOnNext(written::add);
+            return exchange.getResponse().writeWith(body);
+        };
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.gatewayparsing.gateway.filter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.Map;
+
+/**
+ * 테스트에서 사용하는 projection 설정과 기존 JsonNode 기반 구현.
+ */
+final class JsonProjectionFixtures {
+    static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private JsonProjectionFixtures() {
+    }
+
+    static JsonProjection userProjection() {
+        return JsonProjection.builder(OBJECT_MAPPER.getFactory())
+            .field("id", "id", JsonProjection.Type.INT)
+            .field("data.name", "username", JsonProjection.Type.TEXT)
+            .field("data.age", "age", JsonProjection.Type.INT)
+            .build();
+    }
+
+    /**
+     * 기존 CustomFilterPredicate 의 RewriteFunction 과 같은 변환. (String -> JsonNode -> Map -> String)
+     */
+    static String treeProjection(String body) throws JsonProcessingException {
+        JsonNode jsonNode = OBJECT_MAPPER.readTree(body);
+        int id = jsonNode.path("id").asInt();
+        String username = jsonNode.path("data").path("name").asText();
+        int age = jsonNode.path("data").path("age").asInt();
+        Map<String, Object> newBody = Map.of("id", id, "username", username, "age", age);
+        return OBJECT_MAPPER.writeValueAsString(newBody);
+    }
+
+    /**
+     * projection 대상이 아닌 큰 배열을 포함한 사용자 응답 body.
+     */
+    static String userBody(int extraItems) {
+        StringBuilder body = new StringBuilder("{\"id\":\"17\",\"items\":[");
+        for (int i = 0; i < extraItems; i++) {
+            if (i > 0) {
+                body.append(',');
+            }
+            body.append("{\"name\":\"item-").append(i).append("\",\"age\":").append(i).append('}');
+        }
+        return body.append("],\"data\":{\"name\":\"coli\",\"age\":30}}").toString();
+    }
+}
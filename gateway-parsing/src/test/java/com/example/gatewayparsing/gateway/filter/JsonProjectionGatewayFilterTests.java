@@ -0,0 +1,53 @@
+package com.example.gatewayparsing.gateway.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+class JsonProjectionGatewayFilterTests {
+    private final JsonProjectionGatewayFilter filter = new JsonProjectionGatewayFilter(JsonProjectionFixtures.userProjection());
+    private final MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/custom_filter_java"));
+
+    @Test
+    void projectsBodySplitAcrossBuffers() {
+        this.filter.filter(this.exchange, upstream(HttpStatus.OK, JsonProjectionFixtures.userBody(100))).block();
+
+        assertThat(this.exchange.getResponse().getBodyAsString().block())
+            .isEqualTo("{\"id\":17,\"username\":\"coli\",\"age\":30}");
+    }
+
+    @Test
+    void readsClientErrorBodyUpToLimit() {
+        String body = "e".repeat(JsonProjectionGatewayFilter.MAX_ERROR_BODY_SIZE * 4);
+
+        ResponseStatusException e = catchThrowableOfType(
+            () -> this.filter.filter(this.exchange, upstream(HttpStatus.BAD_REQUEST, body)).block(), ResponseStatusException.class);
+
+        assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(e.getReason()).hasSize(JsonProjectionGatewayFilter.MAX_ERROR_BODY_SIZE);
+    }
+
+    // body 를 작은 DataBuffer 여러 개로 나누어 쓴다.
+    private static GatewayFilterChain upstream(HttpStatus status, String body) {
+        return exchange -> {
+            exchange.getResponse().setStatusCode(status);
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            int chunk = 7;
+            Flux<DataBuffer> buffers = Flux.range(0, (bytes.length + chunk - 1) / chunk)
+                .map(i -> exchange.getResponse().bufferFactory()
+                    .wrap(Arrays.copyOfRange(bytes, i * chunk, Math.min(bytes.length, (i + 1) * chunk))));
+            return exchange.getResponse().writeWith(buffers);
+        };
+    }
+}
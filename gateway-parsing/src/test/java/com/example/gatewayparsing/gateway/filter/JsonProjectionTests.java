@@ -0,0 +1,57 @@
+package com.example.gatewayparsing.gateway.filter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static com.example.gatewayparsing.gateway.filter.JsonProjectionFixtures.OBJECT_MAPPER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JsonProjectionTests {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "{\"id\":\"1\",\"data\":{\"name\":\"coli\",\"age\":20}}",
+        "{\"data\":{\"age\":\"31\",\"name\":7},\"id\":2}",
+        "{\"id\":3,\"data\":{\"name\":null,\"age\":1.9},\"other\":{\"data\":{\"name\":\"x\"}}}",
+        "{\"id\":4,\"list\":[{\"id\":5}],\"data\":[{\"name\":\"in-array\"}]}",
+        "{\"id\":5,\"id\":6,\"data\":{\"name\":{\"first\":\"a\"},\"age\":true}}",
+        "[{\"id\":1}]",
+        "{}"
+    })
+    void matchesTreeProjection(String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        JsonProjection.Projector projector = JsonProjectionFixtures.userProjection().newProjector();
+        // 1 byte 씩 나누어 전달하여 token 이 DataBuffer 경계에 걸치는 경우를 확인한다.
+        for (int i = 0; i < bytes.length; i++) {
+            projector.feed(bytes, i, 1);
+        }
+
+        JsonNode expected = OBJECT_MAPPER.readTree(JsonProjectionFixtures.treeProjection(body));
+        JsonNode actual = OBJECT_MAPPER.readTree(projector.finish());
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    void writesFieldsInConfiguredOrder() throws IOException {
+        JsonProjection.Projector projector = JsonProjectionFixtures.userProjection().newProjector();
+        byte[] bytes = JsonProjectionFixtures.userBody(100).getBytes(StandardCharsets.UTF_8);
+        projector.feed(bytes, 0, bytes.length);
+
+        assertThat(new String(projector.finish(), StandardCharsets.UTF_8))
+            .isEqualTo("{\"id\":17,\"username\":\"coli\",\"age\":30}");
+    }
+
+    @Test
+    void failsOnMalformedJson() throws IOException {
+        JsonProjection.Projector projector = JsonProjectionFixtures.userProjection().newProjector();
+        byte[] bytes = "{\"id\":}".getBytes(StandardCharsets.UTF_8);
+
+        assertThatThrownBy(() -> projector.feed(bytes, 0, bytes.length)).isInstanceOf(IOException.class);
+    }
+}
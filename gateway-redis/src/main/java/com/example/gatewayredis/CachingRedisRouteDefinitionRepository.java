@@ -0,0 +1,212 @@
+package com.example.gatewayredis;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinitionRepository;
+import org.springframework.cloud.gateway.support.NotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.util.StringUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * RedisRouteDefinitionRepository 에 local near-cache 를 추가한 RouteDefinitionRepository.
+ * <p>
+ * 조회는 항상 local cache 에서 처리하고, Redis 는 시작 시 한 번만 전체를 읽는다.
+ * 저장 / 삭제 시 version 을 증가시키고 pub/sub 로 변경된 route id 를 알리며, 다른 node 는 해당 key 만 다시 읽는다.
+ * version 이 건너뛰어진 경우(메시지 유실, 재연결)에는 전체를 다시 읽는다.
+ * Redis key 형식은 RedisRouteDefinitionRepository 와 동일하므로 기존에 저장된 route 를 그대로 사용할 수 있다.
+ */
+@Slf4j
+public class CachingRedisRouteDefinitionRepository implements RouteDefinitionRepository, InitializingBean, DisposableBean {
+    static final String KEY_PREFIX = "routedefinition_";
+    static final String VERSION_KEY = "routedefinitions:version";
+    static final String CHANNEL = "routedefinitions:changes";
+
+    private final ReactiveRedisTemplate<String, RouteDefinition> routeDefinitionTemplate;
+    private final ReactiveStringRedisTemplate stringTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher publisher;
+    private final String node = UUID.randomUUID().toString();
+    private final AtomicLong version = new AtomicLong();
+    // 아직 Redis 에서 읽지 않은 경우 null
+    private volatile Map<String, RouteDefinition> definitions;
+    private Disposable subscription;
+
+    public CachingRedisRouteDefinitionRepository(ReactiveRedisTemplate<String, RouteDefinition> routeDefinitionTemplate,
+                                                 ReactiveStringRedisTemplate stringTemplate,
+                                                 ObjectMapper objectMapper,
+                                                 ApplicationEventPublisher publisher) {
+        this.routeDefinitionTemplate = routeDefinitionTemplate;
+        this.stringTemplate = stringTemplate;
+        this.objectMapper = objectMapper;
+        this.publisher = publisher;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        this.subscription = this.stringTemplate.listenToChannel(CHANNEL)
+            .map(ReactiveSubscription.Message::getMessage)
+            .concatMap(message -> Mono.defer(() -> this.onMessage(message))
+                .onErrorResume(e -> {
+                    log.error("Failed to apply route change: {}", message, e);
+                    return Mono.empty();
+                }))
+            .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                .maxBackoff(Duration.ofSeconds(30))
+                .doBeforeRetry(signal -> this.invalidate()))
+            .subscribe();
+    }
+
+    @Override
+    public void destroy() {
+        if (this.subscription != null) {
+            this.subscription.dispose();
+        }
+    }
+
+    @Override
+    public Flux<RouteDefinition> getRouteDefinitions() {
+        Map<String, RouteDefinition> current = this.definitions;
+        if (current != null) {
+            return Flux.fromIterable(current.values());
+        }
+        return this.reload().flatMapMany(loaded -> Flux.fromIterable(loaded.values()));
+    }
+
+    @Override
+    public Mono<Void> save(Mono<RouteDefinition> route) {
+        return route.flatMap(routeDefinition -> {
+            if (!StringUtils.hasText(routeDefinition.getId())) {
+                return Mono.error(new IllegalArgumentException("id may not be empty"));
+            }
+            return this.routeDefinitionTemplate.opsForValue().set(key(routeDefinition.getId()), routeDefinition)
+                .flatMap(success -> success
+                    ? this.publish(routeDefinition.getId())
+                    : Mono.error(new IllegalStateException("Could not save route to redis: " + routeDefinition.getId())))
+                .doOnSuccess(v -> this.cache(routeDefinition.getId(), routeDefinition));
+        });
+    }
+
+    @Override
+    public Mono<Void> delete(Mono<String> routeId) {
+        return routeId.flatMap(id -> this.routeDefinitionTemplate.opsForValue().delete(key(id))
+            .flatMap(success -> success
+                ? this.publish(id)
+                : Mono.error(new NotFoundException("RouteDefinition not found: " + id)))
+            .doOnSuccess(v -> this.cache(id, null)));
+    }
+
+    long version() {
+        return this.version.get();
+    }
+
+    private Mono<Void> publish(String id) {
+        return this.stringTemplate.opsForValue().increment(VERSION_KEY)
+            .flatMap(next -> this.stringTemplate.convertAndSend(CHANNEL, this.encode(new RouteChangeMessage(this.node, next, id))))
+            .then();
+    }
+
+    /**
+     * 메시지는 구독한 순서대로 하나씩 처리한다.
+     */
+    private Mono<Void> onMessage(String payload) {
+        RouteChangeMessage message = this.decode(payload);
+        long current = this.version.get();
+        if (this.definitions == null || message.version() <= current) {
+            return Mono.empty();
+        }
+        if (message.version() != current + 1) {
+            log.warn("Route version gap detected: local={}, received={}", current, message.version());
+            return this.reload().doOnNext(loaded -> this.publisher.publishEvent(new RefreshRoutesEvent(this))).then();
+        }
+        this.version.set(message.version());
+        if (this.node.equals(message.node())) {
+            return Mono.empty();
+        }
+        return this.routeDefinitionTemplate.opsForValue().get(key(message.id()))
+            .map(Optional::of)
+            .defaultIfEmpty(Optional.empty())
+            .doOnNext(route -> {
+                this.cache(message.id(), route.orElse(null));
+                this.publisher.publishEvent(new RouteDefinitionChangedEvent(this, message.id(), route.orElse(null)));
+            })
+            .then();
+    }
+
+    /**
+     * version 을 먼저 읽은 뒤 전체를 읽는다. 그 사이의 변경은 이후 메시지로 다시 반영된다.
+     */
+    private Mono<Map<String, RouteDefinition>> reload() {
+        return this.stringTemplate.opsForValue().get(VERSION_KEY)
+            .map(Long::parseLong)
+            .defaultIfEmpty(0L)
+            .flatMap(loadedVersion -> this.routeDefinitionTemplate.scan(ScanOptions.scanOptions().match(KEY_PREFIX + "*").build())
+                .flatMap(key -> this.routeDefinitionTemplate.opsForValue().get(key))
+                .collectMap(RouteDefinition::getId, Function.identity(), ConcurrentSkipListMap::new)
+                .doOnNext(loaded -> {
+                    this.version.set(loadedVersion);
+                    this.definitions = loaded;
+                    log.info("Loaded {} route definitions from redis (version {})", loaded.size(), loadedVersion);
+                }));
+    }
+
+    private void invalidate() {
+        this.definitions = null;
+        this.publisher.publishEvent(new RefreshRoutesEvent(this));
+    }
+
+    private void cache(String id, RouteDefinition route) {
+        Map<String, RouteDefinition> current = this.definitions;
+        if (current == null) {
+            return;
+        }
+        if (route == null) {
+            current.remove(id);
+        } else {
+            current.put(id, route);
+        }
+    }
+
+    private String encode(RouteChangeMessage message) {
+        try {
+            return this.objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private RouteChangeMessage decode(String payload) {
+        try {
+            return this.objectMapper.readValue(payload, RouteChangeMessage.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid route change message: " + payload, e);
+        }
+    }
+
+    private static String key(String id) {
+        return KEY_PREFIX + id;
+    }
+
+    record RouteChangeMessage(String node, long version, String id) {
+    }
+}
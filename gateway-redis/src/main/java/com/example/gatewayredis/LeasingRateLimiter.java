@@ -0,0 +1,206 @@
+package com.example.gatewayredis;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * RequestRateLimiter 필터에서 사용하는 분산 rate limiter. RedisRateLimiter 와 달리 요청마다 Redis 를 호출하지 않는다.
+ * <p>
+ * node 는 전역 bucket({@link QuotaLeaseSource}) 에서 token 묶음(lease) 을 꺼내 local 에서 요청을 처리하고,
+ * 남은 token 이 renewAt 비율 아래로 내려가면 다음 lease 를 비동기로 받아온다. 처음 요청이나 lease 를 다 쓴 요청만 Redis 응답을 기다린다.
+ * <ul>
+ *     <li>lease 크기는 burstCapacity * errorBound / nodes 이므로, node 들이 받아두고 아직 쓰지 않은 token 은 전체 burstCapacity 의 errorBound 이하다.
+ *     전역 제한과의 차이(먼저 받아둔 token 을 늦게 쓰거나, 쓰지 않고 만료되는 token) 도 이 범위를 넘지 않는다.</li>
+ *     <li>leaseTtl 동안 쓰지 않은 lease 는 버린다. 요청이 없는 node 가 token 을 오래 들고 있지 않게 한다.
+ *     첫 갱신이 끝나지 않은 lease 는 아직 만료 시각이 정해지지 않았으므로 버리지 않는다.</li>
+ *     <li>전역 bucket 이 비어 일부만 할당받은 경우, 다시 채워질 시간까지 Redis 를 호출하지 않고 거부한다.</li>
+ *     <li>Redis 를 호출할 수 없는 경우 RedisRateLimiter 와 같이 요청을 허용하고, {@link #FAILURE_BACKOFF} 마다 다시 lease 를 요청한다.</li>
+ * </ul>
+ * route 별 설정은 RequestRateLimiter 필터의 leasing-rate-limiter.replenishRate / leasing-rate-limiter.burstCapacity 로 지정한다.
+ */
+@Slf4j
+public class LeasingRateLimiter extends AbstractRateLimiter<LeasingRateLimiter.Config> implements DisposableBean {
+    public static final String CONFIGURATION_PROPERTY_NAME = "leasing-rate-limiter";
+    static final long FAILURE_BACKOFF = TimeUnit.SECONDS.toNanos(1);
+
+    private final QuotaLeaseSource source;
+    private final Config defaultConfig;
+    private final double errorBound;
+    private final int nodes;
+    private final double renewAt;
+    private final long leaseTtl;
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+    private final Disposable sweeper;
+
+    public LeasingRateLimiter(QuotaLeaseSource source, ConfigurationService configurationService, Config defaultConfig,
+                              double errorBound, int nodes, double renewAt, Duration leaseTtl) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.source = source;
+        this.defaultConfig = defaultConfig;
+        this.errorBound = errorBound;
+        this.nodes = Math.max(1, nodes);
+        this.renewAt = renewAt;
+        this.leaseTtl = leaseTtl.toNanos();
+        this.sweeper = Flux.interval(leaseTtl, leaseTtl)
+            .subscribe(tick -> this.sweep(System.nanoTime()));
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = this.getConfig().getOrDefault(routeId, this.defaultConfig);
+        long leaseSize = this.leaseSize(config);
+        String key = routeId + '.' + id;
+        Lease lease = this.leases.computeIfAbsent(key, k -> new Lease(System.nanoTime()));
+
+        long remaining = lease.tryAcquire(System.nanoTime());
+        if (remaining >= 0) {
+            if (remaining < leaseSize * this.renewAt) {
+                this.renew(key, lease, config, leaseSize).subscribe();
+            }
+            return Mono.just(this.response(true, remaining, config));
+        }
+        if (lease.unavailable) {
+            // 실패 후 FAILURE_BACKOFF 가 지나면 요청을 기다리게 하지 않고 background 에서 다시 lease 를 요청한다.
+            this.renew(key, lease, config, leaseSize).subscribe();
+            return Mono.just(this.response(true, -1, config));
+        }
+        return this.renew(key, lease, config, leaseSize)
+            .then(Mono.fromSupplier(() -> {
+                long acquired = lease.tryAcquire(System.nanoTime());
+                if (acquired < 0 && lease.unavailable) {
+                    return this.response(true, -1, config);
+                }
+                return this.response(acquired >= 0, Math.max(0, acquired), config);
+            }));
+    }
+
+    @Override
+    public void destroy() {
+        this.sweeper.dispose();
+    }
+
+    long leaseSize(Config config) {
+        return Math.max(1, (long) (config.getBurstCapacity() * this.errorBound / this.nodes));
+    }
+
+    int leases() {
+        return this.leases.size();
+    }
+
+    /**
+     * 진행 중인 갱신이 있으면 그 결과를 기다리고, 없으면 새 lease 를 요청한다. key 마다 동시에 하나의 요청만 Redis 로 보낸다.
+     */
+    private Mono<Void> renew(String key, Lease lease, Config config, long leaseSize) {
+        Mono<Void> inflight = lease.renewal.get();
+        if (inflight != null) {
+            return inflight;
+        }
+        if (System.nanoTime() - lease.notBefore < 0) {
+            return Mono.empty();
+        }
+        Mono<Void> renewal = this.source.lease(key, leaseSize, config.getReplenishRate(), config.getBurstCapacity())
+            .doOnNext(grant -> lease.granted(grant, System.nanoTime(), this.leaseTtl))
+            .onErrorResume(e -> {
+                log.warn("Failed to lease rate limit quota: key={}", key, e);
+                lease.failed(System.nanoTime());
+                return Mono.empty();
+            })
+            .then()
+            .doFinally(signal -> {
+                lease.leased = true;
+                lease.renewal.set(null);
+            })
+            .cache();
+        if (!lease.renewal.compareAndSet(null, renewal)) {
+            inflight = lease.renewal.get();
+            return inflight != null ? inflight : Mono.empty();
+        }
+        renewal.subscribe();
+        return renewal;
+    }
+
+    void sweep(long now) {
+        this.leases.values().removeIf(lease -> lease.leased && lease.renewal.get() == null && now - lease.expiresAt >= 0);
+    }
+
+    private Response response(boolean allowed, long remaining, Config config) {
+        return new Response(allowed, Map.of(
+            RedisRateLimiter.REMAINING_HEADER, Long.toString(remaining),
+            RedisRateLimiter.REPLENISH_RATE_HEADER, Long.toString(config.getReplenishRate()),
+            RedisRateLimiter.BURST_CAPACITY_HEADER, Long.toString(config.getBurstCapacity()),
+            RedisRateLimiter.REQUESTED_TOKENS_HEADER, "1"));
+    }
+
+    @Getter
+    @Setter
+    public static class Config {
+        // 모든 node 를 합쳐 초당 허용하는 요청 수
+        private long replenishRate;
+        // 모든 node 를 합쳐 한 번에 허용하는 최대 요청 수
+        private long burstCapacity;
+    }
+
+    private static final class Lease {
+        private final AtomicLong tokens = new AtomicLong();
+        private final AtomicReference<Mono<Void>> renewal = new AtomicReference<>();
+        private volatile long expiresAt;
+        private volatile long notBefore;
+        private volatile boolean unavailable;
+        // 첫 갱신이 끝났는지. 새로 만든 lease 는 갱신을 시작하기 전에도 만료된 것으로 보이므로 sweep 에서 제외한다.
+        private volatile boolean leased;
+
+        Lease(long now) {
+            this.expiresAt = now;
+            this.notBefore = now;
+        }
+
+        /**
+         * token 하나를 꺼내고 남은 수를 반환한다. 꺼낼 수 없으면 -1.
+         */
+        long tryAcquire(long now) {
+            if (now - this.expiresAt >= 0) {
+                return -1;
+            }
+            long current;
+            do {
+                current = this.tokens.get();
+                if (current <= 0) {
+                    return -1;
+                }
+            } while (!this.tokens.compareAndSet(current, current - 1));
+            return current - 1;
+        }
+
+        void granted(QuotaLeaseSource.Grant grant, long now, long ttl) {
+            // 만료된 lease 에 남은 token 은 버린다.
+            if (now - this.expiresAt >= 0) {
+                this.tokens.set(grant.granted());
+            } else {
+                this.tokens.addAndGet(grant.granted());
+            }
+            this.expiresAt = now + ttl;
+            this.notBefore = now + TimeUnit.MILLISECONDS.toNanos(grant.retryAfterMillis());
+            this.unavailable = false;
+        }
+
+        void failed(long now) {
+            this.notBefore = now + FAILURE_BACKOFF;
+            this.unavailable = true;
+        }
+    }
+}
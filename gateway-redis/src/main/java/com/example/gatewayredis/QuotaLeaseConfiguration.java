@@ -0,0 +1,55 @@
+package com.example.gatewayredis;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+
+/**
+ * gateway.quota-lease.enabled=true 인 경우 RequestRateLimiter 필터가 기본으로 LeasingRateLimiter 를 사용한다.
+ * 기본 RedisRateLimiter 는 rate-limiter: "#{@redisRateLimiter}" 로 지정한 route 에서만 사용된다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "gateway.quota-lease.enabled", havingValue = "true")
+public class QuotaLeaseConfiguration {
+
+    @Bean
+    public RedisQuotaLeaseSource redisQuotaLeaseSource(ReactiveStringRedisTemplate stringTemplate) {
+        return new RedisQuotaLeaseSource(stringTemplate);
+    }
+
+    @Bean
+    @Primary
+    public LeasingRateLimiter leasingRateLimiter(RedisQuotaLeaseSource redisQuotaLeaseSource,
+                                                 ConfigurationService configurationService,
+                                                 @Value("${gateway.quota-lease.replenish-rate:100}") long replenishRate,
+                                                 @Value("${gateway.quota-lease.burst-capacity:200}") long burstCapacity,
+                                                 @Value("${gateway.quota-lease.error-bound:0.05}") double errorBound,
+                                                 @Value("${gateway.quota-lease.nodes:1}") int nodes,
+                                                 @Value("${gateway.quota-lease.renew-at:0.5}") double renewAt,
+                                                 @Value("${gateway.quota-lease.lease-ttl:1s}") Duration leaseTtl) {
+        LeasingRateLimiter.Config defaultConfig = new LeasingRateLimiter.Config();
+        defaultConfig.setReplenishRate(replenishRate);
+        defaultConfig.setBurstCapacity(burstCapacity);
+        return new LeasingRateLimiter(redisQuotaLeaseSource, configurationService, defaultConfig, errorBound, nodes, renewAt, leaseTtl);
+    }
+
+    /**
+     * RequestRateLimiter 의 기본 key. 지정하지 않으면 인증된 사용자 이름(PrincipalNameKeyResolver) 을 사용하므로 익명 요청이 모두 거부된다.
+     */
+    @Bean
+    public KeyResolver remoteAddressKeyResolver() {
+        return exchange -> {
+            InetSocketAddress address = exchange.getRequest().getRemoteAddress();
+            return Mono.justOrEmpty(address).map(InetSocketAddress::getHostString);
+        };
+    }
+}
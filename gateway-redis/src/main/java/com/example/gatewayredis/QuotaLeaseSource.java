@@ -0,0 +1,21 @@
+package com.example.gatewayredis;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 여러 gateway node 가 공유하는 전역 token bucket. node 는 요청마다가 아니라 token 묶음(lease) 단위로 호출한다.
+ */
+public interface QuotaLeaseSource {
+
+    /**
+     * key 의 bucket 에서 최대 requested 개의 token 을 꺼낸다. bucket 에 남은 token 이 부족하면 남은 만큼만 할당한다.
+     */
+    Mono<Grant> lease(String key, long requested, long replenishRate, long burstCapacity);
+
+    /**
+     * @param granted         할당한 token 수
+     * @param retryAfterMillis requested 보다 적게 할당한 경우 requested 만큼 다시 채워질 때까지 남은 시간
+     */
+    record Grant(long granted, long retryAfterMillis) {
+    }
+}
@@ -1,38 +1,62 @@
 package com.example.gatewayredis;
 
+import com.example.gatewaysupport.route.RouteDescriptor;
+import com.example.gatewaysupport.route.RouteDescriptorCache;
+import com.example.gatewaysupport.route.RouteDescriptorPage;
+import com.example.gatewaysupport.route.RouteImportResult;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.util.Map;
-
 @Slf4j
 @RestController
 @RequestMapping("/v1/routes/redis")
 @RequiredArgsConstructor
 public class RedisGatewayRoutingController {
     private final RedisGatewayRoutingService redisGatewayRoutingService;
-    private final RouteInformationFunction routeInformationFunction;
+    private final RouteDescriptorCache routeDescriptorCache;
 
     @PostMapping
     public Mono<Void> routeDefinitionFlux(@RequestBody RouteDefinition route) {
         return redisGatewayRoutingService.addRoute(route);
     }
 
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<RouteImportResult> importRoutes(@RequestBody Flux<String> lines) {
+        return redisGatewayRoutingService.importRoutes(lines);
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<Void> deleteRoute(@PathVariable String id) {
+        return redisGatewayRoutingService.deleteRoute(id);
+    }
+
     @GetMapping
     public Flux<RouteDefinition> getRouteDefinitions() {
         return redisGatewayRoutingService.getRoutesDefinitions();
     }
 
+    // 라우팅 테이블이 갱신될 때만 다시 만드는 route 정보를 id 순으로 페이지 단위 조회
     @GetMapping("/route")
-    public Flux<Map<String, Object>> getRoutes() {
-        return redisGatewayRoutingService.getRoutes().map(this.routeInformationFunction);
+    public Mono<RouteDescriptorPage> getRoutes(@RequestParam(required = false) String prefix,
+                                               @RequestParam(defaultValue = "0") int page,
+                                               @RequestParam(defaultValue = "100") int size) {
+        return routeDescriptorCache.page(prefix, page, size);
+    }
+
+    @GetMapping(value = "/route/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<RouteDescriptor> streamRoutes(@RequestParam(required = false) String prefix) {
+        return routeDescriptorCache.stream(prefix);
     }
 }
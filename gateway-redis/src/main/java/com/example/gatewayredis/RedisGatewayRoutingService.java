@@ -1,16 +1,17 @@
 package com.example.gatewayredis;
 
+import com.example.gatewaysupport.route.RouteImportResult;
+import com.example.gatewaysupport.route.RouteImporter;
+import com.example.gatewaysupport.route.RouteRefresher;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
 import org.springframework.cloud.gateway.route.Route;
 import org.springframework.cloud.gateway.route.RouteDefinition;
 import org.springframework.cloud.gateway.route.RouteDefinitionLocator;
 import org.springframework.cloud.gateway.route.RouteDefinitionWriter;
 import org.springframework.cloud.gateway.route.RouteLocator;
-import org.springframework.context.ApplicationEventPublisher;
-import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -18,18 +19,33 @@ import reactor.core.publisher.Mono;
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class RedisGatewayRoutingService implements ApplicationEventPublisherAware {
+public class RedisGatewayRoutingService {
     private final RouteDefinitionWriter routeDefinitionWriter;
     private final RouteDefinitionLocator routeDefinitionLocator;
     private final RouteLocator routeLocator;
-    private ApplicationEventPublisher publisher;
+    private final RouteRefresher routeRefresher;
+    private final RouteImporter routeImporter;
 
     public Mono<Void> addRoute(@NotNull RouteDefinition route) {
         Mono<RouteDefinition> mono = Mono.just(route);
-        return routeDefinitionWriter.save(mono).then(Mono.defer(() -> {
-            publisher.publishEvent(new RefreshRoutesEvent(this));
-            return Mono.empty();
-        }));
+        return routeDefinitionWriter.save(mono).then(Mono.fromRunnable(() -> routeRefresher.refresh(route.getId(), route)));
+    }
+
+    public Mono<Void> deleteRoute(@NotNull String id) {
+        return routeDefinitionWriter.delete(Mono.just(id)).then(Mono.fromRunnable(() -> routeRefresher.refresh(id, null)));
+    }
+
+    /**
+     * NDJSON body 의 각 줄을 RouteDefinition 으로 저장하고, 저장이 끝난 뒤 한 번만 refresh 한다.
+     */
+    public Mono<RouteImportResult> importRoutes(Flux<String> lines) {
+        return routeImporter.importRoutes(lines);
+    }
+
+    // 다른 node 에서 변경된 route 를 이 node 의 라우팅 테이블에 반영한다.
+    @EventListener
+    public void onRouteDefinitionChanged(RouteDefinitionChangedEvent event) {
+        routeRefresher.refresh(event.getId(), event.getRoute());
     }
 
     public Flux<RouteDefinition> getRoutesDefinitions() {
@@ -39,9 +55,4 @@ public class RedisGatewayRoutingService implements ApplicationEventPublisherAwar
     public Flux<Route> getRoutes() {
         return this.routeLocator.getRoutes();
     }
-
-    @Override
-    public void setApplicationEventPublisher(ApplicationEventPublisher applicationEventPublisher) {
-        this.publisher = applicationEventPublisher;
-    }
 }
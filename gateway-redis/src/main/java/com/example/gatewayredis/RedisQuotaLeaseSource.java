@@ -0,0 +1,33 @@
+package com.example.gatewayredis;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Redis 의 token bucket 에서 Lua script 한 번으로 token 묶음을 꺼낸다. (META-INF/scripts/quota_lease.lua)
+ * key 는 Redis Cluster 에서 같은 slot 에 있도록 hash tag 로 묶는다.
+ */
+public class RedisQuotaLeaseSource implements QuotaLeaseSource {
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SCRIPT = RedisScript.of(new ClassPathResource("META-INF/scripts/quota_lease.lua"), List.class);
+
+    private final ReactiveStringRedisTemplate stringTemplate;
+
+    public RedisQuotaLeaseSource(ReactiveStringRedisTemplate stringTemplate) {
+        this.stringTemplate = stringTemplate;
+    }
+
+    @Override
+    public Mono<Grant> lease(String key, long requested, long replenishRate, long burstCapacity) {
+        String prefix = "quota_lease.{" + key + "}.";
+        List<String> keys = List.of(prefix + "tokens", prefix + "timestamp");
+        return this.stringTemplate.execute(SCRIPT, keys,
+                List.of(Long.toString(replenishRate), Long.toString(burstCapacity), Long.toString(requested)))
+            .next()
+            .map(result -> new Grant(((Number) result.get(0)).longValue(), ((Number) result.get(1)).longValue()));
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.gatewayredis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+/**
+ * gateway.redis-route-cache.enabled=true 인 경우 near-cache 가 적용된 RouteDefinitionRepository 를 사용한다.
+ * 이때 spring.cloud.gateway.redis-route-definition-repository.enabled 는 false 로 두어야 한다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "gateway.redis-route-cache.enabled", havingValue = "true")
+public class RedisRouteCacheConfiguration {
+
+    @Bean
+    public CachingRedisRouteDefinitionRepository cachingRedisRouteDefinitionRepository(ReactiveRedisConnectionFactory connectionFactory,
+                                                                                       ReactiveStringRedisTemplate stringTemplate,
+                                                                                       ObjectMapper objectMapper,
+                                                                                       ApplicationEventPublisher publisher) {
+        return new CachingRedisRouteDefinitionRepository(routeDefinitionTemplate(connectionFactory), stringTemplate, objectMapper, publisher);
+    }
+
+    static ReactiveRedisTemplate<String, RouteDefinition> routeDefinitionTemplate(ReactiveRedisConnectionFactory connectionFactory) {
+        Jackson2JsonRedisSerializer<RouteDefinition> serializer = new Jackson2JsonRedisSerializer<>(RouteDefinition.class);
+        RedisSerializationContext<String, RouteDefinition> serializationContext = RedisSerializationContext
+            .<String, RouteDefinition>newSerializationContext(new StringRedisSerializer())
+            .value(serializer)
+            .build();
+        return new ReactiveRedisTemplate<>(connectionFactory, serializationContext);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.gatewayredis;
+
+import lombok.Getter;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 다른 gateway node 에서 RouteDefinition 이 변경되어 near-cache 에 반영된 경우 발행된다.
+ */
+@Getter
+public class RouteDefinitionChangedEvent extends ApplicationEvent {
+    private final String id;
+    // 삭제된 경우 null
+    private final RouteDefinition route;
+
+    public RouteDefinitionChangedEvent(Object source, String id, RouteDefinition route) {
+        super(source);
+        this.id = id;
+        this.route = route;
+    }
+}
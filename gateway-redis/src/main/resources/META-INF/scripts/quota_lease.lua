@@ -0,0 +1,30 @@
+-- 전역 token bucket 에서 최대 requested 개의 token 을 꺼낸다. (부분 할당 허용)
+-- 반환: { 할당한 token 수, requested 만큼 다시 채워질 때까지 남은 시간(ms) }
+local tokens_key = KEYS[1]
+local timestamp_key = KEYS[2]
+
+local rate = tonumber(ARGV[1])
+local capacity = tonumber(ARGV[2])
+local requested = tonumber(ARGV[3])
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) + tonumber(time[2]) / 1000000
+local ttl = math.max(1, math.floor(capacity / rate * 2))
+
+local last_tokens = tonumber(redis.call('get', tokens_key)) or capacity
+local last_refreshed = tonumber(redis.call('get', timestamp_key)) or 0
+
+local delta = math.max(0, now - last_refreshed)
+local filled = math.min(capacity, last_tokens + delta * rate)
+local granted = math.min(requested, math.floor(filled))
+local remaining = filled - granted
+
+local retry_after = 0
+if granted < requested then
+  retry_after = math.ceil((math.min(requested, capacity) - remaining) / rate * 1000)
+end
+
+redis.call('setex', tokens_key, ttl, tostring(remaining))
+redis.call('setex', timestamp_key, ttl, tostring(now))
+
+return { granted, retry_after }
@@ -0,0 +1,125 @@
+package com.example.gatewayredis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 같은 Redis 를 사용하는 두 node 사이에서 near-cache 가 pub/sub 로 동기화되는지 확인한다.
+ * Docker 가 없는 환경에서는 실행하지 않는다.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class CachingRedisRouteDefinitionRepositoryTests {
+
+    @Container
+    static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private final List<Object> nodeBEvents = new CopyOnWriteArrayList<>();
+    private LettuceConnectionFactory connectionFactory;
+    private ReactiveStringRedisTemplate stringTemplate;
+    private CachingRedisRouteDefinitionRepository nodeA;
+    private CachingRedisRouteDefinitionRepository nodeB;
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new LettuceConnectionFactory(REDIS.getHost(), REDIS.getMappedPort(6379));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        stringTemplate = new ReactiveStringRedisTemplate(connectionFactory);
+        stringTemplate.execute(connection -> connection.serverCommands().flushAll()).blockLast();
+
+        nodeA = repository(event -> {
+        });
+        nodeB = repository(nodeBEvents::add);
+        nodeA.getRouteDefinitions().collectList().block();
+        nodeB.getRouteDefinitions().collectList().block();
+        // channel 구독은 비동기로 맺어지므로 구독이 완료될 때까지 잠시 기다린다.
+        sleep(Duration.ofMillis(300));
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodeA.destroy();
+        nodeB.destroy();
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void propagatesSaveAndDeleteToOtherNode() {
+        nodeA.save(Mono.just(route("application-route"))).block();
+        awaitUntil(() -> ids(nodeB).contains("application-route"));
+        assertThat(nodeBEvents).anySatisfy(event -> assertThat(event)
+            .isInstanceOfSatisfying(RouteDefinitionChangedEvent.class, changed -> assertThat(changed.getId()).isEqualTo("application-route")));
+
+        nodeA.delete(Mono.just("application-route")).block();
+        awaitUntil(() -> !ids(nodeB).contains("application-route"));
+        assertThat(nodeB.version()).isEqualTo(2);
+    }
+
+    @Test
+    void reloadsWhenVersionGapIsDetected() {
+        // pub/sub 없이 Redis 에 직접 저장하고 version 만 건너뛰어 메시지 유실 상황을 만든다.
+        RedisRouteCacheConfiguration.routeDefinitionTemplate(connectionFactory).opsForValue()
+            .set(CachingRedisRouteDefinitionRepository.KEY_PREFIX + "missed-route", route("missed-route")).block();
+        stringTemplate.opsForValue().set(CachingRedisRouteDefinitionRepository.VERSION_KEY, "5").block();
+
+        nodeA.save(Mono.just(route("next-route"))).block();
+        awaitUntil(() -> ids(nodeB).containsAll(List.of("missed-route", "next-route")));
+        assertThat(nodeBEvents).anySatisfy(event -> assertThat(event).isInstanceOf(RefreshRoutesEvent.class));
+    }
+
+    private CachingRedisRouteDefinitionRepository repository(ApplicationEventPublisher publisher) {
+        CachingRedisRouteDefinitionRepository repository = new CachingRedisRouteDefinitionRepository(
+            RedisRouteCacheConfiguration.routeDefinitionTemplate(connectionFactory), stringTemplate, new ObjectMapper(), publisher);
+        repository.afterPropertiesSet();
+        return repository;
+    }
+
+    private static List<String> ids(CachingRedisRouteDefinitionRepository repository) {
+        return repository.getRouteDefinitions().map(RouteDefinition::getId).collectList().block();
+    }
+
+    private static RouteDefinition route(String id) {
+        RouteDefinition route = new RouteDefinition();
+        route.setId(id);
+        route.setPredicates(List.of(new PredicateDefinition("Path=/" + id + "/**")));
+        route.setUri(URI.create("http://localhost:8080"));
+        return route;
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            sleep(Duration.ofMillis(20));
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
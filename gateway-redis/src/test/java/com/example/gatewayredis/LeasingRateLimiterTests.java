@@ -0,0 +1,183 @@
+package com.example.gatewayredis;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Redis 대신 같은 token bucket 을 local 에서 계산하는 {@link InMemoryQuotaLeaseSource} 로 Redis 호출 수와 전역 정확도를 확인한다.
+ */
+class LeasingRateLimiterTests {
+    private final InMemoryQuotaLeaseSource source = new InMemoryQuotaLeaseSource();
+    private final List<LeasingRateLimiter> limiters = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        this.limiters.forEach(LeasingRateLimiter::destroy);
+    }
+
+    @Test
+    void leasesTokensInBatches() {
+        LeasingRateLimiter limiter = this.limiter(10_000, 10_000, 0.05, 1);
+
+        int allowed = this.run(List.of(limiter), 1_000);
+
+        assertThat(limiter.leaseSize(this.config(10_000, 10_000))).isEqualTo(500);
+        assertThat(allowed).isEqualTo(1_000);
+        // lease 크기 500: 처음 lease 와 남은 token 이 절반 아래로 내려갈 때마다 받는 lease
+        assertThat(this.source.calls).hasValueLessThanOrEqualTo(5);
+    }
+
+    @Test
+    void callsSourcePerRequestWithoutErrorBudget() {
+        LeasingRateLimiter limiter = this.limiter(10_000, 10_000, 0, 1);
+
+        this.run(List.of(limiter), 1_000);
+
+        assertThat(this.source.calls).hasValueGreaterThanOrEqualTo(1_000);
+    }
+
+    @Test
+    void staysWithinErrorBoundAcrossNodes() {
+        // lease 크기 = 100 * 0.1 / 2 = 5, 두 node 가 쓰지 않고 들고 있을 수 있는 token 은 최대 10
+        List<LeasingRateLimiter> nodes = List.of(this.limiter(100, 100, 0.1, 2), this.limiter(100, 100, 0.1, 2));
+        long start = System.nanoTime();
+
+        int allowed = this.run(nodes, 1_000);
+
+        long refilled = (long) Math.ceil((System.nanoTime() - start) / (double) TimeUnit.SECONDS.toNanos(1) * 100);
+        assertThat(allowed).isBetween(90, (int) (100 + refilled));
+        assertThat(this.source.calls.get()).isLessThan(100);
+    }
+
+    @Test
+    void deniesWithoutCallingSourceUntilBucketRefills() {
+        LeasingRateLimiter limiter = this.limiter(1, 10, 0.5, 1);
+
+        int allowed = this.run(List.of(limiter), 100);
+
+        assertThat(allowed).isEqualTo(10);
+        assertThat(this.source.calls).hasValueLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void allowsRequestsWhenSourceIsUnavailable() {
+        LeasingRateLimiter.Config config = this.config(100, 100);
+        LeasingRateLimiter limiter = new LeasingRateLimiter(
+            (key, requested, rate, capacity) -> Mono.error(new IllegalStateException("redis is down")),
+            null, config, 0.1, 1, 0.5, Duration.ofSeconds(1));
+        this.limiters.add(limiter);
+
+        RateLimiter.Response response = limiter.isAllowed("route", "client").block();
+
+        assertThat(response.isAllowed()).isTrue();
+        assertThat(response.getHeaders()).containsEntry(RedisRateLimiter.REMAINING_HEADER, "-1");
+    }
+
+    @Test
+    void renewsAfterSourceRecovers() throws InterruptedException {
+        this.source.failures.set(1);
+        LeasingRateLimiter limiter = this.limiter(100, 100, 0.1, 1);
+
+        assertThat(limiter.isAllowed("route", "client").block().getHeaders()).containsEntry(RedisRateLimiter.REMAINING_HEADER, "-1");
+        // backoff 동안에는 다시 호출하지 않는다.
+        assertThat(limiter.isAllowed("route", "client").block().getHeaders()).containsEntry(RedisRateLimiter.REMAINING_HEADER, "-1");
+        assertThat(this.source.calls).hasValue(1);
+
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(LeasingRateLimiter.FAILURE_BACKOFF) + 50);
+        limiter.isAllowed("route", "client").block();
+        RateLimiter.Response response = limiter.isAllowed("route", "client").block();
+
+        assertThat(this.source.calls).hasValue(2);
+        assertThat(response.isAllowed()).isTrue();
+        assertThat(response.getHeaders().get(RedisRateLimiter.REMAINING_HEADER)).isNotEqualTo("-1");
+    }
+
+    @Test
+    void sweepsOnlyLeasesWhoseFirstRenewalCompleted() {
+        Sinks.One<QuotaLeaseSource.Grant> grant = Sinks.one();
+        LeasingRateLimiter limiter = new LeasingRateLimiter((key, requested, rate, capacity) -> grant.asMono(),
+            null, this.config(100, 100), 0.1, 1, 0.5, Duration.ofSeconds(1));
+        this.limiters.add(limiter);
+
+        Mono<RateLimiter.Response> pending = limiter.isAllowed("route", "client").cache();
+        pending.subscribe();
+        long later = System.nanoTime() + TimeUnit.HOURS.toNanos(1);
+
+        // 첫 갱신을 기다리는 lease 는 만료 시각이 지난 것처럼 보여도 남겨둔다.
+        limiter.sweep(later);
+        assertThat(limiter.leases()).isEqualTo(1);
+
+        grant.tryEmitValue(new QuotaLeaseSource.Grant(10, 0));
+        assertThat(pending.block().isAllowed()).isTrue();
+        limiter.sweep(System.nanoTime());
+        assertThat(limiter.leases()).isEqualTo(1);
+
+        limiter.sweep(later);
+        assertThat(limiter.leases()).isZero();
+    }
+
+    private int run(List<LeasingRateLimiter> nodes, int requests) {
+        int allowed = 0;
+        for (int i = 0; i < requests; i++) {
+            if (nodes.get(i % nodes.size()).isAllowed("route", "client").block().isAllowed()) {
+                allowed++;
+            }
+        }
+        return allowed;
+    }
+
+    private LeasingRateLimiter limiter(long replenishRate, long burstCapacity, double errorBound, int nodes) {
+        LeasingRateLimiter limiter = new LeasingRateLimiter(this.source, null, this.config(replenishRate, burstCapacity),
+            errorBound, nodes, 0.5, Duration.ofSeconds(10));
+        this.limiters.add(limiter);
+        return limiter;
+    }
+
+    private LeasingRateLimiter.Config config(long replenishRate, long burstCapacity) {
+        LeasingRateLimiter.Config config = new LeasingRateLimiter.Config();
+        config.setReplenishRate(replenishRate);
+        config.setBurstCapacity(burstCapacity);
+        return config;
+    }
+
+    /**
+     * META-INF/scripts/quota_lease.lua 와 같은 계산을 하는 Redis 대역. 호출 수를 센다.
+     */
+    static class InMemoryQuotaLeaseSource implements QuotaLeaseSource {
+        final AtomicInteger calls = new AtomicInteger();
+        // 0 보다 크면 그 수만큼 Redis 장애처럼 실패한다.
+        final AtomicInteger failures = new AtomicInteger();
+        private final Map<String, double[]> buckets = new HashMap<>();
+
+        @Override
+        public synchronized Mono<Grant> lease(String key, long requested, long replenishRate, long burstCapacity) {
+            this.calls.incrementAndGet();
+            if (this.failures.getAndUpdate(remaining -> Math.max(0, remaining - 1)) > 0) {
+                return Mono.error(new IllegalStateException("redis is down"));
+            }
+            double now = System.nanoTime() / 1e9;
+            double[] bucket = this.buckets.computeIfAbsent(key, k -> new double[]{burstCapacity, now});
+            double filled = Math.min(burstCapacity, bucket[0] + Math.max(0, now - bucket[1]) * replenishRate);
+            long granted = Math.min(requested, (long) Math.floor(filled));
+            bucket[0] = filled - granted;
+            bucket[1] = now;
+            long retryAfter = granted < requested
+                ? (long) Math.ceil((Math.min(requested, burstCapacity) - bucket[0]) / replenishRate * 1000) : 0;
+            return Mono.just(new Grant(granted, retryAfter));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.gatewayredis;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * quota_lease.lua 가 전역 bucket 에서 token 을 부분 할당하는지, 두 node 가 Redis 를 통해 하나의 제한을 나누어 쓰는지 확인한다.
+ * Docker 가 없는 환경에서는 실행하지 않는다.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class RedisQuotaLeaseSourceTests {
+
+    @Container
+    static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private LettuceConnectionFactory connectionFactory;
+    private RedisQuotaLeaseSource source;
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new LettuceConnectionFactory(REDIS.getHost(), REDIS.getMappedPort(6379));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        ReactiveStringRedisTemplate stringTemplate = new ReactiveStringRedisTemplate(connectionFactory);
+        stringTemplate.execute(connection -> connection.serverCommands().flushAll()).blockLast();
+        source = new RedisQuotaLeaseSource(stringTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void grantsRemainingTokensPartially() {
+        QuotaLeaseSource.Grant first = source.lease("route.client", 60, 1, 100).block();
+        QuotaLeaseSource.Grant second = source.lease("route.client", 60, 1, 100).block();
+        QuotaLeaseSource.Grant third = source.lease("route.client", 60, 1, 100).block();
+
+        assertThat(first.granted()).isEqualTo(60);
+        assertThat(first.retryAfterMillis()).isZero();
+        assertThat(second.granted()).isEqualTo(40);
+        assertThat(second.retryAfterMillis()).isBetween(59_000L, 60_000L);
+        assertThat(third.granted()).isZero();
+    }
+
+    @Test
+    void sharesLimitBetweenNodes() {
+        LeasingRateLimiter.Config config = new LeasingRateLimiter.Config();
+        config.setReplenishRate(1);
+        config.setBurstCapacity(100);
+        // lease 크기 = 100 * 0.1 / 2 = 5
+        List<LeasingRateLimiter> nodes = List.of(
+            new LeasingRateLimiter(source, null, config, 0.1, 2, 0.5, Duration.ofSeconds(10)),
+            new LeasingRateLimiter(source, null, config, 0.1, 2, 0.5, Duration.ofSeconds(10)));
+
+        int allowed = 0;
+        for (int i = 0; i < 1_000; i++) {
+            if (nodes.get(i % 2).isAllowed("route", "client").block().isAllowed()) {
+                allowed++;
+            }
+        }
+        nodes.forEach(LeasingRateLimiter::destroy);
+
+        assertThat(allowed).isBetween(90, 101);
+    }
+}
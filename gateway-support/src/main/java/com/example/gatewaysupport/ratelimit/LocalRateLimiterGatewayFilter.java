@@ -0,0 +1,121 @@
+package com.example.gatewaysupport.ratelimit;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.cloud.gateway.support.GatewayToStringStyler.filterToStringCreator;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Redis 없이 gateway 인스턴스 안에서 처리하는 rate limiter. route 마다, 그리고 key(client IP, 헤더 값, route id) 마다 token bucket 을 둔다.
+ * <p>
+ * 허용된 요청과 거부된 요청 모두 X-RateLimit-* 헤더를 응답하며(RequestRateLimiter 와 같은 헤더),
+ * 거부된 요청은 429 와 Retry-After 로 응답하고 upstream 을 호출하지 않는다.
+ * 인스턴스마다 따로 제한하므로 gateway 가 N 대이면 전체 허용량은 N 배가 된다.
+ */
+public class LocalRateLimiterGatewayFilter implements GatewayFilter {
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    public static final String REPLENISH_RATE_HEADER = "X-RateLimit-Replenish-Rate";
+    public static final String BURST_CAPACITY_HEADER = "X-RateLimit-Burst-Capacity";
+    public static final String REQUESTED_TOKENS_HEADER = "X-RateLimit-Requested-Tokens";
+
+    private final TokenBucketStore store;
+    private final KeyType key;
+    private final String header;
+    private final long replenishRate;
+    private final long burstCapacity;
+    private final long requestedTokens;
+    private final boolean denyEmptyKey;
+    private final double tokensPerNano;
+
+    public LocalRateLimiterGatewayFilter(TokenBucketStore store, KeyType key, String header,
+                                         long replenishRate, long burstCapacity, long requestedTokens, boolean denyEmptyKey) {
+        this.store = store;
+        this.key = key;
+        this.header = header;
+        this.replenishRate = replenishRate;
+        this.burstCapacity = burstCapacity;
+        this.requestedTokens = requestedTokens;
+        this.denyEmptyKey = denyEmptyKey;
+        this.tokensPerNano = replenishRate / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : "";
+        String key = this.resolve(exchange, routeId);
+        if (key == null || key.isEmpty()) {
+            if (!this.denyEmptyKey) {
+                return chain.filter(exchange);
+            }
+            exchange.getResponse().setStatusCode(HttpStatus.FORBIDDEN);
+            return exchange.getResponse().setComplete();
+        }
+
+        long now = System.nanoTime();
+        TokenBucketStore.Result result = this.key == KeyType.ROUTE
+            ? this.store.tryConsumeRoute(routeId, now, this.burstCapacity, this.tokensPerNano, this.requestedTokens)
+            : this.store.tryConsume(routeId + '\n' + key, now, this.burstCapacity, this.tokensPerNano, this.requestedTokens);
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.set(REMAINING_HEADER, Long.toString(result.remaining()));
+        headers.set(REPLENISH_RATE_HEADER, Long.toString(this.replenishRate));
+        headers.set(BURST_CAPACITY_HEADER, Long.toString(this.burstCapacity));
+        headers.set(REQUESTED_TOKENS_HEADER, Long.toString(this.requestedTokens));
+        if (result.allowed()) {
+            return chain.filter(exchange);
+        }
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        headers.set(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(result.retryAfter() + 999_999_999))));
+        return response.setComplete();
+    }
+
+    @Override
+    public String toString() {
+        return filterToStringCreator(this)
+            .append("key", this.key == KeyType.HEADER ? "header:" + this.header : this.key)
+            .append("replenishRate", this.replenishRate)
+            .append("burstCapacity", this.burstCapacity)
+            .append("requestedTokens", this.requestedTokens)
+            .toString();
+    }
+
+    private String resolve(ServerWebExchange exchange, String routeId) {
+        return switch (this.key) {
+            case IP -> {
+                InetSocketAddress address = exchange.getRequest().getRemoteAddress();
+                if (address == null) {
+                    yield null;
+                }
+                yield address.getAddress() != null ? address.getAddress().getHostAddress() : address.getHostString();
+            }
+            case HEADER -> exchange.getRequest().getHeaders().getFirst(this.header);
+            case ROUTE -> routeId;
+        };
+    }
+
+    public enum KeyType {
+        /**
+         * 요청의 remote address. 앞에 proxy 가 있다면 proxy 의 주소가 된다.
+         */
+        IP,
+        /**
+         * 지정한 요청 헤더의 첫 번째 값 (예: X-Api-Key)
+         */
+        HEADER,
+        /**
+         * route 전체에 하나의 bucket
+         */
+        ROUTE
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.gatewaysupport.ratelimit;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+
+/**
+ * 인스턴스 안에서 처리하는 token bucket rate limiter.
+ * RouteDefinition 에서는 LocalRateLimiter=100, 200, HEADER, X-Api-Key (replenishRate, burstCapacity, key, header) 로,
+ * Router DSL 에서는 f.filter(localRateLimiter.apply(config -> ...)) 로 사용한다.
+ */
+public class LocalRateLimiterGatewayFilterFactory extends AbstractGatewayFilterFactory<LocalRateLimiterGatewayFilterFactory.Config> {
+    private final TokenBucketStore store;
+
+    public LocalRateLimiterGatewayFilterFactory(TokenBucketStore store) {
+        super(Config.class);
+        this.store = store;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("replenishRate", "burstCapacity", "key", "header");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        Assert.isTrue(config.getReplenishRate() > 0, "replenishRate must be greater than 0");
+        Assert.isTrue(config.getRequestedTokens() > 0, "requestedTokens must be greater than 0");
+        Assert.isTrue(config.getKey() != LocalRateLimiterGatewayFilter.KeyType.HEADER || StringUtils.hasText(config.getHeader()),
+            "header must be set when key is HEADER");
+        long burstCapacity = config.getBurstCapacity() > 0 ? config.getBurstCapacity() : config.getReplenishRate();
+        // bucket 이 가득 차도 꺼낼 수 없으므로 모든 요청이 거부된다.
+        Assert.isTrue(config.getRequestedTokens() <= burstCapacity, "requestedTokens must not be greater than burstCapacity");
+        return new LocalRateLimiterGatewayFilter(this.store, config.getKey(), config.getHeader(),
+            config.getReplenishRate(), burstCapacity, config.getRequestedTokens(), config.isDenyEmptyKey());
+    }
+
+    @Getter
+    @Setter
+    public static class Config {
+        // 초당 채워지는 token 수
+        private long replenishRate;
+        // bucket 의 크기 (한 번에 허용하는 최대 요청 수). 0 이면 replenishRate 와 같다.
+        private long burstCapacity;
+        // 요청 하나가 사용하는 token 수
+        private long requestedTokens = 1;
+        private LocalRateLimiterGatewayFilter.KeyType key = LocalRateLimiterGatewayFilter.KeyType.IP;
+        private String header;
+        // key 를 구할 수 없는 요청(헤더 없음 등)은 403 으로 응답한다. false 이면 제한 없이 통과시킨다.
+        private boolean denyEmptyKey = true;
+    }
+}
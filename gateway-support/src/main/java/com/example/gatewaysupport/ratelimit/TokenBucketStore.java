@@ -0,0 +1,175 @@
+package com.example.gatewaysupport.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * token bucket 저장소. 모든 LocalRateLimiter 필터가 공유한다.
+ * <p>
+ * key 의 hash 로 나눈 segment 마다 lock 과 access-order LinkedHashMap(LRU) 을 두어 event loop 간 경합을 줄이고,
+ * 각 segment 는 최대 key 수를 segment 수로 나눈 만큼만 보관한다.
+ * bucket 은 다시 가득 차는 시점이 지나면 새로 만든 bucket 과 같으므로, 그 시점이 지난 bucket 은 LRU 쪽부터 만료되어 제거된다.
+ * 만료되지 않은 bucket 으로 제한을 넘으면 가장 오래 사용하지 않은 bucket 을 제거하며, 이 경우 그 key 는 다시 burst 만큼 허용된다.
+ * <p>
+ * segment lock 은 bucket 을 찾고 LRU 를 정리하는 동안만 잡고, token 은 lock 밖에서 CAS 로 꺼낸다.
+ * route 전체가 bucket 하나를 쓰는 경우({@link #tryConsumeRoute}) 는 모든 요청이 같은 segment 로 몰리므로,
+ * segment 를 거치지 않고 route id 마다 하나씩 둔 bucket 을 lock 없이 사용한다.
+ */
+public class TokenBucketStore {
+    private static final int SEGMENTS = 64;
+    private static final int MAX_EXPIRED_PER_CALL = 8;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    // route 수만큼만 생기므로 제거하지 않는다.
+    private final Map<String, Bucket> routes = new ConcurrentHashMap<>();
+    private final AtomicLong keys = new AtomicLong();
+    private final Counter allowed;
+    private final Counter denied;
+    private final Counter evictions;
+
+    public TokenBucketStore(int maxKeys, MeterRegistry registry) {
+        for (int i = 0; i < SEGMENTS; i++) {
+            this.segments[i] = new Segment(Math.max(1, maxKeys / SEGMENTS));
+        }
+        this.allowed = result("allowed", registry);
+        this.denied = result("denied", registry);
+        this.evictions = Counter.builder("gateway.rate-limiter.evictions").register(registry);
+        Gauge.builder("gateway.rate-limiter.keys", this.keys, AtomicLong::get).register(registry);
+    }
+
+    /**
+     * key 의 bucket 에서 requested 만큼 token 을 꺼낸다.
+     *
+     * @param tokensPerNano 1ns 동안 채워지는 token 수
+     */
+    Result tryConsume(String key, long now, long burstCapacity, double tokensPerNano, long requested) {
+        Bucket bucket = this.segment(key).bucket(key, now);
+        return this.count(bucket.tryConsume(now, burstCapacity, tokensPerNano, requested));
+    }
+
+    /**
+     * route 에 하나뿐인 bucket 에서 requested 만큼 token 을 꺼낸다. LRU 로 제거하지 않으며 {@link #keys()} 에 포함되지 않는다.
+     */
+    Result tryConsumeRoute(String routeId, long now, long burstCapacity, double tokensPerNano, long requested) {
+        Bucket bucket = this.routes.get(routeId);
+        if (bucket == null) {
+            bucket = this.routes.computeIfAbsent(routeId, id -> new Bucket(now));
+        }
+        return this.count(bucket.tryConsume(now, burstCapacity, tokensPerNano, requested));
+    }
+
+    private Result count(Result result) {
+        (result.allowed() ? this.allowed : this.denied).increment();
+        return result;
+    }
+
+    long keys() {
+        return this.keys.get();
+    }
+
+    private Segment segment(String key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return this.segments[hash & (SEGMENTS - 1)];
+    }
+
+    private static Counter result(String result, MeterRegistry registry) {
+        return Counter.builder("gateway.rate-limiter.requests").tag("result", result).register(registry);
+    }
+
+    /**
+     * @param remaining  요청 처리 후 남은 token 수
+     * @param retryAfter 거부된 경우 요청한 token 이 채워질 때까지 남은 시간(ns)
+     */
+    record Result(boolean allowed, long remaining, long retryAfter) {
+    }
+
+    /**
+     * @param fullAt bucket 이 다시 가득 차는 시점(ns)
+     */
+    private record State(double tokens, long updated, long fullAt) {
+    }
+
+    private static final class Bucket {
+        private final AtomicReference<State> state;
+
+        Bucket(long now) {
+            // fullAt 이 지났으므로 처음 꺼낼 때 burst 만큼 채워진다.
+            this.state = new AtomicReference<>(new State(0, now, now));
+        }
+
+        long fullAt() {
+            return this.state.get().fullAt();
+        }
+
+        Result tryConsume(long now, long burstCapacity, double tokensPerNano, long requested) {
+            while (true) {
+                State current = this.state.get();
+                // 다른 thread 가 더 늦은 시각으로 먼저 갱신했을 수 있다.
+                long at = Math.max(now, current.updated());
+                double tokens = current.fullAt() - at <= 0
+                    ? burstCapacity
+                    : Math.min(burstCapacity, current.tokens() + (at - current.updated()) * tokensPerNano);
+                boolean allowed = tokens >= requested;
+                if (allowed) {
+                    tokens -= requested;
+                }
+                long fullAt = at + (long) Math.ceil((burstCapacity - tokens) / tokensPerNano);
+                if (this.state.compareAndSet(current, new State(tokens, at, fullAt))) {
+                    long retryAfter = allowed ? 0 : (long) Math.ceil((requested - tokens) / tokensPerNano);
+                    return new Result(allowed, (long) tokens, retryAfter);
+                }
+            }
+        }
+    }
+
+    private final class Segment {
+        private final int maxKeys;
+        private final LinkedHashMap<String, Bucket> map = new LinkedHashMap<>(16, 0.75f, true);
+
+        Segment(int maxKeys) {
+            this.maxKeys = maxKeys;
+        }
+
+        /**
+         * 제거된 bucket 을 다른 thread 가 아직 사용 중일 수 있지만, 제거 대상은 가득 찬 bucket 이거나
+         * 제한을 넘어 burst 를 다시 허용하기로 한 bucket 이므로 결과는 같다.
+         */
+        synchronized Bucket bucket(String key, long now) {
+            Bucket bucket = this.map.get(key);
+            if (bucket == null) {
+                bucket = new Bucket(now);
+                this.map.put(key, bucket);
+                keys.incrementAndGet();
+            }
+            this.evict(now);
+            return bucket;
+        }
+
+        // 방금 찾은 bucket 은 access-order 의 마지막에 있으므로 제거되지 않는다.
+        private void evict(long now) {
+            Iterator<Map.Entry<String, Bucket>> eldest = this.map.entrySet().iterator();
+            int expired = 0;
+            while (this.map.size() > 1 && eldest.hasNext()) {
+                Bucket bucket = eldest.next().getValue();
+                if (expired < MAX_EXPIRED_PER_CALL && bucket.fullAt() - now <= 0) {
+                    expired++;
+                } else if (this.map.size() > this.maxKeys) {
+                    evictions.increment();
+                } else {
+                    return;
+                }
+                eldest.remove();
+                keys.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.gatewaysupport.route;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.config.GatewayProperties;
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.cloud.gateway.event.RefreshRoutesResultEvent;
+import org.springframework.cloud.gateway.filter.factory.GatewayFilterFactory;
+import org.springframework.cloud.gateway.handler.predicate.RoutePredicateFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinitionRouteLocator;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * CachingRouteLocator 를 대신하는 RouteLocator.
+ * <p>
+ * RefreshRoutesEvent 가 발행되면 기존과 동일하게 모든 route 를 다시 생성하지만,
+ * {@link #refresh(String, RouteDefinition)} 로 전달된 변경은 해당 route id 만 다시 생성하여 라우팅 테이블에 반영한다.
+ * 변경은 debounce 동안 다음 변경이 없을 때 모아서 한 번에 교체하며, 변경이 계속 들어오더라도 debounce 의 {@value #MAX_DELAY_FACTOR} 배가 지나면 교체한다.
+ * 라우팅 테이블은 항상 불변 List 를 atomic 하게 교체한다.
+ * <p>
+ * 변경에는 순번을 붙인다. 전체 refresh 는 시작할 때의 순번을 기억하고, 끝났을 때 그 이후에 반영된 변경을 다시 적용하여
+ * 먼저 시작한 전체 refresh 가 새로운 변경을 오래된 route 로 덮어쓰지 않도록 한다.
+ */
+@Slf4j
+public class DeltaRouteLocator implements RouteLocator, RouteRefresher,
+    ApplicationListener<RefreshRoutesEvent>, ApplicationEventPublisherAware {
+
+    static final int MAX_DELAY_FACTOR = 10;
+
+    private final Flux<Route> delegate;
+    private final List<RoutePredicateFactory> predicates;
+    private final List<GatewayFilterFactory> gatewayFilterFactories;
+    private final GatewayProperties gatewayProperties;
+    private final ConfigurationService configurationService;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+    private final AtomicLong sequence = new AtomicLong();
+    // 진행 중인 전체 refresh 수. 진행 중인 refresh 가 없으면 delta 를 기억하지 않는다.
+    private final AtomicInteger fetching = new AtomicInteger();
+    private final Sinks.Many<List<RouteChange>> changes = Sinks.many().unicast().onBackpressureBuffer();
+    private final Disposable subscription;
+    private ApplicationEventPublisher publisher;
+
+    public DeltaRouteLocator(RouteLocator delegate,
+                             List<RoutePredicateFactory> predicates,
+                             List<GatewayFilterFactory> gatewayFilterFactories,
+                             GatewayProperties gatewayProperties,
+                             ConfigurationService configurationService,
+                             Duration debounce) {
+        this.delegate = delegate.getRoutes();
+        this.predicates = predicates;
+        this.gatewayFilterFactories = gatewayFilterFactories;
+        this.gatewayProperties = gatewayProperties;
+        this.configurationService = configurationService;
+        Duration maxDelay = debounce.multipliedBy(MAX_DELAY_FACTOR);
+        this.subscription = this.changes.asFlux()
+            .publish(shared -> shared.buffer(shared.debounce(debounce).mergeWith(shared.sample(maxDelay))))
+            .filter(batches -> !batches.isEmpty())
+            .concatMap(this::apply)
+            .subscribe();
+    }
+
+    @Override
+    public Flux<Route> getRoutes() {
+        List<Route> current = this.snapshot.get().routes();
+        if (current != null) {
+            return Flux.fromIterable(current);
+        }
+        return this.fetch().flatMapMany(Flux::fromIterable);
+    }
+
+    @Override
+    public void refresh(String id, RouteDefinition route) {
+        this.emit(List.of(new RouteRequest(id, route)));
+    }
+
+    @Override
+    public void refresh(Collection<RouteDefinition> routes) {
+        this.emit(routes.stream().map(route -> new RouteRequest(route.getId(), route)).toList());
+    }
+
+    @Override
+    public void onApplicationEvent(RefreshRoutesEvent event) {
+        this.fetch().subscribe(
+            list -> this.publisher.publishEvent(new RefreshRoutesResultEvent(this)),
+            e -> {
+                log.error("Refresh routes failed", e);
+                this.publisher.publishEvent(new RefreshRoutesResultEvent(this, e));
+            }
+        );
+    }
+
+    @Override
+    public void setApplicationEventPublisher(ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    public void destroy() {
+        this.subscription.dispose();
+    }
+
+    /**
+     * 저장이 끝난 변경에 순번을 붙여 queue 에 넣는다. event loop 에서 호출되므로 기다리지 않고,
+     * 여러 thread 의 emit 이 겹치지 않도록 순번 발급과 emit 만 직렬화한다.
+     */
+    private void emit(List<RouteRequest> requests) {
+        Sinks.EmitResult result;
+        synchronized (this.changes) {
+            List<RouteChange> batch = new ArrayList<>(requests.size());
+            for (RouteRequest request : requests) {
+                batch.add(new RouteChange(this.sequence.incrementAndGet(), request.id(), request.route()));
+            }
+            result = this.changes.tryEmitNext(batch);
+        }
+        if (result.isFailure()) {
+            log.warn("Failed to queue route changes ({}), refreshing all routes", result);
+            this.onApplicationEvent(new RefreshRoutesEvent(this));
+        }
+    }
+
+    private Mono<List<Route>> fetch() {
+        return Mono.defer(() -> {
+            this.fetching.incrementAndGet();
+            long startedAt = this.sequence.get();
+            return this.delegate
+                .sort(AnnotationAwareOrderComparator.INSTANCE)
+                .collectList()
+                .map(fetched -> this.snapshot.updateAndGet(current -> current.fetched(fetched, startedAt)).routes())
+                .doFinally(signal -> this.fetching.decrementAndGet());
+        });
+    }
+
+    /**
+     * 같은 route id 에 대한 변경은 마지막 변경만 반영한다.
+     */
+    private Mono<Void> apply(List<List<RouteChange>> batches) {
+        Map<String, RouteChange> latest = new LinkedHashMap<>();
+        batches.forEach(batch -> batch.forEach(change -> latest.put(change.id(), change)));
+        List<RouteDefinition> definitions = latest.values().stream().map(RouteChange::route).filter(Objects::nonNull).toList();
+
+        return this.convert(definitions)
+            .collectList()
+            .doOnNext(converted -> {
+                Map<String, Route> routes = new HashMap<>();
+                converted.forEach(route -> routes.put(route.getId(), route));
+                List<Delta> deltas = latest.values().stream()
+                    .map(change -> new Delta(change.id(), change.sequence(), routes.get(change.id())))
+                    .toList();
+                this.snapshot.updateAndGet(current -> current.applied(deltas, this.fetching.get() > 0));
+                log.info("Applied {} route changes", latest.size());
+                this.publisher.publishEvent(new RefreshRoutesResultEvent(this));
+            })
+            .onErrorResume(e -> {
+                log.error("Failed to apply route changes: {}", latest.keySet(), e);
+                return Mono.empty();
+            })
+            .then();
+    }
+
+    private Flux<Route> convert(List<RouteDefinition> definitions) {
+        if (definitions.isEmpty()) {
+            return Flux.empty();
+        }
+        return new RouteDefinitionRouteLocator(() -> Flux.fromIterable(definitions), this.predicates,
+            this.gatewayFilterFactories, this.gatewayProperties, this.configurationService).getRoutes();
+    }
+
+    /**
+     * 변경된 route 는 기존 위치에서 교체하고, 새로운 route 는 뒤에 추가한 뒤 order 로 정렬한다.
+     * 전체 refresh 와 같은 순서를 유지하기 위함이다.
+     */
+    static List<Route> merge(List<Route> current, Collection<Delta> deltas) {
+        Map<String, Delta> changed = new LinkedHashMap<>();
+        deltas.forEach(delta -> changed.put(delta.id(), delta));
+
+        List<Route> merged = new ArrayList<>(current.size() + changed.size());
+        for (Route route : current) {
+            Delta delta = changed.remove(route.getId());
+            if (delta == null) {
+                merged.add(route);
+            } else if (delta.route() != null) {
+                merged.add(delta.route());
+            }
+        }
+        changed.values().stream().map(Delta::route).filter(Objects::nonNull).forEach(merged::add);
+        merged.sort(AnnotationAwareOrderComparator.INSTANCE);
+        return List.copyOf(merged);
+    }
+
+    /**
+     * 라우팅 테이블.
+     *
+     * @param routes         아직 전체 refresh 를 하지 않은 경우 null
+     * @param fetchedThrough 마지막 전체 refresh 가 시작할 때의 순번. 이 순번까지의 변경은 routes 에 이미 포함되어 있다.
+     * @param deltas         fetchedThrough 이후에 반영된 변경. 진행 중인 전체 refresh 가 끝나면 그 결과에 다시 적용한다.
+     */
+    private record Snapshot(List<Route> routes, long fetchedThrough, Map<String, Delta> deltas) {
+        static final Snapshot EMPTY = new Snapshot(null, -1, Map.of());
+
+        Snapshot applied(List<Delta> changes, boolean fetching) {
+            List<Delta> newer = changes.stream().filter(delta -> delta.sequence() > this.fetchedThrough).toList();
+            if (newer.isEmpty()) {
+                return this;
+            }
+            Map<String, Delta> deltas = new HashMap<>();
+            if (fetching) {
+                deltas.putAll(this.deltas);
+                newer.forEach(delta -> deltas.put(delta.id(), delta));
+            }
+            List<Route> routes = this.routes == null ? null : merge(this.routes, newer);
+            return new Snapshot(routes, this.fetchedThrough, Map.copyOf(deltas));
+        }
+
+        Snapshot fetched(List<Route> fetched, long startedAt) {
+            if (startedAt < this.fetchedThrough) {
+                // 더 나중에 시작한 전체 refresh 가 이미 반영되었다.
+                return this;
+            }
+            Map<String, Delta> newer = new HashMap<>();
+            this.deltas.forEach((id, delta) -> {
+                if (delta.sequence() > startedAt) {
+                    newer.put(id, delta);
+                }
+            });
+            return new Snapshot(merge(fetched, newer.values()), startedAt, Map.copyOf(newer));
+        }
+    }
+
+    /**
+     * @param route 변경된 route, 삭제된 경우 null
+     */
+    record Delta(String id, long sequence, Route route) {
+    }
+
+    private record RouteRequest(String id, RouteDefinition route) {
+    }
+
+    private record RouteChange(long sequence, String id, RouteDefinition route) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.gatewaysupport.route;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Collection;
+
+/**
+ * 변경이 있을 때마다 RefreshRoutesEvent 를 발행하여 모든 route 를 다시 생성한다. (기본 동작)
+ */
+@RequiredArgsConstructor
+public class EventRouteRefresher implements RouteRefresher {
+    private final ApplicationEventPublisher publisher;
+
+    @Override
+    public void refresh(String id, RouteDefinition route) {
+        publisher.publishEvent(new RefreshRoutesEvent(this));
+    }
+
+    @Override
+    public void refresh(Collection<RouteDefinition> routes) {
+        publisher.publishEvent(new RefreshRoutesEvent(this));
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.gatewaysupport.route;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 조회 API 로 노출하는 route 정보. Route 의 predicate / filter 객체 대신 미리 만들어 둔 문자열을 가진다.
+ */
+public record RouteDescriptor(String id, String uri, int order, String predicate, List<String> filters,
+                              Map<String, Object> metadata) {
+}
@@ -0,0 +1,107 @@
+package com.example.gatewaysupport.route;
+
+import org.springframework.cloud.gateway.event.RefreshRoutesResultEvent;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.context.ApplicationListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 라우팅 테이블 버전별로 {@link RouteDescriptor} 목록을 한 번만 만들어 재사용한다.
+ * <p>
+ * 버전은 RefreshRoutesResultEvent 가 성공하거나 {@link #invalidate()} 를 호출할 때마다 증가하며, 새 목록은 다음 조회 시점에 한 번만 만든다.
+ * 목록은 id 순으로 정렬되어 있어 id prefix 조회와 페이지 조회는 복사 없이 subList 로 처리한다.
+ */
+public class RouteDescriptorCache implements ApplicationListener<RefreshRoutesResultEvent> {
+    public static final int MAX_PAGE_SIZE = 1_000;
+
+    private final RouteLocator routeLocator;
+    private final RouteInformationFunction routeInformationFunction;
+    private final AtomicLong version = new AtomicLong();
+    private volatile Mono<Descriptors> descriptors;
+
+    public RouteDescriptorCache(RouteLocator routeLocator, RouteInformationFunction routeInformationFunction) {
+        this.routeLocator = routeLocator;
+        this.routeInformationFunction = routeInformationFunction;
+        this.descriptors = this.load(0);
+    }
+
+    @Override
+    public void onApplicationEvent(RefreshRoutesResultEvent event) {
+        if (event.isSuccess()) {
+            this.invalidate();
+        }
+    }
+
+    /**
+     * RefreshRoutesResultEvent 없이 route 목록이 바뀌는 경우(예: route table 을 직접 수정) 호출한다.
+     */
+    public void invalidate() {
+        this.descriptors = this.load(this.version.incrementAndGet());
+    }
+
+    public Mono<RouteDescriptorPage> page(String prefix, int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "page must be >= 0 and size must be between 1 and " + MAX_PAGE_SIZE));
+        }
+        return this.descriptors.map(descriptors -> descriptors.page(prefix, page, size));
+    }
+
+    public Flux<RouteDescriptor> stream(String prefix) {
+        return this.descriptors.flatMapIterable(descriptors -> descriptors.matching(prefix));
+    }
+
+    private Mono<Descriptors> load(long version) {
+        return this.routeLocator.getRoutes()
+            .map(this.routeInformationFunction)
+            .sort(Comparator.comparing(RouteDescriptor::id))
+            .collectList()
+            .map(routes -> new Descriptors(version, List.copyOf(routes)))
+            // 실패한 경우에는 캐시하지 않고 다음 조회에서 다시 만든다.
+            .cache(descriptors -> Duration.ofMillis(Long.MAX_VALUE), error -> Duration.ZERO, () -> Duration.ZERO);
+    }
+
+    private record Descriptors(long version, List<RouteDescriptor> routes) {
+
+        RouteDescriptorPage page(String prefix, int page, int size) {
+            List<RouteDescriptor> matching = this.matching(prefix);
+            int from = (int) Math.min((long) page * size, matching.size());
+            int to = Math.min(from + size, matching.size());
+            return new RouteDescriptorPage(this.version, matching.size(), page, size, matching.subList(from, to));
+        }
+
+        // id 로 정렬되어 있으므로 prefix 가 같은 route 는 연속되어 있다.
+        List<RouteDescriptor> matching(String prefix) {
+            if (prefix == null || prefix.isEmpty()) {
+                return this.routes;
+            }
+            int from = this.lowerBound(prefix);
+            int to = from;
+            while (to < this.routes.size() && this.routes.get(to).id().startsWith(prefix)) {
+                to++;
+            }
+            return this.routes.subList(from, to);
+        }
+
+        private int lowerBound(String id) {
+            int low = 0;
+            int high = this.routes.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (this.routes.get(mid).id().compareTo(id) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.gatewaysupport.route;
+
+import java.util.List;
+
+/**
+ * id 순으로 정렬된 {@link RouteDescriptor} 의 한 페이지. version 은 라우팅 테이블이 갱신될 때마다 증가한다.
+ */
+public record RouteDescriptorPage(long version, int total, int page, int size, List<RouteDescriptor> routes) {
+}
@@ -0,0 +1,28 @@
+package com.example.gatewaysupport.route;
+
+import java.util.List;
+
+/**
+ * Bulk import 결과. route 별 성공 / 실패와 전체 소요 시간을 담는다.
+ */
+public record RouteImportResult(int total, int succeeded, int failed, long elapsedMillis, List<Status> routes) {
+
+    public static RouteImportResult of(List<Status> routes, long elapsedMillis) {
+        int succeeded = (int) routes.stream().filter(Status::success).count();
+        return new RouteImportResult(routes.size(), succeeded, routes.size() - succeeded, elapsedMillis, routes);
+    }
+
+    /**
+     * @param line NDJSON body 의 줄 번호 (1 부터)
+     * @param id   route id. JSON 으로 읽지 못한 줄은 null
+     */
+    public record Status(long line, String id, boolean success, String message) {
+        static Status success(long line, String id) {
+            return new Status(line, id, true, null);
+        }
+
+        static Status failure(long line, String id, String message) {
+            return new Status(line, id, false, message);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.gatewaysupport.route;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinitionWriter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * NDJSON 으로 전달된 RouteDefinition 을 batch 단위로 검증 / 저장하고, 저장된 route 를 한 번만 refresh 한다.
+ * <p>
+ * 줄마다 따로 읽으므로 JSON 으로 읽지 못한 줄은 그 줄만 실패로 기록한다.
+ * 요청 body 를 읽다가 실패하거나 요청이 취소되어도 그때까지 저장된 route 는 refresh 한다.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class RouteImporter {
+    // 한 번에 읽어서 저장하는 route 수. 다음 batch 는 이전 batch 의 저장이 끝난 뒤 요청한다.
+    static final int IMPORT_BATCH_SIZE = 500;
+    private static final int IMPORT_WRITE_CONCURRENCY = 16;
+
+    private final RouteDefinitionWriter routeDefinitionWriter;
+    private final RouteRefresher routeRefresher;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @param lines NDJSON body 의 각 줄. 빈 줄은 건너뛴다.
+     */
+    public Mono<RouteImportResult> importRoutes(Flux<String> lines) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            // concatMap 이 결과를 순서대로 하나씩 전달하므로 동기화하지 않는다.
+            List<RouteDefinition> imported = new ArrayList<>();
+            return lines.index((index, line) -> new Line(index + 1, line))
+                .filter(line -> !line.text().isBlank())
+                .buffer(IMPORT_BATCH_SIZE)
+                .concatMap(batch -> Flux.fromIterable(batch).flatMapSequential(this::importLine, IMPORT_WRITE_CONCURRENCY), 1)
+                .doOnNext(result -> {
+                    if (result.route() != null) {
+                        imported.add(result.route());
+                    }
+                })
+                .map(ImportedRoute::status)
+                .collectList()
+                .map(statuses -> {
+                    RouteImportResult result = RouteImportResult.of(statuses, (System.nanoTime() - start) / 1_000_000);
+                    log.info("Imported routes: total={}, failed={}, elapsed={}ms", result.total(), result.failed(), result.elapsedMillis());
+                    return result;
+                })
+                .doFinally(signal -> {
+                    if (!imported.isEmpty()) {
+                        this.routeRefresher.refresh(List.copyOf(imported));
+                    }
+                });
+        });
+    }
+
+    private Mono<ImportedRoute> importLine(Line line) {
+        RouteDefinition route;
+        try {
+            route = this.objectMapper.readValue(line.text(), RouteDefinition.class);
+        } catch (JsonProcessingException e) {
+            return Mono.just(ImportedRoute.failure(line.number(), null, e.getOriginalMessage()));
+        }
+        if (route == null || route.getId() == null || route.getId().isBlank()) {
+            return Mono.just(ImportedRoute.failure(line.number(), null, "id may not be empty"));
+        }
+        Set<ConstraintViolation<RouteDefinition>> violations = this.validator.validate(route);
+        if (!violations.isEmpty()) {
+            String message = violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .collect(Collectors.joining(", "));
+            return Mono.just(ImportedRoute.failure(line.number(), route.getId(), message));
+        }
+        return this.routeDefinitionWriter.save(Mono.just(route))
+            .thenReturn(ImportedRoute.success(line.number(), route))
+            .onErrorResume(e -> Mono.just(ImportedRoute.failure(line.number(), route.getId(), e.getMessage())));
+    }
+
+    private record Line(long number, String text) {
+    }
+
+    private record ImportedRoute(RouteDefinition route, RouteImportResult.Status status) {
+        static ImportedRoute success(long line, RouteDefinition route) {
+            return new ImportedRoute(route, RouteImportResult.Status.success(line, route.getId()));
+        }
+
+        static ImportedRoute failure(long line, String id, String message) {
+            return new ImportedRoute(null, RouteImportResult.Status.failure(line, id, message));
+        }
+    }
+}
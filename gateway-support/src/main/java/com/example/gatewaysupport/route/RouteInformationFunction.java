@@ -0,0 +1,19 @@
+package com.example.gatewaysupport.route;
+
+import org.springframework.cloud.gateway.route.Route;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Route 를 조회 API 로 노출하는 {@link RouteDescriptor} 로 변환한다.
+ */
+public class RouteInformationFunction implements Function<Route, RouteDescriptor> {
+    @Override
+    public RouteDescriptor apply(Route route) {
+        // 필터를 직렬화하는데 실패하여 문자열로 출력
+        List<String> filters = route.getFilters().stream().map(Object::toString).toList();
+        return new RouteDescriptor(route.getId(), String.valueOf(route.getUri()), route.getOrder(),
+            String.valueOf(route.getPredicate()), filters, route.getMetadata());
+    }
+}
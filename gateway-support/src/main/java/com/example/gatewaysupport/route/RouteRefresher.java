@@ -0,0 +1,21 @@
+package com.example.gatewaysupport.route;
+
+import org.springframework.cloud.gateway.route.RouteDefinition;
+
+import java.util.Collection;
+
+/**
+ * RouteDefinition 이 저장 / 삭제된 이후 실제 라우팅 테이블에 반영하는 방법.
+ */
+public interface RouteRefresher {
+    /**
+     * @param id    변경된 route id
+     * @param route 변경된 RouteDefinition, 삭제된 경우 null
+     */
+    void refresh(String id, RouteDefinition route);
+
+    /**
+     * 여러 RouteDefinition 의 저장을 한 번의 refresh 로 반영한다.
+     */
+    void refresh(Collection<RouteDefinition> routes);
+}
@@ -0,0 +1,166 @@
+package com.example.gatewaysupport.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+class LocalRateLimiterGatewayFilterTests {
+    private static final Route ROUTE = Route.async().id("rate-limited").uri("http://localhost:8080").predicate(exchange -> true).build();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TokenBucketStore store = new TokenBucketStore(100_000, this.meterRegistry);
+    private final LocalRateLimiterGatewayFilterFactory factory = new LocalRateLimiterGatewayFilterFactory(this.store);
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private final GatewayFilterChain upstream = exchange -> {
+        this.upstreamCalls.incrementAndGet();
+        return Mono.empty();
+    };
+
+    @Test
+    void rejectsRequestsOverBurstWith429() {
+        GatewayFilter filter = this.factory.apply(config -> {
+            config.setReplenishRate(1);
+            config.setBurstCapacity(3);
+        });
+
+        for (int i = 0; i < 3; i++) {
+            MockServerWebExchange exchange = this.run(filter, this.from("10.0.0.1"));
+            assertThat(exchange.getResponse().getHeaders().getFirst(LocalRateLimiterGatewayFilter.REMAINING_HEADER))
+                .isEqualTo(Integer.toString(2 - i));
+        }
+        MockServerWebExchange rejected = this.run(filter, this.from("10.0.0.1"));
+
+        assertThat(this.upstreamCalls).hasValue(3);
+        assertThat(rejected.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        HttpHeaders headers = rejected.getResponse().getHeaders();
+        assertThat(headers.getFirst(LocalRateLimiterGatewayFilter.REMAINING_HEADER)).isEqualTo("0");
+        assertThat(headers.getFirst(LocalRateLimiterGatewayFilter.REPLENISH_RATE_HEADER)).isEqualTo("1");
+        assertThat(headers.getFirst(LocalRateLimiterGatewayFilter.BURST_CAPACITY_HEADER)).isEqualTo("3");
+        assertThat(headers.getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+
+        this.run(filter, this.from("10.0.0.2"));
+        assertThat(this.upstreamCalls).hasValue(4);
+    }
+
+    @Test
+    void keysByHeaderAndDeniesMissingKey() {
+        GatewayFilter filter = this.factory.apply(config -> {
+            config.setReplenishRate(1);
+            config.setKey(LocalRateLimiterGatewayFilter.KeyType.HEADER);
+            config.setHeader("X-Api-Key");
+        });
+
+        this.run(filter, MockServerHttpRequest.get("/").header("X-Api-Key", "a"));
+        MockServerWebExchange limited = this.run(filter, MockServerHttpRequest.get("/").header("X-Api-Key", "a"));
+        this.run(filter, MockServerHttpRequest.get("/").header("X-Api-Key", "b"));
+        MockServerWebExchange missing = this.run(filter, MockServerHttpRequest.get("/"));
+
+        assertThat(this.upstreamCalls).hasValue(2);
+        assertThat(limited.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(missing.getResponse().getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+    }
+
+    @Test
+    void refillsTokensOverTime() {
+        // 1024ns 마다 token 하나 (2 의 거듭제곱으로 계산 오차를 없앤다)
+        double rate = 1 / 1024.0;
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(this.store.tryConsume("a", 0, 10, rate, 1).allowed()).isTrue();
+        }
+        TokenBucketStore.Result denied = this.store.tryConsume("a", 0, 10, rate, 1);
+        assertThat(denied.allowed()).isFalse();
+        assertThat(denied.retryAfter()).isEqualTo(1024);
+
+        assertThat(this.store.tryConsume("a", 5 * 1024, 10, rate, 1).remaining()).isEqualTo(4);
+        assertThat(this.store.tryConsume("a", 1_000_000, 10, rate, 1).remaining()).isEqualTo(9);
+    }
+
+    @Test
+    void boundsNumberOfBuckets() {
+        TokenBucketStore store = new TokenBucketStore(64 * 10, this.meterRegistry);
+        double rate = 1 / (double) TimeUnit.HOURS.toNanos(1);
+
+        for (int i = 0; i < 100_000; i++) {
+            store.tryConsume("client-" + i, i, 10, rate, 1);
+        }
+
+        assertThat(store.keys()).isLessThanOrEqualTo(64 * 10);
+        assertThat(this.meterRegistry.get("gateway.rate-limiter.evictions").counter().count()).isPositive();
+    }
+
+    @Test
+    void removesRefilledBucketsWithoutEviction() {
+        double rate = 1 / (double) TimeUnit.MILLISECONDS.toNanos(1);
+
+        for (int i = 0; i < 10_000; i++) {
+            this.store.tryConsume("client-" + i, TimeUnit.MILLISECONDS.toNanos(i), 1, rate, 1);
+        }
+
+        assertThat(this.store.keys()).isLessThan(1_000);
+        assertThat(this.meterRegistry.get("gateway.rate-limiter.evictions").counter().count()).isZero();
+    }
+
+    @Test
+    void allowsExactlyBurstUnderConcurrency() throws InterruptedException {
+        GatewayFilter filter = this.factory.apply(config -> {
+            config.setReplenishRate(1);
+            config.setBurstCapacity(1_000);
+            config.setKey(LocalRateLimiterGatewayFilter.KeyType.ROUTE);
+        });
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 500; i++) {
+                    this.run(filter, MockServerHttpRequest.get("/"));
+                }
+                done.countDown();
+            });
+        }
+
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        executor.shutdown();
+        // 테스트 중 채워지는 token 은 많아야 수십 개
+        assertThat(this.upstreamCalls.get()).isBetween(1_000, 1_050);
+    }
+
+    @Test
+    void rejectsRequestedTokensOverBurst() {
+        assertThatThrownBy(() -> this.factory.apply(config -> {
+            config.setReplenishRate(1);
+            config.setBurstCapacity(3);
+            config.setRequestedTokens(4);
+        })).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private MockServerHttpRequest.BaseBuilder<?> from(String ip) {
+        return MockServerHttpRequest.get("/").remoteAddress(new InetSocketAddress(ip, 40000));
+    }
+
+    private MockServerWebExchange run(GatewayFilter filter, MockServerHttpRequest.BaseBuilder<?> request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, ROUTE);
+        filter.filter(exchange, this.upstream).block();
+        return exchange;
+    }
+}
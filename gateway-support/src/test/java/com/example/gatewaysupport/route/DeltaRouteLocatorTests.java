@@ -0,0 +1,157 @@
+package com.example.gatewaysupport.route;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.config.GatewayProperties;
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.cloud.gateway.event.RefreshRoutesResultEvent;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.format.support.DefaultFormattingConversionService;
+import org.springframework.validation.beanvalidation.OptionalValidatorFactoryBean;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeltaRouteLocatorTests {
+    private static final Duration DEBOUNCE = Duration.ofMillis(200);
+
+    private final AtomicReference<Flux<Route>> source = new AtomicReference<>(Flux.empty());
+    private final List<Object> events = new CopyOnWriteArrayList<>();
+    private VirtualTimeScheduler scheduler;
+    private DeltaRouteLocator locator;
+
+    @BeforeEach
+    void setUp() {
+        // debounce / sample 이 사용하는 parallel scheduler 를 가상 시간으로 바꾼다.
+        this.scheduler = VirtualTimeScheduler.getOrSet();
+        this.locator = new DeltaRouteLocator(() -> Flux.defer(this.source::get), List.of(), List.of(),
+            new GatewayProperties(), configurationService(), DEBOUNCE);
+        this.locator.setApplicationEventPublisher(this.events::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.locator.destroy();
+        VirtualTimeScheduler.reset();
+    }
+
+    @Test
+    void coalescesChangesUntilDebounceElapses() {
+        this.source.set(Flux.just(route("a", "http://a-v1")));
+        assertThat(uris()).containsEntry("a", "http://a-v1");
+
+        this.locator.refresh("a", definition("a", "http://a-v2"));
+        this.scheduler.advanceTimeBy(Duration.ofMillis(150));
+        this.locator.refresh("b", definition("b", "http://b-v1"));
+        this.scheduler.advanceTimeBy(Duration.ofMillis(150));
+        this.locator.refresh("a", null);
+        this.scheduler.advanceTimeBy(Duration.ofMillis(150));
+
+        // 마지막 변경 이후 debounce 가 지나지 않았으므로 아직 반영하지 않는다.
+        assertThat(resultEvents()).isZero();
+        assertThat(uris()).containsOnlyKeys("a");
+
+        this.scheduler.advanceTimeBy(DEBOUNCE);
+
+        assertThat(resultEvents()).isEqualTo(1);
+        assertThat(uris()).containsOnly(Map.entry("b", "http://b-v1"));
+    }
+
+    @Test
+    void appliesContinuousChangesAfterMaxDelay() {
+        assertThat(uris()).isEmpty();
+
+        for (int i = 0; i < DeltaRouteLocator.MAX_DELAY_FACTOR * 2 + 5; i++) {
+            this.locator.refresh("route-" + i, definition("route-" + i, "http://route-" + i));
+            this.scheduler.advanceTimeBy(DEBOUNCE.dividedBy(2));
+        }
+
+        assertThat(resultEvents()).isPositive();
+        assertThat(uris()).containsKey("route-0");
+    }
+
+    @Test
+    void fullRefreshStartedBeforeChangeDoesNotOverwriteIt() {
+        this.source.set(Flux.just(route("a", "http://a-v1"), route("b", "http://b-v1")));
+        assertThat(uris()).containsOnlyKeys("a", "b");
+
+        // 전체 refresh 가 저장소를 읽기 시작했지만 아직 끝나지 않은 상태
+        Sinks.Many<Route> stale = Sinks.many().replay().all();
+        this.source.set(stale.asFlux());
+        this.locator.onApplicationEvent(new RefreshRoutesEvent(this));
+
+        this.locator.refresh("a", definition("a", "http://a-v2"));
+        this.locator.refresh("c", definition("c", "http://c-v1"));
+        this.scheduler.advanceTimeBy(DEBOUNCE);
+        assertThat(uris()).containsEntry("a", "http://a-v2").containsKey("c");
+
+        // 변경 이전의 route 로 전체 refresh 가 끝난다. b 의 변경은 전체 refresh 로만 반영된다.
+        stale.tryEmitNext(route("a", "http://a-v1"));
+        stale.tryEmitNext(route("b", "http://b-v2"));
+        stale.tryEmitComplete();
+
+        assertThat(uris()).containsOnly(
+            Map.entry("a", "http://a-v2"),
+            Map.entry("b", "http://b-v2"),
+            Map.entry("c", "http://c-v1"));
+    }
+
+    @Test
+    void fullRefreshStartedAfterChangeReplacesIt() {
+        this.source.set(Flux.just(route("a", "http://a-v1")));
+        assertThat(uris()).containsOnlyKeys("a");
+
+        this.locator.refresh("a", definition("a", "http://a-v2"));
+        this.scheduler.advanceTimeBy(DEBOUNCE);
+
+        this.source.set(Flux.just(route("a", "http://a-v3")));
+        this.locator.onApplicationEvent(new RefreshRoutesEvent(this));
+
+        assertThat(uris()).containsOnly(Map.entry("a", "http://a-v3"));
+    }
+
+    private Map<String, String> uris() {
+        return this.locator.getRoutes()
+            .collectList()
+            .block()
+            .stream()
+            .collect(Collectors.toMap(Route::getId, route -> route.getUri().toString()));
+    }
+
+    private long resultEvents() {
+        return this.events.stream().filter(RefreshRoutesResultEvent.class::isInstance).count();
+    }
+
+    private static Route route(String id, String uri) {
+        return Route.async().id(id).uri(uri).predicate(exchange -> true).build();
+    }
+
+    private static RouteDefinition definition(String id, String uri) {
+        RouteDefinition definition = new RouteDefinition();
+        definition.setId(id);
+        definition.setUri(URI.create(uri));
+        return definition;
+    }
+
+    private static ConfigurationService configurationService() {
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.refresh();
+        OptionalValidatorFactoryBean validator = new OptionalValidatorFactoryBean();
+        validator.afterPropertiesSet();
+        return new ConfigurationService(context.getBeanFactory(), DefaultFormattingConversionService::new, () -> validator);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.gatewaysupport.route;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.event.RefreshRoutesResultEvent;
+import org.springframework.cloud.gateway.route.Route;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RouteDescriptorCacheTests {
+    private final List<Route> routes = new CopyOnWriteArrayList<>();
+    private final AtomicInteger conversions = new AtomicInteger();
+    private final RouteDescriptorCache cache = new RouteDescriptorCache(() -> Flux.fromIterable(this.routes), new RouteInformationFunction() {
+        @Override
+        public RouteDescriptor apply(Route route) {
+            conversions.incrementAndGet();
+            return super.apply(route);
+        }
+    });
+
+    @Test
+    void pagesRoutesByIdPrefix() {
+        for (String id : new String[]{"user-3", "order-1", "user-1", "user-2", "users", "admin"}) {
+            this.routes.add(route(id));
+        }
+
+        RouteDescriptorPage page = this.cache.page("user-", 1, 2).block();
+
+        assertThat(page.total()).isEqualTo(3);
+        assertThat(page.routes()).extracting(RouteDescriptor::id).containsExactly("user-3");
+        assertThat(this.cache.stream("user").map(RouteDescriptor::id).collectList().block())
+            .containsExactly("user-1", "user-2", "user-3", "users");
+        assertThat(this.cache.page("none", 0, 10).block().total()).isZero();
+        assertThat(this.cache.page(null, 0, 10).block().routes()).extracting(RouteDescriptor::id)
+            .containsExactly("admin", "order-1", "user-1", "user-2", "user-3", "users");
+    }
+
+    @Test
+    void rebuildsOnlyWhenRouteTableIsRefreshed() {
+        this.routes.add(route("a"));
+        this.cache.page(null, 0, 10).block();
+        this.cache.stream(null).blockLast();
+        assertThat(this.conversions).hasValue(1);
+
+        this.routes.add(route("b"));
+        assertThat(this.cache.page(null, 0, 10).block().total()).isEqualTo(1);
+
+        this.cache.onApplicationEvent(new RefreshRoutesResultEvent(this));
+        RouteDescriptorPage page = this.cache.page(null, 0, 10).block();
+        assertThat(page.version()).isEqualTo(1);
+        assertThat(page.total()).isEqualTo(2);
+        assertThat(this.conversions).hasValue(3);
+    }
+
+    private static Route route(String id) {
+        return Route.async().id(id).uri("http://localhost:8080").predicate(exchange -> true).build();
+    }
+}
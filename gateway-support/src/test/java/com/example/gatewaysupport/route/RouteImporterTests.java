@@ -0,0 +1,86 @@
+package com.example.gatewaysupport.route;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.route.InMemoryRouteDefinitionRepository;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class RouteImporterTests {
+    private final InMemoryRouteDefinitionRepository repository = new InMemoryRouteDefinitionRepository();
+    private final RecordingRefresher refresher = new RecordingRefresher();
+    private final RouteImporter importer = new RouteImporter(this.repository, this.refresher,
+        Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper());
+
+    @Test
+    void reportsMalformedLineAndImportsTheRest() {
+        Flux<String> lines = Flux.just(
+            route("first"),
+            "{\"id\": \"broken\", \"uri\": ",
+            "",
+            "{\"id\": \"no-uri\", \"predicates\": [{\"name\": \"Path\", \"args\": {\"pattern\": \"/no-uri/**\"}}]}",
+            route("second"));
+
+        RouteImportResult result = this.importer.importRoutes(lines).block();
+
+        assertThat(result.total()).isEqualTo(4);
+        assertThat(result.succeeded()).isEqualTo(2);
+        assertThat(result.routes())
+            .extracting(RouteImportResult.Status::line, RouteImportResult.Status::id, RouteImportResult.Status::success)
+            .containsExactly(
+                tuple(1L, "first", true),
+                tuple(2L, null, false),
+                tuple(4L, "no-uri", false),
+                tuple(5L, "second", true));
+        assertThat(result.routes().get(1).message()).isNotBlank();
+        assertThat(this.repository.getRouteDefinitions().map(RouteDefinition::getId).collectList().block())
+            .containsExactlyInAnyOrder("first", "second");
+        assertThat(this.refresher.refreshed).singleElement()
+            .satisfies(routes -> assertThat(routes).extracting(RouteDefinition::getId).containsExactly("first", "second"));
+    }
+
+    @Test
+    void refreshesSavedBatchesWhenBodyFails() {
+        // 첫 batch 는 저장되고, 나머지는 body 를 읽다가 실패한다.
+        Flux<String> lines = Flux.range(0, RouteImporter.IMPORT_BATCH_SIZE + 10)
+            .map(i -> route("route-" + i))
+            .concatWith(Flux.error(new IOException("connection reset")));
+
+        StepVerifier.create(this.importer.importRoutes(lines))
+            .expectError(IOException.class)
+            .verify();
+
+        assertThat(this.refresher.refreshed).singleElement()
+            .satisfies(routes -> assertThat(routes).hasSize(RouteImporter.IMPORT_BATCH_SIZE));
+        assertThat(this.repository.getRouteDefinitions().count().block()).isEqualTo(RouteImporter.IMPORT_BATCH_SIZE);
+    }
+
+    private static String route(String id) {
+        return "{\"id\": \"" + id + "\", \"uri\": \"http://localhost:8080\", "
+            + "\"predicates\": [{\"name\": \"Path\", \"args\": {\"pattern\": \"/" + id + "/**\"}}]}";
+    }
+
+    private static class RecordingRefresher implements RouteRefresher {
+        private final List<List<RouteDefinition>> refreshed = new ArrayList<>();
+
+        @Override
+        public void refresh(String id, RouteDefinition route) {
+            this.refreshed.add(route == null ? List.of() : List.of(route));
+        }
+
+        @Override
+        public void refresh(Collection<RouteDefinition> routes) {
+            this.refreshed.add(List.copyOf(routes));
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package de.v.gom.sample.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * 부하 테스트 대상 gateway 모듈. 모든 모듈에 /load/** 를 application-1 로 보내는 route 를 추가한다.
+ * <ul>
+ *     <li>root: route 파일(gateway.route-file) 로 추가한다. 80 port 대신 8000 port 를 사용한다.</li>
+ *     <li>gateway-in-memory / gateway-redis: 시작한 뒤 관리 API 로 등록한다.</li>
+ * </ul>
+ */
+enum GatewayModule {
+    ROOT("root", ".", "gateway", 8000, null),
+    IN_MEMORY("gateway-in-memory", "gateway-in-memory", "gateway-in-memory", 8081, "/v1/routes/in-memory"),
+    REDIS("gateway-redis", "gateway-redis", "gateway-redis", 8082, "/v1/routes/redis");
+
+    static final String UPSTREAM = "http://localhost:8080";
+    private static final String ROUTE_ID = "load-test";
+
+    private final String id;
+    private final String directory;
+    private final String jarName;
+    private final int port;
+    private final String adminPath;
+
+    GatewayModule(String id, String directory, String jarName, int port, String adminPath) {
+        this.id = id;
+        this.directory = directory;
+        this.jarName = jarName;
+        this.port = port;
+        this.adminPath = adminPath;
+    }
+
+    static GatewayModule of(String id) {
+        for (GatewayModule module : values()) {
+            if (module.id.equals(id)) {
+                return module;
+            }
+        }
+        throw new IllegalArgumentException("Unknown gateway module: " + id);
+    }
+
+    String id() {
+        return this.id;
+    }
+
+    Path jar(Path root) {
+        return root.resolve(this.directory).resolve("build/libs/" + this.jarName + "-0.0.1-SNAPSHOT.jar");
+    }
+
+    URI uri(String path) {
+        return URI.create("http://localhost:" + this.port + path);
+    }
+
+    /**
+     * gateway 실행 인자. root 는 /load/** route 를 정의한 route 파일을 output 에 만든다.
+     */
+    List<String> arguments(Path output) throws IOException {
+        if (this != ROOT) {
+            return List.of();
+        }
+        Path routes = output.resolve("routes.yml");
+        Files.writeString(routes, """
+            routes:
+              - id: %s
+                uri: %s
+                predicates:
+                  - Path=/load/**
+            """.formatted(ROUTE_ID, UPSTREAM));
+        return List.of("--server.port=" + this.port, "--gateway.route-file.enabled=true", "--gateway.route-file.path=" + routes);
+    }
+
+    /**
+     * 관리 API 로 /load/** route 를 등록한다. 관리 API 가 아직 준비되지 않았으면 false 를 반환한다.
+     */
+    boolean register(HttpClient client) throws InterruptedException {
+        if (this.adminPath == null) {
+            return true;
+        }
+        String route = """
+            {"id":"%s","uri":"%s","predicates":[{"name":"Path","args":{"pattern":"/load/**"}}]}
+            """.formatted(ROUTE_ID, UPSTREAM);
+        try {
+            HttpResponse<Void> response = client.send(HttpRequest.newBuilder(this.uri(this.adminPath))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(route))
+                .build(), HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() / 100 == 2;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package de.v.gom.sample.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * route 별 처리량과 응답 시간(p50 / p99 / p999 / max) 을 출력한다.
+ * 전체 분포는 output/{route}.hgrm 에 저장한다. (HdrHistogram plotter 로 여러 결과를 비교할 수 있다)
+ */
+final class LoadReport {
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final List<RouteStats.Result> results;
+    private final Duration duration;
+
+    LoadReport(List<RouteStats.Result> results, Duration duration) {
+        this.results = results;
+        this.duration = duration;
+    }
+
+    void print(PrintStream out, String title) {
+        out.println(title);
+        out.printf("%-12s %10s %10s %8s %8s %8s %10s %10s %10s %10s%n",
+            "route", "requests", "req/s", "4xx/5xx", "errors", "dropped", "p50(ms)", "p99(ms)", "p999(ms)", "max(ms)");
+        Histogram total = new Histogram(3);
+        for (RouteStats.Result result : this.results) {
+            this.row(out, result.route().name(), result.latency(), result.completed(), result.failed(), result.errors(), result.dropped());
+            total.add(result.latency());
+        }
+        this.row(out, "total", total,
+            this.results.stream().mapToLong(RouteStats.Result::completed).sum(),
+            this.results.stream().mapToLong(RouteStats.Result::failed).sum(),
+            this.results.stream().mapToLong(RouteStats.Result::errors).sum(),
+            this.results.stream().mapToLong(RouteStats.Result::dropped).sum());
+    }
+
+    void save(Path output) throws IOException {
+        for (RouteStats.Result result : this.results) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(output.resolve(result.route().name() + ".hgrm")))) {
+                result.latency().outputPercentileDistribution(out, NANOS_PER_MILLI);
+            }
+        }
+    }
+
+    private void row(PrintStream out, String name, Histogram latency, long completed, long failed, long errors, long dropped) {
+        out.printf("%-12s %10d %10.1f %8d %8d %8d %10.2f %10.2f %10.2f %10.2f%n",
+            name, completed, completed / (this.duration.toNanos() / 1e9), failed, errors, dropped,
+            millis(latency, 50), millis(latency, 99), millis(latency, 99.9), latency.getMaxValue() / NANOS_PER_MILLI);
+    }
+
+    private static double millis(Histogram latency, double percentile) {
+        return latency.getValueAtPercentile(percentile) / NANOS_PER_MILLI;
+    }
+}
@@ -0,0 +1,63 @@
+package de.v.gom.sample.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * application-1 과 gateway 모듈을 실행하고, gateway 를 거쳐 application-1 의 /load/** 로 일정한 도착률의 요청을 보낸다.
+ * <p>
+ * 실행: ./gradlew loadTest -Pgateway=root -Prate=2000 -Pwarmup=10s -Pduration=60s (옵션은 {@link LoadTestOptions})
+ * <p>
+ * application-1 의 /load/{name} 은 query 로 지연 시간 / 응답 크기 / 에러 비율을 지정한다. (LoadController)
+ * 부하 생성기와 gateway, upstream 이 같은 장비에서 CPU 를 나누어 쓰므로 결과는 같은 장비에서 실행한 결과끼리만 비교한다.
+ */
+public final class LoadTest {
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(120);
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        Files.createDirectories(options.output());
+        GatewayModule gateway = options.gateway();
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()))
+            .build();
+
+        try (LocalProcess upstream = LocalProcess.start("application-1",
+                options.root().resolve("application-1/build/libs/application-1-0.0.1-SNAPSHOT.jar"), List.of("--server.port=8080"), options.output());
+             LocalProcess gatewayProcess = LocalProcess.start(gateway.id(), gateway.jar(options.root()),
+                 gateway.arguments(options.output()), options.output())) {
+            upstream.awaitReady(client, URI.create(GatewayModule.UPSTREAM + "/load/ready"), STARTUP_TIMEOUT);
+            gatewayProcess.await(() -> {
+                try {
+                    return gateway.register(client);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }, STARTUP_TIMEOUT, "route registration");
+            gatewayProcess.awaitReady(client, gateway.uri("/load/ready"), STARTUP_TIMEOUT);
+
+            List<String> routes = new ArrayList<>();
+            options.routes().forEach(route -> routes.add(route.name() + "=" + route.path()));
+            System.out.printf("Load test: gateway=%s, rate=%d/s, warmup=%s, duration=%s, routes=%s%n",
+                gateway.id(), options.rate(), options.warmup(), options.duration(), routes);
+
+            OpenLoadGenerator generator = new OpenLoadGenerator(client, gateway, options.rate(), options.maxOutstanding());
+            LoadReport report = new LoadReport(generator.run(options.routes(), options.warmup(), options.duration()), options.duration());
+            report.print(System.out, "Result (latency from intended send time):");
+            report.save(options.output());
+            System.out.println("Histograms and logs: " + options.output());
+        }
+        System.exit(0);
+    }
+}
@@ -0,0 +1,66 @@
+package de.v.gom.sample.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 명령행 옵션 (--name=value)
+ * <ul>
+ *     <li>gateway: root | gateway-in-memory | gateway-redis (기본 root)</li>
+ *     <li>rate: 초당 요청 수. 모든 route 에 번갈아 보낸다. (기본 1000)</li>
+ *     <li>warmup / duration: 결과에서 제외하는 시작 구간과 측정 구간 (기본 10s / 30s)</li>
+ *     <li>routes: name=path 를 ; 로 구분한 목록 (기본 {@link #DEFAULT_ROUTES})</li>
+ *     <li>max-outstanding: 응답을 기다리는 최대 요청 수. 넘는 요청은 보내지 않고 dropped 로 집계하며, 응답 시간은 요청 timeout 으로 기록한다. (기본 10000)</li>
+ *     <li>root / output: 저장소 경로와 log / histogram 을 저장할 경로</li>
+ * </ul>
+ */
+record LoadTestOptions(GatewayModule gateway, Path root, Path output, int rate, Duration warmup, Duration duration,
+                       List<TargetRoute> routes, int maxOutstanding) {
+    static final String DEFAULT_ROUTES = "small=/load/small?size=512;"
+        + "large=/load/large?size=65536;"
+        + "slow=/load/slow?latency=50&jitter=10;"
+        + "flaky=/load/flaky?latency=5&errorRate=0.05";
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Option must be --name=value: " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        LoadTestOptions parsed = new LoadTestOptions(
+            GatewayModule.of(options.getOrDefault("gateway", "root")),
+            Path.of(options.getOrDefault("root", "..")).toAbsolutePath().normalize(),
+            Path.of(options.getOrDefault("output", "build/load-test")).toAbsolutePath().normalize(),
+            Integer.parseInt(options.getOrDefault("rate", "1000")),
+            duration(options.getOrDefault("warmup", "10s")),
+            duration(options.getOrDefault("duration", "30s")),
+            Arrays.stream(options.getOrDefault("routes", DEFAULT_ROUTES).split(";"))
+                .filter(route -> !route.isBlank())
+                .map(TargetRoute::parse)
+                .toList(),
+            Integer.parseInt(options.getOrDefault("max-outstanding", "10000")));
+        if (parsed.rate() <= 0 || parsed.maxOutstanding() <= 0 || parsed.duration().isZero() || parsed.routes().isEmpty()) {
+            throw new IllegalArgumentException("rate, max-outstanding, duration and routes must be positive: " + options);
+        }
+        return parsed;
+    }
+
+    // 500ms, 30s, 2m
+    private static Duration duration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            default -> throw new IllegalArgumentException("Duration must end with ms, s or m: " + value);
+        };
+    }
+}
@@ -0,0 +1,89 @@
+package de.v.gom.sample.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 부하 테스트 동안 실행하는 boot jar. 출력은 output/{name}.log 에 저장한다.
+ */
+final class LocalProcess implements AutoCloseable {
+    private final String name;
+    private final Process process;
+    private final Path log;
+
+    private LocalProcess(String name, Process process, Path log) {
+        this.name = name;
+        this.process = process;
+        this.log = log;
+    }
+
+    static LocalProcess start(String name, Path jar, List<String> arguments, Path output) throws IOException {
+        if (!Files.isRegularFile(jar)) {
+            throw new IllegalStateException("Boot jar not found: " + jar + " (run ./gradlew loadTest to build it)");
+        }
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-jar");
+        command.add(jar.toString());
+        command.addAll(arguments);
+        Path log = output.resolve(name + ".log");
+        Process process = new ProcessBuilder(command)
+            .redirectErrorStream(true)
+            .redirectOutput(log.toFile())
+            .start();
+        return new LocalProcess(name, process, log);
+    }
+
+    /**
+     * uri 가 200 으로 응답할 때까지 기다린다.
+     */
+    void awaitReady(HttpClient client, URI uri, Duration timeout) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(1)).build();
+        this.await(() -> {
+            try {
+                return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+            } catch (IOException e) {
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }, timeout, uri.toString());
+    }
+
+    void await(BooleanSupplier condition, Duration timeout, String description) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!condition.getAsBoolean()) {
+            if (!this.process.isAlive()) {
+                throw new IllegalStateException(this.name + " exited with " + this.process.exitValue() + " (log: " + this.log + ")");
+            }
+            if (System.nanoTime() > deadline || Thread.currentThread().isInterrupted()) {
+                throw new IllegalStateException(this.name + " is not ready: " + description + " (log: " + this.log + ")");
+            }
+            Thread.sleep(100);
+        }
+    }
+
+    @Override
+    public void close() {
+        this.process.destroy();
+        try {
+            if (!this.process.waitFor(10, TimeUnit.SECONDS)) {
+                this.process.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            this.process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package de.v.gom.sample.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * open model 부하 생성기. 응답과 상관없이 일정한 도착률(rate) 로 요청을 보낸다.
+ * <p>
+ * i 번째 요청은 시작 시점 + i / rate 에 보내도록 예정되며, route 에 번갈아 보낸다. 응답을 기다리지 않으므로 gateway 가 느려져도
+ * 보내는 요청 수가 줄지 않는다. (closed model 의 고정된 동시 사용자 수와 다르다)
+ */
+final class OpenLoadGenerator {
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient client;
+    private final GatewayModule gateway;
+    private final int rate;
+    private final int maxOutstanding;
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    OpenLoadGenerator(HttpClient client, GatewayModule gateway, int rate, int maxOutstanding) {
+        this.client = client;
+        this.gateway = gateway;
+        this.rate = rate;
+        this.maxOutstanding = maxOutstanding;
+    }
+
+    /**
+     * warmup 동안 예정된 요청의 결과는 버리고, 그 뒤 duration 동안 예정된 요청의 결과만 반환한다.
+     */
+    List<RouteStats.Result> run(List<TargetRoute> routes, Duration warmup, Duration duration) throws InterruptedException {
+        List<RouteStats> stats = routes.stream().map(RouteStats::new).toList();
+        List<HttpRequest> requests = routes.stream()
+            .map(route -> HttpRequest.newBuilder(this.gateway.uri(route.path())).timeout(REQUEST_TIMEOUT).GET().build())
+            .toList();
+        double interval = TimeUnit.SECONDS.toNanos(1) / (double) this.rate;
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+
+        for (long i = 0; ; i++) {
+            long intended = start + (long) (i * interval);
+            if (intended >= end) {
+                break;
+            }
+            boolean measured = intended >= measureFrom;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            int index = (int) (i % routes.size());
+            this.send(requests.get(index), stats.get(index), intended, measured);
+        }
+        // 측정 구간에 보낸 요청의 응답까지 기다린다.
+        long deadline = System.nanoTime() + REQUEST_TIMEOUT.toNanos() + TimeUnit.SECONDS.toNanos(5);
+        while (this.outstanding.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return stats.stream().map(RouteStats::result).toList();
+    }
+
+    // warmup 구간에 예정된 요청은 보내기만 하고 결과는 기록하지 않는다.
+    private void send(HttpRequest request, RouteStats stats, long intended, boolean measured) {
+        if (this.outstanding.incrementAndGet() > this.maxOutstanding) {
+            this.outstanding.decrementAndGet();
+            if (measured) {
+                stats.drop(REQUEST_TIMEOUT.toNanos());
+            }
+            return;
+        }
+        this.client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+            .whenComplete((response, error) -> {
+                if (measured) {
+                    stats.record(System.nanoTime() - intended, response != null ? response.statusCode() : 0);
+                }
+                this.outstanding.decrementAndGet();
+            });
+    }
+}
@@ -0,0 +1,69 @@
+package de.v.gom.sample.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * route 별 응답 시간과 결과 수.
+ * <p>
+ * 응답 시간은 요청을 실제로 보낸 시점이 아니라 보내기로 예정된 시점부터 측정한다. 부하 생성기나 연결이 밀려 요청이 늦게 나가더라도
+ * 그 대기 시간이 결과에 포함되므로, 느린 응답 동안 요청을 덜 보내 지연이 가려지는 coordinated omission 이 생기지 않는다.
+ * 같은 이유로 보내지 못한(dropped) 요청도 응답 시간 분포에서 빼지 않고 요청 timeout 만큼 걸린 것으로 기록한다.
+ */
+final class RouteStats {
+    private static final long MAX_LATENCY = TimeUnit.MINUTES.toNanos(1);
+
+    private final TargetRoute route;
+    private final Recorder latency = new Recorder(MAX_LATENCY, 3);
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    RouteStats(TargetRoute route) {
+        this.route = route;
+    }
+
+    TargetRoute route() {
+        return this.route;
+    }
+
+    /**
+     * status 가 0 이면 응답을 받지 못한 요청이다. (연결 실패, timeout)
+     */
+    void record(long latencyNanos, int status) {
+        this.latency.recordValue(Math.min(latencyNanos, MAX_LATENCY));
+        if (status == 0) {
+            this.errors.increment();
+        } else if (status < 400) {
+            this.succeeded.increment();
+        } else {
+            this.failed.increment();
+        }
+    }
+
+    void drop(long timeoutNanos) {
+        this.latency.recordValue(Math.min(timeoutNanos, MAX_LATENCY));
+        this.dropped.increment();
+    }
+
+    Result result() {
+        return new Result(this.route, this.latency.getIntervalHistogram(), this.succeeded.sum(), this.failed.sum(),
+            this.errors.sum(), this.dropped.sum());
+    }
+
+    /**
+     * @param failed 4xx / 5xx 응답 수
+     * @param errors 응답을 받지 못한 요청 수
+     * @param dropped max-outstanding 을 넘어 보내지 못한 요청 수. latency 에는 요청 timeout 으로 포함된다.
+     */
+    record Result(TargetRoute route, Histogram latency, long succeeded, long failed, long errors, long dropped) {
+
+        long completed() {
+            return this.succeeded + this.failed + this.errors;
+        }
+    }
+}
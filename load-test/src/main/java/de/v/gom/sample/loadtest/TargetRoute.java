@@ -0,0 +1,21 @@
+package de.v.gom.sample.loadtest;
+
+/**
+ * 부하를 보낼 경로. 결과는 name 별로 집계한다.
+ *
+ * @param name 결과에 표시할 이름
+ * @param path gateway 기준 경로와 query (예: /load/slow?latency=50&amp;jitter=10)
+ */
+record TargetRoute(String name, String path) {
+
+    /**
+     * name=path 형식을 읽는다.
+     */
+    static TargetRoute parse(String value) {
+        int separator = value.indexOf('=');
+        if (separator <= 0 || separator == value.length() - 1 || value.charAt(separator + 1) != '/') {
+            throw new IllegalArgumentException("Route must be name=/path: " + value);
+        }
+        return new TargetRoute(value.substring(0, separator).trim(), value.substring(separator + 1).trim());
+    }
+}
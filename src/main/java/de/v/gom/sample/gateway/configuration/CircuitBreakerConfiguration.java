@@ -0,0 +1,33 @@
+package de.v.gom.sample.gateway.configuration;
+
+import de.v.gom.sample.gateway.filter.breaker.CircuitBreakerHedgeGatewayFilterFactory;
+import de.v.gom.sample.gateway.filter.breaker.RouteBreakers;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.List;
+
+@Configuration
+public class CircuitBreakerConfiguration {
+
+    /**
+     * route id 별 circuit breaker 상태. route 가 refresh 되어도 유지된다. (metric: gateway.circuit-breaker.*, gateway.hedge.*)
+     */
+    @Bean
+    public RouteBreakers routeBreakers(MeterRegistry meterRegistry) {
+        return new RouteBreakers(meterRegistry);
+    }
+
+    @Bean
+    public CircuitBreakerHedgeGatewayFilterFactory circuitBreakerHedgeGatewayFilterFactory(RouteBreakers routeBreakers,
+                                                                                           HttpClient httpClient,
+                                                                                           ObjectProvider<List<HttpHeadersFilter>> headersFilters,
+                                                                                           HttpClientProperties properties) {
+        return new CircuitBreakerHedgeGatewayFilterFactory(routeBreakers, httpClient, headersFilters, properties.getResponseTimeout());
+    }
+}
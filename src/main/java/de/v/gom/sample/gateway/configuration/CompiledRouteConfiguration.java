@@ -0,0 +1,53 @@
+package de.v.gom.sample.gateway.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.v.gom.sample.gateway.router.compiled.CompiledRouteBuilder;
+import de.v.gom.sample.gateway.router.compiled.CompiledRouteLocator;
+import de.v.gom.sample.gateway.router.compiled.GeneratedRouteTable;
+import de.v.gom.sample.gateway.router.file.RouteDefinitionConverter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.gateway.config.GatewayProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.GatewayFilterFactory;
+import org.springframework.cloud.gateway.handler.predicate.RoutePredicateFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * gateway.compiled-routes.enabled=true 인 경우 build 시점에 route catalog(src/main/routes) 로부터 생성된 route table 을 사용한다.
+ * (./gradlew generateRouteTable -ProuteCatalog=... 로 catalog 위치를 바꿀 수 있다)
+ */
+@Configuration
+@ConditionalOnProperty(name = "gateway.compiled-routes.enabled", havingValue = "true")
+public class CompiledRouteConfiguration {
+
+    @Bean
+    public CompiledRouteLocator compiledRouteLocator(ObjectMapper objectMapper,
+                                                     List<RoutePredicateFactory> predicates,
+                                                     List<GatewayFilterFactory> filters,
+                                                     GatewayProperties gatewayProperties,
+                                                     ConfigurationService configurationService) {
+        RouteDefinitionConverter converter = new RouteDefinitionConverter(predicates, filters, gatewayProperties, configurationService);
+        CompiledRouteBuilder builder = new CompiledRouteBuilder(predicates, filters, defaultFilters(converter), converter::convert, objectMapper);
+        return new CompiledRouteLocator(new GeneratedRouteTable(), builder);
+    }
+
+    // spring.cloud.gateway.default-filters 는 RouteDefinitionRouteLocator 와 같은 방식으로 한 번만 변환하여 모든 route 에 공유한다.
+    private static List<GatewayFilter> defaultFilters(RouteDefinitionConverter converter) {
+        RouteDefinition definition = new RouteDefinition();
+        definition.setId("compiled-default-filters");
+        definition.setUri(URI.create("no://op"));
+        List<Route> routes = converter.convert(List.of(definition));
+        if (routes.isEmpty()) {
+            return List.of();
+        }
+        // 변환 결과에는 위치 순서가 붙은 default filter 만 남는다.
+        return routes.get(0).getFilters();
+    }
+}
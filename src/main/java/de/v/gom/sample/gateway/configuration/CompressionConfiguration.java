@@ -0,0 +1,38 @@
+package de.v.gom.sample.gateway.configuration;
+
+import de.v.gom.sample.gateway.filter.compress.DeflaterPool;
+import de.v.gom.sample.gateway.filter.compress.ResponseCompressionGatewayFilterFactory;
+import de.v.gom.sample.gateway.filter.compress.RouteCompressions;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+@Configuration
+public class CompressionConfiguration {
+
+    /**
+     * 모든 ResponseCompression 필터가 공유하는 Deflater pool. 동시에 압축하는 응답 수만큼 Deflater 가 만들어지고, max-idle 개까지 보관한다.
+     */
+    @Bean
+    public DeflaterPool deflaterPool(MeterRegistry meterRegistry,
+                                     @Value("${gateway.compression.level:6}") int level,
+                                     @Value("${gateway.compression.max-idle:64}") int maxIdle,
+                                     @Value("${gateway.compression.buffer-size:8KB}") DataSize bufferSize) {
+        return new DeflaterPool(level, maxIdle, Math.toIntExact(bufferSize.toBytes()), meterRegistry);
+    }
+
+    @Bean
+    public RouteCompressions routeCompressions(MeterRegistry meterRegistry,
+                                               @Value("${gateway.compression.max-ratio:0.9}") double maxRatio) {
+        return new RouteCompressions(maxRatio, meterRegistry);
+    }
+
+    @Bean
+    public ResponseCompressionGatewayFilterFactory responseCompressionGatewayFilterFactory(DeflaterPool deflaterPool,
+                                                                                           RouteCompressions routeCompressions,
+                                                                                           @Value("${gateway.compression.min-response-size:1KB}") DataSize minResponseSize) {
+        return new ResponseCompressionGatewayFilterFactory(deflaterPool, routeCompressions, minResponseSize);
+    }
+}
@@ -0,0 +1,32 @@
+package de.v.gom.sample.gateway.configuration;
+
+import de.v.gom.sample.gateway.filter.PrefixRewritePathGatewayFilterFactory;
+import de.v.gom.sample.gateway.filter.coalesce.RequestCoalescingGatewayFilterFactory;
+import de.v.gom.sample.gateway.filter.header.HeaderMutationGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.factory.RewritePathGatewayFilterFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+@Configuration
+public class FilterConfiguration {
+
+    /**
+     * 기본 RewritePathGatewayFilterFactory 는 spring.cloud.gateway.filter.rewrite-path.enabled=false 로 비활성화하고 이 factory 를 사용한다.
+     */
+    @Bean
+    @Primary
+    public RewritePathGatewayFilterFactory prefixRewritePathGatewayFilterFactory() {
+        return new PrefixRewritePathGatewayFilterFactory();
+    }
+
+    @Bean
+    public RequestCoalescingGatewayFilterFactory requestCoalescingGatewayFilterFactory() {
+        return new RequestCoalescingGatewayFilterFactory();
+    }
+
+    @Bean
+    public HeaderMutationGatewayFilterFactory headerMutationGatewayFilterFactory() {
+        return new HeaderMutationGatewayFilterFactory();
+    }
+}
@@ -0,0 +1,28 @@
+package de.v.gom.sample.gateway.configuration;
+
+import de.v.gom.sample.gateway.loadbalancer.LoadBalancerFilter;
+import de.v.gom.sample.gateway.loadbalancer.LoadBalancerProperties;
+import de.v.gom.sample.gateway.loadbalancer.UpstreamGroup;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(LoadBalancerProperties.class)
+public class LoadBalancerConfiguration {
+
+    @Bean
+    public LoadBalancerFilter loadBalancerFilter(LoadBalancerProperties properties) {
+        Map<String, UpstreamGroup> groups = new HashMap<>();
+        properties.getGroups().forEach((name, group) -> {
+            log.info("Registering upstream group: {} {} {}", name, group.getStrategy(), group.getInstances());
+            groups.put(name, new UpstreamGroup(name, group.getInstances(), group.getStrategy(), properties.getDecay()));
+        });
+        return new LoadBalancerFilter(Map.copyOf(groups), properties.getErrorPenalty().toNanos());
+    }
+}
@@ -0,0 +1,32 @@
+package de.v.gom.sample.gateway.configuration;
+
+import de.v.gom.sample.gateway.filter.cache.ResponseCacheGatewayFilterFactory;
+import de.v.gom.sample.gateway.filter.cache.ResponseCacheStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Configuration
+public class ResponseCacheConfiguration {
+
+    /**
+     * 모든 ResponseCache 필터가 공유하는 저장소. entry 수와 전체 크기(body + header) 로 제한한다.
+     */
+    @Bean
+    public ResponseCacheStore responseCacheStore(MeterRegistry meterRegistry,
+                                                 @Value("${gateway.response-cache.max-entries:10000}") int maxEntries,
+                                                 @Value("${gateway.response-cache.max-weight:64MB}") DataSize maxWeight,
+                                                 @Value("${gateway.response-cache.max-entry-size:1MB}") DataSize maxEntrySize) {
+        return new ResponseCacheStore(maxEntries, maxWeight.toBytes(), Math.toIntExact(maxEntrySize.toBytes()), meterRegistry);
+    }
+
+    @Bean
+    public ResponseCacheGatewayFilterFactory responseCacheGatewayFilterFactory(ResponseCacheStore responseCacheStore,
+                                                                               @Value("${gateway.response-cache.time-to-live:30s}") Duration timeToLive) {
+        return new ResponseCacheGatewayFilterFactory(responseCacheStore, timeToLive);
+    }
+}
@@ -0,0 +1,51 @@
+package de.v.gom.sample.gateway.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.v.gom.sample.gateway.router.file.FileRouteLocator;
+import de.v.gom.sample.gateway.router.file.RouteDefinitionConverter;
+import de.v.gom.sample.gateway.router.file.RouteFileParser;
+import de.v.gom.sample.gateway.router.file.RouteFileWatcher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.gateway.config.GatewayProperties;
+import org.springframework.cloud.gateway.filter.factory.GatewayFilterFactory;
+import org.springframework.cloud.gateway.handler.predicate.RoutePredicateFactory;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * gateway.route-file.enabled=true 인 경우 gateway.route-file.path 의 파일(또는 디렉터리) 에 정의한 route 를 사용하고,
+ * 파일이 변경되면 변경된 route 만 다시 반영한다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "gateway.route-file.enabled", havingValue = "true")
+public class RouteFileConfiguration {
+
+    @Bean
+    public FileRouteLocator fileRouteLocator() {
+        return new FileRouteLocator();
+    }
+
+    @Bean
+    public RouteFileWatcher routeFileWatcher(FileRouteLocator fileRouteLocator,
+                                             ObjectMapper objectMapper,
+                                             List<RoutePredicateFactory> predicates,
+                                             List<GatewayFilterFactory> filters,
+                                             GatewayProperties gatewayProperties,
+                                             ConfigurationService configurationService,
+                                             ApplicationEventPublisher publisher,
+                                             @Value("${gateway.route-file.path}") Path path,
+                                             @Value("${gateway.route-file.debounce:200ms}") Duration debounce,
+                                             @Value("${gateway.route-file.max-file-size:64MB}") DataSize maxFileSize) {
+        RouteFileParser parser = new RouteFileParser(objectMapper, Math.toIntExact(maxFileSize.toBytes()));
+        RouteDefinitionConverter converter = new RouteDefinitionConverter(predicates, filters, gatewayProperties, configurationService);
+        return new RouteFileWatcher(path, parser, converter::convert, fileRouteLocator, publisher, debounce);
+    }
+}
@@ -0,0 +1,27 @@
+package de.v.gom.sample.gateway.configuration;
+
+import de.v.gom.sample.gateway.router.index.IndexedRoutePredicateHandlerMapping;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.gateway.config.GlobalCorsProperties;
+import org.springframework.cloud.gateway.handler.FilteringWebHandler;
+import org.springframework.cloud.gateway.handler.RoutePredicateHandlerMapping;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * gateway.route-index.enabled=true 인 경우 기본 RoutePredicateHandlerMapping 을 인덱스 기반 구현으로 교체한다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "gateway.route-index.enabled", havingValue = "true")
+public class RouteIndexConfiguration {
+
+    @Bean
+    public RoutePredicateHandlerMapping routePredicateHandlerMapping(FilteringWebHandler webHandler,
+                                                                     RouteLocator routeLocator,
+                                                                     GlobalCorsProperties globalCorsProperties,
+                                                                     Environment environment) {
+        return new IndexedRoutePredicateHandlerMapping(webHandler, routeLocator, globalCorsProperties, environment);
+    }
+}
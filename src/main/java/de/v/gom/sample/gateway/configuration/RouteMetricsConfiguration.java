@@ -0,0 +1,33 @@
+package de.v.gom.sample.gateway.configuration;
+
+import de.v.gom.sample.gateway.metrics.RouteMetricsFilter;
+import de.v.gom.sample.gateway.metrics.RouteMetricsRegistry;
+import de.v.gom.sample.gateway.metrics.UpstreamTimingFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * route id 별 metric (gateway.route.*) 을 actuator /actuator/metrics 로 노출한다. 기본으로 활성화된다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "gateway.route-metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class RouteMetricsConfiguration {
+
+    @Bean
+    public RouteMetricsRegistry routeMetricsRegistry(MeterRegistry meterRegistry, RouteLocator routeLocator) {
+        return new RouteMetricsRegistry(meterRegistry, routeLocator);
+    }
+
+    @Bean
+    public RouteMetricsFilter routeMetricsFilter(RouteMetricsRegistry routeMetricsRegistry) {
+        return new RouteMetricsFilter(routeMetricsRegistry);
+    }
+
+    @Bean
+    public UpstreamTimingFilter upstreamTimingFilter() {
+        return new UpstreamTimingFilter();
+    }
+}
@@ -1,12 +1,21 @@
 package de.v.gom.sample.gateway.configuration;
 
+import com.example.gatewaysupport.route.RouteDescriptorCache;
+import com.example.gatewaysupport.route.RouteInformationFunction;
 import de.v.gom.sample.gateway.router.predicate.Router;
+import de.v.gom.sample.gateway.router.table.DynamicRouteLocator;
+import de.v.gom.sample.gateway.router.table.DynamicRouteTable;
+import de.v.gom.sample.gateway.router.table.DynamicRoutesChangedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.route.CompositeRouteLocator;
 import org.springframework.cloud.gateway.route.RouteLocator;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
+import org.springframework.context.ApplicationListener;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
 
@@ -26,4 +35,37 @@ public class RouterConfiguration {
         return routerLocatorBuilder
             .build();
     }
+
+    // DynamicRoutingWriter 로 추가 / 변경 / 삭제되는 route
+    @Bean
+    public DynamicRouteTable dynamicRouteTable() {
+        return new DynamicRouteTable();
+    }
+
+    /**
+     * CachingRouteLocator 대신 DynamicRouteTable 의 route 를 조회할 때마다 합치는 DynamicRouteLocator 를 사용한다.
+     * GatewayAutoConfiguration 의 cachedCompositeRouteLocator 는 같은 이름의 bean 이 있으면 생성되지 않는다.
+     */
+    @Bean(name = "cachedCompositeRouteLocator")
+    @Primary
+    public DynamicRouteLocator cachedCompositeRouteLocator(List<RouteLocator> routeLocators, DynamicRouteTable dynamicRouteTable) {
+        return new DynamicRouteLocator(new CompositeRouteLocator(Flux.fromIterable(routeLocators)), dynamicRouteTable);
+    }
+
+    // 조회 API 가 사용하는 route 정보. 라우팅 테이블이 갱신될 때만 다시 만든다.
+    @Bean
+    public RouteInformationFunction routeInformationFunction() {
+        return new RouteInformationFunction();
+    }
+
+    @Bean
+    public RouteDescriptorCache routeDescriptorCache(RouteLocator routeLocator, RouteInformationFunction routeInformationFunction) {
+        return new RouteDescriptorCache(routeLocator, routeInformationFunction);
+    }
+
+    // DynamicRouteTable 의 변경은 RefreshRoutesResultEvent 를 발행하지 않으므로 route 정보를 따로 다시 만든다.
+    @Bean
+    public ApplicationListener<DynamicRoutesChangedEvent> routeDescriptorCacheInvalidator(RouteDescriptorCache routeDescriptorCache) {
+        return event -> routeDescriptorCache.invalidate();
+    }
 }
@@ -0,0 +1,49 @@
+package de.v.gom.sample.gateway.configuration;
+
+import de.v.gom.sample.gateway.upstream.UpstreamHttpClientFactory;
+import de.v.gom.sample.gateway.upstream.UpstreamPoolRoutingFilter;
+import de.v.gom.sample.gateway.upstream.UpstreamPoolSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+public class UpstreamPoolConfiguration {
+
+    /**
+     * 기본 NettyRoutingFilter 는 spring.cloud.gateway.global-filter.netty-routing.enabled=false 로 비활성화하고 이 필터를 사용한다.
+     * upstream-pool.* metadata 가 없는 route 는 기존과 같이 gateway 공용 HttpClient 를 사용한다.
+     * pool 별 HttpClient 는 GatewayAutoConfiguration 의 HttpClientFactory 와 같은 설정과 HttpClientCustomizer 로 만든다.
+     */
+    @Bean
+    public UpstreamPoolRoutingFilter upstreamPoolRoutingFilter(HttpClient httpClient,
+                                                               ObjectProvider<List<HttpHeadersFilter>> headersFilters,
+                                                               HttpClientProperties properties,
+                                                               ServerProperties serverProperties,
+                                                               HttpClientSslConfigurer sslConfigurer,
+                                                               ObjectProvider<HttpClientCustomizer> customizers,
+                                                               RouteLocator routeLocator,
+                                                               @Value("${gateway.upstream-pool.max-connections:100}") int maxConnections,
+                                                               @Value("${gateway.upstream-pool.pending-acquire-max-count:-1}") int pendingAcquireMaxCount,
+                                                               @Value("${gateway.upstream-pool.pending-acquire-timeout:5s}") Duration pendingAcquireTimeout,
+                                                               @Value("${gateway.upstream-pool.max-idle-time:30s}") Duration maxIdleTime,
+                                                               @Value("${gateway.upstream-pool.h2c:false}") boolean h2c) {
+        UpstreamPoolSettings defaults = new UpstreamPoolSettings(null, maxConnections, pendingAcquireMaxCount,
+            pendingAcquireTimeout, maxIdleTime, h2c);
+        List<HttpClientCustomizer> httpClientCustomizers = customizers.orderedStream().toList();
+        return new UpstreamPoolRoutingFilter(httpClient, headersFilters, properties, defaults,
+            provider -> new UpstreamHttpClientFactory(provider, properties, serverProperties, sslConfigurer, httpClientCustomizers).create(),
+            routeLocator);
+    }
+}
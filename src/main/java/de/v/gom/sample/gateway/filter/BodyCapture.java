@@ -0,0 +1,48 @@
+package de.v.gom.sample.gateway.filter;
+
+import org.springframework.core.io.buffer.DataBuffer;
+
+import java.util.Arrays;
+
+/**
+ * 응답 body 를 그대로 전달하면서 byte[] 로 복사한다. 최대 크기를 넘으면 복사를 중단한다.
+ * DataBuffer 의 read position 은 변경하지 않는다.
+ */
+public final class BodyCapture {
+    private final int limit;
+    private byte[] bytes;
+    private int size;
+
+    public BodyCapture(int limit, long contentLength) {
+        this.limit = limit;
+        this.bytes = new byte[contentLength >= 0 ? (int) Math.min(contentLength, limit) : Math.min(limit, 8 * 1024)];
+    }
+
+    public void append(DataBuffer buffer) {
+        if (this.bytes == null) {
+            return;
+        }
+        int length = buffer.readableByteCount();
+        if (this.size + length > this.limit) {
+            this.bytes = null;
+            return;
+        }
+        if (this.size + length > this.bytes.length) {
+            this.bytes = Arrays.copyOf(this.bytes, Math.min(this.limit, Math.max(this.size + length, this.bytes.length * 2)));
+        }
+        int position = buffer.readPosition();
+        buffer.read(this.bytes, this.size, length);
+        buffer.readPosition(position);
+        this.size += length;
+    }
+
+    /**
+     * 복사한 body. 최대 크기를 넘은 경우 null 이다.
+     */
+    public byte[] bytes() {
+        if (this.bytes == null || this.size == this.bytes.length) {
+            return this.bytes;
+        }
+        return Arrays.copyOf(this.bytes, this.size);
+    }
+}
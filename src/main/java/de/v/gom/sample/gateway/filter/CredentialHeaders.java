@@ -0,0 +1,20 @@
+package de.v.gom.sample.gateway.filter;
+
+import org.springframework.http.HttpHeaders;
+
+import java.util.List;
+
+/**
+ * 사용자마다 응답이 달라질 수 있는 인증 헤더.
+ * 응답을 다른 요청과 공유하는 필터(캐시, 요청 합치기)는 이 헤더가 있는 요청의 응답을 공유하지 않는다.
+ */
+public final class CredentialHeaders {
+    public static final List<String> NAMES = List.of(HttpHeaders.AUTHORIZATION, HttpHeaders.COOKIE);
+
+    private CredentialHeaders() {
+    }
+
+    public static boolean present(HttpHeaders headers) {
+        return NAMES.stream().anyMatch(headers::containsKey);
+    }
+}
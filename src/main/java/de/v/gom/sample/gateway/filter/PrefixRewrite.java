@@ -0,0 +1,130 @@
+package de.v.gom.sample.gateway.filter;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * RewritePath 의 regexp / replacement 가 사실상 고정 문자열(prefix) 교체인 경우 정규식 없이 같은 결과를 만든다.
+ * <p>
+ * 지원하는 형태 (literal 은 정규식 특수문자가 없는 고정 문자열)
+ * <ul>
+ *     <li>{@code [^]literal(?<name>.*)[$]} → {@code literal${name}}, {@code literal$1}, {@code literal}</li>
+ *     <li>{@code [^]literal} → {@code literal}</li>
+ * </ul>
+ * 그 외의 형태는 {@link #compile(String, String)} 가 null 을 반환하며 기존 정규식 방식을 사용해야 한다.
+ */
+public final class PrefixRewrite {
+    private static final String META_CHARACTERS = "\\^$.|?*+()[]{}";
+    private static final Pattern GROUP = Pattern.compile("\\((?:\\?<([a-zA-Z][a-zA-Z0-9]*)>)?\\.\\*\\)\\$?$");
+
+    private final String literal;
+    private final String replacement;
+    private final boolean anchored;
+    // (.*) 그룹이 있는 경우 true
+    private final boolean remainder;
+    // replacement 에서 그룹을 참조하는 경우 true
+    private final boolean keepRemainder;
+    private final Pattern pattern;
+    private final String regexReplacement;
+
+    private PrefixRewrite(String literal, String replacement, boolean anchored, boolean remainder, boolean keepRemainder,
+                          Pattern pattern, String regexReplacement) {
+        this.literal = literal;
+        this.replacement = replacement;
+        this.anchored = anchored;
+        this.remainder = remainder;
+        this.keepRemainder = keepRemainder;
+        this.pattern = pattern;
+        this.regexReplacement = regexReplacement;
+    }
+
+    /**
+     * @param regexp      RewritePath 의 regexp
+     * @param replacement RewritePathGatewayFilterFactory 와 같이 "$\" 를 "$" 로 바꾼 replacement
+     * @return 고정 문자열 교체로 바꿀 수 없으면 null
+     */
+    public static PrefixRewrite compile(String regexp, String replacement) {
+        if (regexp == null || replacement == null) {
+            return null;
+        }
+        boolean anchored = regexp.startsWith("^");
+        String body = anchored ? regexp.substring(1) : regexp;
+
+        String groupName = null;
+        boolean remainder = false;
+        Matcher group = GROUP.matcher(body);
+        if (group.find()) {
+            remainder = true;
+            groupName = group.group(1);
+            body = body.substring(0, group.start());
+        }
+        if (body.isEmpty() || !isLiteral(body)) {
+            return null;
+        }
+
+        String literalReplacement = replacement;
+        boolean keepRemainder = false;
+        if (remainder) {
+            if (groupName != null && replacement.endsWith("${" + groupName + "}")) {
+                literalReplacement = replacement.substring(0, replacement.length() - groupName.length() - 3);
+                keepRemainder = true;
+            } else if (replacement.endsWith("$1")) {
+                literalReplacement = replacement.substring(0, replacement.length() - 2);
+                keepRemainder = true;
+            }
+        }
+        if (literalReplacement.indexOf('$') >= 0 || literalReplacement.indexOf('\\') >= 0) {
+            return null;
+        }
+        return new PrefixRewrite(body, literalReplacement, anchored, remainder, keepRemainder, Pattern.compile(regexp), replacement);
+    }
+
+    public String apply(String path) {
+        if (!this.remainder) {
+            if (!this.anchored) {
+                return path.replace(this.literal, this.replacement);
+            }
+            return path.startsWith(this.literal) ? this.replacement + path.substring(this.literal.length()) : path;
+        }
+
+        int start = this.anchored ? (path.startsWith(this.literal) ? 0 : -1) : path.indexOf(this.literal);
+        if (start < 0) {
+            return path;
+        }
+        int end = start + this.literal.length();
+        // '.' 는 줄바꿈 문자와 매칭되지 않으므로 이 경우에는 정규식 결과를 그대로 사용한다.
+        if (hasLineTerminator(path, end)) {
+            return this.pattern.matcher(path).replaceAll(this.regexReplacement);
+        }
+        int length = start + this.replacement.length() + (this.keepRemainder ? path.length() - end : 0);
+        StringBuilder rewritten = new StringBuilder(length)
+            .append(path, 0, start)
+            .append(this.replacement);
+        if (this.keepRemainder) {
+            rewritten.append(path, end, path.length());
+        }
+        return rewritten.toString();
+    }
+
+    private static boolean isLiteral(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (META_CHARACTERS.indexOf(value.charAt(i)) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasLineTerminator(String path, int from) {
+        for (int i = from; i < path.length(); i++) {
+            switch (path.charAt(i)) {
+                case '\n', '\r', '\u0085', '\u2028', '\u2029' -> {
+                    return true;
+                }
+                default -> {
+                }
+            }
+        }
+        return false;
+    }
+}
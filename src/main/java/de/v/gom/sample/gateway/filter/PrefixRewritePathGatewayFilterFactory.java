@@ -0,0 +1,55 @@
+package de.v.gom.sample.gateway.filter;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.RewritePathGatewayFilterFactory;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.cloud.gateway.support.GatewayToStringStyler.filterToStringCreator;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.addOriginalRequestUrl;
+
+/**
+ * RewritePath 필터 중 고정 prefix 교체인 경우 정규식 대신 {@link PrefixRewrite} 로 경로를 바꾸는 RewritePathGatewayFilterFactory.
+ * <p>
+ * Router DSL 의 rewritePath(...) 와 RouteDefinition 의 RewritePath 필터 모두 이 factory 를 사용한다.
+ * 정규식이 필요한 패턴은 기존 RewritePathGatewayFilterFactory 의 필터를 그대로 사용한다.
+ */
+public class PrefixRewritePathGatewayFilterFactory extends RewritePathGatewayFilterFactory {
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String replacement = config.getReplacement().replace("$\\", "$");
+        PrefixRewrite rewrite = PrefixRewrite.compile(config.getRegexp(), replacement);
+        if (rewrite == null) {
+            return super.apply(config);
+        }
+        return new GatewayFilter() {
+            @Override
+            public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+                ServerHttpRequest req = exchange.getRequest();
+                addOriginalRequestUrl(exchange, req.getURI());
+                String newPath = rewrite.apply(req.getURI().getRawPath());
+
+                ServerHttpRequest request = req.mutate().path(newPath).build();
+                exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, request.getURI());
+                return chain.filter(exchange.mutate().request(request).build());
+            }
+
+            @Override
+            public String toString() {
+                return filterToStringCreator(PrefixRewritePathGatewayFilterFactory.this)
+                    .append(config.getRegexp(), replacement)
+                    .toString();
+            }
+        };
+    }
+
+    // RouteDefinition 에서 기존과 같이 RewritePath 로 사용한다.
+    @Override
+    public String name() {
+        return "RewritePath";
+    }
+}
@@ -0,0 +1,269 @@
+package de.v.gom.sample.gateway.filter.breaker;
+
+import de.v.gom.sample.gateway.loadbalancer.UpstreamSelection;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.client.HttpClientResponse;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter.filterRequest;
+import static org.springframework.cloud.gateway.support.GatewayToStringStyler.filterToStringCreator;
+import static org.springframework.cloud.gateway.support.RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_HEADER_NAMES;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.ORIGINAL_RESPONSE_CONTENT_TYPE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.PRESERVE_HOST_HEADER_ATTRIBUTE;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.isAlreadyRouted;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.setAlreadyRouted;
+
+/**
+ * routing 직전에 실행되는 route 필터. circuit breaker 가 열려 있으면 upstream 을 호출하지 않고 503 으로 응답하고,
+ * hedge 가 설정된 경우 idempotent 한 GET / HEAD 요청을 직접 보내면서 응답이 최근 p95 보다 늦으면 같은 요청을 한 번 더 보낸다.
+ * <p>
+ * hedge 요청은 먼저 응답 헤더를 받은 쪽을 사용하고 나머지는 취소(연결 종료) 한다. 응답 body 는 NettyRoutingFilter 로 보낸 요청과 같이
+ * NettyWriteResponseFilter 가 기록하며, 응답 5xx, 연결 실패, timeout 은 circuit breaker 에 실패로 기록한다.
+ * circuit breaker 와 hedge 지연(p95) 에 사용하는 응답 시간은 upstream 응답 헤더를 받을 때까지의 시간이다. (body 전달 시간 제외)
+ * hedge 는 route 의 upstream-pool 이 아닌 gateway 공용 HttpClient 로 보낸다.
+ * <p>
+ * balanced://{group} route 의 hedge 요청은 LoadBalancerFilter 가 처음 선택한 인스턴스가 아닌 다른 인스턴스를 group 에서 다시 선택해 보낸다.
+ * 느린 인스턴스에 같은 요청을 다시 보내지 않기 위해서이며, group 에 다른 인스턴스가 없으면 hedge 하지 않는다.
+ */
+public class CircuitBreakerHedgeGatewayFilter implements GatewayFilter, Ordered {
+    public static final int ORDER = NettyRoutingFilter.ORDER - 1;
+    public static final String STATE_HEADER = "X-Circuit-Breaker";
+
+    private final RouteBreakers breakers;
+    private final SlidingWindowCircuitBreaker.Settings settings;
+    private final boolean hedge;
+    private final Duration hedgeDelay;
+    private final double hedgeBudget;
+    private final HttpClient httpClient;
+    private final ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider;
+    private final Duration responseTimeout;
+    private volatile RouteBreaker current;
+
+    public CircuitBreakerHedgeGatewayFilter(RouteBreakers breakers, SlidingWindowCircuitBreaker.Settings settings,
+                                            boolean hedge, Duration hedgeDelay, double hedgeBudget, HttpClient httpClient,
+                                            ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider, Duration responseTimeout) {
+        this.breakers = breakers;
+        this.settings = settings;
+        this.hedge = hedge;
+        this.hedgeDelay = hedgeDelay;
+        this.hedgeBudget = hedgeBudget;
+        this.httpClient = httpClient;
+        this.headersFiltersProvider = headersFiltersProvider;
+        this.responseTimeout = responseTimeout;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        RouteBreaker breaker = this.breaker(route != null ? route.getId() : "");
+        long start = System.nanoTime();
+        if (!breaker.breaker().tryAcquire(start)) {
+            breaker.rejected();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            response.getHeaders().set(STATE_HEADER, breaker.breaker().state().name());
+            return response.setComplete();
+        }
+        breaker.requested();
+        // upstream 응답 헤더를 받아 응답이 commit 될 때 기록한다. client 로 body 를 보내는 시간은 upstream 의 응답 시간이 아니다.
+        AtomicBoolean recorded = new AtomicBoolean();
+        exchange.getResponse().beforeCommit(() -> {
+            if (exchange.getAttribute(CLIENT_RESPONSE_ATTR) != null && recorded.compareAndSet(false, true)) {
+                long now = System.nanoTime();
+                breaker.completed(now, now - start, serverError(exchange));
+            }
+            return Mono.empty();
+        });
+        Mono<Void> call = this.hedge && hedgeable(exchange)
+            ? this.hedged(exchange, chain, breaker, route, start)
+            : chain.filter(exchange);
+        return call
+            .doOnSuccess(done -> {
+                if (recorded.compareAndSet(false, true)) {
+                    long now = System.nanoTime();
+                    breaker.completed(now, now - start, serverError(exchange));
+                }
+            })
+            .doOnError(e -> {
+                if (recorded.compareAndSet(false, true)) {
+                    long now = System.nanoTime();
+                    breaker.completed(now, now - start, true);
+                }
+            })
+            .doOnCancel(() -> {
+                if (recorded.compareAndSet(false, true)) {
+                    breaker.breaker().release();
+                }
+            });
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    public String toString() {
+        return filterToStringCreator(this)
+            .append("failureRateThreshold", this.settings.failureRateThreshold())
+            .append("slowCallRateThreshold", this.settings.slowCallRateThreshold())
+            .append("hedge", this.hedge)
+            .toString();
+    }
+
+    private RouteBreaker breaker(String routeId) {
+        RouteBreaker breaker = this.current;
+        if (breaker == null || !breaker.routeId().equals(routeId)) {
+            breaker = this.breakers.of(routeId, this.settings, this.hedgeBudget);
+            this.current = breaker;
+        }
+        return breaker;
+    }
+
+    /**
+     * 첫 요청을 보내고, delay 안에 응답 헤더를 받지 못하면 hedge 요청을 보낸다. 먼저 응답한 쪽이 이기고 다른 쪽은 취소된다.
+     * 첫 요청이 실패한 경우에도 delay 가 지나면 hedge 요청을 보낸다.
+     */
+    private Mono<Void> hedged(ServerWebExchange exchange, GatewayFilterChain chain, RouteBreaker breaker, Route route, long start) {
+        URI url = exchange.getRequiredAttribute(GATEWAY_REQUEST_URL_ATTR);
+        ServerHttpRequest request = exchange.getRequest();
+        List<HttpHeadersFilter> headersFilters = this.headersFiltersProvider.getIfAvailable();
+        DefaultHttpHeaders headers = new DefaultHttpHeaders();
+        filterRequest(headersFilters, exchange).forEach(headers::set);
+        if (exchange.getAttributeOrDefault(PRESERVE_HOST_HEADER_ATTRIBUTE, false)) {
+            headers.add(HttpHeaders.HOST, request.getHeaders().getFirst(HttpHeaders.HOST));
+        }
+        HttpClient client = this.httpClient.headers(h -> h.add(headers));
+        io.netty.handler.codec.http.HttpMethod method = io.netty.handler.codec.http.HttpMethod.valueOf(request.getMethod().name());
+        UpstreamSelection selection = exchange.getAttribute(UpstreamSelection.ATTR);
+        boolean another = selection == null || selection.group().instances().size() > 1;
+
+        long p95 = breaker.hedgeDelay(start);
+        Duration delay = p95 > 0 ? Duration.ofNanos(p95) : this.hedgeDelay;
+        AtomicBoolean decided = new AtomicBoolean();
+        AtomicBoolean hedged = new AtomicBoolean();
+        AtomicReference<Throwable> primaryError = new AtomicReference<>();
+        Mono<Attempt> primary = attempt(client, method, url, decided, false)
+            .doOnError(primaryError::set);
+        Mono<Attempt> second = Mono.defer(() -> {
+                if (!another || !breaker.tryHedge()) {
+                    return Mono.empty();
+                }
+                hedged.set(true);
+                return selection != null
+                    ? selection.other(url, other -> attempt(client, method, other, decided, true))
+                    : attempt(client, method, url, decided, true);
+            })
+            .delaySubscription(delay);
+
+        setAlreadyRouted(exchange);
+        Duration timeout = this.responseTimeout(route);
+        Mono<Attempt> winner = Mono.firstWithValue(primary, second)
+            .onErrorMap(e -> primaryError.get() != null ? primaryError.get() : e);
+        if (timeout != null) {
+            winner = winner.timeout(timeout, Mono.error(new TimeoutException("Response took longer than timeout: " + timeout)))
+                .onErrorMap(TimeoutException.class, e -> new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, e.getMessage(), e));
+        }
+        return winner.flatMap(attempt -> {
+            if (hedged.get()) {
+                breaker.hedged(attempt.hedge());
+            }
+            exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, attempt.url());
+            this.apply(exchange, attempt, headersFilters);
+            return chain.filter(exchange);
+        });
+    }
+
+    // NettyRoutingFilter 와 같은 방식으로 응답 상태와 헤더를 옮기고, body 는 NettyWriteResponseFilter 가 연결에서 읽어 기록한다.
+    private void apply(ServerWebExchange exchange, Attempt attempt, List<HttpHeadersFilter> headersFilters) {
+        exchange.getAttributes().put(CLIENT_RESPONSE_ATTR, attempt.response());
+        exchange.getAttributes().put(CLIENT_RESPONSE_CONN_ATTR, attempt.connection());
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = new HttpHeaders();
+        attempt.response().responseHeaders().forEach(entry -> headers.add(entry.getKey(), entry.getValue()));
+        String contentType = headers.getFirst(HttpHeaders.CONTENT_TYPE);
+        if (StringUtils.hasLength(contentType)) {
+            exchange.getAttributes().put(ORIGINAL_RESPONSE_CONTENT_TYPE_ATTR, contentType);
+        }
+        response.setStatusCode(HttpStatusCode.valueOf(attempt.response().status().code()));
+        HttpHeaders filtered = HttpHeadersFilter.filter(headersFilters, headers, exchange, HttpHeadersFilter.Type.RESPONSE);
+        if (!filtered.containsKey(HttpHeaders.TRANSFER_ENCODING) && filtered.containsKey(HttpHeaders.CONTENT_LENGTH)) {
+            response.getHeaders().remove(HttpHeaders.TRANSFER_ENCODING);
+        }
+        exchange.getAttributes().put(CLIENT_RESPONSE_HEADER_NAMES, filtered.keySet());
+        response.getHeaders().addAll(filtered);
+    }
+
+    private Duration responseTimeout(Route route) {
+        Object timeout = route != null ? route.getMetadata().get(RESPONSE_TIMEOUT_ATTR) : null;
+        if (timeout != null) {
+            long millis = Long.parseLong(timeout.toString());
+            return millis < 0 ? null : Duration.ofMillis(millis);
+        }
+        return this.responseTimeout;
+    }
+
+    // 먼저 응답 헤더를 받은 요청만 값을 내보내고, 늦게 받은 요청의 연결은 바로 닫는다.
+    private static Mono<Attempt> attempt(HttpClient client, io.netty.handler.codec.http.HttpMethod method, URI url,
+                                         AtomicBoolean decided, boolean hedge) {
+        return client.request(method)
+            .uri(url.toASCIIString())
+            .responseConnection((response, connection) -> {
+                if (!decided.compareAndSet(false, true)) {
+                    connection.dispose();
+                    return Mono.<Attempt>empty();
+                }
+                return Mono.just(new Attempt(url, response, connection, hedge));
+            })
+            .next();
+    }
+
+    private static boolean hedgeable(ServerWebExchange exchange) {
+        ServerHttpRequest request = exchange.getRequest();
+        HttpMethod method = request.getMethod();
+        URI url = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+        return (HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method))
+            && request.getHeaders().getContentLength() <= 0
+            && !request.getHeaders().containsKey(HttpHeaders.TRANSFER_ENCODING)
+            && url != null && ("http".equals(url.getScheme()) || "https".equals(url.getScheme()))
+            && !isAlreadyRouted(exchange);
+    }
+
+    private static boolean serverError(ServerWebExchange exchange) {
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        return status != null && status.is5xxServerError();
+    }
+
+    private record Attempt(URI url, HttpClientResponse response, Connection connection, boolean hedge) {
+    }
+}
@@ -0,0 +1,71 @@
+package de.v.gom.sample.gateway.filter.breaker;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * route 별 circuit breaker 와 hedge 요청 필터.
+ * RouteDefinition 에서는 CircuitBreakerHedge=50, 10s, true (failureRateThreshold, waitInOpen, hedge) 로,
+ * Router DSL 에서는 f.filter(circuitBreakerHedge.apply(config -> ...)) 로 사용한다.
+ */
+public class CircuitBreakerHedgeGatewayFilterFactory extends AbstractGatewayFilterFactory<CircuitBreakerHedgeGatewayFilterFactory.Config> {
+    private final RouteBreakers breakers;
+    private final HttpClient httpClient;
+    private final ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider;
+    private final Duration responseTimeout;
+
+    public CircuitBreakerHedgeGatewayFilterFactory(RouteBreakers breakers, HttpClient httpClient,
+                                                   ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider, Duration responseTimeout) {
+        super(Config.class);
+        this.breakers = breakers;
+        this.httpClient = httpClient;
+        this.headersFiltersProvider = headersFiltersProvider;
+        this.responseTimeout = responseTimeout;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("failureRateThreshold", "waitInOpen", "hedge");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        SlidingWindowCircuitBreaker.Settings settings = new SlidingWindowCircuitBreaker.Settings(
+            config.getFailureRateThreshold(), config.getSlowCallRateThreshold(), config.getSlowCallDuration().toNanos(),
+            config.getWindow().toNanos(), config.getMinimumCalls(), config.getWaitInOpen().toNanos(), config.getPermittedCallsInHalfOpen());
+        return new CircuitBreakerHedgeGatewayFilter(this.breakers, settings, config.isHedge(), config.getHedgeDelay(),
+            config.getHedgeBudget(), this.httpClient, this.headersFiltersProvider, this.responseTimeout);
+    }
+
+    @Getter
+    @Setter
+    public static class Config {
+        // 실패(5xx, 연결 실패, timeout) 비율(%) 이 이 값 이상이면 열린다.
+        private float failureRateThreshold = 50;
+        // slowCallDuration 보다 오래 걸린 호출의 비율(%) 이 이 값 이상이면 열린다.
+        private float slowCallRateThreshold = 80;
+        private Duration slowCallDuration = Duration.ofSeconds(2);
+        // 실패율을 계산하는 최근 시간
+        private Duration window = Duration.ofSeconds(10);
+        // window 안의 호출 수가 이보다 적으면 열리지 않는다.
+        private int minimumCalls = 20;
+        // 열린 뒤 이 시간 동안 모든 요청을 503 으로 응답한다.
+        private Duration waitInOpen = Duration.ofSeconds(10);
+        // HALF_OPEN 에서 상태를 확인하기 위해 허용하는 요청 수
+        private int permittedCallsInHalfOpen = 5;
+        // true 인 경우 GET / HEAD 요청이 최근 p95 보다 늦으면 같은 요청을 한 번 더 보낸다.
+        private boolean hedge;
+        // p95 를 계산할 응답이 부족할 때 hedge 요청을 보내기까지 기다리는 시간
+        private Duration hedgeDelay = Duration.ofMillis(100);
+        // hedge 요청은 전체 요청의 이 비율을 넘지 않는다.
+        private double hedgeBudget = 0.1;
+    }
+}
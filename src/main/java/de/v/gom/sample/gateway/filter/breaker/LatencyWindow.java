@@ -0,0 +1,55 @@
+package de.v.gom.sample.gateway.filter.breaker;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 최근 {@value #SIZE} 개 응답 시간의 percentile. 기록은 ring buffer 에 쓰기만 하고,
+ * percentile 은 {@link #REFRESH_NANOS} 마다 한 thread 만 복사 / 정렬하여 다시 계산한다.
+ */
+final class LatencyWindow {
+    private static final int SIZE = 1024;
+    private static final int MIN_SAMPLES = 20;
+    private static final long REFRESH_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final double percentile;
+    private final AtomicLongArray samples = new AtomicLongArray(SIZE);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong computedAt = new AtomicLong(Long.MIN_VALUE);
+    private volatile long value = -1;
+
+    LatencyWindow(double percentile) {
+        this.percentile = percentile;
+    }
+
+    void record(long nanos) {
+        long index = this.count.getAndIncrement();
+        this.samples.set((int) (index & (SIZE - 1)), nanos);
+    }
+
+    /**
+     * 표본이 {@value #MIN_SAMPLES} 개보다 적으면 -1
+     */
+    long value(long now) {
+        long at = this.computedAt.get();
+        if ((at == Long.MIN_VALUE || now - at >= REFRESH_NANOS) && this.computedAt.compareAndSet(at, now)) {
+            this.value = this.compute();
+        }
+        return this.value;
+    }
+
+    private long compute() {
+        int size = (int) Math.min(this.count.get(), SIZE);
+        if (size < MIN_SAMPLES) {
+            return -1;
+        }
+        long[] sorted = new long[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = this.samples.get(i);
+        }
+        Arrays.sort(sorted);
+        return sorted[Math.min(size - 1, (int) Math.ceil(size * this.percentile) - 1)];
+    }
+}
@@ -0,0 +1,110 @@
+package de.v.gom.sample.gateway.filter.breaker;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * route 하나의 circuit breaker, 응답 시간 분포, hedge 예산과 metric.
+ * <p>
+ * hedge 예산은 요청마다 hedgeBudget 만큼 쌓이고 hedge 요청마다 1 씩 사용하므로, hedge 요청은 전체 요청의 hedgeBudget 비율을 넘지 않는다.
+ * upstream 전체가 느려진 경우 모든 요청이 hedge 되어 부하가 두 배가 되는 것을 막는다.
+ */
+final class RouteBreaker {
+    private static final long HEDGE_COST = 1_000;
+    private static final long MAX_HEDGE_CREDITS = 10 * HEDGE_COST;
+
+    private final String routeId;
+    private final SlidingWindowCircuitBreaker breaker;
+    private final LatencyWindow latency = new LatencyWindow(0.95);
+    private final double hedgeBudget;
+    private final long hedgeCreditPerRequest;
+    private final AtomicLong hedgeCredits = new AtomicLong(MAX_HEDGE_CREDITS);
+    private final Counter successes;
+    private final Counter failures;
+    private final Counter rejections;
+    private final Counter primaryWins;
+    private final Counter hedgeWins;
+
+    RouteBreaker(String routeId, SlidingWindowCircuitBreaker.Settings settings, double hedgeBudget, MeterRegistry registry) {
+        this.routeId = routeId;
+        this.breaker = new SlidingWindowCircuitBreaker(settings);
+        this.hedgeBudget = hedgeBudget;
+        this.hedgeCreditPerRequest = Math.round(hedgeBudget * HEDGE_COST);
+        this.successes = call("success", registry);
+        this.failures = call("failure", registry);
+        this.rejections = call("rejected", registry);
+        this.primaryWins = hedge("primary", registry);
+        this.hedgeWins = hedge("hedge", registry);
+    }
+
+    String routeId() {
+        return this.routeId;
+    }
+
+    boolean matches(SlidingWindowCircuitBreaker.Settings settings, double hedgeBudget) {
+        return this.breaker.settings().equals(settings) && this.hedgeBudget == hedgeBudget;
+    }
+
+    SlidingWindowCircuitBreaker breaker() {
+        return this.breaker;
+    }
+
+    /**
+     * 최근 응답 시간의 p95. 표본이 부족하면 -1
+     */
+    long hedgeDelay(long now) {
+        return this.latency.value(now);
+    }
+
+    void requested() {
+        if (this.hedgeCreditPerRequest > 0) {
+            this.hedgeCredits.getAndUpdate(credits -> Math.min(MAX_HEDGE_CREDITS, credits + this.hedgeCreditPerRequest));
+        }
+    }
+
+    boolean tryHedge() {
+        long credits;
+        do {
+            credits = this.hedgeCredits.get();
+            if (credits < HEDGE_COST) {
+                return false;
+            }
+        } while (!this.hedgeCredits.compareAndSet(credits, credits - HEDGE_COST));
+        return true;
+    }
+
+    void completed(long now, long durationNanos, boolean failed) {
+        this.breaker.onResult(now, durationNanos, failed);
+        if (failed) {
+            this.failures.increment();
+        } else {
+            this.successes.increment();
+            this.latency.record(durationNanos);
+        }
+    }
+
+    void rejected() {
+        this.rejections.increment();
+    }
+
+    void hedged(boolean hedgeWon) {
+        (hedgeWon ? this.hedgeWins : this.primaryWins).increment();
+    }
+
+    private Counter call(String result, MeterRegistry registry) {
+        return Counter.builder("gateway.circuit-breaker.calls")
+            .tag("routeId", this.routeId)
+            .tag("result", result)
+            .register(registry);
+    }
+
+    // hedge 를 보낸 요청 중 먼저 응답한 쪽. hedge 승률 = winner=hedge / 전체
+    private Counter hedge(String winner, MeterRegistry registry) {
+        return Counter.builder("gateway.hedge.requests")
+            .tag("routeId", this.routeId)
+            .tag("winner", winner)
+            .register(registry);
+    }
+}
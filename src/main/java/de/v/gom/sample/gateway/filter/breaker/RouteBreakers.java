@@ -0,0 +1,42 @@
+package de.v.gom.sample.gateway.filter.breaker;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * route id 별 {@link RouteBreaker}. route 가 refresh 되어 필터가 다시 만들어져도 설정이 같으면 circuit breaker 상태를 유지한다.
+ * <p>
+ * gateway.circuit-breaker.state gauge 는 route 마다 한 번만 등록하고 현재 breaker 의 상태(0: CLOSED, 1: OPEN, 2: HALF_OPEN) 를 읽는다.
+ */
+public class RouteBreakers {
+    private final Map<String, RouteBreaker> breakers = new ConcurrentHashMap<>();
+    private final MeterRegistry registry;
+
+    public RouteBreakers(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    RouteBreaker of(String routeId, SlidingWindowCircuitBreaker.Settings settings, double hedgeBudget) {
+        RouteBreaker breaker = this.breakers.get(routeId);
+        if (breaker != null && breaker.matches(settings, hedgeBudget)) {
+            return breaker;
+        }
+        return this.breakers.compute(routeId, (id, existing) -> {
+            if (existing == null) {
+                Gauge.builder("gateway.circuit-breaker.state", this.breakers, map -> state(map.get(id)))
+                    .tag("routeId", id)
+                    .register(this.registry);
+            } else if (existing.matches(settings, hedgeBudget)) {
+                return existing;
+            }
+            return new RouteBreaker(id, settings, hedgeBudget, this.registry);
+        });
+    }
+
+    private static double state(RouteBreaker breaker) {
+        return breaker == null ? Double.NaN : breaker.breaker().state().ordinal();
+    }
+}
@@ -0,0 +1,167 @@
+package de.v.gom.sample.gateway.filter.breaker;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 최근 window 동안의 실패율과 느린 호출 비율로 열리는 circuit breaker. lock 없이 CAS 로만 상태를 바꾼다.
+ * <p>
+ * window 는 {@value #BUCKETS} 개의 시간 bucket 으로 나누며, bucket 하나는 long 하나에 [세대(16bit)][호출 수][실패 수][느린 호출 수] 를 담는다.
+ * 세대가 다른 bucket 은 지난 window 의 것이므로 처음 기록할 때 비운다. bucket 의 각 값은 65535 에서 더 늘지 않는다.
+ * <ul>
+ *     <li>CLOSED: 호출 수가 minimumCalls 이상이고 실패율 또는 느린 호출 비율이 기준 이상이면 OPEN 으로 바뀐다.</li>
+ *     <li>OPEN: waitInOpen 동안 모든 호출을 거부한 뒤 HALF_OPEN 으로 바뀐다.</li>
+ *     <li>HALF_OPEN: permittedCallsInHalfOpen 개의 호출만 허용하고, 그 결과가 기준 미만이면 CLOSED, 아니면 다시 OPEN 으로 바뀐다.</li>
+ * </ul>
+ */
+public class SlidingWindowCircuitBreaker {
+    private static final int BUCKETS = 10;
+    private static final long FIELD = 0xFFFF;
+    private static final long CALL = 1L;
+    private static final long FAILURE = 1L << 16;
+    private static final long SLOW = 1L << 32;
+
+    private final Settings settings;
+    private final long bucketNanos;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger halfOpenPermits = new AtomicInteger();
+    private final AtomicLong halfOpenResults = new AtomicLong();
+    private volatile long openedAt;
+
+    public SlidingWindowCircuitBreaker(Settings settings) {
+        this.settings = settings;
+        this.bucketNanos = Math.max(1, settings.windowNanos() / BUCKETS);
+    }
+
+    public Settings settings() {
+        return this.settings;
+    }
+
+    public State state() {
+        return this.state.get();
+    }
+
+    /**
+     * 호출을 시작해도 되는지 확인한다. HALF_OPEN 에서는 허용한 호출 수만큼 permit 을 사용한다.
+     */
+    public boolean tryAcquire(long now) {
+        State current = this.state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN) {
+            if (now - this.openedAt < this.settings.waitInOpenNanos()) {
+                return false;
+            }
+            if (this.state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+                this.halfOpenResults.set(0);
+                this.halfOpenPermits.set(this.settings.permittedCallsInHalfOpen());
+            }
+        }
+        return this.halfOpenPermits.getAndDecrement() > 0;
+    }
+
+    /**
+     * 결과 없이 끝난(취소된) 호출의 permit 을 돌려준다.
+     */
+    public void release() {
+        if (this.state.get() == State.HALF_OPEN) {
+            this.halfOpenPermits.incrementAndGet();
+        }
+    }
+
+    public void onResult(long now, long durationNanos, boolean failed) {
+        long delta = CALL + (failed ? FAILURE : 0) + (durationNanos >= this.settings.slowCallNanos() ? SLOW : 0);
+        State current = this.state.get();
+        if (current == State.HALF_OPEN) {
+            long results = this.halfOpenResults.addAndGet(delta);
+            if ((results & FIELD) == this.settings.permittedCallsInHalfOpen()) {
+                if (this.exceeds(results & FIELD, (results >>> 16) & FIELD, (results >>> 32) & FIELD)) {
+                    this.open(now, State.HALF_OPEN);
+                } else {
+                    this.close();
+                }
+            }
+            return;
+        }
+        if (current == State.OPEN) {
+            // OPEN 이 되기 전에 시작한 호출의 결과는 버린다.
+            return;
+        }
+        this.record(now, delta);
+        long epoch = now / this.bucketNanos;
+        long calls = 0;
+        long failures = 0;
+        long slow = 0;
+        for (int age = 0; age < BUCKETS; age++) {
+            long bucketEpoch = epoch - age;
+            long bucket = this.buckets.get(index(bucketEpoch));
+            if (bucket >>> 48 == (bucketEpoch & FIELD)) {
+                calls += bucket & FIELD;
+                failures += (bucket >>> 16) & FIELD;
+                slow += (bucket >>> 32) & FIELD;
+            }
+        }
+        if (calls >= this.settings.minimumCalls() && this.exceeds(calls, failures, slow)) {
+            this.open(now, State.CLOSED);
+        }
+    }
+
+    private void record(long now, long delta) {
+        long epoch = now / this.bucketNanos;
+        int index = index(epoch);
+        long tag = (epoch & FIELD) << 48;
+        long current;
+        long next;
+        do {
+            current = this.buckets.get(index);
+            long counts = (current & (FIELD << 48)) == tag ? current & ~(FIELD << 48) : 0;
+            if ((counts & FIELD) == FIELD) {
+                return;
+            }
+            next = tag | (counts + delta);
+        } while (!this.buckets.compareAndSet(index, current, next));
+    }
+
+    private boolean exceeds(long calls, long failures, long slow) {
+        if (calls == 0) {
+            return false;
+        }
+        return failures * 100.0 / calls >= this.settings.failureRateThreshold()
+            || slow * 100.0 / calls >= this.settings.slowCallRateThreshold();
+    }
+
+    private void open(long now, State from) {
+        this.openedAt = now;
+        this.state.compareAndSet(from, State.OPEN);
+    }
+
+    private void close() {
+        for (int i = 0; i < BUCKETS; i++) {
+            this.buckets.set(i, 0);
+        }
+        this.state.set(State.CLOSED);
+    }
+
+    private static int index(long epoch) {
+        return (int) Math.floorMod(epoch, (long) BUCKETS);
+    }
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /**
+     * @param failureRateThreshold  실패율(%) 기준
+     * @param slowCallRateThreshold 느린 호출 비율(%) 기준
+     * @param slowCallNanos         이 시간 이상 걸린 호출은 느린 호출로 센다.
+     */
+    public record Settings(float failureRateThreshold, float slowCallRateThreshold, long slowCallNanos, long windowNanos,
+                           int minimumCalls, long waitInOpenNanos, int permittedCallsInHalfOpen) {
+    }
+}
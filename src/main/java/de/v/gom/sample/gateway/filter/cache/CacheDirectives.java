@@ -0,0 +1,60 @@
+package de.v.gom.sample.gateway.filter.cache;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Cache-Control 헤더 중 캐시 판단에 사용하는 지시자. 값이 없는 시간 지시자는 -1 이다.
+ */
+record CacheDirectives(boolean noStore, boolean noCache, boolean isPrivate,
+                       long maxAge, long sharedMaxAge, long staleWhileRevalidate) {
+    static final CacheDirectives NONE = new CacheDirectives(false, false, false, -1, -1, -1);
+
+    static CacheDirectives parse(List<String> values) {
+        if (values == null || values.isEmpty()) {
+            return NONE;
+        }
+        boolean noStore = false;
+        boolean noCache = false;
+        boolean isPrivate = false;
+        long maxAge = -1;
+        long sharedMaxAge = -1;
+        long staleWhileRevalidate = -1;
+        for (String value : values) {
+            for (String directive : value.split(",")) {
+                String token = directive.trim().toLowerCase(Locale.ROOT);
+                int equals = token.indexOf('=');
+                String name = equals < 0 ? token : token.substring(0, equals).trim();
+                switch (name) {
+                    case "no-store" -> noStore = true;
+                    case "no-cache" -> noCache = true;
+                    case "private" -> isPrivate = true;
+                    case "max-age" -> maxAge = seconds(token, equals);
+                    case "s-maxage" -> sharedMaxAge = seconds(token, equals);
+                    case "stale-while-revalidate" -> staleWhileRevalidate = seconds(token, equals);
+                    default -> {
+                    }
+                }
+            }
+        }
+        return new CacheDirectives(noStore, noCache, isPrivate, maxAge, sharedMaxAge, staleWhileRevalidate);
+    }
+
+    /**
+     * 공유 캐시이므로 s-maxage 를 max-age 보다 우선한다.
+     */
+    long freshSeconds() {
+        return this.sharedMaxAge >= 0 ? this.sharedMaxAge : this.maxAge;
+    }
+
+    private static long seconds(String token, int equals) {
+        if (equals < 0) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(token.substring(equals + 1).trim().replace("\"", ""));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package de.v.gom.sample.gateway.filter.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 캐시된 응답. body 는 String 이 아닌 byte[] 하나로 보관하며 응답 시 복사 없이 DataBuffer 로 감싼다.
+ * 시간은 System.nanoTime() 기준이다.
+ */
+final class CachedResponse {
+    private static final int ENTRY_OVERHEAD = 128;
+
+    private final HttpStatusCode status;
+    private final HttpHeaders headers;
+    private final byte[] body;
+    private final long storedAt;
+    private final long freshUntil;
+    private final long staleUntil;
+    private final int weight;
+    private final AtomicBoolean revalidating = new AtomicBoolean();
+
+    CachedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body, long storedAt, long freshNanos, long staleNanos) {
+        this.status = status;
+        this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+        this.body = body;
+        this.storedAt = storedAt;
+        this.freshUntil = storedAt + freshNanos;
+        this.staleUntil = this.freshUntil + staleNanos;
+        this.weight = ENTRY_OVERHEAD + body.length + headers.entrySet().stream()
+            .mapToInt(header -> header.getKey().length() + header.getValue().stream().mapToInt(String::length).sum())
+            .sum();
+    }
+
+    HttpStatusCode status() {
+        return this.status;
+    }
+
+    HttpHeaders headers() {
+        return this.headers;
+    }
+
+    byte[] body() {
+        return this.body;
+    }
+
+    int weight() {
+        return this.weight;
+    }
+
+    long ageSeconds(long now) {
+        return (now - this.storedAt) / 1_000_000_000L;
+    }
+
+    boolean isFresh(long now) {
+        return now - this.freshUntil < 0;
+    }
+
+    boolean isUsable(long now) {
+        return now - this.staleUntil < 0;
+    }
+
+    /**
+     * stale 상태에서 하나의 요청만 upstream 으로 다시 조회하도록 한다. 나머지 요청은 stale 응답을 받는다.
+     */
+    boolean tryRevalidate() {
+        return this.revalidating.compareAndSet(false, true);
+    }
+
+    void revalidationFailed() {
+        this.revalidating.set(false);
+    }
+}
@@ -0,0 +1,161 @@
+package de.v.gom.sample.gateway.filter.cache;
+
+import de.v.gom.sample.gateway.filter.BodyCapture;
+import de.v.gom.sample.gateway.filter.CredentialHeaders;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.springframework.cloud.gateway.support.GatewayToStringStyler.filterToStringCreator;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * GET 요청의 200 응답을 {@link ResponseCacheStore} 에 저장하고, 같은 요청은 upstream 을 호출하지 않고 응답한다.
+ * <p>
+ * 유효 시간은 응답의 Cache-Control(s-maxage, max-age, stale-while-revalidate) 을 우선하고, 없으면 설정 값을 사용한다.
+ * 유효 시간이 지난 뒤 stale-while-revalidate 기간에는 하나의 요청만 upstream 으로 보내 캐시를 갱신하고 나머지는 stale 응답을 받는다.
+ * Authorization / Cookie 가 있는 요청은 사용자마다 응답이 다를 수 있으므로 캐시를 사용하지 않는다.
+ */
+public class ResponseCacheGatewayFilter implements GatewayFilter {
+    public static final String CACHE_HEADER = "X-Cache";
+
+    private final ResponseCacheStore store;
+    private final long timeToLive;
+    private final long staleWhileRevalidate;
+
+    public ResponseCacheGatewayFilter(ResponseCacheStore store, Duration timeToLive, Duration staleWhileRevalidate) {
+        this.store = store;
+        this.timeToLive = timeToLive.toNanos();
+        this.staleWhileRevalidate = staleWhileRevalidate.toNanos();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        CacheDirectives directives = CacheDirectives.parse(request.getHeaders().get(HttpHeaders.CACHE_CONTROL));
+        if (!HttpMethod.GET.equals(request.getMethod()) || directives.noStore()
+            || CredentialHeaders.present(request.getHeaders())) {
+            this.store.bypass();
+            return chain.filter(exchange);
+        }
+        String primaryKey = primaryKey(exchange);
+        long now = System.nanoTime();
+        CachedResponse cached = directives.noCache() ? null : this.store.get(this.store.key(primaryKey, request.getHeaders()), now);
+        if (cached != null) {
+            if (cached.isFresh(now)) {
+                this.store.hit();
+                return write(exchange.getResponse(), cached, now, "HIT");
+            }
+            if (!cached.tryRevalidate()) {
+                this.store.staleHit();
+                return write(exchange.getResponse(), cached, now, "STALE");
+            }
+        }
+        this.store.miss();
+        CachingResponse response = new CachingResponse(exchange.getResponse(), primaryKey, request.getHeaders());
+        return chain.filter(exchange.mutate().response(response).build())
+            .doFinally(signal -> {
+                if (cached != null && !response.stored) {
+                    cached.revalidationFailed();
+                }
+            });
+    }
+
+    @Override
+    public String toString() {
+        return filterToStringCreator(this)
+            .append("timeToLive", Duration.ofNanos(this.timeToLive))
+            .append("staleWhileRevalidate", Duration.ofNanos(this.staleWhileRevalidate))
+            .toString();
+    }
+
+    private static String primaryKey(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        ServerHttpRequest request = exchange.getRequest();
+        String query = request.getURI().getRawQuery();
+        return (route != null ? route.getId() : "") + ' ' + request.getURI().getRawPath() + (query != null ? '?' + query : "");
+    }
+
+    private static Mono<Void> write(ServerHttpResponse response, CachedResponse cached, long now, String result) {
+        response.setStatusCode(cached.status());
+        HttpHeaders headers = response.getHeaders();
+        headers.putAll(cached.headers());
+        headers.set(HttpHeaders.AGE, Long.toString(cached.ageSeconds(now)));
+        headers.set(CACHE_HEADER, result);
+        headers.setContentLength(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private static boolean cacheable(HttpStatusCode status, HttpHeaders headers, CacheDirectives directives, List<String> vary) {
+        return HttpStatus.OK.equals(status)
+            && !directives.noStore() && !directives.noCache() && !directives.isPrivate()
+            && !headers.containsKey(HttpHeaders.SET_COOKIE)
+            && !vary.contains("*");
+    }
+
+    // 연결에 관한 헤더와 길이는 저장하지 않고 응답할 때 다시 설정한다.
+    private static HttpHeaders cachedHeaders(HttpHeaders headers) {
+        HttpHeaders copy = new HttpHeaders();
+        copy.putAll(headers);
+        copy.remove(HttpHeaders.CONNECTION);
+        copy.remove(HttpHeaders.TRANSFER_ENCODING);
+        copy.remove(HttpHeaders.CONTENT_LENGTH);
+        copy.remove("Keep-Alive");
+        return copy;
+    }
+
+    private final class CachingResponse extends ServerHttpResponseDecorator {
+        private final String primaryKey;
+        private final HttpHeaders requestHeaders;
+        private volatile boolean stored;
+
+        CachingResponse(ServerHttpResponse delegate, String primaryKey, HttpHeaders requestHeaders) {
+            super(delegate);
+            this.primaryKey = primaryKey;
+            this.requestHeaders = requestHeaders;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpHeaders headers = this.getHeaders();
+            HttpStatusCode status = this.getStatusCode();
+            CacheDirectives directives = CacheDirectives.parse(headers.get(HttpHeaders.CACHE_CONTROL));
+            List<String> vary = headers.getVary();
+            long fresh = directives.freshSeconds() >= 0 ? Duration.ofSeconds(directives.freshSeconds()).toNanos() : timeToLive;
+            long stale = directives.staleWhileRevalidate() >= 0
+                ? Duration.ofSeconds(directives.staleWhileRevalidate()).toNanos() : staleWhileRevalidate;
+            long contentLength = headers.getContentLength();
+            if (!cacheable(status, headers, directives, vary) || fresh <= 0 || contentLength > store.maxEntrySize()) {
+                headers.set(CACHE_HEADER, "MISS");
+                return super.writeWith(body);
+            }
+            HttpHeaders cachedHeaders = cachedHeaders(headers);
+            headers.set(CACHE_HEADER, "MISS");
+            BodyCapture capture = new BodyCapture(store.maxEntrySize(), contentLength);
+            return super.writeWith(Flux.from(body).doOnNext(capture::append))
+                .doOnSuccess(done -> {
+                    byte[] bytes = capture.bytes();
+                    if (bytes != null) {
+                        store.put(this.primaryKey, this.requestHeaders, vary,
+                            new CachedResponse(status, cachedHeaders, bytes, System.nanoTime(), fresh, stale));
+                        this.stored = true;
+                    }
+                });
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package de.v.gom.sample.gateway.filter.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * route 별 응답 캐시 필터. RouteDefinition 에서는 ResponseCache=30s,10s (timeToLive, staleWhileRevalidate) 로,
+ * Router DSL 에서는 filters(f -> f.filter(responseCache.apply(config -> ...))) 로 사용한다.
+ * timeToLive 를 지정하지 않으면 gateway.response-cache.time-to-live 를 사용한다.
+ */
+public class ResponseCacheGatewayFilterFactory extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+    private final ResponseCacheStore store;
+    private final Duration defaultTimeToLive;
+
+    public ResponseCacheGatewayFilterFactory(ResponseCacheStore store, Duration defaultTimeToLive) {
+        super(Config.class);
+        this.store = store;
+        this.defaultTimeToLive = defaultTimeToLive;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("timeToLive", "staleWhileRevalidate");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        Duration timeToLive = config.getTimeToLive() != null ? config.getTimeToLive() : this.defaultTimeToLive;
+        return new ResponseCacheGatewayFilter(this.store, timeToLive, config.getStaleWhileRevalidate());
+    }
+
+    @Getter
+    @Setter
+    public static class Config {
+        private Duration timeToLive;
+        private Duration staleWhileRevalidate = Duration.ZERO;
+    }
+}
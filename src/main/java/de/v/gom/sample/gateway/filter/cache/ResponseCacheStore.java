@@ -0,0 +1,170 @@
+package de.v.gom.sample.gateway.filter.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 응답 캐시 저장소. 모든 ResponseCache 필터가 공유한다.
+ * <p>
+ * key 의 hash 로 나눈 segment 마다 access-order LinkedHashMap(LRU) 과 lock 을 두어 경합을 줄이고,
+ * 각 segment 는 전체 entry 수와 weight(body + header 크기) 제한을 segment 수로 나눈 만큼만 보관한다.
+ * Vary 헤더가 있는 응답은 primary key 별로 Vary 헤더 이름을 기억하고, 요청의 해당 헤더 값을 key 에 포함한다.
+ */
+public class ResponseCacheStore {
+    private static final int SEGMENTS = 16;
+    private static final int MAX_VARIED_PRIMARY_KEYS = 10_000;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final Map<String, List<String>> varies = new ConcurrentHashMap<>();
+    private final AtomicLong entries = new AtomicLong();
+    private final AtomicLong weight = new AtomicLong();
+    private final int maxEntrySize;
+    private final Counter hits;
+    private final Counter staleHits;
+    private final Counter misses;
+    private final Counter bypasses;
+    private final Counter evictions;
+
+    public ResponseCacheStore(int maxEntries, long maxWeight, int maxEntrySize, MeterRegistry registry) {
+        for (int i = 0; i < SEGMENTS; i++) {
+            this.segments[i] = new Segment(Math.max(1, maxEntries / SEGMENTS), Math.max(1, maxWeight / SEGMENTS));
+        }
+        this.maxEntrySize = maxEntrySize;
+        this.hits = result("hit", registry);
+        this.staleHits = result("stale", registry);
+        this.misses = result("miss", registry);
+        this.bypasses = result("bypass", registry);
+        this.evictions = Counter.builder("gateway.response-cache.evictions").register(registry);
+        Gauge.builder("gateway.response-cache.entries", this.entries, AtomicLong::get).register(registry);
+        Gauge.builder("gateway.response-cache.weight", this.weight, AtomicLong::get).baseUnit("bytes").register(registry);
+    }
+
+    int maxEntrySize() {
+        return this.maxEntrySize;
+    }
+
+    /**
+     * primary key(route, path, query) 에 마지막으로 저장된 응답의 Vary 헤더 값을 붙인 key.
+     */
+    String key(String primaryKey, HttpHeaders requestHeaders) {
+        List<String> names = this.varies.get(primaryKey);
+        return names == null ? primaryKey : varied(primaryKey, names, requestHeaders);
+    }
+
+    CachedResponse get(String key, long now) {
+        return this.segment(key).get(key, now);
+    }
+
+    void put(String primaryKey, HttpHeaders requestHeaders, List<String> varyNames, CachedResponse response) {
+        String key = primaryKey;
+        if (varyNames.isEmpty()) {
+            this.varies.remove(primaryKey);
+        } else {
+            if (this.varies.size() < MAX_VARIED_PRIMARY_KEYS || this.varies.containsKey(primaryKey)) {
+                this.varies.put(primaryKey, varyNames);
+            } else {
+                return;
+            }
+            key = varied(primaryKey, varyNames, requestHeaders);
+        }
+        this.segment(key).put(key, response);
+    }
+
+    void hit() {
+        this.hits.increment();
+    }
+
+    void staleHit() {
+        this.staleHits.increment();
+    }
+
+    void miss() {
+        this.misses.increment();
+    }
+
+    void bypass() {
+        this.bypasses.increment();
+    }
+
+    private Segment segment(String key) {
+        int hash = key.hashCode();
+        return this.segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    private static String varied(String primaryKey, List<String> names, HttpHeaders requestHeaders) {
+        StringBuilder key = new StringBuilder(primaryKey);
+        for (String name : names) {
+            key.append('\n').append(name).append(':');
+            List<String> values = requestHeaders.get(name);
+            if (values != null) {
+                key.append(String.join(",", values));
+            }
+        }
+        return key.toString();
+    }
+
+    private static Counter result(String result, MeterRegistry registry) {
+        return Counter.builder("gateway.response-cache.requests").tag("result", result).register(registry);
+    }
+
+    private final class Segment {
+        private final int maxEntries;
+        private final long maxWeight;
+        private final LinkedHashMap<String, CachedResponse> map = new LinkedHashMap<>(16, 0.75f, true);
+        private long segmentWeight;
+
+        Segment(int maxEntries, long maxWeight) {
+            this.maxEntries = maxEntries;
+            this.maxWeight = maxWeight;
+        }
+
+        synchronized CachedResponse get(String key, long now) {
+            CachedResponse response = this.map.get(key);
+            if (response != null && !response.isUsable(now)) {
+                this.remove(key);
+                return null;
+            }
+            return response;
+        }
+
+        synchronized void put(String key, CachedResponse response) {
+            if (response.weight() > this.maxWeight) {
+                return;
+            }
+            CachedResponse previous = this.map.put(key, response);
+            if (previous != null) {
+                this.account(-1, -previous.weight());
+            }
+            this.account(1, response.weight());
+            Iterator<Map.Entry<String, CachedResponse>> eldest = this.map.entrySet().iterator();
+            while ((this.map.size() > this.maxEntries || this.segmentWeight > this.maxWeight) && eldest.hasNext()) {
+                CachedResponse evicted = eldest.next().getValue();
+                eldest.remove();
+                this.account(-1, -evicted.weight());
+                evictions.increment();
+            }
+        }
+
+        private void remove(String key) {
+            CachedResponse removed = this.map.remove(key);
+            if (removed != null) {
+                this.account(-1, -removed.weight());
+            }
+        }
+
+        private void account(int count, long delta) {
+            this.segmentWeight += delta;
+            entries.addAndGet(count);
+            weight.addAndGet(delta);
+        }
+    }
+}
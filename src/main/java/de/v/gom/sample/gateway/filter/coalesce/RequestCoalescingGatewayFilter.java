@@ -0,0 +1,201 @@
+package de.v.gom.sample.gateway.filter.coalesce;
+
+import de.v.gom.sample.gateway.filter.BodyCapture;
+import de.v.gom.sample.gateway.filter.CredentialHeaders;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+
+import static org.springframework.cloud.gateway.support.GatewayToStringStyler.filterToStringCreator;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * 동시에 들어온 같은 요청(method, path, query, 지정한 헤더)을 하나의 upstream 호출로 합친다. (single-flight)
+ * <p>
+ * 처음 들어온 요청(leader)만 upstream 을 호출하고 응답 body 를 복사하여, 기다리던 요청(follower)에게 같은 응답을 보낸다.
+ * <ul>
+ *     <li>follower 는 maxWait 까지만 기다리고, 넘으면 직접 upstream 을 호출한다.</li>
+ *     <li>follower 의 연결이 끊기면 해당 follower 의 구독만 취소되며 다른 요청에는 영향이 없다.</li>
+ *     <li>leader 의 연결이 끊기거나 실패하거나 body 가 maxBodySize 보다 크면, follower 들은 다시 합쳐져 새로운 leader 를 정한다.</li>
+ * </ul>
+ * Authorization / Cookie 가 있는 요청은 사용자마다 응답이 다를 수 있으므로 합치지 않는다.
+ * 해당 헤더를 keyHeaders 에 지정하면 값이 같은 요청끼리만 합친다.
+ */
+@Slf4j
+public class RequestCoalescingGatewayFilter implements GatewayFilter {
+    public static final String COALESCED_HEADER = "X-Coalesced";
+
+    private final Map<String, Sinks.One<SharedResponse>> flights = new ConcurrentHashMap<>();
+    private final List<String> keyHeaders;
+    // keyHeaders 에 없는 인증 헤더. 이 헤더가 있는 요청은 합치지 않는다.
+    private final List<String> unkeyedCredentials;
+    private final Duration maxWait;
+    private final int maxBodySize;
+
+    public RequestCoalescingGatewayFilter(List<String> keyHeaders, Duration maxWait, int maxBodySize) {
+        this.keyHeaders = List.copyOf(keyHeaders);
+        this.unkeyedCredentials = CredentialHeaders.NAMES.stream()
+            .filter(credential -> this.keyHeaders.stream().noneMatch(credential::equalsIgnoreCase))
+            .toList();
+        this.maxWait = maxWait;
+        this.maxBodySize = maxBodySize;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        HttpMethod method = exchange.getRequest().getMethod();
+        if ((!HttpMethod.GET.equals(method) && !HttpMethod.HEAD.equals(method)) || this.hasUnkeyedCredentials(exchange.getRequest())) {
+            return chain.filter(exchange);
+        }
+        String key = this.key(exchange);
+        Sinks.One<SharedResponse> flight = Sinks.one();
+        Sinks.One<SharedResponse> existing = this.flights.putIfAbsent(key, flight);
+        if (existing != null) {
+            return this.follow(existing, exchange, chain);
+        }
+        return this.lead(key, flight, exchange, chain);
+    }
+
+    @Override
+    public String toString() {
+        return filterToStringCreator(this)
+            .append("keyHeaders", this.keyHeaders)
+            .append("maxWait", this.maxWait)
+            .toString();
+    }
+
+    int inFlight() {
+        return this.flights.size();
+    }
+
+    private Mono<Void> lead(String key, Sinks.One<SharedResponse> flight, ServerWebExchange exchange, GatewayFilterChain chain) {
+        SharingResponse response = new SharingResponse(exchange.getResponse());
+        return chain.filter(exchange.mutate().response(response).build())
+            .doFinally(signal -> {
+                this.flights.remove(key, flight);
+                SharedResponse shared = signal == SignalType.ON_COMPLETE ? response.shared : null;
+                if (shared != null) {
+                    flight.tryEmitValue(shared);
+                } else {
+                    flight.tryEmitEmpty();
+                }
+            });
+    }
+
+    private Mono<Void> follow(Sinks.One<SharedResponse> flight, ServerWebExchange exchange, GatewayFilterChain chain) {
+        return flight.asMono()
+            .timeout(this.maxWait)
+            .flatMap(shared -> write(exchange.getResponse(), shared))
+            // leader 가 응답을 공유하지 못한 경우 남은 요청끼리 다시 합친다.
+            .switchIfEmpty(Mono.defer(() -> this.filter(exchange, chain)))
+            .onErrorResume(TimeoutException.class, e -> {
+                log.debug("Coalesced request timed out after {}, calling upstream: {}", this.maxWait, exchange.getRequest().getURI());
+                return chain.filter(exchange);
+            });
+    }
+
+    private boolean hasUnkeyedCredentials(ServerHttpRequest request) {
+        for (String header : this.unkeyedCredentials) {
+            if (request.getHeaders().containsKey(header)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String key(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        ServerHttpRequest request = exchange.getRequest();
+        StringBuilder key = new StringBuilder(64)
+            .append(route != null ? route.getId() : "").append(' ')
+            .append(request.getMethod().name()).append(' ')
+            .append(request.getURI().getRawPath());
+        if (request.getURI().getRawQuery() != null) {
+            key.append('?').append(request.getURI().getRawQuery());
+        }
+        for (String header : this.keyHeaders) {
+            key.append('\n').append(header).append(':');
+            List<String> values = request.getHeaders().get(header);
+            if (values != null) {
+                key.append(String.join(",", values));
+            }
+        }
+        return key.toString();
+    }
+
+    private static Mono<Void> write(ServerHttpResponse response, SharedResponse shared) {
+        response.setStatusCode(shared.status());
+        response.getHeaders().putAll(shared.headers());
+        response.getHeaders().set(COALESCED_HEADER, "true");
+        response.getHeaders().setContentLength(shared.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(shared.body())));
+    }
+
+    // 연결에 관한 헤더와 길이는 공유하지 않고 각 응답에서 다시 설정한다.
+    private static HttpHeaders sharedHeaders(HttpHeaders headers) {
+        HttpHeaders copy = new HttpHeaders();
+        copy.putAll(headers);
+        copy.remove(HttpHeaders.CONNECTION);
+        copy.remove(HttpHeaders.TRANSFER_ENCODING);
+        copy.remove(HttpHeaders.CONTENT_LENGTH);
+        copy.remove(HttpHeaders.SET_COOKIE);
+        copy.remove("Keep-Alive");
+        return HttpHeaders.readOnlyHttpHeaders(copy);
+    }
+
+    private record SharedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+    }
+
+    private final class SharingResponse extends ServerHttpResponseDecorator {
+        private volatile SharedResponse shared;
+
+        SharingResponse(ServerHttpResponse delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            long contentLength = this.getHeaders().getContentLength();
+            if (contentLength > maxBodySize) {
+                return super.writeWith(body);
+            }
+            HttpStatusCode status = this.getStatusCode();
+            HttpHeaders headers = sharedHeaders(this.getHeaders());
+            BodyCapture capture = new BodyCapture(maxBodySize, contentLength);
+            return super.writeWith(Flux.from(body).doOnNext(capture::append))
+                .doOnSuccess(done -> {
+                    byte[] bytes = capture.bytes();
+                    if (bytes != null) {
+                        this.shared = new SharedResponse(status, headers, bytes);
+                    }
+                });
+        }
+
+        @Override
+        public Mono<Void> setComplete() {
+            HttpStatusCode status = this.getStatusCode();
+            HttpHeaders headers = sharedHeaders(this.getHeaders());
+            return super.setComplete().doOnSuccess(done -> this.shared = new SharedResponse(status, headers, new byte[0]));
+        }
+    }
+}
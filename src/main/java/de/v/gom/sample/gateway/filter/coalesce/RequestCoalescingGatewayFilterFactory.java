@@ -0,0 +1,42 @@
+package de.v.gom.sample.gateway.filter.coalesce;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 동시에 들어온 같은 GET 요청을 하나의 upstream 호출로 합치는 필터. route 에 명시적으로 추가한 경우에만 동작한다.
+ * RouteDefinition 에서는 RequestCoalescing=2s (maxWait) 로, Router DSL 에서는 f.filter(requestCoalescing.apply(config -> ...)) 로 사용한다.
+ */
+public class RequestCoalescingGatewayFilterFactory extends AbstractGatewayFilterFactory<RequestCoalescingGatewayFilterFactory.Config> {
+
+    public RequestCoalescingGatewayFilterFactory() {
+        super(Config.class);
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("maxWait");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return new RequestCoalescingGatewayFilter(config.getKeyHeaders(), config.getMaxWait(),
+            Math.toIntExact(config.getMaxBodySize().toBytes()));
+    }
+
+    @Getter
+    @Setter
+    public static class Config {
+        // method, path, query 외에 요청을 구분하는 헤더 (예: Accept, Accept-Language)
+        private List<String> keyHeaders = new ArrayList<>();
+        private Duration maxWait = Duration.ofSeconds(5);
+        private DataSize maxBodySize = DataSize.ofMegabytes(1);
+    }
+}
@@ -0,0 +1,73 @@
+package de.v.gom.sample.gateway.filter.compress;
+
+import java.util.List;
+
+/**
+ * gateway 가 응답 body 에 적용하는 Content-Encoding.
+ */
+public enum ContentEncoding {
+    GZIP("gzip"),
+    /**
+     * HTTP 의 deflate 는 zlib 형식(RFC 1950) 이다.
+     */
+    DEFLATE("deflate");
+
+    private final String value;
+
+    ContentEncoding(String value) {
+        this.value = value;
+    }
+
+    public String value() {
+        return this.value;
+    }
+
+    /**
+     * Accept-Encoding 에서 q 값이 가장 큰 encoding 을 고른다. 같으면 gzip 을 우선하며, 둘 다 허용하지 않으면 null
+     * <p>
+     * gzip / deflate 를 명시하지 않은 경우에는 * 의 q 값을 따른다.
+     */
+    public static ContentEncoding negotiate(List<String> acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isEmpty()) {
+            return null;
+        }
+        double gzip = -1;
+        double deflate = -1;
+        double any = -1;
+        for (String header : acceptEncoding) {
+            for (String token : header.split(",")) {
+                int semicolon = token.indexOf(';');
+                String coding = (semicolon < 0 ? token : token.substring(0, semicolon)).trim();
+                double quality = semicolon < 0 ? 1 : quality(token.substring(semicolon + 1));
+                if (coding.equalsIgnoreCase("gzip") || coding.equalsIgnoreCase("x-gzip")) {
+                    gzip = quality;
+                } else if (coding.equalsIgnoreCase("deflate")) {
+                    deflate = quality;
+                } else if (coding.equals("*")) {
+                    any = quality;
+                }
+            }
+        }
+        gzip = gzip < 0 ? any : gzip;
+        deflate = deflate < 0 ? any : deflate;
+        if (gzip <= 0 && deflate <= 0) {
+            return null;
+        }
+        return gzip >= deflate ? GZIP : DEFLATE;
+    }
+
+    // 형식이 잘못된 q 값은 허용하지 않는 것으로 본다.
+    private static double quality(String parameters) {
+        for (String parameter : parameters.split(";")) {
+            String trimmed = parameter.trim();
+            if (trimmed.startsWith("q=") || trimmed.startsWith("Q=")) {
+                try {
+                    return Double.parseDouble(trimmed.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,66 @@
+package de.v.gom.sample.gateway.filter.compress;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+
+/**
+ * encoding 별 {@link Deflater} pool.
+ * <p>
+ * Deflater 는 생성할 때마다 native memory(zlib stream, 약 256KB) 를 할당하고 end() 또는 GC 로만 해제되므로,
+ * 응답마다 새로 만들지 않고 reset 하여 재사용한다. 출력용 buffer 도 Deflater 와 함께 재사용한다.
+ * 반납할 때 pool 이 가득 차 있으면 바로 end() 한다.
+ * <p>
+ * metric: gateway.compression.deflaters{encoding} (pool 에 남아 있는 수), gateway.compression.deflaters.created{encoding}
+ */
+public class DeflaterPool {
+    private final int level;
+    private final int bufferSize;
+    private final Map<ContentEncoding, BlockingQueue<PooledDeflater>> idle = new EnumMap<>(ContentEncoding.class);
+    private final Map<ContentEncoding, Counter> created = new EnumMap<>(ContentEncoding.class);
+
+    public DeflaterPool(int level, int maxIdle, int bufferSize, MeterRegistry registry) {
+        this.level = level;
+        this.bufferSize = bufferSize;
+        for (ContentEncoding encoding : ContentEncoding.values()) {
+            BlockingQueue<PooledDeflater> queue = new ArrayBlockingQueue<>(maxIdle);
+            this.idle.put(encoding, queue);
+            Gauge.builder("gateway.compression.deflaters", queue, BlockingQueue::size)
+                .tag("encoding", encoding.value())
+                .register(registry);
+            this.created.put(encoding, Counter.builder("gateway.compression.deflaters.created")
+                .tag("encoding", encoding.value())
+                .register(registry));
+        }
+    }
+
+    PooledDeflater acquire(ContentEncoding encoding) {
+        PooledDeflater pooled = this.idle.get(encoding).poll();
+        if (pooled != null) {
+            return pooled;
+        }
+        this.created.get(encoding).increment();
+        // gzip 은 header / trailer 를 직접 기록하므로 zlib header 없이(nowrap) 압축한다.
+        return new PooledDeflater(encoding, new Deflater(this.level, encoding == ContentEncoding.GZIP), new byte[this.bufferSize]);
+    }
+
+    void release(PooledDeflater pooled) {
+        pooled.deflater().reset();
+        if (!this.idle.get(pooled.encoding()).offer(pooled)) {
+            pooled.deflater().end();
+        }
+    }
+
+    int idle(ContentEncoding encoding) {
+        return this.idle.get(encoding).size();
+    }
+
+    record PooledDeflater(ContentEncoding encoding, Deflater deflater, byte[] buffer) {
+    }
+}
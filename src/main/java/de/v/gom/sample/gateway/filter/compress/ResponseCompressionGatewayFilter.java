@@ -0,0 +1,195 @@
+package de.v.gom.sample.gateway.filter.compress;
+
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static org.springframework.cloud.gateway.support.GatewayToStringStyler.filterToStringCreator;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Accept-Encoding 에 따라 upstream 응답을 gzip / deflate 로 압축한다.
+ * <p>
+ * 다음 응답은 압축하지 않는다.
+ * <ul>
+ *     <li>Content-Type 이 mediaTypes 에 포함되지 않는 응답, 이미 Content-Encoding 이 있는 응답, Cache-Control: no-transform</li>
+ *     <li>204, 206, 304 응답과 HEAD 요청</li>
+ *     <li>minResponseSize 보다 작은 응답. Content-Length 가 없으면 minResponseSize 까지만 모아 보고 결정한다.</li>
+ *     <li>압축률이 나쁜 route 의 응답 ({@link RouteCompression})</li>
+ * </ul>
+ * 압축한 응답은 Content-Length 를 제거하고(chunked), Vary: Accept-Encoding 을 추가하며 ETag 를 weak 로 바꾼다.
+ */
+public class ResponseCompressionGatewayFilter implements GatewayFilter, Ordered {
+    public static final List<MediaType> DEFAULT_MEDIA_TYPES = List.of(
+        MediaType.parseMediaType("text/*"),
+        MediaType.APPLICATION_JSON,
+        MediaType.parseMediaType("application/*+json"),
+        MediaType.APPLICATION_XML,
+        MediaType.parseMediaType("application/*+xml"),
+        MediaType.parseMediaType("application/javascript"),
+        MediaType.parseMediaType("image/svg+xml"));
+
+    private final DeflaterPool pool;
+    private final RouteCompressions routes;
+    private final long minResponseSize;
+    private final List<MediaType> mediaTypes;
+
+    public ResponseCompressionGatewayFilter(DeflaterPool pool, RouteCompressions routes, DataSize minResponseSize, List<MediaType> mediaTypes) {
+        this.pool = pool;
+        this.routes = routes;
+        this.minResponseSize = minResponseSize.toBytes();
+        this.mediaTypes = List.copyOf(mediaTypes);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        ContentEncoding encoding = ContentEncoding.negotiate(request.getHeaders().get(HttpHeaders.ACCEPT_ENCODING));
+        if (encoding == null || HttpMethod.HEAD.equals(request.getMethod())) {
+            return chain.filter(exchange);
+        }
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        RouteCompression compression = this.routes.of(route != null ? route.getId() : "");
+        return chain.filter(exchange.mutate().response(new CompressingResponse(exchange.getResponse(), encoding, compression)).build());
+    }
+
+    // NettyWriteResponseFilter 가 upstream 응답을 쓰기 전에 응답을 감싼다.
+    @Override
+    public int getOrder() {
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+
+    @Override
+    public String toString() {
+        return filterToStringCreator(this)
+            .append("minResponseSize", DataSize.ofBytes(this.minResponseSize))
+            .append("mediaTypes", this.mediaTypes)
+            .toString();
+    }
+
+    private boolean compressible(HttpStatusCode status, HttpHeaders headers) {
+        if (status != null && (status.is1xxInformational() || status.value() == HttpStatus.NO_CONTENT.value()
+            || status.value() == HttpStatus.PARTIAL_CONTENT.value() || status.value() == HttpStatus.NOT_MODIFIED.value())) {
+            return false;
+        }
+        if (headers.containsKey(HttpHeaders.CONTENT_ENCODING) || headers.containsKey(HttpHeaders.CONTENT_RANGE)) {
+            return false;
+        }
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl != null && cacheControl.contains("no-transform")) {
+            return false;
+        }
+        MediaType contentType;
+        try {
+            contentType = headers.getContentType();
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        return contentType != null && this.mediaTypes.stream().anyMatch(type -> type.includes(contentType));
+    }
+
+    private static long size(List<DataBuffer> buffers) {
+        long size = 0;
+        for (DataBuffer buffer : buffers) {
+            size += buffer.readableByteCount();
+        }
+        return size;
+    }
+
+    private final class CompressingResponse extends ServerHttpResponseDecorator {
+        private final ContentEncoding encoding;
+        private final RouteCompression route;
+
+        CompressingResponse(ServerHttpResponse delegate, ContentEncoding encoding, RouteCompression route) {
+            super(delegate);
+            this.encoding = encoding;
+            this.route = route;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpHeaders headers = this.getHeaders();
+            if (!compressible(this.getStatusCode(), headers) || !this.route.tryCompress()) {
+                return super.writeWith(body);
+            }
+            long contentLength = headers.getContentLength();
+            if (contentLength >= 0) {
+                if (contentLength < minResponseSize) {
+                    this.route.tooSmall();
+                    return super.writeWith(body);
+                }
+                return super.writeWith(this.compress(body));
+            }
+            // 길이를 모르는 응답은 minResponseSize 를 넘을 때까지만 DataBuffer 를 모은다.
+            // 첫 묶음이 minResponseSize 보다 작으면 body 전체가 작은 것이므로 압축하지 않고 Content-Length 를 설정한다.
+            long[] received = new long[1];
+            return super.writeWith(Flux.<DataBuffer>from(body)
+                .bufferUntil(buffer -> (received[0] += buffer.readableByteCount()) >= minResponseSize)
+                .switchOnFirst((first, groups) -> {
+                    Flux<DataBuffer> buffers = groups.concatMapIterable(Function.identity());
+                    List<DataBuffer> head = first.get();
+                    if (head == null) {
+                        return buffers;
+                    }
+                    long size = size(head);
+                    if (size < minResponseSize) {
+                        this.route.tooSmall();
+                        headers.setContentLength(size);
+                        return buffers;
+                    }
+                    return this.compress(buffers);
+                })
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release));
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            if (!compressible(this.getStatusCode(), this.getHeaders()) || !this.route.tryCompress()) {
+                return super.writeAndFlushWith(body);
+            }
+            this.compressedHeaders();
+            return super.writeAndFlushWith(new StreamingCompressor(pool, this.encoding, this.bufferFactory(), this.route)
+                .compressAndFlush(body));
+        }
+
+        private Flux<DataBuffer> compress(Publisher<? extends DataBuffer> body) {
+            this.compressedHeaders();
+            return new StreamingCompressor(pool, this.encoding, this.bufferFactory(), this.route).compress(body);
+        }
+
+        private void compressedHeaders() {
+            HttpHeaders headers = this.getHeaders();
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            headers.set(HttpHeaders.CONTENT_ENCODING, this.encoding.value());
+            if (!headers.getVary().contains(HttpHeaders.ACCEPT_ENCODING)) {
+                headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            }
+            // 압축한 body 는 byte 단위로 원본과 같지 않다.
+            String etag = headers.getETag();
+            if (etag != null && !etag.startsWith("W/")) {
+                headers.set(HttpHeaders.ETAG, "W/" + etag);
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package de.v.gom.sample.gateway.filter.compress;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.MediaType;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 응답 압축 필터. RouteDefinition 에서는 ResponseCompression=1KB (minResponseSize) 로,
+ * Router DSL 에서는 f.filter(responseCompression.apply(config -> ...)) 로 사용한다.
+ * minResponseSize 를 지정하지 않으면 gateway.compression.min-response-size 를,
+ * mediaTypes 를 지정하지 않으면 {@link ResponseCompressionGatewayFilter#DEFAULT_MEDIA_TYPES} 를 사용한다.
+ */
+public class ResponseCompressionGatewayFilterFactory extends AbstractGatewayFilterFactory<ResponseCompressionGatewayFilterFactory.Config> {
+    private final DeflaterPool pool;
+    private final RouteCompressions routes;
+    private final DataSize defaultMinResponseSize;
+
+    public ResponseCompressionGatewayFilterFactory(DeflaterPool pool, RouteCompressions routes, DataSize defaultMinResponseSize) {
+        super(Config.class);
+        this.pool = pool;
+        this.routes = routes;
+        this.defaultMinResponseSize = defaultMinResponseSize;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("minResponseSize");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        DataSize minResponseSize = config.getMinResponseSize() != null ? config.getMinResponseSize() : this.defaultMinResponseSize;
+        List<MediaType> mediaTypes = config.getMediaTypes().isEmpty()
+            ? ResponseCompressionGatewayFilter.DEFAULT_MEDIA_TYPES
+            : MediaType.parseMediaTypes(config.getMediaTypes());
+        return new ResponseCompressionGatewayFilter(this.pool, this.routes, minResponseSize, mediaTypes);
+    }
+
+    @Getter
+    @Setter
+    public static class Config {
+        // 이보다 작은 응답은 압축하지 않는다.
+        private DataSize minResponseSize;
+        // 압축할 Content-Type (text/*, application/*+json 형식 사용 가능)
+        private List<String> mediaTypes = new ArrayList<>();
+    }
+}
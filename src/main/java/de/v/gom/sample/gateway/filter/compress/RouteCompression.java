@@ -0,0 +1,112 @@
+package de.v.gom.sample.gateway.filter.compress;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * route 하나의 압축 metric 과 압축률(압축 후 / 압축 전) 의 이동 평균.
+ * <p>
+ * 이미 압축된 데이터를 text 로 응답하는 route 처럼 압축률의 이동 평균이 maxRatio 를 넘으면 CPU 만 사용하므로 압축하지 않는다.
+ * 응답의 성격이 바뀔 수 있으므로 그 동안에도 PROBE_INTERVAL 번에 한 번은 압축하여 압축률을 다시 측정한다.
+ */
+final class RouteCompression {
+    private static final double ALPHA = 0.05;
+    private static final long MIN_SAMPLES = 20;
+    private static final long PROBE_INTERVAL = 32;
+
+    private final String routeId;
+    private final double maxRatio;
+    private final AtomicLong ratio = new AtomicLong(Double.doubleToLongBits(0));
+    private final AtomicLong samples = new AtomicLong();
+    private final AtomicLong skips = new AtomicLong();
+    private final Counter gzip;
+    private final Counter deflate;
+    private final Counter bypassed;
+    private final Counter tooSmall;
+    private final Counter bytesIn;
+    private final Counter bytesOut;
+    private final DistributionSummary ratios;
+    private final Timer time;
+
+    RouteCompression(String routeId, double maxRatio, MeterRegistry registry) {
+        this.routeId = routeId;
+        this.maxRatio = maxRatio;
+        this.gzip = this.responses(ContentEncoding.GZIP.value(), registry);
+        this.deflate = this.responses(ContentEncoding.DEFLATE.value(), registry);
+        this.bypassed = this.responses("bypassed", registry);
+        this.tooSmall = this.responses("too-small", registry);
+        this.bytesIn = this.bytes("in", registry);
+        this.bytesOut = this.bytes("out", registry);
+        this.ratios = DistributionSummary.builder("gateway.compression.ratio")
+            .description("compressed size / original size")
+            .tag("routeId", routeId)
+            .register(registry);
+        // Deflater 는 호출한 thread 에서 CPU 만 사용하므로, 응답마다 Deflater 호출에 걸린 시간을 압축 CPU 시간으로 기록한다.
+        this.time = Timer.builder("gateway.compression.time")
+            .tag("routeId", routeId)
+            .register(registry);
+    }
+
+    /**
+     * 이 응답을 압축할지 결정한다. 압축률이 나쁜 route 는 probe 응답만 압축한다.
+     */
+    boolean tryCompress() {
+        if (this.samples.get() < MIN_SAMPLES || this.ratio() <= this.maxRatio) {
+            return true;
+        }
+        if (this.skips.incrementAndGet() % PROBE_INTERVAL == 0) {
+            return true;
+        }
+        this.bypassed.increment();
+        return false;
+    }
+
+    void tooSmall() {
+        this.tooSmall.increment();
+    }
+
+    void compressed(ContentEncoding encoding, long bytesIn, long bytesOut, long nanos) {
+        (encoding == ContentEncoding.GZIP ? this.gzip : this.deflate).increment();
+        this.bytesIn.increment(bytesIn);
+        this.bytesOut.increment(bytesOut);
+        this.time.record(nanos, TimeUnit.NANOSECONDS);
+        if (bytesIn == 0) {
+            return;
+        }
+        double ratio = (double) bytesOut / bytesIn;
+        this.ratios.record(ratio);
+        if (this.samples.getAndIncrement() == 0) {
+            this.ratio.set(Double.doubleToLongBits(ratio));
+            return;
+        }
+        this.ratio.getAndUpdate(bits -> {
+            double average = Double.longBitsToDouble(bits);
+            return Double.doubleToLongBits(average + ALPHA * (ratio - average));
+        });
+    }
+
+    double ratio() {
+        return Double.longBitsToDouble(this.ratio.get());
+    }
+
+    private Counter responses(String result, MeterRegistry registry) {
+        return Counter.builder("gateway.compression.responses")
+            .tag("routeId", this.routeId)
+            .tag("result", result)
+            .register(registry);
+    }
+
+    // 압축 전(in) / 후(out) 크기. 전체 압축률 = out / in
+    private Counter bytes(String stage, MeterRegistry registry) {
+        return Counter.builder("gateway.compression.bytes")
+            .baseUnit("bytes")
+            .tag("routeId", this.routeId)
+            .tag("stage", stage)
+            .register(registry);
+    }
+}
@@ -0,0 +1,25 @@
+package de.v.gom.sample.gateway.filter.compress;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * route id 별 {@link RouteCompression}. route 가 refresh 되어 필터가 다시 만들어져도 압축률 통계를 유지한다.
+ */
+public class RouteCompressions {
+    private final Map<String, RouteCompression> routes = new ConcurrentHashMap<>();
+    private final double maxRatio;
+    private final MeterRegistry registry;
+
+    public RouteCompressions(double maxRatio, MeterRegistry registry) {
+        this.maxRatio = maxRatio;
+        this.registry = registry;
+    }
+
+    RouteCompression of(String routeId) {
+        RouteCompression route = this.routes.get(routeId);
+        return route != null ? route : this.routes.computeIfAbsent(routeId, id -> new RouteCompression(id, this.maxRatio, this.registry));
+    }
+}
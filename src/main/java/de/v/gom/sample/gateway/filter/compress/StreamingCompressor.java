@@ -0,0 +1,187 @@
+package de.v.gom.sample.gateway.filter.compress;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SignalType;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * 응답 하나의 body 를 DataBuffer 단위로 압축한다. body 전체를 모으지 않고, 받은 DataBuffer 를 바로 Deflater 에 넘기고 해제한다.
+ * <p>
+ * Deflater 는 첫 DataBuffer 를 받을 때 {@link DeflaterPool} 에서 가져오고, 압축이 끝나거나 응답이 취소되면 반납한다.
+ * 취소는 다른 thread 에서 올 수 있으므로 Deflater 를 사용하는 메서드는 synchronized 로 실행한다. (경합이 없는 lock)
+ */
+final class StreamingCompressor {
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final byte[] EMPTY = new byte[0];
+
+    private final DeflaterPool pool;
+    private final ContentEncoding encoding;
+    private final DataBufferFactory bufferFactory;
+    private final RouteCompression route;
+    private final CRC32 crc = new CRC32();
+
+    private DeflaterPool.PooledDeflater pooled;
+    private boolean closed;
+    private long bytesIn;
+    private long bytesOut;
+    private long nanos;
+
+    StreamingCompressor(DeflaterPool pool, ContentEncoding encoding, DataBufferFactory bufferFactory, RouteCompression route) {
+        this.pool = pool;
+        this.encoding = encoding;
+        this.bufferFactory = bufferFactory;
+        this.route = route;
+    }
+
+    /**
+     * writeWith 의 body. 마지막 DataBuffer 뒤에 남은 압축 결과(gzip 은 trailer 포함) 를 보낸다.
+     */
+    Flux<DataBuffer> compress(Publisher<? extends DataBuffer> body) {
+        return Flux.<DataBuffer>from(body)
+            .concatMapIterable(this::deflate)
+            .concatWith(Flux.defer(() -> Flux.fromIterable(this.finish())))
+            .doFinally(this::released);
+    }
+
+    /**
+     * writeAndFlushWith 의 body. flush 단위(SSE event 등) 마다 그때까지의 입력을 모두 출력(SYNC_FLUSH) 하여 client 가 기다리지 않게 한다.
+     */
+    Flux<Flux<DataBuffer>> compressAndFlush(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+        return Flux.<Publisher<? extends DataBuffer>>from(body)
+            .map(chunk -> Flux.<DataBuffer>from(chunk)
+                .concatMapIterable(this::deflate)
+                .concatWith(Flux.defer(() -> Flux.fromIterable(this.flush()))))
+            .concatWith(Flux.defer(() -> Flux.just(Flux.defer(() -> Flux.fromIterable(this.finish())))))
+            .doFinally(this::released);
+    }
+
+    private synchronized List<DataBuffer> deflate(DataBuffer buffer) {
+        try {
+            List<DataBuffer> output = new ArrayList<>(2);
+            Deflater deflater = this.start(output);
+            if (deflater == null) {
+                return output;
+            }
+            long start = System.nanoTime();
+            try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+                while (iterator.hasNext()) {
+                    ByteBuffer input = iterator.next();
+                    this.bytesIn += input.remaining();
+                    if (this.encoding == ContentEncoding.GZIP) {
+                        this.crc.update(input.duplicate());
+                    }
+                    deflater.setInput(input);
+                    while (!deflater.needsInput()) {
+                        this.drain(deflater, Deflater.NO_FLUSH, output);
+                    }
+                }
+            }
+            // 해제할 DataBuffer 를 Deflater 가 참조하지 않게 한다.
+            deflater.setInput(EMPTY);
+            this.nanos += System.nanoTime() - start;
+            return output;
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    private synchronized List<DataBuffer> flush() {
+        List<DataBuffer> output = new ArrayList<>(1);
+        Deflater deflater = this.start(output);
+        if (deflater == null) {
+            return output;
+        }
+        long start = System.nanoTime();
+        int length;
+        do {
+            length = this.drain(deflater, Deflater.SYNC_FLUSH, output);
+        } while (length == this.pooled.buffer().length);
+        this.nanos += System.nanoTime() - start;
+        return output;
+    }
+
+    private synchronized List<DataBuffer> finish() {
+        List<DataBuffer> output = new ArrayList<>(2);
+        Deflater deflater = this.start(output);
+        if (deflater == null) {
+            return output;
+        }
+        long start = System.nanoTime();
+        deflater.finish();
+        while (!deflater.finished()) {
+            this.drain(deflater, Deflater.NO_FLUSH, output);
+        }
+        if (this.encoding == ContentEncoding.GZIP) {
+            // gzip trailer: CRC32, 원본 크기(mod 2^32). little-endian
+            byte[] trailer = new byte[8];
+            writeIntLE(trailer, 0, (int) this.crc.getValue());
+            writeIntLE(trailer, 4, (int) this.bytesIn);
+            output.add(this.write(trailer, trailer.length));
+        }
+        this.nanos += System.nanoTime() - start;
+        this.route.compressed(this.encoding, this.bytesIn, this.bytesOut, this.nanos);
+        this.release();
+        return output;
+    }
+
+    /**
+     * 처음 호출될 때 Deflater 를 가져오고 gzip header 를 출력한다. 이미 반납했으면 null
+     */
+    private Deflater start(List<DataBuffer> output) {
+        if (this.closed) {
+            return null;
+        }
+        if (this.pooled == null) {
+            this.pooled = this.pool.acquire(this.encoding);
+            if (this.encoding == ContentEncoding.GZIP) {
+                output.add(this.write(GZIP_HEADER, GZIP_HEADER.length));
+            }
+        }
+        return this.pooled.deflater();
+    }
+
+    private int drain(Deflater deflater, int flush, List<DataBuffer> output) {
+        byte[] buffer = this.pooled.buffer();
+        int length = deflater.deflate(buffer, 0, buffer.length, flush);
+        if (length > 0) {
+            output.add(this.write(buffer, length));
+        }
+        return length;
+    }
+
+    private DataBuffer write(byte[] bytes, int length) {
+        this.bytesOut += length;
+        return this.bufferFactory.allocateBuffer(length).write(bytes, 0, length);
+    }
+
+    // 정상 종료는 finish() 에서 반납한다. writeAndFlushWith 에서는 마지막 flush 단위보다 먼저 완료될 수 있다.
+    private void released(SignalType signal) {
+        if (signal != SignalType.ON_COMPLETE) {
+            this.release();
+        }
+    }
+
+    private synchronized void release() {
+        this.closed = true;
+        if (this.pooled != null) {
+            this.pool.release(this.pooled);
+            this.pooled = null;
+        }
+    }
+
+    private static void writeIntLE(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) value;
+        bytes[offset + 1] = (byte) (value >>> 8);
+        bytes[offset + 2] = (byte) (value >>> 16);
+        bytes[offset + 3] = (byte) (value >>> 24);
+    }
+}
@@ -0,0 +1,31 @@
+package de.v.gom.sample.gateway.filter.header;
+
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * 헤더 하나에 대한 add / set / remove. 값에 URI template 변수({segment}) 가 있는 경우에만 요청마다 값을 만든다.
+ */
+record HeaderMutation(Operation operation, String name, String value, boolean template) {
+
+    static HeaderMutation of(Operation operation, String name, String value) {
+        return new HeaderMutation(operation, name, value, value != null && value.indexOf('{') >= 0);
+    }
+
+    void apply(HttpHeaders headers, ServerWebExchange exchange) {
+        switch (this.operation) {
+            case ADD -> headers.add(this.name, this.value(exchange));
+            case SET -> headers.set(this.name, this.value(exchange));
+            case REMOVE -> headers.remove(this.name);
+        }
+    }
+
+    private String value(ServerWebExchange exchange) {
+        return this.template ? ServerWebExchangeUtils.expand(exchange, this.value) : this.value;
+    }
+
+    enum Operation {
+        ADD, SET, REMOVE
+    }
+}
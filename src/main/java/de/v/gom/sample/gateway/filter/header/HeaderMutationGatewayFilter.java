@@ -0,0 +1,64 @@
+package de.v.gom.sample.gateway.filter.header;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.springframework.cloud.gateway.support.GatewayToStringStyler.filterToStringCreator;
+
+/**
+ * route 의 요청 / 응답 헤더 변경을 하나로 합친 필터.
+ * <p>
+ * Add/Set/RemoveRequestHeader 필터는 각각 요청을 mutate 하므로 필터마다 요청 헤더 전체를 복사하고 요청과 exchange 를 다시 만든다.
+ * 이 필터는 요청 헤더 변경을 한 번의 mutate 로 순서대로 적용한다. (변경이 없으면 mutate 하지 않는다)
+ * <p>
+ * 응답 헤더 변경은 Add/Set/RemoveResponseHeader 필터와 같이 upstream 응답을 받은 뒤 적용한다. 각 필터의 후처리는 필터 순서의 역순으로
+ * 실행되므로 같은 결과가 되도록 역순으로 적용하며, 이미 commit 된 응답은 변경하지 않는다.
+ */
+public class HeaderMutationGatewayFilter implements GatewayFilter {
+    private final HeaderMutation[] request;
+    private final HeaderMutation[] response;
+
+    HeaderMutationGatewayFilter(List<HeaderMutation> request, List<HeaderMutation> response) {
+        this.request = request.toArray(HeaderMutation[]::new);
+        List<HeaderMutation> reversed = new ArrayList<>(response);
+        Collections.reverse(reversed);
+        this.response = reversed.toArray(HeaderMutation[]::new);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerWebExchange mutated = this.request.length == 0 ? exchange
+            : exchange.mutate().request(builder -> builder.headers(headers -> apply(this.request, headers, exchange))).build();
+        if (this.response.length == 0) {
+            return chain.filter(mutated);
+        }
+        return chain.filter(mutated).then(Mono.fromRunnable(() -> {
+            ServerHttpResponse response = mutated.getResponse();
+            if (!response.isCommitted()) {
+                apply(this.response, response.getHeaders(), mutated);
+            }
+        }));
+    }
+
+    @Override
+    public String toString() {
+        return filterToStringCreator(this)
+            .append("request", List.of(this.request))
+            .append("response", List.of(this.response))
+            .toString();
+    }
+
+    private static void apply(HeaderMutation[] mutations, HttpHeaders headers, ServerWebExchange exchange) {
+        for (HeaderMutation mutation : mutations) {
+            mutation.apply(headers, exchange);
+        }
+    }
+}
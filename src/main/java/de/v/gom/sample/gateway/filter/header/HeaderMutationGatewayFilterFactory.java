@@ -0,0 +1,68 @@
+package de.v.gom.sample.gateway.filter.header;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * route 의 헤더 add / set / remove 를 하나의 필터로 합친다. ({@link HeaderMutationGatewayFilter})
+ * Router DSL 에서 addRequestHeader / addResponseHeader ... 를 이어 쓰는 대신 아래와 같이 사용한다. 선언한 순서대로 적용된다.
+ * <pre>
+ * f.filter(headerMutation.apply(config -> config
+ *     .addRequestHeader("Test-Header", "test")
+ *     .addResponseHeader("Test-Response-Header", "test")))
+ * </pre>
+ * compiled route 는 CompiledRouteBuilder 가 연속된 헤더 필터를 이 필터로 합치므로 직접 사용하지 않아도 된다.
+ */
+public class HeaderMutationGatewayFilterFactory extends AbstractGatewayFilterFactory<HeaderMutationGatewayFilterFactory.Config> {
+
+    public HeaderMutationGatewayFilterFactory() {
+        super(Config.class);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return new HeaderMutationGatewayFilter(config.request, config.response);
+    }
+
+    public static class Config {
+        private final List<HeaderMutation> request = new ArrayList<>();
+        private final List<HeaderMutation> response = new ArrayList<>();
+
+        public Config addRequestHeader(String name, String value) {
+            return this.request(HeaderMutation.Operation.ADD, name, value);
+        }
+
+        public Config setRequestHeader(String name, String value) {
+            return this.request(HeaderMutation.Operation.SET, name, value);
+        }
+
+        public Config removeRequestHeader(String name) {
+            return this.request(HeaderMutation.Operation.REMOVE, name, null);
+        }
+
+        public Config addResponseHeader(String name, String value) {
+            return this.response(HeaderMutation.Operation.ADD, name, value);
+        }
+
+        public Config setResponseHeader(String name, String value) {
+            return this.response(HeaderMutation.Operation.SET, name, value);
+        }
+
+        public Config removeResponseHeader(String name) {
+            return this.response(HeaderMutation.Operation.REMOVE, name, null);
+        }
+
+        private Config request(HeaderMutation.Operation operation, String name, String value) {
+            this.request.add(HeaderMutation.of(operation, name, value));
+            return this;
+        }
+
+        private Config response(HeaderMutation.Operation operation, String name, String value) {
+            this.response.add(HeaderMutation.of(operation, name, value));
+            return this;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package de.v.gom.sample.gateway.loadbalancer;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.RouteToRequestUrlFilter;
+import org.springframework.cloud.gateway.support.NotFoundException;
+import org.springframework.core.Ordered;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.netty.http.client.HttpClientResponse;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.addOriginalRequestUrl;
+
+/**
+ * uri 가 balanced://{group} 인 route 의 요청을 group 의 인스턴스 중 하나로 보낸다.
+ * <p>
+ * RouteToRequestUrlFilter 가 요청 URL 을 만든 뒤 실행되며, 선택한 인스턴스의 처리 중 요청 수와
+ * upstream 응답(헤더)까지의 시간을 기록한다. 응답 시간은 upstream 응답을 받은 뒤(CLIENT_RESPONSE_ATTR) 응답이 commit 될 때 기록하므로
+ * body 를 전달하는 시간은 포함하지 않는다. upstream 응답 없이 실패한 요청과 upstream 이 5xx 로 응답한 요청은 errorPenalty 만큼 걸린 것으로 기록한다.
+ * 처리 중 요청 수는 body 까지 모두 전달한 뒤 줄인다.
+ * <p>
+ * 선택한 group 과 인스턴스는 {@link UpstreamSelection#ATTR} 에 남겨, hedge 요청이 다른 인스턴스를 고를 수 있게 한다.
+ */
+@RequiredArgsConstructor
+public class LoadBalancerFilter implements GlobalFilter, Ordered {
+    public static final String SCHEME = "balanced";
+    public static final int ORDER = RouteToRequestUrlFilter.ROUTE_TO_URL_FILTER_ORDER + 100;
+
+    private final Map<String, UpstreamGroup> groups;
+    private final long errorPenaltyNanos;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        URI url = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+        if (url == null || !SCHEME.equals(url.getScheme())) {
+            return chain.filter(exchange);
+        }
+        UpstreamGroup group = this.groups.get(url.getHost());
+        if (group == null) {
+            return Mono.error(NotFoundException.create(true, "Unable to find upstream group for " + url.getHost()));
+        }
+        addOriginalRequestUrl(exchange, url);
+        UpstreamInstance instance = group.choose();
+        exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, instance.resolve(url));
+        exchange.getAttributes().put(UpstreamSelection.ATTR, new UpstreamSelection(group, instance, this.errorPenaltyNanos));
+
+        long start = System.nanoTime();
+        AtomicBoolean recorded = new AtomicBoolean();
+        instance.started();
+        exchange.getResponse().beforeCommit(() -> {
+            Object response = exchange.getAttribute(CLIENT_RESPONSE_ATTR);
+            if (response != null && recorded.compareAndSet(false, true)) {
+                instance.record(this.latency(start, serverError(response)));
+            }
+            return Mono.empty();
+        });
+        return chain.filter(exchange).doFinally(signal -> {
+            instance.finished();
+            if (recorded.compareAndSet(false, true)) {
+                instance.record(this.latency(start, signal == SignalType.ON_ERROR));
+            }
+        });
+    }
+
+    private long latency(long start, boolean failed) {
+        long latency = System.nanoTime() - start;
+        return failed ? Math.max(latency, this.errorPenaltyNanos) : latency;
+    }
+
+    private static boolean serverError(Object clientResponse) {
+        return clientResponse instanceof HttpClientResponse response && response.status().code() >= 500;
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
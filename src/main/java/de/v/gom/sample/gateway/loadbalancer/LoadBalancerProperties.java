@@ -0,0 +1,33 @@
+package de.v.gom.sample.gateway.loadbalancer;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * gateway.load-balancer.groups.{group}.instances 로 balanced://{group} route 의 upstream 인스턴스를 지정한다.
+ */
+@Getter
+@Setter
+@ConfigurationProperties("gateway.load-balancer")
+public class LoadBalancerProperties {
+    private Map<String, Group> groups = new LinkedHashMap<>();
+    // EWMA 에 새 표본이 반영되는 시간 상수
+    private Duration decay = Duration.ofSeconds(10);
+    // 실패한 요청을 기록할 때 사용하는 최소 응답 시간
+    private Duration errorPenalty = Duration.ofSeconds(1);
+
+    @Getter
+    @Setter
+    public static class Group {
+        private List<URI> instances = new ArrayList<>();
+        private UpstreamGroup.Strategy strategy = UpstreamGroup.Strategy.P2C_EWMA;
+    }
+}
@@ -0,0 +1,108 @@
+package de.v.gom.sample.gateway.loadbalancer;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * balanced://{group} route 가 요청을 보내는 upstream 인스턴스 목록과 선택 전략.
+ */
+public final class UpstreamGroup {
+    private final String name;
+    private final UpstreamInstance[] instances;
+    private final Strategy strategy;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public UpstreamGroup(String name, List<URI> instances, Strategy strategy, Duration decay) {
+        if (instances.isEmpty()) {
+            throw new IllegalArgumentException("Upstream group has no instances: " + name);
+        }
+        this.name = name;
+        this.instances = instances.stream()
+            .map(uri -> new UpstreamInstance(uri, decay.toNanos()))
+            .toArray(UpstreamInstance[]::new);
+        this.strategy = strategy;
+    }
+
+    public String name() {
+        return this.name;
+    }
+
+    public List<UpstreamInstance> instances() {
+        return List.of(this.instances);
+    }
+
+    public UpstreamInstance choose() {
+        if (this.instances.length == 1) {
+            return this.instances[0];
+        }
+        return this.choose(-1);
+    }
+
+    /**
+     * excluded 가 아닌 인스턴스 중 하나를 같은 전략으로 선택한다. 다른 인스턴스가 없으면 null 을 돌려준다.
+     */
+    public UpstreamInstance chooseOther(UpstreamInstance excluded) {
+        int skip = List.of(this.instances).indexOf(excluded);
+        if (skip >= 0 && this.instances.length == 1) {
+            return null;
+        }
+        return this.choose(skip);
+    }
+
+    // skip 위치의 인스턴스를 뺀 나머지에서 선택한다. skip 이 음수이면 모든 인스턴스에서 선택한다.
+    private UpstreamInstance choose(int skip) {
+        int candidates = this.instances.length - (skip < 0 ? 0 : 1);
+        if (candidates == 1) {
+            return this.instances[index(0, skip)];
+        }
+        return switch (this.strategy) {
+            case ROUND_ROBIN -> this.instances[index(Math.floorMod(this.next.getAndIncrement(), candidates), skip)];
+            case LEAST_OUTSTANDING -> this.leastOutstanding(candidates, skip);
+            case P2C_EWMA -> this.powerOfTwoChoices(candidates, skip);
+        };
+    }
+
+    private UpstreamInstance leastOutstanding(int candidates, int skip) {
+        // 같은 값이면 항상 앞의 인스턴스로 몰리지 않도록 임의의 위치부터 탐색한다.
+        int offset = ThreadLocalRandom.current().nextInt(candidates);
+        UpstreamInstance best = null;
+        long bestInFlight = Long.MAX_VALUE;
+        for (int i = 0; i < candidates; i++) {
+            UpstreamInstance instance = this.instances[index((offset + i) % candidates, skip)];
+            long inFlight = instance.inFlight();
+            if (inFlight < bestInFlight) {
+                best = instance;
+                bestInFlight = inFlight;
+            }
+        }
+        return best;
+    }
+
+    // 임의의 두 인스턴스 중 예상 비용(EWMA 응답 시간 x 처리 중인 요청 수) 이 작은 쪽을 선택한다.
+    private UpstreamInstance powerOfTwoChoices(int candidates, int skip) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates);
+        int second = random.nextInt(candidates - 1);
+        if (second >= first) {
+            second++;
+        }
+        long now = System.nanoTime();
+        UpstreamInstance a = this.instances[index(first, skip)];
+        UpstreamInstance b = this.instances[index(second, skip)];
+        return a.cost(now) <= b.cost(now) ? a : b;
+    }
+
+    // skip 위치를 뺀 후보 목록의 i 번째를 instances 의 위치로 바꾼다.
+    private static int index(int i, int skip) {
+        return skip >= 0 && i >= skip ? i + 1 : i;
+    }
+
+    public enum Strategy {
+        ROUND_ROBIN,
+        LEAST_OUTSTANDING,
+        P2C_EWMA
+    }
+}
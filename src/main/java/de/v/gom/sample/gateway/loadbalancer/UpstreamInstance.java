@@ -0,0 +1,96 @@
+package de.v.gom.sample.gateway.loadbalancer;
+
+import java.net.URI;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * upstream group 에 속한 인스턴스 하나와 선택에 사용하는 통계.
+ * <p>
+ * 처리 중인 요청 수는 여러 event loop 에서 경합 없이 증감하도록 LongAdder 로 센다.
+ * 응답 시간은 peak EWMA 로 기록한다. 평균보다 느린 응답은 즉시 반영하고 빠른 응답은 시간에 따라 천천히 반영하며,
+ * 오래 선택되지 않은 인스턴스의 값은 읽을 때 감쇠시켜 다시 선택될 기회를 준다.
+ * 값의 갱신은 lock 없이 하므로 동시에 갱신되면 일부 표본이 유실될 수 있으나 선택 품질에는 영향이 없다.
+ */
+public final class UpstreamInstance {
+    // 표본이 없는 인스턴스에 이미 요청이 있으면 첫 응답을 받을 때까지 다른 인스턴스를 우선한다.
+    private static final double UNSAMPLED_PENALTY = 1e12;
+
+    private final URI uri;
+    private final String base;
+    private final double decayNanos;
+    private final LongAdder inFlight = new LongAdder();
+    private volatile double ewmaNanos;
+    private volatile long updatedAt = System.nanoTime();
+
+    UpstreamInstance(URI uri, double decayNanos) {
+        this.uri = uri;
+        this.base = uri.getScheme() + "://" + uri.getRawAuthority();
+        this.decayNanos = decayNanos;
+    }
+
+    public URI uri() {
+        return this.uri;
+    }
+
+    /**
+     * path / query 를 유지하고 scheme, host, port 를 이 인스턴스로 바꾼다.
+     */
+    URI resolve(URI requestUrl) {
+        String query = requestUrl.getRawQuery();
+        return URI.create(this.base + requestUrl.getRawPath() + (query != null ? "?" + query : ""));
+    }
+
+    long inFlight() {
+        return this.inFlight.sum();
+    }
+
+    void started() {
+        this.inFlight.increment();
+    }
+
+    void finished() {
+        this.inFlight.decrement();
+    }
+
+    /**
+     * upstream 응답(헤더)까지 걸린 시간을 기록한다.
+     */
+    void record(long latencyNanos) {
+        long now = System.nanoTime();
+        double ewma = this.ewmaNanos;
+        if (latencyNanos > ewma) {
+            this.ewmaNanos = latencyNanos;
+        } else {
+            double weight = this.weight(now);
+            this.ewmaNanos = ewma * weight + latencyNanos * (1 - weight);
+        }
+        this.updatedAt = now;
+    }
+
+    /**
+     * 예상 대기 비용. (EWMA 응답 시간) x (처리 중인 요청 수 + 1)
+     */
+    double cost(long now) {
+        long pending = this.inFlight();
+        double ewma = this.decayed(now);
+        if (ewma == 0 && pending > 0) {
+            return UNSAMPLED_PENALTY + pending;
+        }
+        return ewma * (pending + 1);
+    }
+
+    // 마지막 표본 이후 지난 시간만큼 0 을 향해 감쇠한 값
+    private double decayed(long now) {
+        double ewma = this.ewmaNanos;
+        return ewma == 0 ? 0 : ewma * this.weight(now);
+    }
+
+    private double weight(long now) {
+        return Math.exp(-Math.max(0, now - this.updatedAt) / this.decayNanos);
+    }
+
+    @Override
+    public String toString() {
+        return this.uri.toString();
+    }
+}
@@ -0,0 +1,35 @@
+package de.v.gom.sample.gateway.loadbalancer;
+
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.function.Function;
+
+/**
+ * {@link LoadBalancerFilter} 가 요청에 선택한 group 과 인스턴스. 요청 attribute {@link #ATTR} 로 전달된다.
+ */
+public record UpstreamSelection(UpstreamGroup group, UpstreamInstance instance, long errorPenaltyNanos) {
+    public static final String ATTR = UpstreamSelection.class.getName();
+
+    /**
+     * 처음 선택한 인스턴스가 아닌 인스턴스를 group 에서 다시 선택해 requestUrl 의 path / query 로 call 을 실행한다.
+     * hedge 요청처럼 같은 요청을 다른 인스턴스로 한 번 더 보낼 때 사용한다.
+     * <p>
+     * call 이 값을 내보낼 때(upstream 응답 헤더) 까지의 시간을 선택한 인스턴스의 응답 시간으로 기록하고, 처리 중 요청 수도 그때까지 센다.
+     * 다른 인스턴스가 없으면 call 을 실행하지 않고 empty 를 돌려준다.
+     */
+    public <T> Mono<T> other(URI requestUrl, Function<URI, Mono<T>> call) {
+        return Mono.defer(() -> {
+            UpstreamInstance other = this.group.chooseOther(this.instance);
+            if (other == null) {
+                return Mono.empty();
+            }
+            long start = System.nanoTime();
+            other.started();
+            return call.apply(other.resolve(requestUrl))
+                .doOnNext(value -> other.record(System.nanoTime() - start))
+                .doOnError(e -> other.record(Math.max(System.nanoTime() - start, this.errorPenaltyNanos)))
+                .doFinally(signal -> other.finished());
+        });
+    }
+}
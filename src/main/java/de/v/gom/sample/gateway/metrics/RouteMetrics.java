@@ -0,0 +1,76 @@
+package de.v.gom.sample.gateway.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * route id 하나의 meter 묶음. 요청마다 meter 를 조회하지 않도록 생성 시점에 모두 등록한다.
+ * <p>
+ * latency 의 percentile 은 Micrometer 의 HdrHistogram 기반 histogram 으로 계산한다.
+ */
+public final class RouteMetrics {
+    static final String REQUESTS = "gateway.route.requests";
+    static final String ERRORS = "gateway.route.errors";
+    static final String IN_FLIGHT = "gateway.route.in-flight";
+    static final String LATENCY = "gateway.route.latency";
+
+    private final Counter requests;
+    private final Counter errors;
+    private final LongAdder inFlight = new LongAdder();
+    private final Gauge inFlightGauge;
+    private final Timer total;
+    private final Timer preFilter;
+    private final Timer upstream;
+
+    RouteMetrics(String routeId, MeterRegistry registry) {
+        this.requests = Counter.builder(REQUESTS).tag("routeId", routeId).register(registry);
+        this.errors = Counter.builder(ERRORS).tag("routeId", routeId).register(registry);
+        this.inFlightGauge = Gauge.builder(IN_FLIGHT, this.inFlight, LongAdder::sum).tag("routeId", routeId).register(registry);
+        this.total = latency(routeId, "total", registry);
+        this.preFilter = latency(routeId, "pre-filter", registry);
+        this.upstream = latency(routeId, "upstream", registry);
+    }
+
+    // 제거한 뒤에도 처리 중인 요청은 이 객체에 기록하지만 MeterRegistry 로 노출되지 않는다.
+    void remove(MeterRegistry registry) {
+        List.<Meter>of(this.requests, this.errors, this.inFlightGauge, this.total, this.preFilter, this.upstream)
+            .forEach(registry::remove);
+    }
+
+    void started() {
+        this.requests.increment();
+        this.inFlight.increment();
+    }
+
+    void finished(long totalNanos, boolean error) {
+        this.inFlight.decrement();
+        this.total.record(totalNanos, TimeUnit.NANOSECONDS);
+        if (error) {
+            this.errors.increment();
+        }
+    }
+
+    void preFilter(long nanos) {
+        this.preFilter.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    void upstream(long nanos) {
+        this.upstream.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static Timer latency(String routeId, String phase, MeterRegistry registry) {
+        return Timer.builder(LATENCY)
+            .tag("routeId", routeId)
+            .tag("phase", phase)
+            .publishPercentiles(0.5, 0.95, 0.99, 0.999)
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+}
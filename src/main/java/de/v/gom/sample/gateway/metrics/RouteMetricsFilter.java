@@ -0,0 +1,45 @@
+package de.v.gom.sample.gateway.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * 모든 route 의 요청 수, 에러 수, 처리 중인 요청 수와 전체 처리 시간을 route id 별로 기록한다.
+ * 가장 먼저 실행되어 다른 필터의 처리 시간까지 포함한다.
+ */
+@RequiredArgsConstructor
+public class RouteMetricsFilter implements GlobalFilter, Ordered {
+    private final RouteMetricsRegistry registry;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        if (route == null) {
+            return chain.filter(exchange);
+        }
+        RouteMetrics metrics = this.registry.of(route);
+        RouteTiming timing = new RouteTiming(metrics, System.nanoTime());
+        exchange.getAttributes().put(RouteTiming.ATTRIBUTE, timing);
+        metrics.started();
+        return chain.filter(exchange)
+            .doFinally(signal -> timing.finished(System.nanoTime(), isError(signal, exchange.getResponse().getStatusCode())));
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    private static boolean isError(SignalType signal, HttpStatusCode status) {
+        return signal == SignalType.ON_ERROR || (status != null && status.is5xxServerError());
+    }
+}
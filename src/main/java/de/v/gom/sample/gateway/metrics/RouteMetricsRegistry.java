@@ -0,0 +1,88 @@
+package de.v.gom.sample.gateway.metrics;
+
+import de.v.gom.sample.gateway.router.table.DynamicRoutesChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.event.RefreshRoutesResultEvent;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.EventListener;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Route 객체별 {@link RouteMetrics} 를 찾는다.
+ * <p>
+ * 요청 처리 중에는 route id 문자열이 아닌 Route 객체의 identity 로 copy-on-write map 을 조회하므로
+ * 문자열 hash / 비교 없이 lock 없이 읽는다. route 가 refresh 되면 새로운 Route 객체가 만들어지므로 identity map 을 비운다.
+ * <p>
+ * refresh 가 성공하거나 {@link DynamicRoutesChangedEvent} 를 받으면 더 이상 없는 route id 의 meter 를 MeterRegistry 에서 제거한다.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class RouteMetricsRegistry implements ApplicationListener<RefreshRoutesResultEvent> {
+    private final MeterRegistry meterRegistry;
+    private final RouteLocator routeLocator;
+    private final Map<String, RouteMetrics> byId = new ConcurrentHashMap<>();
+    private volatile Map<Route, RouteMetrics> byRoute = new IdentityHashMap<>();
+
+    public RouteMetrics of(Route route) {
+        RouteMetrics metrics = this.byRoute.get(route);
+        return metrics != null ? metrics : this.register(route);
+    }
+
+    @Override
+    public void onApplicationEvent(RefreshRoutesResultEvent event) {
+        this.clearRoutes();
+        if (event.isSuccess()) {
+            this.prune();
+        }
+    }
+
+    @EventListener
+    public void onDynamicRoutesChanged(DynamicRoutesChangedEvent event) {
+        this.clearRoutes();
+        this.prune();
+    }
+
+    private void prune() {
+        this.routeLocator.getRoutes()
+            .map(Route::getId)
+            .collect(Collectors.toSet())
+            .subscribe(this::retain, e -> log.warn("Failed to read routes for route metrics", e));
+    }
+
+    // register 와 같은 lock 에서 교체해야 register 가 비우기 전의 map 으로 덮어쓰지 않는다.
+    private synchronized void clearRoutes() {
+        this.byRoute = new IdentityHashMap<>();
+    }
+
+    private synchronized void retain(Set<String> routeIds) {
+        this.byId.entrySet().removeIf(entry -> {
+            if (routeIds.contains(entry.getKey())) {
+                return false;
+            }
+            entry.getValue().remove(this.meterRegistry);
+            return true;
+        });
+    }
+
+    private synchronized RouteMetrics register(Route route) {
+        Map<Route, RouteMetrics> current = this.byRoute;
+        RouteMetrics metrics = current.get(route);
+        if (metrics != null) {
+            return metrics;
+        }
+        metrics = this.byId.computeIfAbsent(route.getId(), id -> new RouteMetrics(id, this.meterRegistry));
+        Map<Route, RouteMetrics> next = new IdentityHashMap<>(current);
+        next.put(route, metrics);
+        this.byRoute = next;
+        return metrics;
+    }
+}
@@ -0,0 +1,30 @@
+package de.v.gom.sample.gateway.metrics;
+
+/**
+ * 요청 하나의 시간 측정 상태. {@link RouteMetricsFilter} 가 만들어 exchange attribute 로 전달한다.
+ */
+final class RouteTiming {
+    static final String ATTRIBUTE = RouteTiming.class.getName();
+
+    private final RouteMetrics metrics;
+    private final long start;
+    private long upstreamStart;
+
+    RouteTiming(RouteMetrics metrics, long start) {
+        this.metrics = metrics;
+        this.start = start;
+    }
+
+    void upstreamStarted(long now) {
+        this.upstreamStart = now;
+        this.metrics.preFilter(now - this.start);
+    }
+
+    void upstreamFinished(long now) {
+        this.metrics.upstream(now - this.upstreamStart);
+    }
+
+    void finished(long now, boolean error) {
+        this.metrics.finished(now - this.start, error);
+    }
+}
@@ -0,0 +1,31 @@
+package de.v.gom.sample.gateway.metrics;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.core.Ordered;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * routing 필터(NettyRoutingFilter) 직전에 실행되어 pre-filter 시간과 upstream 응답까지의 시간을 기록한다.
+ * route 필터가 응답을 직접 완료하여 upstream 을 호출하지 않는 경우에는 기록하지 않는다.
+ */
+public class UpstreamTimingFilter implements GlobalFilter, Ordered {
+    public static final int ORDER = NettyRoutingFilter.ORDER - 2;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        RouteTiming timing = exchange.getAttribute(RouteTiming.ATTRIBUTE);
+        if (timing == null) {
+            return chain.filter(exchange);
+        }
+        timing.upstreamStarted(System.nanoTime());
+        return chain.filter(exchange).doFinally(signal -> timing.upstreamFinished(System.nanoTime()));
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
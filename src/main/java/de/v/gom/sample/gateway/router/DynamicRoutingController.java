@@ -1,30 +1,42 @@
 package de.v.gom.sample.gateway.router;
 
+import com.example.gatewaysupport.route.RouteDescriptor;
+import com.example.gatewaysupport.route.RouteDescriptorCache;
+import com.example.gatewaysupport.route.RouteDescriptorPage;
 import de.v.gom.sample.gateway.router.service.DynamicRouting;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Flux;
-
-import java.util.Map;
+import reactor.core.publisher.Mono;
 
 @RestController
 @RequestMapping(value = "/v1/router")
 @RequiredArgsConstructor
 public class DynamicRoutingController {
     private final DynamicRouting dynamicRouting;
-    private final RouteInformationFunction routeInformationFunction;
+    private final RouteDescriptorCache routeDescriptorCache;
+
     @GetMapping
     public Flux<RouteDefinition> getAll() {
         return dynamicRouting.gatAll();
     }
 
+    // 라우팅 테이블이 갱신될 때만 다시 만드는 route 정보를 id 순으로 페이지 단위 조회
     @GetMapping("/predicate")
-    public Flux<Map<String, Object>> getRoutePredicate() {
-        return dynamicRouting.getAllPredicate()
-            .map(this.routeInformationFunction);
+    public Mono<RouteDescriptorPage> getRoutePredicate(@RequestParam(required = false) String prefix,
+                                                       @RequestParam(defaultValue = "0") int page,
+                                                       @RequestParam(defaultValue = "100") int size) {
+        return this.routeDescriptorCache.page(prefix, page, size);
+    }
+
+    @GetMapping(value = "/predicate/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<RouteDescriptor> streamRoutePredicate(@RequestParam(required = false) String prefix) {
+        return this.routeDescriptorCache.stream(prefix);
     }
 
     @GetMapping("/inmemory")
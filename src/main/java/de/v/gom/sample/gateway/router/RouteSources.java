@@ -0,0 +1,17 @@
+package de.v.gom.sample.gateway.router;
+
+/**
+ * route 를 만든 곳을 나타내는 route metadata.
+ * <p>
+ * RefreshRoutesEvent 의 범위로 {@link #KEY}={@link #FILE} 을 지정하면 route 파일의 route 만 다시 읽는다.
+ */
+public final class RouteSources {
+    public static final String KEY = "route-source";
+    // route 파일 (FileRouteLocator)
+    public static final String FILE = "file";
+    // DynamicRoutingWriter 로 추가한 route (DynamicRouteTable)
+    public static final String DYNAMIC = "dynamic";
+
+    private RouteSources() {
+    }
+}
@@ -0,0 +1,343 @@
+package de.v.gom.sample.gateway.router.compiled;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.v.gom.sample.gateway.filter.header.HeaderMutationGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.GatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.factory.PrefixPathGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.factory.RewritePathGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.factory.SetPathGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.factory.StripPrefixGatewayFilterFactory;
+import org.springframework.cloud.gateway.handler.AsyncPredicate;
+import org.springframework.cloud.gateway.handler.predicate.HeaderRoutePredicateFactory;
+import org.springframework.cloud.gateway.handler.predicate.HostRoutePredicateFactory;
+import org.springframework.cloud.gateway.handler.predicate.MethodRoutePredicateFactory;
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
+import org.springframework.cloud.gateway.handler.predicate.QueryRoutePredicateFactory;
+import org.springframework.cloud.gateway.handler.predicate.RoutePredicateFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * {@link CompiledRouteTable} 이 호출하는 route builder.
+ * <p>
+ * RouteDefinitionRouteLocator 는 predicate / filter 마다 factory 를 이름으로 찾고, args 를 ConfigurationService 로 Config 에 binding 한다.
+ * (Config 생성, property binding, validation 모두 reflection) 이 builder 는 생성된 코드가 넘긴 값으로 Config 를 직접 만들어 factory 에 넘긴다.
+ * <p>
+ * 결과는 RouteDefinitionRouteLocator 와 같다. Ordered 가 아닌 필터는 위치 순서(1, 2, ...) 로 OrderedGatewayFilter 가 되고 default filter 와 함께 정렬되며,
+ * predicate 가 없는 route 는 모든 요청과 매칭된다. 생성기가 컴파일하지 못한 route 는 RouteDefinition(JSON) 으로 남아 시작할 때 기존 방식으로 변환된다.
+ * <p>
+ * 단, 연속된 헤더 add / set / remove 는 {@link HeaderMutationGatewayFilterFactory} 의 필터 하나로 합쳐 요청을 한 번만 mutate 한다.
+ * 합친 필터는 첫 헤더 필터의 위치 순서를 가지며, 그 사이에 실행될 default filter 가 있으면 합치지 않는다.
+ */
+public class CompiledRouteBuilder {
+    private final Factories factories;
+    private final List<GatewayFilter> defaultFilters;
+    private final int[] defaultOrders;
+    private final HeaderMutationGatewayFilterFactory headerMutation = new HeaderMutationGatewayFilterFactory();
+    private final Function<List<RouteDefinition>, List<Route>> converter;
+    private final ObjectMapper objectMapper;
+    // catalog 순서를 유지하기 위해 Route 와 변환할 RouteDefinition 을 함께 보관한다.
+    private final List<Object> entries = new ArrayList<>();
+
+    public CompiledRouteBuilder(List<RoutePredicateFactory> predicates, List<GatewayFilterFactory> filters,
+                                List<GatewayFilter> defaultFilters, Function<List<RouteDefinition>, List<Route>> converter,
+                                ObjectMapper objectMapper) {
+        this.factories = new Factories(predicates, filters);
+        this.defaultFilters = List.copyOf(defaultFilters);
+        this.defaultOrders = defaultFilters.stream()
+            .filter(Ordered.class::isInstance)
+            .mapToInt(filter -> ((Ordered) filter).getOrder())
+            .toArray();
+        this.converter = converter;
+        this.objectMapper = objectMapper;
+    }
+
+    public RouteSpec route(String id, String uri, int order) {
+        return new RouteSpec(id, uri, order);
+    }
+
+    /**
+     * 컴파일하지 못한 route. 시작할 때 RouteDefinitionRouteLocator 와 같은 방식으로 변환한다.
+     */
+    public void definition(String json) {
+        try {
+            this.entries.add(this.objectMapper.readValue(json, RouteDefinition.class));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Invalid compiled route definition: " + json, e);
+        }
+    }
+
+    /**
+     * table 의 route 를 catalog 순서대로 만든다. 변환에 실패한 RouteDefinition 은 제외된다.
+     */
+    public List<Route> build(CompiledRouteTable table) {
+        table.build(this);
+        List<RouteDefinition> definitions = new ArrayList<>();
+        for (Object entry : this.entries) {
+            if (entry instanceof RouteDefinition definition) {
+                definitions.add(definition);
+            }
+        }
+        Map<String, Route> converted = new HashMap<>();
+        if (!definitions.isEmpty()) {
+            this.converter.apply(definitions).forEach(route -> converted.put(route.getId(), route));
+        }
+        List<Route> routes = new ArrayList<>(this.entries.size());
+        for (Object entry : this.entries) {
+            Route route = entry instanceof RouteDefinition definition ? converted.get(definition.getId()) : (Route) entry;
+            if (route != null) {
+                routes.add(route);
+            }
+        }
+        this.entries.clear();
+        return routes;
+    }
+
+    public final class RouteSpec {
+        private final String id;
+        private final String uri;
+        private final int order;
+        private final List<AsyncPredicate<ServerWebExchange>> predicates = new ArrayList<>(2);
+        // GatewayFilter 또는 헤더 변경(HeaderOperation)
+        private final List<Object> filters = new ArrayList<>(2);
+        private final Map<String, Object> metadata = new LinkedHashMap<>();
+
+        private RouteSpec(String id, String uri, int order) {
+            this.id = id;
+            this.uri = uri;
+            this.order = order;
+        }
+
+        public RouteSpec path(boolean matchTrailingSlash, String... patterns) {
+            PathRoutePredicateFactory.Config config = new PathRoutePredicateFactory.Config()
+                .setPatterns(List.of(patterns))
+                .setMatchTrailingSlash(matchTrailingSlash);
+            return this.predicate(factories.path().applyAsync(config));
+        }
+
+        public RouteSpec method(String... methods) {
+            MethodRoutePredicateFactory.Config config = new MethodRoutePredicateFactory.Config();
+            config.setMethods(Arrays.stream(methods).map(HttpMethod::valueOf).toArray(HttpMethod[]::new));
+            return this.predicate(factories.method().applyAsync(config));
+        }
+
+        public RouteSpec host(String... patterns) {
+            HostRoutePredicateFactory.Config config = new HostRoutePredicateFactory.Config();
+            config.setPatterns(List.of(patterns));
+            return this.predicate(factories.host().applyAsync(config));
+        }
+
+        public RouteSpec header(String header, String regexp) {
+            return this.predicate(factories.header().applyAsync(new HeaderRoutePredicateFactory.Config().setHeader(header).setRegexp(regexp)));
+        }
+
+        public RouteSpec query(String param, String regexp) {
+            return this.predicate(factories.query().applyAsync(new QueryRoutePredicateFactory.Config().setParam(param).setRegexp(regexp)));
+        }
+
+        public RouteSpec addRequestHeader(String name, String value) {
+            return this.header(config -> config.addRequestHeader(name, value));
+        }
+
+        public RouteSpec addResponseHeader(String name, String value) {
+            return this.header(config -> config.addResponseHeader(name, value));
+        }
+
+        public RouteSpec setRequestHeader(String name, String value) {
+            return this.header(config -> config.setRequestHeader(name, value));
+        }
+
+        public RouteSpec setResponseHeader(String name, String value) {
+            return this.header(config -> config.setResponseHeader(name, value));
+        }
+
+        public RouteSpec removeRequestHeader(String name) {
+            return this.header(config -> config.removeRequestHeader(name));
+        }
+
+        public RouteSpec removeResponseHeader(String name) {
+            return this.header(config -> config.removeResponseHeader(name));
+        }
+
+        public RouteSpec stripPrefix(int parts) {
+            StripPrefixGatewayFilterFactory.Config config = new StripPrefixGatewayFilterFactory.Config();
+            config.setParts(parts);
+            return this.filter(factories.stripPrefix().apply(config));
+        }
+
+        public RouteSpec prefixPath(String prefix) {
+            PrefixPathGatewayFilterFactory.Config config = new PrefixPathGatewayFilterFactory.Config();
+            config.setPrefix(prefix);
+            return this.filter(factories.prefixPath().apply(config));
+        }
+
+        public RouteSpec rewritePath(String regexp, String replacement) {
+            return this.filter(factories.rewritePath().apply(new RewritePathGatewayFilterFactory.Config().setRegexp(regexp).setReplacement(replacement)));
+        }
+
+        public RouteSpec setPath(String template) {
+            SetPathGatewayFilterFactory.Config config = new SetPathGatewayFilterFactory.Config();
+            config.setTemplate(template);
+            return this.filter(factories.setPath().apply(config));
+        }
+
+        public RouteSpec metadata(String key, Object value) {
+            this.metadata.put(key, value);
+            return this;
+        }
+
+        public void add() {
+            List<GatewayFilter> filters = new ArrayList<>(defaultFilters.size() + this.filters.size());
+            filters.addAll(defaultFilters);
+            HeaderMutationGatewayFilterFactory.Config headers = null;
+            int headersOrder = 0;
+            for (int i = 0; i < this.filters.size(); i++) {
+                int order = i + 1;
+                if (this.filters.get(i) instanceof HeaderOperation operation) {
+                    if (headers != null && defaultFilterBetween(headersOrder, order)) {
+                        filters.add(new OrderedGatewayFilter(headerMutation.apply(headers), headersOrder));
+                        headers = null;
+                    }
+                    if (headers == null) {
+                        headers = new HeaderMutationGatewayFilterFactory.Config();
+                        headersOrder = order;
+                    }
+                    operation.apply().accept(headers);
+                    continue;
+                }
+                if (headers != null) {
+                    filters.add(new OrderedGatewayFilter(headerMutation.apply(headers), headersOrder));
+                    headers = null;
+                }
+                GatewayFilter filter = (GatewayFilter) this.filters.get(i);
+                filters.add(filter instanceof Ordered ? filter : new OrderedGatewayFilter(filter, order));
+            }
+            if (headers != null) {
+                filters.add(new OrderedGatewayFilter(headerMutation.apply(headers), headersOrder));
+            }
+            AnnotationAwareOrderComparator.sort(filters);
+            entries.add(Route.async()
+                .id(this.id)
+                .uri(this.uri)
+                .order(this.order)
+                .asyncPredicate(this.combinedPredicate())
+                .filters(filters)
+                .metadata(this.metadata)
+                .build());
+        }
+
+        private AsyncPredicate<ServerWebExchange> combinedPredicate() {
+            if (this.predicates.isEmpty()) {
+                return AsyncPredicate.from(exchange -> true);
+            }
+            AsyncPredicate<ServerWebExchange> predicate = this.predicates.get(0);
+            for (int i = 1; i < this.predicates.size(); i++) {
+                predicate = predicate.and(this.predicates.get(i));
+            }
+            return predicate;
+        }
+
+        private RouteSpec predicate(AsyncPredicate<ServerWebExchange> predicate) {
+            this.predicates.add(predicate);
+            return this;
+        }
+
+        private RouteSpec filter(GatewayFilter filter) {
+            this.filters.add(filter);
+            return this;
+        }
+
+        private RouteSpec header(Consumer<HeaderMutationGatewayFilterFactory.Config> operation) {
+            this.filters.add(new HeaderOperation(operation));
+            return this;
+        }
+    }
+
+    // 위치 순서가 (from, to] 인 default filter 가 있는지. 정렬하면 같은 순서의 route 필터보다 먼저 실행된다.
+    private boolean defaultFilterBetween(int from, int to) {
+        for (int order : this.defaultOrders) {
+            if (order > from && order <= to) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record HeaderOperation(Consumer<HeaderMutationGatewayFilterFactory.Config> apply) {
+    }
+
+    /**
+     * route 가 사용하는 factory bean. 시작할 때 한 번 type 으로 찾는다.
+     * (RewritePath 는 PrefixRewritePathGatewayFilterFactory 와 같은 하위 class 도 사용한다)
+     */
+    private static final class Factories {
+        private final List<RoutePredicateFactory> predicates;
+        private final List<GatewayFilterFactory> filters;
+        private final Map<Class<?>, Object> resolved = new HashMap<>();
+
+        Factories(List<RoutePredicateFactory> predicates, List<GatewayFilterFactory> filters) {
+            this.predicates = predicates;
+            this.filters = filters;
+        }
+
+        PathRoutePredicateFactory path() {
+            return this.find(PathRoutePredicateFactory.class, this.predicates);
+        }
+
+        MethodRoutePredicateFactory method() {
+            return this.find(MethodRoutePredicateFactory.class, this.predicates);
+        }
+
+        HostRoutePredicateFactory host() {
+            return this.find(HostRoutePredicateFactory.class, this.predicates);
+        }
+
+        HeaderRoutePredicateFactory header() {
+            return this.find(HeaderRoutePredicateFactory.class, this.predicates);
+        }
+
+        QueryRoutePredicateFactory query() {
+            return this.find(QueryRoutePredicateFactory.class, this.predicates);
+        }
+
+        StripPrefixGatewayFilterFactory stripPrefix() {
+            return this.find(StripPrefixGatewayFilterFactory.class, this.filters);
+        }
+
+        PrefixPathGatewayFilterFactory prefixPath() {
+            return this.find(PrefixPathGatewayFilterFactory.class, this.filters);
+        }
+
+        RewritePathGatewayFilterFactory rewritePath() {
+            return this.find(RewritePathGatewayFilterFactory.class, this.filters);
+        }
+
+        SetPathGatewayFilterFactory setPath() {
+            return this.find(SetPathGatewayFilterFactory.class, this.filters);
+        }
+
+        private <T> T find(Class<T> type, List<?> candidates) {
+            Object factory = this.resolved.computeIfAbsent(type, key -> candidates.stream()
+                .filter(type::isInstance)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Factory is not available for compiled routes: " + type.getSimpleName())));
+            return type.cast(factory);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package de.v.gom.sample.gateway.router.compiled;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CompiledRouteTable} 의 route 를 제공한다. route 는 처음 조회할 때 한 번만 만든다.
+ */
+@Slf4j
+public class CompiledRouteLocator implements RouteLocator {
+    private final CompiledRouteTable table;
+    private final CompiledRouteBuilder builder;
+    private volatile List<Route> routes;
+
+    public CompiledRouteLocator(CompiledRouteTable table, CompiledRouteBuilder builder) {
+        this.table = table;
+        this.builder = builder;
+    }
+
+    @Override
+    public Flux<Route> getRoutes() {
+        return Flux.defer(() -> Flux.fromIterable(this.routes()));
+    }
+
+    private List<Route> routes() {
+        List<Route> routes = this.routes;
+        if (routes == null) {
+            synchronized (this) {
+                routes = this.routes;
+                if (routes == null) {
+                    long start = System.nanoTime();
+                    routes = List.copyOf(this.builder.build(this.table));
+                    this.routes = routes;
+                    log.info("Compiled routes loaded: routes={}, elapsed={}ms", routes.size(),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                }
+            }
+        }
+        return routes;
+    }
+}
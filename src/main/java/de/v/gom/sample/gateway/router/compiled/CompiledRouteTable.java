@@ -0,0 +1,11 @@
+package de.v.gom.sample.gateway.router.compiled;
+
+/**
+ * build 시점에 route catalog(src/main/routes) 로부터 생성되는 route table. (generateRouteTable task 가 GeneratedRouteTable 을 생성한다)
+ * <p>
+ * 생성된 코드는 {@link CompiledRouteBuilder} 의 메서드를 순서대로 호출하여 route 를 만든다.
+ */
+public interface CompiledRouteTable {
+
+    void build(CompiledRouteBuilder builder);
+}
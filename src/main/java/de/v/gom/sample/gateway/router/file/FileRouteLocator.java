@@ -0,0 +1,43 @@
+package de.v.gom.sample.gateway.router.file;
+
+import de.v.gom.sample.gateway.router.RouteSources;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * route 파일에서 읽어 변환해 둔 Route. 변경된 Route 만 교체한 새로운 목록을 만든 뒤 한 번에 교체하므로 읽는 쪽은 lock 이 없다.
+ * <p>
+ * 모든 Route 의 metadata 에 {@link RouteSources#KEY}={@link RouteSources#FILE} 이 있으므로, 이 값으로 범위를 지정한 RefreshRoutesEvent 는
+ * 다른 RouteLocator 의 route 를 다시 변환하지 않고 이 목록만 다시 읽는다.
+ */
+public class FileRouteLocator implements RouteLocator {
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), List.of());
+
+    @Override
+    public Flux<Route> getRoutes() {
+        return Flux.fromIterable(this.snapshot.routes());
+    }
+
+    public Map<String, Route> routes() {
+        return this.snapshot.byId();
+    }
+
+    // 하나의 RouteFileWatcher thread 에서만 호출한다.
+    void apply(Collection<Route> upserted, Set<String> removed) {
+        Map<String, Route> next = new LinkedHashMap<>(this.snapshot.byId());
+        removed.forEach(next::remove);
+        upserted.forEach(route -> next.put(route.getId(), route));
+        this.snapshot = new Snapshot(Collections.unmodifiableMap(next), List.copyOf(next.values()));
+    }
+
+    private record Snapshot(Map<String, Route> byId, List<Route> routes) {
+    }
+}
@@ -0,0 +1,43 @@
+package de.v.gom.sample.gateway.router.file;
+
+import org.springframework.cloud.gateway.config.GatewayProperties;
+import org.springframework.cloud.gateway.filter.factory.GatewayFilterFactory;
+import org.springframework.cloud.gateway.handler.predicate.RoutePredicateFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinitionRouteLocator;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * 변경된 RouteDefinition 만 Route 로 변환한다.
+ * <p>
+ * 변환은 gateway 와 같은 RouteDefinitionRouteLocator 로 하되 인스턴스는 하나만 만들어 두고 입력 목록만 바꾼다. (factory 목록 초기화 비용)
+ * 잘못된 RouteDefinition 은 결과에서 빠지고 로그만 남으며, 나머지 route 는 정상적으로 변환된다.
+ */
+public class RouteDefinitionConverter {
+    private final RouteDefinitionRouteLocator locator;
+    private volatile List<RouteDefinition> pending = List.of();
+
+    public RouteDefinitionConverter(List<RoutePredicateFactory> predicates,
+                                    List<GatewayFilterFactory> filters,
+                                    GatewayProperties gatewayProperties,
+                                    ConfigurationService configurationService) {
+        GatewayProperties properties = new GatewayProperties();
+        properties.setDefaultFilters(gatewayProperties.getDefaultFilters());
+        properties.setFailOnRouteDefinitionError(false);
+        this.locator = new RouteDefinitionRouteLocator(() -> Flux.fromIterable(this.pending),
+            predicates, filters, properties, configurationService);
+    }
+
+    public synchronized List<Route> convert(List<RouteDefinition> definitions) {
+        this.pending = definitions;
+        try {
+            return this.locator.getRoutes().collectList().block();
+        } finally {
+            this.pending = List.of();
+        }
+    }
+}
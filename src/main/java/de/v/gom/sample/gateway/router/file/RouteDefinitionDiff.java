@@ -0,0 +1,49 @@
+package de.v.gom.sample.gateway.router.file;
+
+import org.springframework.cloud.gateway.route.RouteDefinition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 두 RouteDefinition 목록의 차이. 변경 여부는 RouteDefinition.equals 로 판단한다.
+ */
+public record RouteDefinitionDiff(List<RouteDefinition> added, List<RouteDefinition> changed, Set<String> removed) {
+
+    public static RouteDefinitionDiff of(Map<String, RouteDefinition> current, Map<String, RouteDefinition> next) {
+        List<RouteDefinition> added = new ArrayList<>();
+        List<RouteDefinition> changed = new ArrayList<>();
+        for (RouteDefinition definition : next.values()) {
+            RouteDefinition previous = current.get(definition.getId());
+            if (previous == null) {
+                added.add(definition);
+            } else if (!previous.equals(definition)) {
+                changed.add(definition);
+            }
+        }
+        Set<String> removed = new TreeSet<>();
+        for (String id : current.keySet()) {
+            if (!next.containsKey(id)) {
+                removed.add(id);
+            }
+        }
+        return new RouteDefinitionDiff(List.copyOf(added), List.copyOf(changed), Set.copyOf(removed));
+    }
+
+    public boolean isEmpty() {
+        return this.added.isEmpty() && this.changed.isEmpty() && this.removed.isEmpty();
+    }
+
+    /**
+     * 새로 변환해야 하는 RouteDefinition (added + changed)
+     */
+    public List<RouteDefinition> upserted() {
+        List<RouteDefinition> upserted = new ArrayList<>(this.added.size() + this.changed.size());
+        upserted.addAll(this.added);
+        upserted.addAll(this.changed);
+        return upserted;
+    }
+}
@@ -0,0 +1,83 @@
+package de.v.gom.sample.gateway.router.file;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.util.StringUtils;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * route 파일(.yml, .yaml, .json) 을 RouteDefinition 으로 읽는다.
+ * <p>
+ * 형식은 spring.cloud.gateway.routes 와 같으며, 최상위에 routes 목록을 두거나 목록만 둘 수 있다.
+ * predicate / filter 는 Path=/a/** 와 같은 shortcut 과 name / args 형식을 모두 사용할 수 있다.
+ * <pre>
+ * routes:
+ *   - id: segment
+ *     uri: http://localhost:8080
+ *     predicates:
+ *       - Path=/segment/**
+ * </pre>
+ */
+public class RouteFileParser {
+    private static final TypeReference<List<RouteDefinition>> ROUTES = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper;
+    private final int maxFileSize;
+
+    public RouteFileParser(ObjectMapper objectMapper, int maxFileSize) {
+        this.objectMapper = objectMapper;
+        this.maxFileSize = maxFileSize;
+    }
+
+    public static boolean supports(Path file) {
+        String name = file.getFileName().toString();
+        return name.endsWith(".yml") || name.endsWith(".yaml") || name.endsWith(".json");
+    }
+
+    /**
+     * 파일의 route 를 id 별로 반환한다. id 가 없거나 중복되면 파일 전체를 잘못된 것으로 본다.
+     */
+    public Map<String, RouteDefinition> parse(Path file) throws IOException {
+        JsonNode root = file.getFileName().toString().endsWith(".json")
+            ? this.objectMapper.readTree(file.toFile())
+            : this.objectMapper.valueToTree(this.yaml(file));
+        JsonNode routes = root != null && root.isObject() ? root.get("routes") : root;
+        if (routes == null || routes.isNull() || routes.isMissingNode()) {
+            return Map.of();
+        }
+        List<RouteDefinition> definitions = this.objectMapper.readerFor(ROUTES).readValue(routes);
+        Map<String, RouteDefinition> byId = new LinkedHashMap<>(definitions.size() * 2);
+        for (RouteDefinition definition : definitions) {
+            if (!StringUtils.hasText(definition.getId())) {
+                throw new IllegalArgumentException("Route id is required: " + file);
+            }
+            if (byId.put(definition.getId(), definition) != null) {
+                throw new IllegalArgumentException("Duplicate route id " + definition.getId() + ": " + file);
+            }
+        }
+        return byId;
+    }
+
+    private Object yaml(Path file) throws IOException {
+        LoaderOptions options = new LoaderOptions();
+        // route 가 많은 파일은 기본 제한(3MB) 을 넘을 수 있다.
+        options.setCodePointLimit(this.maxFileSize);
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return new Yaml(new SafeConstructor(options)).load(reader);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package de.v.gom.sample.gateway.router.file;
+
+import de.v.gom.sample.gateway.router.RouteSources;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * route 파일 또는 디렉터리(*.yml, *.yaml, *.json) 를 WatchService 로 감시하여 변경된 route 만 gateway 에 반영한다.
+ * <p>
+ * 변경이 감지되면 debounce 동안 이어지는 이벤트를 모은 뒤, 변경된 파일만 다시 읽는다. 현재 RouteDefinition 과 비교하여
+ * 추가 / 변경된 route 만 Route 로 변환하고 삭제된 route 를 제거한 뒤, {@link FileRouteLocator} 범위의 RefreshRoutesEvent 를 발행한다.
+ * 파싱과 변환은 모두 전용 thread 에서 실행하므로 Netty event loop 를 사용하지 않는다.
+ * <p>
+ * 파일을 읽을 수 없거나 형식이 잘못된 경우(편집 중인 파일 등) 해당 파일의 이전 route 를 유지한다.
+ */
+@Slf4j
+public class RouteFileWatcher implements SmartLifecycle {
+    private static final Map<String, Object> SCOPE = Map.of(RouteSources.KEY, RouteSources.FILE);
+
+    private final Path path;
+    private final RouteFileParser parser;
+    private final Function<List<RouteDefinition>, List<Route>> converter;
+    private final FileRouteLocator locator;
+    private final ApplicationEventPublisher publisher;
+    private final long debounceMillis;
+
+    // 아래 상태는 start() 이후 watcher thread 에서만 사용한다.
+    private final Map<Path, Map<String, RouteDefinition>> files = new HashMap<>();
+    private Map<String, RouteDefinition> current = Map.of();
+
+    private volatile WatchService watchService;
+    private volatile Thread thread;
+
+    public RouteFileWatcher(Path path, RouteFileParser parser, Function<List<RouteDefinition>, List<Route>> converter,
+                            FileRouteLocator locator, ApplicationEventPublisher publisher, Duration debounce) {
+        this.path = path.toAbsolutePath().normalize();
+        this.parser = parser;
+        this.converter = converter;
+        this.locator = locator;
+        this.publisher = publisher;
+        this.debounceMillis = debounce.toMillis();
+    }
+
+    /**
+     * 처음 route 를 읽은 뒤 감시를 시작한다. 처음 읽은 route 는 CachingRouteLocator 가 처음 route 를 읽을 때 함께 반영된다.
+     */
+    @Override
+    public synchronized void start() {
+        if (this.isRunning()) {
+            return;
+        }
+        Path directory = Files.isDirectory(this.path) ? this.path : this.path.getParent();
+        try {
+            this.watchService = directory.getFileSystem().newWatchService();
+            directory.register(this.watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to watch route file: " + this.path, e);
+        }
+        this.reload(this.candidates());
+        this.thread = new Thread(this::watch, "route-file-watcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        Thread thread = this.thread;
+        this.thread = null;
+        if (thread == null) {
+            return;
+        }
+        try {
+            this.watchService.close();
+        } catch (IOException e) {
+            log.warn("Failed to close route file watcher: {}", this.path, e);
+        }
+        thread.interrupt();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return this.thread != null;
+    }
+
+    private void watch() {
+        try {
+            while (this.thread != null) {
+                Set<Path> changed = new HashSet<>();
+                WatchKey key = this.watchService.take();
+                // 편집기 / 배포 도구는 한 번의 변경에 여러 이벤트를 만들므로 debounce 동안 이어지는 이벤트를 모은다.
+                while (key != null) {
+                    this.collect(key, changed);
+                    key = this.watchService.poll(this.debounceMillis, TimeUnit.MILLISECONDS);
+                }
+                if (!changed.isEmpty()) {
+                    this.reload(changed);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            log.debug("Route file watcher stopped: {}", this.path);
+        }
+    }
+
+    private void collect(WatchKey key, Set<Path> changed) {
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // 이벤트를 놓쳤으므로 모든 파일을 다시 읽는다.
+                changed.addAll(this.candidates());
+                changed.addAll(this.files.keySet());
+                continue;
+            }
+            Path file = directory.resolve((Path) event.context());
+            if (this.watches(file)) {
+                changed.add(file);
+            }
+        }
+        key.reset();
+    }
+
+    /**
+     * 변경된 파일을 다시 읽고 현재 route 와의 차이만 반영한다.
+     */
+    synchronized RouteDefinitionDiff reload(Set<Path> changed) {
+        long start = System.nanoTime();
+        for (Path file : changed) {
+            if (!Files.isRegularFile(file)) {
+                this.files.remove(file);
+                continue;
+            }
+            try {
+                Map<String, RouteDefinition> definitions = this.parser.parse(file);
+                definitions.values().forEach(definition -> definition.getMetadata().put(RouteSources.KEY, RouteSources.FILE));
+                this.files.put(file, definitions);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Failed to read route file, keeping previous routes: {}", file, e);
+            }
+        }
+        Map<String, RouteDefinition> next = this.merged();
+        RouteDefinitionDiff diff = RouteDefinitionDiff.of(this.current, next);
+        if (diff.isEmpty()) {
+            return diff;
+        }
+        List<RouteDefinition> upserted = diff.upserted();
+        List<Route> routes = upserted.isEmpty() ? List.of() : this.converter.apply(upserted);
+        if (routes.size() < upserted.size()) {
+            // 변환에 실패한 route 는 이전 RouteDefinition 을 유지하여 다음 변경 때 다시 비교한다.
+            Set<String> converted = new HashSet<>();
+            routes.forEach(route -> converted.add(route.getId()));
+            for (RouteDefinition definition : upserted) {
+                if (!converted.contains(definition.getId())) {
+                    log.warn("Ignoring invalid route definition: {}", definition.getId());
+                    this.restore(next, definition.getId());
+                }
+            }
+        }
+        this.locator.apply(routes, diff.removed());
+        this.current = next;
+        this.publisher.publishEvent(new RefreshRoutesEvent(this, SCOPE));
+        log.info("Route file reloaded: added={}, changed={}, removed={}, routes={}, elapsed={}ms",
+            diff.added().size(), diff.changed().size(), diff.removed().size(), next.size(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return diff;
+    }
+
+    private void restore(Map<String, RouteDefinition> next, String id) {
+        RouteDefinition previous = this.current.get(id);
+        if (previous != null) {
+            next.put(id, previous);
+        } else {
+            next.remove(id);
+        }
+    }
+
+    // 파일 이름 순서로 합친다. 같은 id 가 여러 파일에 있으면 나중 파일의 route 를 사용한다.
+    private Map<String, RouteDefinition> merged() {
+        Map<String, RouteDefinition> merged = new LinkedHashMap<>();
+        for (Path file : new TreeSet<>(this.files.keySet())) {
+            for (RouteDefinition definition : this.files.get(file).values()) {
+                if (merged.put(definition.getId(), definition) != null) {
+                    log.warn("Duplicate route id {} in {}", definition.getId(), file);
+                }
+            }
+        }
+        return merged;
+    }
+
+    private Set<Path> candidates() {
+        if (!Files.isDirectory(this.path)) {
+            return Files.isRegularFile(this.path) ? Set.of(this.path) : Set.of();
+        }
+        try (Stream<Path> files = Files.list(this.path)) {
+            return files.filter(this::watches).collect(Collectors.toSet());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean watches(Path file) {
+        return Files.isDirectory(this.path) ? RouteFileParser.supports(file) : file.equals(this.path);
+    }
+}
@@ -0,0 +1,89 @@
+package de.v.gom.sample.gateway.router.index;
+
+import de.v.gom.sample.gateway.router.table.DynamicRoutesChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.config.GlobalCorsProperties;
+import org.springframework.cloud.gateway.event.RefreshRoutesResultEvent;
+import org.springframework.cloud.gateway.handler.FilteringWebHandler;
+import org.springframework.cloud.gateway.handler.RoutePredicateHandlerMapping;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_PREDICATE_ROUTE_ATTR;
+
+/**
+ * 모든 route 의 predicate 를 순서대로 평가하는 대신 {@link RouteIndex} 로 후보 route 만 평가하는 HandlerMapping.
+ * <p>
+ * 후보 route 는 원래 순서를 유지하고 predicate 평가 방식도 기본 구현과 같으므로 매칭 결과는 기존 선형 탐색과 동일하다.
+ * 인덱스는 route 가 refresh 되거나 {@link DynamicRoutesChangedEvent} 를 받을 때마다 다시 컴파일한다.
+ */
+@Slf4j
+public class IndexedRoutePredicateHandlerMapping extends RoutePredicateHandlerMapping
+    implements ApplicationListener<RefreshRoutesResultEvent> {
+
+    private final RouteLocator routeLocator;
+    private volatile RouteIndex routeIndex;
+
+    public IndexedRoutePredicateHandlerMapping(FilteringWebHandler webHandler, RouteLocator routeLocator,
+                                               GlobalCorsProperties globalCorsProperties, Environment environment) {
+        super(webHandler, routeLocator, globalCorsProperties, environment);
+        this.routeLocator = routeLocator;
+    }
+
+    @Override
+    protected Mono<Route> lookupRoute(ServerWebExchange exchange) {
+        PathContainer path = PathContainer.parsePath(exchange.getRequest().getURI().getRawPath());
+        return this.routeIndex()
+            .flatMapMany(index -> Flux.fromIterable(index.candidates(exchange.getRequest().getMethod(), path)))
+            .concatMap(route -> Mono.just(route).filterWhen(r -> {
+                    exchange.getAttributes().put(GATEWAY_PREDICATE_ROUTE_ATTR, r.getId());
+                    return r.getPredicate().apply(exchange);
+                })
+                .doOnError(e -> log.error("Error applying predicate for route: {}", route.getId(), e))
+                .onErrorResume(e -> Mono.empty()))
+            .next()
+            .map(route -> {
+                log.debug("Route matched: {}", route.getId());
+                validateRoute(route, exchange);
+                return route;
+            });
+    }
+
+    @Override
+    public void onApplicationEvent(RefreshRoutesResultEvent event) {
+        if (event.isSuccess()) {
+            this.recompile();
+        }
+    }
+
+    @EventListener
+    public void onDynamicRoutesChanged(DynamicRoutesChangedEvent event) {
+        this.recompile();
+    }
+
+    private void recompile() {
+        this.compile().subscribe(
+            index -> log.info("Route index compiled: {} routes", index.size()),
+            e -> log.error("Failed to compile route index", e)
+        );
+    }
+
+    private Mono<RouteIndex> routeIndex() {
+        RouteIndex index = this.routeIndex;
+        return index != null ? Mono.just(index) : this.compile();
+    }
+
+    private Mono<RouteIndex> compile() {
+        return this.routeLocator.getRoutes()
+            .collectList()
+            .map(RouteIndex::compile)
+            .doOnNext(index -> this.routeIndex = index);
+    }
+}
@@ -0,0 +1,228 @@
+package de.v.gom.sample.gateway.router.index;
+
+import org.springframework.cloud.gateway.handler.AsyncPredicate;
+import org.springframework.cloud.gateway.handler.predicate.GatewayPredicate;
+import org.springframework.cloud.gateway.handler.predicate.MethodRoutePredicateFactory;
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.HasConfig;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Route 의 Path / Method predicate 를 path segment 기반의 prefix tree 로 컴파일한 인덱스.
+ * <p>
+ * 인덱스는 "매칭될 수 없는 route" 를 걸러내는 용도로만 사용하며, 실제 매칭 여부는 기존 predicate 가 route 순서대로 판단한다.
+ * 따라서 선형 탐색과 결과가 동일하다. AND 로 연결된 필수 Path 가 없는 route (OR / NOT 조합, 커스텀 predicate 만 있는 경우)는 항상 후보에 포함된다.
+ */
+public final class RouteIndex {
+    private static final int[] EMPTY = new int[0];
+
+    private final Route[] routes;
+    private final Set<HttpMethod>[] methods;
+    private final Node root;
+    private final int[] unindexed;
+
+    private RouteIndex(Route[] routes, Set<HttpMethod>[] methods, Node root, int[] unindexed) {
+        this.routes = routes;
+        this.methods = methods;
+        this.root = root;
+        this.unindexed = unindexed;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static RouteIndex compile(List<Route> routes) {
+        Route[] ordered = routes.toArray(Route[]::new);
+        Set<HttpMethod>[] methods = new Set[ordered.length];
+        MutableNode root = new MutableNode();
+        List<Integer> unindexed = new ArrayList<>();
+
+        for (int position = 0; position < ordered.length; position++) {
+            RoutePredicates predicates = RoutePredicates.of(ordered[position]);
+            methods[position] = predicates.methods();
+            if (predicates.patterns() == null) {
+                unindexed.add(position);
+                continue;
+            }
+            for (String pattern : predicates.patterns()) {
+                root.insert(literalPrefix(pattern), position);
+            }
+        }
+        return new RouteIndex(ordered, methods, root.freeze(), unindexed.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * 요청 method / path 로 매칭 가능성이 있는 route 를 원래 순서대로 반환한다.
+     */
+    public List<Route> candidates(HttpMethod method, PathContainer path) {
+        int[] buffer = new int[16];
+        int size = append(buffer, 0, this.unindexed);
+        buffer = grow(buffer, size + this.root.positions.length);
+        size = append(buffer, size, this.root.positions);
+
+        Node node = this.root;
+        for (PathContainer.Element element : path.elements()) {
+            if (!(element instanceof PathContainer.PathSegment segment)) {
+                continue;
+            }
+            node = node.children.get(segment.valueToMatch());
+            if (node == null) {
+                break;
+            }
+            buffer = grow(buffer, size + node.positions.length);
+            size = append(buffer, size, node.positions);
+        }
+
+        Arrays.sort(buffer, 0, size);
+        List<Route> candidates = new ArrayList<>(size);
+        int previous = -1;
+        for (int i = 0; i < size; i++) {
+            int position = buffer[i];
+            if (position == previous) {
+                continue;
+            }
+            previous = position;
+            Set<HttpMethod> allowed = this.methods[position];
+            if (allowed == null || allowed.contains(method)) {
+                candidates.add(this.routes[position]);
+            }
+        }
+        return candidates;
+    }
+
+    public int size() {
+        return this.routes.length;
+    }
+
+    /**
+     * pattern 앞부분의 고정(literal) segment 목록. 첫 번째 동적 segment ({var}, *, ** 등) 이전까지만 사용한다.
+     */
+    static List<String> literalPrefix(String pattern) {
+        List<String> segments = new ArrayList<>();
+        if (pattern == null || !pattern.startsWith("/")) {
+            return segments;
+        }
+        for (String segment : pattern.substring(1).split("/", -1)) {
+            if (segment.isEmpty() || isDynamic(segment)) {
+                break;
+            }
+            segments.add(segment);
+        }
+        return segments;
+    }
+
+    private static boolean isDynamic(String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            switch (segment.charAt(i)) {
+                case '*', '?', '{', '}', '%', ';', '\\' -> {
+                    return true;
+                }
+                default -> {
+                }
+            }
+        }
+        return false;
+    }
+
+    private static int[] grow(int[] buffer, int required) {
+        return required <= buffer.length ? buffer : Arrays.copyOf(buffer, Math.max(required, buffer.length * 2));
+    }
+
+    private static int append(int[] buffer, int size, int[] positions) {
+        System.arraycopy(positions, 0, buffer, size, positions.length);
+        return size + positions.length;
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children;
+        private final int[] positions;
+
+        private Node(Map<String, Node> children, int[] positions) {
+            this.children = children;
+            this.positions = positions;
+        }
+    }
+
+    private static final class MutableNode {
+        private final Map<String, MutableNode> children = new HashMap<>();
+        private final List<Integer> positions = new ArrayList<>();
+
+        void insert(List<String> segments, int position) {
+            MutableNode node = this;
+            for (String segment : segments) {
+                node = node.children.computeIfAbsent(segment, s -> new MutableNode());
+            }
+            if (node.positions.isEmpty() || node.positions.get(node.positions.size() - 1) != position) {
+                node.positions.add(position);
+            }
+        }
+
+        Node freeze() {
+            Map<String, Node> frozen = new HashMap<>(Math.max(4, this.children.size() * 2));
+            this.children.forEach((segment, child) -> frozen.put(segment, child.freeze()));
+            int[] frozenPositions = this.positions.isEmpty() ? EMPTY : this.positions.stream().mapToInt(Integer::intValue).toArray();
+            return new Node(frozen, frozenPositions);
+        }
+    }
+
+    /**
+     * Route predicate 에서 추출한 Path pattern 과 Method 목록.
+     * patterns 가 null 이면 path 로 인덱싱할 수 없는 route 이고, methods 가 null 이면 모든 method 를 허용한다.
+     */
+    record RoutePredicates(List<String> patterns, Set<HttpMethod> methods) {
+
+        static RoutePredicates of(Route route) {
+            List<Object> required = new ArrayList<>();
+            required(route.getPredicate(), required);
+            List<String> patterns = null;
+            Set<HttpMethod> methods = null;
+            for (Object predicate : required) {
+                Object config = predicate instanceof HasConfig hasConfig ? hasConfig.getConfig() : null;
+                // AND 로 묶인 Path predicate 는 모두 만족해야 하므로 처음 만난 Path predicate 하나만 사용해도 충분하다.
+                if (config instanceof PathRoutePredicateFactory.Config path && patterns == null) {
+                    patterns = List.copyOf(path.getPatterns());
+                } else if (config instanceof MethodRoutePredicateFactory.Config method && methods == null) {
+                    methods = Set.copyOf(Arrays.asList(method.getMethods()));
+                }
+            }
+            return new RoutePredicates(patterns, methods);
+        }
+
+        /**
+         * predicate 구조를 따라가며 반드시 만족해야 하는 (AND 로만 연결된) predicate 를 모은다.
+         * OR / NOT 아래의 predicate 는 필수 조건이 아니므로 모으지 않는다. 따라서 최상위가 OR / NOT 이면 아무 조건도 없는 route 가 된다.
+         * And / Default 구현은 operand 를 공개하지 않으므로 field 를 읽으며, 읽을 수 없으면 해당 operand 를 조건으로 사용하지 않는다.
+         */
+        private static void required(Object predicate, List<Object> required) {
+            if (predicate instanceof AsyncPredicate.AndAsyncPredicate<?> || predicate instanceof GatewayPredicate.AndGatewayPredicate) {
+                required(operand(predicate, "left"), required);
+                required(operand(predicate, "right"), required);
+            } else if (predicate instanceof AsyncPredicate.DefaultAsyncPredicate<?>) {
+                required(operand(predicate, "delegate"), required);
+            } else if (predicate instanceof AsyncPredicate.OrAsyncPredicate<?> || predicate instanceof AsyncPredicate.NegateAsyncPredicate<?>
+                || predicate instanceof GatewayPredicate.OrGatewayPredicate || predicate instanceof GatewayPredicate.NegateGatewayPredicate) {
+                return;
+            } else if (predicate != null) {
+                required.add(predicate);
+            }
+        }
+
+        private static Object operand(Object predicate, String name) {
+            Field field = ReflectionUtils.findField(predicate.getClass(), name);
+            if (field == null) {
+                return null;
+            }
+            ReflectionUtils.makeAccessible(field);
+            return ReflectionUtils.getField(field, predicate);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package de.v.gom.sample.gateway.router.predicate;
+
+import de.v.gom.sample.gateway.filter.cache.ResponseCacheGatewayFilterFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.builder.Buildable;
+import org.springframework.cloud.gateway.route.builder.PredicateSpec;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@RequiredArgsConstructor
+public class ApplicationCachePredicate implements Router {
+    private final ResponseCacheGatewayFilterFactory responseCache;
+
+    @Override
+    public String id() {
+        return "application-cache-router";
+    }
+
+    // application-1 의 /v1/application/{value} 응답을 10초 동안 캐시하고, 이후 5초 동안은 갱신 중 stale 응답을 허용한다.
+    @Override
+    public Buildable<Route> apply(PredicateSpec predicateSpec) {
+        return predicateSpec.path("/application/**").and().method("GET")
+            .filters(f -> f
+                .rewritePath("/application/(?<segment>.*)", "/v1/application/${segment}")
+                .filter(this.responseCache.apply(config -> {
+                    config.setTimeToLive(Duration.ofSeconds(10));
+                    config.setStaleWhileRevalidate(Duration.ofSeconds(5));
+                })))
+            .uri("balanced://application-1");
+    }
+}
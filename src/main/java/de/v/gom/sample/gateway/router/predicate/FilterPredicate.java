@@ -1,5 +1,8 @@
 package de.v.gom.sample.gateway.router.predicate;
 
+import de.v.gom.sample.gateway.filter.breaker.CircuitBreakerHedgeGatewayFilterFactory;
+import de.v.gom.sample.gateway.filter.header.HeaderMutationGatewayFilterFactory;
+import lombok.RequiredArgsConstructor;
 import org.springframework.cloud.gateway.route.Route;
 import org.springframework.cloud.gateway.route.builder.Buildable;
 import org.springframework.cloud.gateway.route.builder.GatewayFilterSpec;
@@ -7,8 +10,13 @@ import org.springframework.cloud.gateway.route.builder.PredicateSpec;
 import org.springframework.cloud.gateway.route.builder.UriSpec;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
 @Component
+@RequiredArgsConstructor
 public class FilterPredicate implements Router {
+    private final CircuitBreakerHedgeGatewayFilterFactory circuitBreakerHedge;
+    private final HeaderMutationGatewayFilterFactory headerMutation;
 
     @Override
     public String id() {
@@ -19,15 +27,22 @@ public class FilterPredicate implements Router {
     public Buildable<Route> apply(PredicateSpec predicateSpec) {
         return predicateSpec.path("/filter_java/**")
             .filters(this::filters)
-            .uri("http://localhost:8080");
+            .uri("balanced://application-1");
     }
 
 
     private UriSpec filters(GatewayFilterSpec filterSpec) {
         return filterSpec
-            .addRequestHeader("Test-Header", "test")
-            .addResponseHeader("Test-Response-Header", "test")
+            // 요청 / 응답 헤더 변경은 하나의 필터로 합쳐 요청을 한 번만 mutate 한다.
+            .filter(this.headerMutation.apply(config -> config
+                .addRequestHeader("Test-Header", "test")
+                .addResponseHeader("Test-Response-Header", "test")))
             .rewritePath("/filter_java/(?<segment>.*)", "/filter_test_2/${segment}")
+            // upstream 이 실패하거나 느려지면 10 초 동안 바로 503 으로 응답하고, p95 보다 늦은 GET 은 한 번 더 보낸다.
+            .filter(this.circuitBreakerHedge.apply(config -> {
+                config.setSlowCallDuration(Duration.ofSeconds(1));
+                config.setHedge(true);
+            }))
             ;
     }
 }
@@ -1,16 +1,35 @@
 package de.v.gom.sample.gateway.router.predicate;
 
+import com.example.gatewaysupport.ratelimit.LocalRateLimiterGatewayFilter;
+import com.example.gatewaysupport.ratelimit.LocalRateLimiterGatewayFilterFactory;
+import de.v.gom.sample.gateway.filter.compress.ResponseCompressionGatewayFilterFactory;
+import de.v.gom.sample.gateway.upstream.UpstreamPoolSettings;
+import lombok.RequiredArgsConstructor;
 import org.springframework.cloud.gateway.route.Route;
 import org.springframework.cloud.gateway.route.builder.Buildable;
 import org.springframework.cloud.gateway.route.builder.PredicateSpec;
 import org.springframework.stereotype.Component;
 
 @Component
+@RequiredArgsConstructor
 public class MvcControllerPredicate implements Router {
+    private final LocalRateLimiterGatewayFilterFactory localRateLimiter;
+    private final ResponseCompressionGatewayFilterFactory responseCompression;
+
     @Override
     public Buildable<Route> apply(PredicateSpec predicateSpec) {
         return predicateSpec.path("/mvc/router")
-            .filters(f -> f.addRequestHeader("Test-Header", "test"))
+            .metadata(UpstreamPoolSettings.NAME, "application-1")
+            .metadata(UpstreamPoolSettings.MAX_CONNECTIONS, 50)
+            .filters(f -> f.addRequestHeader("Test-Header", "test")
+                // client IP 마다 초당 100 건, 최대 200 건까지 한 번에 허용한다.
+                .filter(this.localRateLimiter.apply(config -> {
+                    config.setKey(LocalRateLimiterGatewayFilter.KeyType.IP);
+                    config.setReplenishRate(100);
+                    config.setBurstCapacity(200);
+                }))
+                // thymeleaf 로 만든 HTML 응답을 Accept-Encoding 에 따라 압축한다.
+                .filter(this.responseCompression.apply(new ResponseCompressionGatewayFilterFactory.Config())))
             .uri("http://localhost:8080/mvc/router");
     }
 
@@ -1,16 +1,34 @@
 package de.v.gom.sample.gateway.router.predicate;
 
+import de.v.gom.sample.gateway.filter.coalesce.RequestCoalescingGatewayFilterFactory;
+import de.v.gom.sample.gateway.filter.compress.ResponseCompressionGatewayFilterFactory;
+import de.v.gom.sample.gateway.upstream.UpstreamPoolSettings;
+import lombok.RequiredArgsConstructor;
 import org.springframework.cloud.gateway.route.Route;
 import org.springframework.cloud.gateway.route.builder.Buildable;
 import org.springframework.cloud.gateway.route.builder.PredicateSpec;
 import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
 
 @Component
+@RequiredArgsConstructor
 public class RestControllerPredicate implements Router {
+    private final RequestCoalescingGatewayFilterFactory requestCoalescing;
+    private final ResponseCompressionGatewayFilterFactory responseCompression;
+
     @Override
     public Buildable<Route> apply(PredicateSpec predicateSpec) {
         return predicateSpec.path("/router/**")
-            .filters(f -> f.addRequestHeader("Test-Header", "test"))
+            // application-1 로 가는 route 는 하나의 연결 pool 을 공유하고, 다른 upstream 의 pool 과 분리한다.
+            .metadata(UpstreamPoolSettings.NAME, "application-1")
+            .metadata(UpstreamPoolSettings.MAX_CONNECTIONS, 50)
+            .filters(f -> f.addRequestHeader("Test-Header", "test")
+                // 동시에 들어온 같은 GET 요청은 upstream 을 한 번만 호출한다.
+                .filter(this.requestCoalescing.apply(config -> config.setMaxWait(Duration.ofSeconds(2))))
+                // 512 byte 이상의 응답은 Accept-Encoding 에 따라 압축한다.
+                .filter(this.responseCompression.apply(config -> config.setMinResponseSize(DataSize.ofBytes(512)))))
             .uri("http://localhost:8080/router");
     }
 
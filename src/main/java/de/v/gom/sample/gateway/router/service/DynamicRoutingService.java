@@ -1,16 +1,24 @@
 package de.v.gom.sample.gateway.router.service;
 
+import de.v.gom.sample.gateway.router.table.DynamicRouteTable;
+import de.v.gom.sample.gateway.router.table.DynamicRoutesChangedEvent;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
 import org.springframework.cloud.gateway.route.InMemoryRouteDefinitionRepository;
 import org.springframework.cloud.gateway.route.Route;
 import org.springframework.cloud.gateway.route.RouteDefinition;
 import org.springframework.cloud.gateway.route.RouteDefinitionLocator;
 import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 
+import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.List;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class DynamicRoutingService implements DynamicRouting {
@@ -18,6 +26,9 @@ public class DynamicRoutingService implements DynamicRouting {
     private final RouteDefinitionLocator routeDefinitionLocator;
     private final RouteLocator routeLocator;
     private final InMemoryRouteDefinitionRepository inMemoryRouteDefinitionRepository;
+    private final DynamicRouteTable dynamicRouteTable;
+    private final PathRoutePredicateFactory pathRoutePredicateFactory;
+    private final ApplicationEventPublisher publisher;
 
     @Override
     public Flux<RouteDefinition> gatAll() {
@@ -35,17 +46,42 @@ public class DynamicRoutingService implements DynamicRouting {
     }
 
     @Override
-    public void addRoute(String id, String uri, String path) throws URISyntaxException {
-
+    public void addRoute(String id, String uri, String path) {
+        DynamicRouteTable.Snapshot snapshot = dynamicRouteTable.add(this.route(id, uri, path));
+        this.published(snapshot);
     }
 
     @Override
     public void deleteRoute(String id) {
-
+        DynamicRouteTable.Snapshot snapshot = dynamicRouteTable.remove(id);
+        this.published(snapshot);
     }
 
     @Override
     public void updateRoute(String id, String uri, String path) {
+        DynamicRouteTable.Snapshot snapshot = dynamicRouteTable.replace(this.route(id, uri, path));
+        this.published(snapshot);
+    }
+
+    private Route route(String id, String uri, String path) {
+        return DynamicRouteTable.route(id)
+            .uri(parse(uri))
+            .asyncPredicate(pathRoutePredicateFactory.applyAsync(config -> config.setPatterns(List.of(path))))
+            .build();
+    }
+
+    // 잘못된 uri 는 이미 있는 route 를 추가하는 경우와 같이 IllegalArgumentException 으로 알린다.
+    private static URI parse(String uri) {
+        try {
+            return new URI(uri);
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Invalid route uri: " + uri, e);
+        }
+    }
 
+    // DynamicRouteLocator 는 다음 조회부터 새로운 Snapshot 을 사용하므로 전체 refresh 없이 route index 등 route 목록을 cache 하는 곳에만 알린다.
+    private void published(DynamicRouteTable.Snapshot snapshot) {
+        log.info("Dynamic route table updated: version={}, routes={}", snapshot.version(), snapshot.routes().size());
+        publisher.publishEvent(new DynamicRoutesChangedEvent(this, snapshot.version()));
     }
 }
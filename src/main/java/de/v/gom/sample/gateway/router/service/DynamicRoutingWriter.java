@@ -1,9 +1,7 @@
 package de.v.gom.sample.gateway.router.service;
 
-import java.net.URISyntaxException;
-
 public interface DynamicRoutingWriter {
-    void addRoute(String id, String uri, String path) throws URISyntaxException;
+    void addRoute(String id, String uri, String path);
     void deleteRoute(String id);
     void updateRoute(String id, String uri, String path);
 }
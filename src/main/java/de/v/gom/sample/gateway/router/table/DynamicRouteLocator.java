@@ -0,0 +1,79 @@
+package de.v.gom.sample.gateway.router.table;
+
+import org.springframework.cloud.gateway.event.RefreshRoutesResultEvent;
+import org.springframework.cloud.gateway.route.CachingRouteLocator;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * CachingRouteLocator 가 cache 한 route 에 {@link DynamicRouteTable} 의 현재 Snapshot 을 합쳐서 돌려준다.
+ * <p>
+ * DynamicRouteTable 의 변경은 RefreshRoutesEvent 없이 다음 조회부터 보인다. 합친 목록은 cache 와 Snapshot 의 version 이 같은 동안 재사용한다.
+ * order 가 같으면 cache 된 route 가 먼저 온다.
+ * <p>
+ * 범위를 지정한 RefreshRoutesEvent 는 범위 밖의 route 를 {@link #getRoutes()} 에서 다시 읽어 cache 하므로 dynamic route 가 cache 에 들어갈 수 있다.
+ * 합칠 때 cache 에 있는 dynamic route 는 버리고 항상 현재 Snapshot 을 사용한다.
+ */
+public class DynamicRouteLocator extends CachingRouteLocator {
+    private final DynamicRouteTable table;
+    // CachingRouteLocator 가 cache 를 교체하고 RefreshRoutesResultEvent 를 발행할 때마다 증가한다.
+    private final AtomicLong cacheVersion = new AtomicLong();
+    private final AtomicReference<Merged> merged = new AtomicReference<>();
+
+    public DynamicRouteLocator(RouteLocator delegate, DynamicRouteTable table) {
+        super(delegate);
+        this.table = table;
+    }
+
+    @Override
+    public Flux<Route> getRoutes() {
+        // cache 를 읽기 전에 version 을 읽는다. 그 사이에 cache 가 바뀌면 다음 조회에서 다시 합친다.
+        long cacheVersion = this.cacheVersion.get();
+        DynamicRouteTable.Snapshot dynamic = this.table.snapshot();
+        Merged current = this.merged.get();
+        if (current != null && current.cacheVersion() == cacheVersion && current.tableVersion() == dynamic.version()) {
+            return Flux.fromIterable(current.routes());
+        }
+        return super.getRoutes()
+            .collectList()
+            .flatMapIterable(cached -> {
+                Merged next = new Merged(cacheVersion, dynamic.version(), merge(cached, dynamic.routes()));
+                this.merged.set(next);
+                return next.routes();
+            });
+    }
+
+    @Override
+    public void setApplicationEventPublisher(ApplicationEventPublisher publisher) {
+        super.setApplicationEventPublisher(event -> {
+            if (event instanceof RefreshRoutesResultEvent) {
+                this.cacheVersion.incrementAndGet();
+            }
+            publisher.publishEvent(event);
+        });
+    }
+
+    static List<Route> merge(List<Route> cached, List<Route> dynamic) {
+        List<Route> merged = new ArrayList<>(cached.size() + dynamic.size());
+        for (Route route : cached) {
+            if (!DynamicRouteTable.isDynamic(route)) {
+                merged.add(route);
+            }
+        }
+        merged.addAll(dynamic);
+        // List.sort 는 stable 하므로 order 가 같으면 추가한 순서를 유지한다.
+        merged.sort(AnnotationAwareOrderComparator.INSTANCE);
+        return List.copyOf(merged);
+    }
+
+    private record Merged(long cacheVersion, long tableVersion, List<Route> routes) {
+    }
+}
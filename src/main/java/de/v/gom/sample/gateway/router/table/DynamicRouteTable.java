@@ -0,0 +1,99 @@
+package de.v.gom.sample.gateway.router.table;
+
+import de.v.gom.sample.gateway.router.RouteSources;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.NotFoundException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * DynamicRoutingWriter 로 추가한 route 를 보관하는 copy-on-write route table.
+ * <p>
+ * 읽기는 현재 {@link Snapshot} 을 참조만 하므로 lock 이 없고, 쓰기는 새로운 불변 Snapshot 을 만든 뒤 atomic 하게 교체한다.
+ * 따라서 읽는 쪽(Netty event loop)은 block 되지 않으며 반쯤 적용된 변경을 보지 않는다.
+ * <p>
+ * RouteLocator bean 이 아니므로 CachingRouteLocator 에 cache 되지 않는다. {@link DynamicRouteLocator} 가 조회할 때마다 현재 Snapshot 을 합친다.
+ * 모든 Route 의 metadata 에 {@link RouteSources#KEY}={@link RouteSources#DYNAMIC} 이 있어야 한다.
+ */
+public class DynamicRouteTable {
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+
+    /**
+     * 이 table 에 넣을 Route 의 builder. metadata 에 {@link RouteSources#KEY}={@link RouteSources#DYNAMIC} 이 설정되어 있다.
+     */
+    public static Route.AsyncBuilder route(String id) {
+        return Route.async().id(id).metadata(RouteSources.KEY, RouteSources.DYNAMIC);
+    }
+
+    public static boolean isDynamic(Route route) {
+        return RouteSources.DYNAMIC.equals(route.getMetadata().get(RouteSources.KEY));
+    }
+
+    public Snapshot snapshot() {
+        return this.snapshot.get();
+    }
+
+    public Snapshot add(Route route) {
+        checkDynamic(route);
+        return this.update(current -> {
+            if (current.byId().containsKey(route.getId())) {
+                throw new IllegalArgumentException("Route already exists: " + route.getId());
+            }
+            Map<String, Route> next = new LinkedHashMap<>(current.byId());
+            next.put(route.getId(), route);
+            return current.next(next);
+        });
+    }
+
+    public Snapshot replace(Route route) {
+        checkDynamic(route);
+        return this.update(current -> {
+            if (!current.byId().containsKey(route.getId())) {
+                throw new NotFoundException("Route not found: " + route.getId());
+            }
+            Map<String, Route> next = new LinkedHashMap<>(current.byId());
+            next.put(route.getId(), route);
+            return current.next(next);
+        });
+    }
+
+    public Snapshot remove(String id) {
+        return this.update(current -> {
+            if (!current.byId().containsKey(id)) {
+                throw new NotFoundException("Route not found: " + id);
+            }
+            Map<String, Route> next = new LinkedHashMap<>(current.byId());
+            next.remove(id);
+            return current.next(next);
+        });
+    }
+
+    private static void checkDynamic(Route route) {
+        if (!isDynamic(route)) {
+            throw new IllegalArgumentException("Route is not built with DynamicRouteTable.route(id): " + route.getId());
+        }
+    }
+
+    // 다른 writer 와 경쟁하면 최신 Snapshot 으로 다시 계산하므로 함수는 부수효과가 없어야 한다.
+    private Snapshot update(UnaryOperator<Snapshot> function) {
+        return this.snapshot.updateAndGet(function);
+    }
+
+    /**
+     * 특정 시점의 route 목록. 추가된 순서를 유지한다.
+     */
+    public record Snapshot(long version, Map<String, Route> byId, List<Route> routes) {
+        static final Snapshot EMPTY = new Snapshot(0, Map.of(), List.of());
+
+        private Snapshot next(Map<String, Route> next) {
+            return new Snapshot(this.version + 1, Collections.unmodifiableMap(next),
+                Collections.unmodifiableList(new ArrayList<>(next.values())));
+        }
+    }
+}
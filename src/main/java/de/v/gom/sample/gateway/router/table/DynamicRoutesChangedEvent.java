@@ -0,0 +1,20 @@
+package de.v.gom.sample.gateway.router.table;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * {@link DynamicRouteTable} 이 변경된 경우 발행된다.
+ * <p>
+ * DynamicRouteLocator 는 다음 조회부터 새로운 Snapshot 을 사용하므로 CachingRouteLocator 의 refresh 는 일어나지 않는다.
+ * route 목록을 따로 cache 하는 곳(route index, route 별 metric 등) 만 이 event 로 다시 읽는다.
+ */
+@Getter
+public class DynamicRoutesChangedEvent extends ApplicationEvent {
+    private final long version;
+
+    public DynamicRoutesChangedEvent(Object source, long version) {
+        super(source);
+        this.version = version;
+    }
+}
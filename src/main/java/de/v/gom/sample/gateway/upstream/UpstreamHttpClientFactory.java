@@ -0,0 +1,38 @@
+package de.v.gom.sample.gateway.upstream;
+
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.List;
+
+/**
+ * gateway 공용 HttpClient 를 만드는 HttpClientFactory 와 같은 설정(SSL, proxy, header 크기, compression, HttpClientCustomizer 등)으로
+ * ConnectionProvider 만 바꾼 HttpClient 를 만든다.
+ */
+public class UpstreamHttpClientFactory extends HttpClientFactory {
+    private final ConnectionProvider provider;
+
+    public UpstreamHttpClientFactory(ConnectionProvider provider, HttpClientProperties properties, ServerProperties serverProperties,
+                                     HttpClientSslConfigurer sslConfigurer, List<HttpClientCustomizer> customizers) {
+        super(properties, serverProperties, sslConfigurer, customizers);
+        this.provider = provider;
+    }
+
+    public HttpClient create() {
+        try {
+            return this.createInstance();
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to create upstream HttpClient", e);
+        }
+    }
+
+    @Override
+    protected ConnectionProvider buildConnectionProvider(HttpClientProperties properties) {
+        return this.provider;
+    }
+}
@@ -0,0 +1,167 @@
+package de.v.gom.sample.gateway.upstream;
+
+import de.v.gom.sample.gateway.router.table.DynamicRoutesChangedEvent;
+import io.netty.channel.ChannelOption;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.event.RefreshRoutesResultEvent;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.EventListener;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.springframework.cloud.gateway.support.RouteMetadataUtils.CONNECT_TIMEOUT_ATTR;
+
+/**
+ * route metadata 의 upstream-pool.* 설정에 따라 pool 이 분리된 HttpClient 로 요청을 보내는 NettyRoutingFilter.
+ * <p>
+ * 느린 upstream 하나가 gateway 공용 연결 pool 을 모두 점유하지 않도록 route (또는 upstream-pool.name) 별로 ConnectionProvider 를 만든다.
+ * pool 의 사용량과 연결 획득 대기 시간은 reactor-netty metric (reactor.netty.connection.provider.*, name=gateway-{pool}) 으로 노출된다.
+ * 요청마다 metadata 를 읽지 않도록 Route 객체 별 HttpClient 를 copy-on-write map 에 보관하고, route 가 refresh 되면 비운다.
+ * <p>
+ * pool 의 HttpClient 는 gateway 공용 HttpClient 와 같은 설정으로 만들고 ConnectionProvider 만 바꾼다. ({@link UpstreamHttpClientFactory})
+ * refresh 가 성공하거나 {@link DynamicRoutesChangedEvent} 를 받으면 더 이상 어떤 route 도 사용하지 않는 pool 과 설정이 바뀐 pool 을 정리한다. 처리 중인 요청은 {@link #DISPOSE_TIMEOUT} 까지 기다린다.
+ * 설정이 바뀐 pool 은 다음 요청에서 새 설정으로 다시 만든다.
+ */
+@Slf4j
+public class UpstreamPoolRoutingFilter extends NettyRoutingFilter implements ApplicationListener<RefreshRoutesResultEvent>, DisposableBean {
+    private static final String PROVIDER_PREFIX = "gateway-";
+    static final Duration DISPOSE_TIMEOUT = Duration.ofSeconds(30);
+
+    private final UpstreamPoolSettings defaults;
+    private final Function<ConnectionProvider, HttpClient> clients;
+    private final RouteLocator routeLocator;
+    private final Map<String, Pool> pools = new ConcurrentHashMap<>();
+    private volatile Map<Route, HttpClient> byRoute = new IdentityHashMap<>();
+
+    public UpstreamPoolRoutingFilter(HttpClient httpClient, ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider,
+                                     HttpClientProperties properties, UpstreamPoolSettings defaults,
+                                     Function<ConnectionProvider, HttpClient> clients, RouteLocator routeLocator) {
+        super(httpClient, headersFiltersProvider, properties);
+        this.defaults = defaults;
+        this.clients = clients;
+        this.routeLocator = routeLocator;
+    }
+
+    @Override
+    protected HttpClient getHttpClient(Route route, ServerWebExchange exchange) {
+        HttpClient client = this.byRoute.get(route);
+        return client != null ? client : this.register(route, exchange);
+    }
+
+    @Override
+    public void onApplicationEvent(RefreshRoutesResultEvent event) {
+        this.clearRoutes();
+        if (event.isSuccess()) {
+            this.prune();
+        }
+    }
+
+    @EventListener
+    public void onDynamicRoutesChanged(DynamicRoutesChangedEvent event) {
+        this.clearRoutes();
+        this.prune();
+    }
+
+    @Override
+    public void destroy() {
+        this.pools.values().forEach(pool -> pool.provider().dispose());
+    }
+
+    Set<String> pools() {
+        return Set.copyOf(this.pools.keySet());
+    }
+
+    private void prune() {
+        this.routeLocator.getRoutes()
+            .mapNotNull(route -> UpstreamPoolSettings.of(route, this.defaults))
+            .collect(Collectors.toMap(UpstreamPoolSettings::name, Function.identity(), (first, second) -> first))
+            .subscribe(this::retain, e -> log.warn("Failed to read routes for upstream connection pools", e));
+    }
+
+    // register 와 같은 lock 에서 교체해야 register 가 비우기 전의 map 으로 덮어쓰지 않는다.
+    private synchronized void clearRoutes() {
+        this.byRoute = new IdentityHashMap<>();
+    }
+
+    private synchronized void retain(Map<String, UpstreamPoolSettings> settings) {
+        boolean changed = this.pools.entrySet().removeIf(entry -> {
+            UpstreamPoolSettings current = settings.get(entry.getKey());
+            if (entry.getValue().settings().equals(current)) {
+                return false;
+            }
+            log.info("Disposing {} upstream connection pool: {}", current == null ? "unused" : "changed", entry.getKey());
+            entry.getValue().provider().disposeLater().subscribe();
+            return true;
+        });
+        if (changed) {
+            // refresh 후 정리 전에 등록된 route 가 정리한 pool 의 HttpClient 를 계속 사용하지 않도록 한다.
+            this.byRoute = new IdentityHashMap<>();
+        }
+    }
+
+    private synchronized HttpClient register(Route route, ServerWebExchange exchange) {
+        Map<Route, HttpClient> current = this.byRoute;
+        HttpClient client = current.get(route);
+        if (client != null) {
+            return client;
+        }
+        UpstreamPoolSettings settings = UpstreamPoolSettings.of(route, this.defaults);
+        if (settings == null) {
+            client = super.getHttpClient(route, exchange);
+        } else {
+            client = this.pools.computeIfAbsent(settings.name(), name -> this.create(settings)).client();
+            Object connectTimeout = route.getMetadata().get(CONNECT_TIMEOUT_ATTR);
+            if (connectTimeout != null) {
+                client = client.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Integer.parseInt(connectTimeout.toString()));
+            }
+        }
+        Map<Route, HttpClient> next = new IdentityHashMap<>(current);
+        next.put(route, client);
+        this.byRoute = next;
+        return client;
+    }
+
+    // 같은 이름의 pool 은 처음 만든 route 의 설정을 사용하고, refresh 후에는 route 목록에서 먼저 나오는 route 의 설정으로 맞춘다.
+    private Pool create(UpstreamPoolSettings settings) {
+        log.info("Creating upstream connection pool: {}", settings);
+        ConnectionProvider.Builder builder = ConnectionProvider.builder(PROVIDER_PREFIX + settings.name())
+            .maxConnections(settings.maxConnections())
+            .pendingAcquireTimeout(settings.pendingAcquireTimeout())
+            .disposeTimeout(DISPOSE_TIMEOUT)
+            .metrics(true);
+        if (settings.pendingAcquireMaxCount() != -1) {
+            builder.pendingAcquireMaxCount(settings.pendingAcquireMaxCount());
+        }
+        if (!settings.maxIdleTime().isZero()) {
+            builder.maxIdleTime(settings.maxIdleTime()).evictInBackground(settings.maxIdleTime());
+        }
+        ConnectionProvider provider = builder.build();
+
+        HttpClient client = this.clients.apply(provider);
+        if (settings.h2c()) {
+            client = client.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11);
+        }
+        return new Pool(settings, provider, client);
+    }
+
+    private record Pool(UpstreamPoolSettings settings, ConnectionProvider provider, HttpClient client) {
+    }
+}
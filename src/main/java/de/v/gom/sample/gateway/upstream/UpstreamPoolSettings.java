@@ -0,0 +1,68 @@
+package de.v.gom.sample.gateway.upstream;
+
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.cloud.gateway.route.Route;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * route metadata 로 지정하는 upstream 연결 pool 설정.
+ * <p>
+ * Router DSL 에서는 predicateSpec.path(...).metadata(UpstreamPoolSettings.MAX_CONNECTIONS, 50) 로,
+ * RouteDefinition 에서는 metadata: { "upstream-pool.max-connections": 50 } 로 지정한다.
+ * 같은 {@link #NAME} 을 지정한 route 는 하나의 pool 을 공유하며(예: upstream host 별), 지정하지 않으면 route id 별로 pool 을 만든다.
+ * 지정하지 않은 값은 gateway.upstream-pool.* 기본값을 사용한다.
+ */
+public record UpstreamPoolSettings(String name, int maxConnections, int pendingAcquireMaxCount,
+                                   Duration pendingAcquireTimeout, Duration maxIdleTime, boolean h2c) {
+    public static final String PREFIX = "upstream-pool.";
+    public static final String NAME = PREFIX + "name";
+    public static final String MAX_CONNECTIONS = PREFIX + "max-connections";
+    // -1 이면 reactor-netty 기본값(maxConnections * 2) 을 사용한다.
+    public static final String PENDING_ACQUIRE_MAX_COUNT = PREFIX + "pending-acquire-max-count";
+    public static final String PENDING_ACQUIRE_TIMEOUT = PREFIX + "pending-acquire-timeout";
+    public static final String MAX_IDLE_TIME = PREFIX + "max-idle-time";
+    // true 인 경우 HTTP/1.1 upgrade 로 h2c 연결을 맺고 하나의 연결에서 여러 요청을 multiplexing 한다.
+    public static final String H2C = PREFIX + "h2c";
+
+    /**
+     * route metadata 에 upstream-pool.* 값이 하나도 없으면 null 을 반환한다. (gateway 공용 HttpClient 사용)
+     */
+    public static UpstreamPoolSettings of(Route route, UpstreamPoolSettings defaults) {
+        Map<String, Object> metadata = route.getMetadata();
+        if (metadata.keySet().stream().noneMatch(key -> key.startsWith(PREFIX))) {
+            return null;
+        }
+        return new UpstreamPoolSettings(
+            String.valueOf(metadata.getOrDefault(NAME, route.getId())),
+            integer(metadata.get(MAX_CONNECTIONS), defaults.maxConnections()),
+            integer(metadata.get(PENDING_ACQUIRE_MAX_COUNT), defaults.pendingAcquireMaxCount()),
+            duration(metadata.get(PENDING_ACQUIRE_TIMEOUT), defaults.pendingAcquireTimeout()),
+            duration(metadata.get(MAX_IDLE_TIME), defaults.maxIdleTime()),
+            bool(metadata.get(H2C), defaults.h2c())
+        );
+    }
+
+    private static int integer(Object value, int defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        return value instanceof Number number ? number.intValue() : Integer.parseInt(value.toString().trim());
+    }
+
+    // 숫자는 millisecond, 문자열은 10s, PT10S 와 같은 형식으로 해석한다.
+    private static Duration duration(Object value, Duration defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        if (value instanceof Duration duration) {
+            return duration;
+        }
+        return value instanceof Number number ? Duration.ofMillis(number.longValue()) : DurationStyle.detectAndParse(value.toString().trim());
+    }
+
+    private static boolean bool(Object value, boolean defaultValue) {
+        return value == null ? defaultValue : Boolean.parseBoolean(value.toString().trim());
+    }
+}
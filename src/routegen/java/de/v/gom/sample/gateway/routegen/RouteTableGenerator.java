@@ -0,0 +1,320 @@
+package de.v.gom.sample.gateway.routegen;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.v.gom.sample.gateway.router.file.RouteFileParser;
+import org.springframework.cloud.gateway.filter.FilterDefinition;
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * route catalog(*.yml, *.yaml, *.json) 를 읽어 GeneratedRouteTable 소스를 생성한다. (generateRouteTable task)
+ * <p>
+ * 아래 predicate / filter 만 사용하는 route 는 CompiledRouteBuilder 호출 코드로 생성하여 시작할 때 Config binding 없이 만든다.
+ * 그 외의 factory, SpEL(#{...}) 값, scalar 가 아닌 metadata 를 사용하는 route 는 RouteDefinition(JSON) 으로 남긴다.
+ * <ul>
+ *     <li>predicate: Path, Method, Host, Header, Query</li>
+ *     <li>filter: Add/Set/RemoveRequestHeader, Add/Set/RemoveResponseHeader, StripPrefix, PrefixPath, RewritePath, SetPath</li>
+ * </ul>
+ * 상수 pool / 메서드 크기 제한을 넘지 않도록 route 를 여러 class / 메서드로 나누어 생성한다.
+ */
+public class RouteTableGenerator {
+    static final String PACKAGE = "de.v.gom.sample.gateway.router.compiled";
+    static final String TABLE = "GeneratedRouteTable";
+    private static final int ROUTES_PER_METHOD = 100;
+    private static final int ROUTES_PER_CLASS = 1000;
+
+    private final RouteFileParser parser = new RouteFileParser(new ObjectMapper(), Integer.MAX_VALUE);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private int compiled;
+    private int fallback;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: RouteTableGenerator <catalog> <output>");
+        }
+        RouteTableGenerator generator = new RouteTableGenerator();
+        List<RouteDefinition> routes = generator.read(Path.of(args[0]));
+        generator.write(routes, Path.of(args[1]));
+        System.out.printf("Generated route table: routes=%d, compiled=%d, definitions=%d%n",
+            routes.size(), generator.compiled, generator.fallback);
+    }
+
+    /**
+     * catalog 파일(또는 디렉터리의 파일) 을 파일 이름 순서로 읽는다. catalog 가 없으면 빈 table 을 생성한다.
+     */
+    List<RouteDefinition> read(Path catalog) throws IOException {
+        List<Path> files;
+        if (Files.isDirectory(catalog)) {
+            try (Stream<Path> list = Files.list(catalog)) {
+                files = list.filter(RouteFileParser::supports).sorted().toList();
+            }
+        } else {
+            files = Files.isRegularFile(catalog) ? List.of(catalog) : List.of();
+        }
+        Map<String, RouteDefinition> routes = new LinkedHashMap<>();
+        for (Path file : files) {
+            for (RouteDefinition definition : this.parser.parse(file).values()) {
+                // 실행 중에는 나중 파일이 이기지만, build 시점에는 catalog 오류로 본다.
+                if (routes.put(definition.getId(), definition) != null) {
+                    throw new IllegalArgumentException("Duplicate route id " + definition.getId() + ": " + file);
+                }
+            }
+        }
+        return new ArrayList<>(routes.values());
+    }
+
+    void write(List<RouteDefinition> routes, Path output) throws IOException {
+        Path directory = output.resolve(PACKAGE.replace('.', '/'));
+        Files.createDirectories(directory);
+        try (Stream<Path> previous = Files.list(directory)) {
+            for (Path file : previous.toList()) {
+                Files.delete(file);
+            }
+        }
+        int parts = (routes.size() + ROUTES_PER_CLASS - 1) / ROUTES_PER_CLASS;
+        StringBuilder table = header(TABLE).append("public final class ").append(TABLE).append(" implements CompiledRouteTable {\n")
+            .append("    public static final int ROUTES = ").append(routes.size()).append(";\n\n")
+            .append("    @Override\n")
+            .append("    public void build(CompiledRouteBuilder builder) {\n");
+        for (int part = 0; part < parts; part++) {
+            table.append("        ").append(TABLE).append(part).append(".build(builder);\n");
+        }
+        table.append("    }\n}\n");
+        Files.writeString(directory.resolve(TABLE + ".java"), table, StandardCharsets.UTF_8);
+
+        for (int part = 0; part < parts; part++) {
+            List<RouteDefinition> chunk = routes.subList(part * ROUTES_PER_CLASS, Math.min(routes.size(), (part + 1) * ROUTES_PER_CLASS));
+            Files.writeString(directory.resolve(TABLE + part + ".java"), this.part(TABLE + part, chunk), StandardCharsets.UTF_8);
+        }
+    }
+
+    private String part(String name, List<RouteDefinition> routes) throws IOException {
+        int methods = (routes.size() + ROUTES_PER_METHOD - 1) / ROUTES_PER_METHOD;
+        StringBuilder source = header(name).append("final class ").append(name).append(" {\n")
+            .append("    private ").append(name).append("() {\n    }\n\n")
+            .append("    static void build(CompiledRouteBuilder builder) {\n");
+        for (int method = 0; method < methods; method++) {
+            source.append("        routes").append(method).append("(builder);\n");
+        }
+        source.append("    }\n");
+        for (int method = 0; method < methods; method++) {
+            source.append("\n    private static void routes").append(method).append("(CompiledRouteBuilder builder) {\n");
+            for (RouteDefinition route : routes.subList(method * ROUTES_PER_METHOD, Math.min(routes.size(), (method + 1) * ROUTES_PER_METHOD))) {
+                this.route(source, route);
+            }
+            source.append("    }\n");
+        }
+        return source.append("}\n").toString();
+    }
+
+    private void route(StringBuilder source, RouteDefinition route) throws IOException {
+        List<String> calls = this.calls(route);
+        if (calls == null) {
+            this.fallback++;
+            source.append("        builder.definition(").append(literal(this.objectMapper.writeValueAsString(route))).append(");\n");
+            return;
+        }
+        this.compiled++;
+        source.append("        builder.route(").append(literal(route.getId())).append(", ")
+            .append(literal(route.getUri().toString())).append(", ").append(route.getOrder()).append(")");
+        for (String call : calls) {
+            source.append("\n            .").append(call);
+        }
+        source.append("\n            .add();\n");
+    }
+
+    /**
+     * route 를 CompiledRouteBuilder 호출로 바꾼다. 지원하지 않는 route 는 null 을 반환한다.
+     */
+    List<String> calls(RouteDefinition route) {
+        if (route.getUri() == null) {
+            return null;
+        }
+        List<String> calls = new ArrayList<>();
+        for (PredicateDefinition predicate : route.getPredicates()) {
+            String call = predicate(predicate.getName(), new Args(predicate.getArgs()));
+            if (call == null) {
+                return null;
+            }
+            calls.add(call);
+        }
+        for (FilterDefinition filter : route.getFilters()) {
+            String call = filter(filter.getName(), new Args(filter.getArgs()));
+            if (call == null) {
+                return null;
+            }
+            calls.add(call);
+        }
+        for (Map.Entry<String, Object> entry : route.getMetadata().entrySet()) {
+            String value = scalar(entry.getValue());
+            if (value == null) {
+                return null;
+            }
+            calls.add("metadata(" + literal(entry.getKey()) + ", " + value + ")");
+        }
+        return calls;
+    }
+
+    private static String predicate(String name, Args args) {
+        if (args.expression()) {
+            return null;
+        }
+        return switch (name) {
+            case "Path" -> {
+                // shortcut 은 마지막 값이 true / false 이면 matchTrailingSlash 이다. (GATHER_LIST_TAIL_FLAG)
+                List<String> patterns = new ArrayList<>(args.list("patterns"));
+                String flag = args.named("matchTrailingSlash");
+                if (flag == null && !patterns.isEmpty() && isBoolean(patterns.get(patterns.size() - 1))) {
+                    flag = patterns.remove(patterns.size() - 1);
+                }
+                yield patterns.isEmpty() || !args.only("patterns", "matchTrailingSlash") ? null
+                    : "path(" + (flag == null || Boolean.parseBoolean(flag)) + ", " + literals(patterns) + ")";
+            }
+            case "Method" -> args.only("methods") && !args.list("methods").isEmpty()
+                ? "method(" + literals(args.list("methods").stream().map(String::toUpperCase).toList()) + ")" : null;
+            case "Host" -> args.only("patterns") && !args.list("patterns").isEmpty()
+                ? "host(" + literals(args.list("patterns")) + ")" : null;
+            case "Header" -> args.pair("header", "regexp", true, (header, regexp) -> "header(" + header + ", " + regexp + ")");
+            case "Query" -> args.pair("param", "regexp", true, (param, regexp) -> "query(" + param + ", " + regexp + ")");
+            default -> null;
+        };
+    }
+
+    private static String filter(String name, Args args) {
+        if (args.expression()) {
+            return null;
+        }
+        return switch (name) {
+            case "AddRequestHeader", "AddResponseHeader", "SetRequestHeader", "SetResponseHeader" ->
+                args.pair("name", "value", false, (header, value) -> method(name) + "(" + header + ", " + value + ")");
+            case "RemoveRequestHeader", "RemoveResponseHeader" -> args.single("name", value -> method(name) + "(" + value + ")");
+            case "StripPrefix" -> {
+                String parts = args.args().size() == 1 ? args.value(0, "parts") : null;
+                yield parts != null && parts.trim().matches("\\d+") ? "stripPrefix(" + parts.trim() + ")" : null;
+            }
+            case "PrefixPath" -> args.single("prefix", value -> "prefixPath(" + value + ")");
+            case "RewritePath" -> args.pair("regexp", "replacement", false, (regexp, replacement) -> "rewritePath(" + regexp + ", " + replacement + ")");
+            case "SetPath" -> args.single("template", value -> "setPath(" + value + ")");
+            default -> null;
+        };
+    }
+
+    private static String method(String name) {
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static boolean isBoolean(String value) {
+        return "true".equalsIgnoreCase(value) || "false".equalsIgnoreCase(value);
+    }
+
+    private static String scalar(Object value) {
+        if (value instanceof String string) {
+            return string.contains("#{") ? null : literal(string);
+        }
+        if (value instanceof Integer || value instanceof Boolean) {
+            return value.toString();
+        }
+        if (value instanceof Long) {
+            return value + "L";
+        }
+        return null;
+    }
+
+    private static String literals(List<String> values) {
+        return String.join(", ", values.stream().map(RouteTableGenerator::literal).toList());
+    }
+
+    static String literal(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder literal = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> literal.append("\\\"");
+                case '\\' -> literal.append("\\\\");
+                case '\n' -> literal.append("\\n");
+                case '\r' -> literal.append("\\r");
+                case '\t' -> literal.append("\\t");
+                default -> {
+                    if (c < 0x20 || c > 0x7e) {
+                        literal.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        literal.append(c);
+                    }
+                }
+            }
+        }
+        return literal.append('"').toString();
+    }
+
+    private static StringBuilder header(String name) {
+        return new StringBuilder()
+            .append("package ").append(PACKAGE).append(";\n\n")
+            .append("import javax.annotation.processing.Generated;\n\n")
+            .append("@Generated(\"").append(RouteTableGenerator.class.getName()).append("\")\n");
+    }
+
+    /**
+     * shortcut(_genkey_0, _genkey_1, ...) 과 이름 있는 args 를 같은 방식으로 읽는다.
+     */
+    private record Args(Map<String, String> args) {
+
+        boolean expression() {
+            return this.args.values().stream().anyMatch(value -> value != null && value.contains("#{"));
+        }
+
+        boolean shortcut() {
+            return this.args.keySet().stream().allMatch(key -> key.startsWith("_genkey_"));
+        }
+
+        // shortcut 이면 모든 값, 이름 있는 args 이면 쉼표로 구분한 값 (Spring 의 String -> List 변환과 같다)
+        List<String> list(String name) {
+            if (this.shortcut()) {
+                return this.args.values().stream().map(String::trim).toList();
+            }
+            String value = this.args.get(name);
+            return value == null ? List.of() : Arrays.stream(value.split(",")).map(String::trim).filter(s -> !s.isEmpty()).toList();
+        }
+
+        String named(String name) {
+            return this.shortcut() ? null : this.args.get(name);
+        }
+
+        String value(int index, String name) {
+            return this.shortcut() ? this.args.get("_genkey_" + index) : this.args.get(name);
+        }
+
+        boolean only(String... names) {
+            return this.shortcut() || List.of(names).containsAll(this.args.keySet());
+        }
+
+        String single(String name, Function<String, String> call) {
+            String value = this.value(0, name);
+            return value != null && this.args.size() == 1 ? call.apply(literal(value)) : null;
+        }
+
+        String pair(String first, String second, boolean optional, BiFunction<String, String, String> call) {
+            String a = this.value(0, first);
+            String b = this.value(1, second);
+            if (a == null || (b == null && !optional) || this.args.size() > 2 || !this.only(first, second)) {
+                return null;
+            }
+            return call.apply(literal(a), literal(b));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package de.v.gom.sample.gateway.filter;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrefixRewriteTests {
+    private static final List<String> PATHS = List.of(
+        "/filter_java/users/1",
+        "/filter_java/",
+        "/filter_java",
+        "/prefix/filter_java/users",
+        "/filter_java/a/filter_java/b",
+        "/filter_java/%ED%95%9C%EA%B8%80?x",
+        "/other/path",
+        "/filter_java/line\nbreak",
+        ""
+    );
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+        "/filter_java/(?<segment>.*)|/filter_test_2/${segment}",
+        "^/filter_java/(?<segment>.*)$|/filter_test_2/${segment}",
+        "/filter_java/(.*)|/v1/$1",
+        "/filter_java/(?<segment>.*)|/fixed",
+        "/filter_java|/api",
+        "^/filter_java|/api",
+        "/filter_java/(?<segment>.*)|/$\\{segment}"
+    })
+    void matchesRegexReplaceAll(String regexp, String configured) {
+        String replacement = configured.replace("$\\", "$");
+        PrefixRewrite rewrite = PrefixRewrite.compile(regexp, replacement);
+        assertThat(rewrite).isNotNull();
+
+        Pattern pattern = Pattern.compile(regexp);
+        for (String path : PATHS) {
+            assertThat(rewrite.apply(path)).as(path).isEqualTo(pattern.matcher(path).replaceAll(replacement));
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+        "/segment/(?<segment>[0-9]+)|/${segment}",
+        "/segment/(?<a>.*)/(?<b>.*)|/${b}/${a}",
+        "(?<segment>.*)|/api/${segment}",
+        "/filter.java/(?<segment>.*)|/${segment}",
+        "/filter_java/(?<segment>.*)|/${other}",
+        "/filter_java/(?<segment>.*)|/\\$\\{segment}",
+        "(?i)/filter_java/(?<segment>.*)|/${segment}"
+    })
+    void keepsRegexForRegexDependentPatterns(String regexp, String replacement) {
+        assertThat(PrefixRewrite.compile(regexp, replacement)).isNull();
+    }
+}
@@ -0,0 +1,213 @@
+package de.v.gom.sample.gateway.filter.breaker;
+
+import de.v.gom.sample.gateway.loadbalancer.UpstreamGroup;
+import de.v.gom.sample.gateway.loadbalancer.UpstreamInstance;
+import de.v.gom.sample.gateway.loadbalancer.UpstreamSelection;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.isAlreadyRouted;
+
+class CircuitBreakerHedgeGatewayFilterTests {
+    private static final Route ROUTE = Route.async().id("filter-router").uri("http://localhost:8080").predicate(exchange -> true).build();
+    private static final int REQUESTS = 500;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final HttpClient httpClient = HttpClient.create();
+    private final CircuitBreakerHedgeGatewayFilterFactory factory;
+    private DisposableServer server;
+
+    @SuppressWarnings("unchecked")
+    CircuitBreakerHedgeGatewayFilterTests() {
+        ObjectProvider<List<HttpHeadersFilter>> headersFilters = mock(ObjectProvider.class);
+        when(headersFilters.getIfAvailable()).thenReturn(List.of());
+        this.factory = new CircuitBreakerHedgeGatewayFilterFactory(new RouteBreakers(this.meterRegistry), this.httpClient,
+            headersFilters, null);
+    }
+
+    @AfterEach
+    void stop() {
+        if (this.server != null) {
+            this.server.disposeNow();
+        }
+    }
+
+    @Test
+    void rejectsWithoutCallingUpstreamWhenOpen() {
+        GatewayFilter filter = this.factory.apply(config -> config.setMinimumCalls(5));
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        GatewayFilterChain failing = exchange -> {
+            upstreamCalls.incrementAndGet();
+            exchange.getResponse().setStatusCode(HttpStatus.BAD_GATEWAY);
+            return Mono.empty();
+        };
+
+        MockServerWebExchange last = null;
+        for (int i = 0; i < 10; i++) {
+            last = this.exchange(URI.create("http://localhost:8080/"));
+            filter.filter(last, failing).block();
+        }
+
+        assertThat(upstreamCalls).hasValue(5);
+        assertThat(last.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(last.getResponse().getHeaders().getFirst(CircuitBreakerHedgeGatewayFilter.STATE_HEADER)).isEqualTo("OPEN");
+        assertThat(this.meterRegistry.get("gateway.circuit-breaker.state").tag("routeId", "filter-router").gauge().value()).isEqualTo(1);
+        assertThat(this.meterRegistry.get("gateway.circuit-breaker.calls").tag("result", "rejected").counter().count()).isEqualTo(5);
+    }
+
+    /**
+     * upstream 이 바로 응답 헤더를 보내면 client 로 body 를 늦게 보내더라도 느린 호출이 아니다.
+     */
+    @Test
+    void doesNotCountSlowClientsAsSlowCalls() {
+        GatewayFilter filter = this.factory.apply(config -> {
+            config.setMinimumCalls(5);
+            config.setSlowCallDuration(Duration.ofMillis(100));
+            config.setSlowCallRateThreshold(50);
+        });
+        GatewayFilterChain slowBody = exchange -> {
+            exchange.getAttributes().put(CLIENT_RESPONSE_ATTR, new Object());
+            exchange.getResponse().setStatusCode(HttpStatus.OK);
+            return exchange.getResponse().setComplete().then(Mono.delay(Duration.ofMillis(200))).then();
+        };
+
+        for (int i = 0; i < 10; i++) {
+            filter.filter(this.exchange(URI.create("http://localhost:8080/")), slowBody).block();
+        }
+
+        assertThat(this.meterRegistry.get("gateway.circuit-breaker.state").tag("routeId", "filter-router").gauge().value()).isZero();
+        assertThat(this.meterRegistry.get("gateway.circuit-breaker.calls").tag("result", "success").counter().count()).isEqualTo(10);
+        assertThat(this.meterRegistry.get("gateway.circuit-breaker.calls").tag("result", "rejected").counter().count()).isZero();
+    }
+
+    /**
+     * 요청의 3% 가 300ms 걸리는 upstream 에서 hedge 를 사용하지 않으면 p99 는 느린 응답 시간이 되지만,
+     * p95 가 지나도 응답이 없는 요청을 한 번 더 보내면 p99 는 p95 근처로 줄어든다.
+     */
+    @Test
+    void hedgingCutsTailLatencyOfSlowUpstream() {
+        this.server = HttpServer.create()
+            .port(0)
+            .handle((request, response) -> {
+                Duration latency = ThreadLocalRandom.current().nextInt(100) < 3 ? Duration.ofMillis(300) : Duration.ofMillis(2);
+                return Mono.delay(latency).then(response.sendString(Mono.just("ok")).then());
+            })
+            .bindNow();
+        URI url = URI.create("http://localhost:" + this.server.port() + "/filter_test_2/users");
+
+        long plain = this.p99(this.factory.apply(config -> config.setHedge(false)), url);
+        long hedged = this.p99(this.factory.apply(config -> {
+            config.setHedge(true);
+            config.setHedgeDelay(Duration.ofMillis(20));
+            config.setHedgeBudget(0.2);
+        }), url);
+
+        double hedgeWins = this.meterRegistry.get("gateway.hedge.requests").tag("winner", "hedge").counter().count();
+        assertThat(plain).isGreaterThanOrEqualTo(Duration.ofMillis(300).toNanos());
+        assertThat(hedged * 3).isLessThan(plain);
+        assertThat(hedgeWins).isPositive();
+    }
+
+    /**
+     * balanced route 의 hedge 요청은 처음 선택된 느린 인스턴스가 아닌 다른 인스턴스로 보낸다.
+     */
+    @Test
+    void hedgesToAnotherInstanceOfGroup() {
+        AtomicInteger slowCalls = new AtomicInteger();
+        AtomicInteger fastCalls = new AtomicInteger();
+        DisposableServer slow = HttpServer.create()
+            .port(0)
+            .handle((request, response) -> {
+                slowCalls.incrementAndGet();
+                return Mono.delay(Duration.ofMillis(300)).then(response.sendString(Mono.just("slow")).then());
+            })
+            .bindNow();
+        this.server = HttpServer.create()
+            .port(0)
+            .handle((request, response) -> {
+                fastCalls.incrementAndGet();
+                return response.sendString(Mono.just("fast")).then();
+            })
+            .bindNow();
+        try {
+            UpstreamGroup group = new UpstreamGroup("application-1",
+                List.of(URI.create("http://localhost:" + slow.port()), URI.create("http://localhost:" + this.server.port())),
+                UpstreamGroup.Strategy.ROUND_ROBIN, Duration.ofSeconds(10));
+            UpstreamInstance primary = group.instances().get(0);
+            GatewayFilter filter = this.factory.apply(config -> {
+                config.setHedge(true);
+                config.setHedgeDelay(Duration.ofMillis(20));
+                config.setHedgeBudget(1);
+            });
+            MockServerWebExchange exchange = this.exchange(URI.create("http://localhost:" + slow.port() + "/filter_test_2/users"));
+            exchange.getAttributes().put(UpstreamSelection.ATTR, new UpstreamSelection(group, primary, 0));
+            GatewayFilterChain chain = e -> e.<Connection>getRequiredAttribute(CLIENT_RESPONSE_CONN_ATTR).inbound().receive().then();
+
+            long start = System.nanoTime();
+            filter.filter(exchange, chain).block(Duration.ofSeconds(5));
+
+            assertThat(System.nanoTime() - start).isLessThan(Duration.ofMillis(300).toNanos());
+            assertThat((URI) exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR))
+                .hasToString("http://localhost:" + this.server.port() + "/filter_test_2/users");
+            assertThat(slowCalls).hasValue(1);
+            assertThat(fastCalls).hasValue(1);
+        } finally {
+            slow.disposeNow();
+        }
+    }
+
+    private long p99(GatewayFilter filter, URI url) {
+        // hedge 한 요청은 NettyWriteResponseFilter 처럼 연결에서 body 를 읽고, 아닌 요청은 NettyRoutingFilter 처럼 직접 보낸다.
+        GatewayFilterChain chain = exchange -> {
+            if (isAlreadyRouted(exchange)) {
+                Connection connection = exchange.getRequiredAttribute(CLIENT_RESPONSE_CONN_ATTR);
+                return connection.inbound().receive().then();
+            }
+            return this.httpClient.get().uri(url).responseContent().then();
+        };
+        List<Long> latencies = Flux.range(0, REQUESTS)
+            .flatMap(i -> Mono.defer(() -> {
+                long start = System.nanoTime();
+                return filter.filter(this.exchange(url), chain).then(Mono.fromSupplier(() -> System.nanoTime() - start));
+            }), 4)
+            .sort()
+            .collectList()
+            .block(Duration.ofMinutes(1));
+        return latencies.get((int) (latencies.size() * 0.99) - 1);
+    }
+
+    private MockServerWebExchange exchange(URI url) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/filter_java/users"));
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, ROUTE);
+        exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, url);
+        return exchange;
+    }
+}
@@ -0,0 +1,90 @@
+package de.v.gom.sample.gateway.filter.breaker;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingWindowCircuitBreakerTests {
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final SlidingWindowCircuitBreaker breaker = new SlidingWindowCircuitBreaker(
+        new SlidingWindowCircuitBreaker.Settings(50, 80, SECOND, 10 * SECOND, 10, 5 * SECOND, 3));
+
+    @Test
+    void opensOnFailureRateAndClosesAfterSuccessfulTrialCalls() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(this.breaker.tryAcquire(i * MS)).isTrue();
+            this.breaker.onResult(i * MS, MS, i % 2 == 0);
+        }
+        assertThat(this.breaker.state()).isEqualTo(SlidingWindowCircuitBreaker.State.OPEN);
+        assertThat(this.breaker.tryAcquire(SECOND)).isFalse();
+
+        long halfOpen = 6 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertThat(this.breaker.tryAcquire(halfOpen)).isTrue();
+        }
+        assertThat(this.breaker.tryAcquire(halfOpen)).isFalse();
+        assertThat(this.breaker.state()).isEqualTo(SlidingWindowCircuitBreaker.State.HALF_OPEN);
+        for (int i = 0; i < 3; i++) {
+            this.breaker.onResult(halfOpen, MS, false);
+        }
+
+        assertThat(this.breaker.state()).isEqualTo(SlidingWindowCircuitBreaker.State.CLOSED);
+        assertThat(this.breaker.tryAcquire(halfOpen)).isTrue();
+    }
+
+    @Test
+    void reopensWhenTrialCallsFail() {
+        for (int i = 0; i < 10; i++) {
+            this.breaker.onResult(i * MS, MS, true);
+        }
+        long halfOpen = 6 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertThat(this.breaker.tryAcquire(halfOpen)).isTrue();
+        }
+        this.breaker.onResult(halfOpen, MS, false);
+        this.breaker.onResult(halfOpen, MS, true);
+        this.breaker.onResult(halfOpen, MS, true);
+
+        assertThat(this.breaker.state()).isEqualTo(SlidingWindowCircuitBreaker.State.OPEN);
+        assertThat(this.breaker.tryAcquire(halfOpen + SECOND)).isFalse();
+    }
+
+    @Test
+    void opensOnSlowCallRate() {
+        for (int i = 0; i < 10; i++) {
+            this.breaker.onResult(i * MS, i < 8 ? 2 * SECOND : MS, false);
+        }
+
+        assertThat(this.breaker.state()).isEqualTo(SlidingWindowCircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void forgetsResultsOutsideWindow() {
+        for (int i = 0; i < 9; i++) {
+            this.breaker.onResult(i * MS, MS, true);
+        }
+        for (int i = 0; i < 10; i++) {
+            this.breaker.onResult(11 * SECOND + i * MS, MS, i == 0);
+        }
+
+        assertThat(this.breaker.state()).isEqualTo(SlidingWindowCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void releasesTrialPermitOfCancelledCall() {
+        for (int i = 0; i < 10; i++) {
+            this.breaker.onResult(i * MS, MS, true);
+        }
+        long halfOpen = 6 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            this.breaker.tryAcquire(halfOpen);
+        }
+        this.breaker.release();
+
+        assertThat(this.breaker.tryAcquire(halfOpen)).isTrue();
+    }
+}
@@ -0,0 +1,141 @@
+package de.v.gom.sample.gateway.filter.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheGatewayFilterTests {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ResponseCacheStore store = new ResponseCacheStore(1_000, 1024 * 1024, 64 * 1024, this.meterRegistry);
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    @Test
+    void servesRepeatedGetFromCache() {
+        ResponseCacheGatewayFilter filter = new ResponseCacheGatewayFilter(this.store, Duration.ofMinutes(1), Duration.ZERO);
+
+        MockServerWebExchange first = this.run(filter, MockServerHttpRequest.get("/v1/application/a"), this.upstream(null));
+        MockServerWebExchange second = this.run(filter, MockServerHttpRequest.get("/v1/application/a"), this.upstream(null));
+
+        assertThat(this.upstreamCalls).hasValue(1);
+        assertThat(first.getResponse().getHeaders().getFirst(ResponseCacheGatewayFilter.CACHE_HEADER)).isEqualTo("MISS");
+        assertThat(second.getResponse().getHeaders().getFirst(ResponseCacheGatewayFilter.CACHE_HEADER)).isEqualTo("HIT");
+        assertThat(second.getResponse().getBodyAsString().block()).isEqualTo("application: /v1/application/a");
+        assertThat(this.meterRegistry.get("gateway.response-cache.requests").tag("result", "hit").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void keysVariantsByVaryHeaders() {
+        ResponseCacheGatewayFilter filter = new ResponseCacheGatewayFilter(this.store, Duration.ofMinutes(1), Duration.ZERO);
+        GatewayFilterChain upstream = this.upstream(headers -> headers.setVary(List.of(HttpHeaders.ACCEPT_LANGUAGE)));
+
+        this.run(filter, MockServerHttpRequest.get("/a").header(HttpHeaders.ACCEPT_LANGUAGE, "ko"), upstream);
+        this.run(filter, MockServerHttpRequest.get("/a").header(HttpHeaders.ACCEPT_LANGUAGE, "en"), upstream);
+        this.run(filter, MockServerHttpRequest.get("/a").header(HttpHeaders.ACCEPT_LANGUAGE, "ko"), upstream);
+
+        assertThat(this.upstreamCalls).hasValue(2);
+    }
+
+    @Test
+    void respectsCacheControl() {
+        ResponseCacheGatewayFilter filter = new ResponseCacheGatewayFilter(this.store, Duration.ofMinutes(1), Duration.ZERO);
+        GatewayFilterChain noStore = this.upstream(headers -> headers.setCacheControl("no-store"));
+
+        this.run(filter, MockServerHttpRequest.get("/a"), noStore);
+        this.run(filter, MockServerHttpRequest.get("/a"), noStore);
+        this.run(filter, MockServerHttpRequest.get("/b").header(HttpHeaders.CACHE_CONTROL, "no-store"), this.upstream(null));
+        this.run(filter, MockServerHttpRequest.get("/b"), this.upstream(null));
+
+        assertThat(this.upstreamCalls).hasValue(4);
+    }
+
+    @Test
+    void bypassesRequestsWithCredentials() {
+        ResponseCacheGatewayFilter filter = new ResponseCacheGatewayFilter(this.store, Duration.ofMinutes(1), Duration.ZERO);
+        GatewayFilterChain upstream = exchange -> {
+            this.upstreamCalls.incrementAndGet();
+            String session = exchange.getRequest().getHeaders().getFirst(HttpHeaders.COOKIE);
+            return write(exchange, headers -> headers.set("X-Session", session));
+        };
+
+        this.run(filter, MockServerHttpRequest.get("/a").header(HttpHeaders.COOKIE, "SESSION=alice"), upstream);
+        MockServerWebExchange bob = this.run(filter, MockServerHttpRequest.get("/a").header(HttpHeaders.COOKIE, "SESSION=bob"), upstream);
+        this.run(filter, MockServerHttpRequest.get("/a").header(HttpHeaders.AUTHORIZATION, "Bearer alice"), upstream);
+
+        assertThat(this.upstreamCalls).hasValue(3);
+        assertThat(bob.getResponse().getHeaders().getFirst("X-Session")).isEqualTo("SESSION=bob");
+        assertThat(bob.getResponse().getHeaders().getFirst(ResponseCacheGatewayFilter.CACHE_HEADER)).isNull();
+        assertThat(this.meterRegistry.get("gateway.response-cache.requests").tag("result", "bypass").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void revalidatesOnceWhileServingStale() throws InterruptedException {
+        ResponseCacheGatewayFilter filter = new ResponseCacheGatewayFilter(this.store, Duration.ofMillis(1), Duration.ofMinutes(1));
+        this.run(filter, MockServerHttpRequest.get("/a"), this.upstream(null));
+        Thread.sleep(10);
+
+        Sinks.Empty<Void> pending = Sinks.empty();
+        MockServerWebExchange revalidating = MockServerWebExchange.from(MockServerHttpRequest.get("/a"));
+        filter.filter(revalidating, exchange -> {
+            this.upstreamCalls.incrementAndGet();
+            return pending.asMono().then(Mono.defer(() -> write(exchange, null)));
+        }).subscribe();
+        MockServerWebExchange stale = this.run(filter, MockServerHttpRequest.get("/a"), this.upstream(null));
+
+        assertThat(this.upstreamCalls).hasValue(2);
+        assertThat(stale.getResponse().getHeaders().getFirst(ResponseCacheGatewayFilter.CACHE_HEADER)).isEqualTo("STALE");
+        pending.tryEmitEmpty();
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntriesByWeight() {
+        ResponseCacheStore small = new ResponseCacheStore(1_000, 16 * 1024, 64 * 1024, this.meterRegistry);
+        byte[] body = new byte[400];
+        for (int i = 0; i < 100; i++) {
+            small.put("key-" + i, HttpHeaders.EMPTY, List.of(),
+                new CachedResponse(HttpStatus.OK, new HttpHeaders(), body, System.nanoTime(), Duration.ofMinutes(1).toNanos(), 0));
+        }
+
+        assertThat(this.meterRegistry.get("gateway.response-cache.weight").gauge().value()).isLessThanOrEqualTo(16 * 1024);
+        assertThat(this.meterRegistry.get("gateway.response-cache.evictions").counter().count()).isPositive();
+        assertThat(small.get("key-99", System.nanoTime())).isNotNull();
+    }
+
+    private MockServerWebExchange run(ResponseCacheGatewayFilter filter, MockServerHttpRequest.BaseBuilder<?> request,
+                                      GatewayFilterChain chain) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        filter.filter(exchange, chain).block();
+        return exchange;
+    }
+
+    private GatewayFilterChain upstream(Consumer<HttpHeaders> headers) {
+        return exchange -> {
+            this.upstreamCalls.incrementAndGet();
+            return write(exchange, headers);
+        };
+    }
+
+    private static Mono<Void> write(ServerWebExchange exchange, Consumer<HttpHeaders> headers) {
+        byte[] body = ("application: " + exchange.getRequest().getURI().getPath()).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponse().setStatusCode(HttpStatus.OK);
+        exchange.getResponse().getHeaders().setContentLength(body.length);
+        if (headers != null) {
+            headers.accept(exchange.getResponse().getHeaders());
+        }
+        return exchange.getResponse().writeWith(Mono.just(exchange.getResponse().bufferFactory().wrap(body)));
+    }
+}
@@ -0,0 +1,163 @@
+package de.v.gom.sample.gateway.filter.coalesce;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestCoalescingGatewayFilterTests {
+    private static final int BURST = 100;
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private final Sinks.Empty<Void> upstreamLatency = Sinks.empty();
+
+    @Test
+    void collapsesBurstIntoSingleUpstreamCall() {
+        RequestCoalescingGatewayFilter filter = filter(Duration.ofSeconds(5));
+        List<MockServerWebExchange> exchanges = new ArrayList<>();
+        List<Mono<Void>> requests = new ArrayList<>();
+        for (int i = 0; i < BURST; i++) {
+            MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/router/users?page=1"));
+            exchanges.add(exchange);
+            requests.add(filter.filter(exchange, this.slowUpstream()));
+        }
+
+        Mono<Void> burst = Mono.when(requests).cache();
+        burst.subscribe();
+        this.upstreamLatency.tryEmitEmpty();
+        burst.block(Duration.ofSeconds(5));
+
+        assertThat(this.upstreamCalls).hasValue(1);
+        assertThat(filter.inFlight()).isZero();
+        for (MockServerWebExchange exchange : exchanges) {
+            assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("users?page=1");
+        }
+    }
+
+    @Test
+    void keepsDifferentRequestsApart() {
+        RequestCoalescingGatewayFilter filter = filter(Duration.ofSeconds(5));
+        Mono<Void> requests = Mono.when(
+            filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/router/a")), this.slowUpstream()),
+            filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/router/b")), this.slowUpstream()),
+            filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/router/a").header("Accept", "text/plain")), this.slowUpstream()),
+            filter.filter(MockServerWebExchange.from(MockServerHttpRequest.post("/router/a")), this.slowUpstream())
+        ).cache();
+        requests.subscribe();
+        this.upstreamLatency.tryEmitEmpty();
+        requests.block(Duration.ofSeconds(5));
+
+        assertThat(this.upstreamCalls).hasValue(4);
+    }
+
+    @Test
+    void neverSharesResponsesAcrossCredentials() {
+        RequestCoalescingGatewayFilter filter = filter(Duration.ofSeconds(5));
+        MockServerWebExchange alice = MockServerWebExchange.from(MockServerHttpRequest.get("/router/me").header("Authorization", "Bearer alice"));
+        MockServerWebExchange bob = MockServerWebExchange.from(MockServerHttpRequest.get("/router/me").header("Authorization", "Bearer bob"));
+        MockServerWebExchange aliceAgain = MockServerWebExchange.from(MockServerHttpRequest.get("/router/me").header("Authorization", "Bearer alice"));
+        MockServerWebExchange cookie = MockServerWebExchange.from(MockServerHttpRequest.get("/router/me").header("Cookie", "SESSION=carol"));
+        Mono<Void> requests = Mono.when(
+            filter.filter(alice, this.slowUpstream()),
+            filter.filter(bob, this.slowUpstream()),
+            filter.filter(aliceAgain, this.slowUpstream()),
+            filter.filter(cookie, this.slowUpstream())
+        ).cache();
+        requests.subscribe();
+        assertThat(filter.inFlight()).isZero();
+        this.upstreamLatency.tryEmitEmpty();
+        requests.block(Duration.ofSeconds(5));
+
+        assertThat(this.upstreamCalls).hasValue(4);
+        for (MockServerWebExchange exchange : List.of(alice, bob, aliceAgain, cookie)) {
+            assertThat(exchange.getResponse().getHeaders().containsKey(RequestCoalescingGatewayFilter.COALESCED_HEADER)).isFalse();
+        }
+    }
+
+    @Test
+    void coalescesSameCredentialsWhenTheyArePartOfTheKey() {
+        RequestCoalescingGatewayFilter filter = new RequestCoalescingGatewayFilter(List.of("Authorization"), Duration.ofSeconds(5),
+            Math.toIntExact(DataSize.ofKilobytes(64).toBytes()));
+        MockServerWebExchange alice = MockServerWebExchange.from(MockServerHttpRequest.get("/router/me").header("Authorization", "Bearer alice"));
+        MockServerWebExchange aliceAgain = MockServerWebExchange.from(MockServerHttpRequest.get("/router/me").header("Authorization", "Bearer alice"));
+        MockServerWebExchange bob = MockServerWebExchange.from(MockServerHttpRequest.get("/router/me").header("Authorization", "Bearer bob"));
+        Mono<Void> requests = Mono.when(
+            filter.filter(alice, this.slowUpstream()),
+            filter.filter(aliceAgain, this.slowUpstream()),
+            filter.filter(bob, this.slowUpstream())
+        ).cache();
+        requests.subscribe();
+        this.upstreamLatency.tryEmitEmpty();
+        requests.block(Duration.ofSeconds(5));
+
+        assertThat(this.upstreamCalls).hasValue(2);
+        assertThat(aliceAgain.getResponse().getHeaders().getFirst(RequestCoalescingGatewayFilter.COALESCED_HEADER)).isEqualTo("true");
+        assertThat(bob.getResponse().getHeaders().containsKey(RequestCoalescingGatewayFilter.COALESCED_HEADER)).isFalse();
+    }
+
+    @Test
+    void electsNewLeaderWhenLeaderDisconnects() {
+        RequestCoalescingGatewayFilter filter = filter(Duration.ofSeconds(5));
+        Disposable leader = filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/router/a")), this.slowUpstream()).subscribe();
+        MockServerWebExchange follower = MockServerWebExchange.from(MockServerHttpRequest.get("/router/a"));
+        MockServerWebExchange disconnected = MockServerWebExchange.from(MockServerHttpRequest.get("/router/a"));
+        Mono<Void> waiting = filter.filter(follower, this.slowUpstream()).cache();
+        waiting.subscribe();
+        filter.filter(disconnected, this.slowUpstream()).subscribe().dispose();
+
+        leader.dispose();
+        this.upstreamLatency.tryEmitEmpty();
+        waiting.block(Duration.ofSeconds(5));
+
+        assertThat(this.upstreamCalls).hasValue(2);
+        assertThat(follower.getResponse().getBodyAsString().block()).isEqualTo("a");
+        assertThat(filter.inFlight()).isZero();
+    }
+
+    @Test
+    void callsUpstreamDirectlyAfterMaxWait() {
+        RequestCoalescingGatewayFilter filter = filter(Duration.ofMillis(50));
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/router/a")), this.slowUpstream()).subscribe();
+
+        MockServerWebExchange follower = MockServerWebExchange.from(MockServerHttpRequest.get("/router/a"));
+        filter.filter(follower, this::write).block(Duration.ofSeconds(5));
+
+        assertThat(this.upstreamCalls).hasValue(1);
+        assertThat(follower.getResponse().getBodyAsString().block()).isEqualTo("a");
+    }
+
+    private static RequestCoalescingGatewayFilter filter(Duration maxWait) {
+        return new RequestCoalescingGatewayFilter(List.of("Accept"), maxWait, Math.toIntExact(DataSize.ofKilobytes(64).toBytes()));
+    }
+
+    private GatewayFilterChain slowUpstream() {
+        return exchange -> {
+            this.upstreamCalls.incrementAndGet();
+            return this.upstreamLatency.asMono().then(Mono.defer(() -> this.write(exchange)));
+        };
+    }
+
+    private Mono<Void> write(ServerWebExchange exchange) {
+        String query = exchange.getRequest().getURI().getRawQuery();
+        String path = exchange.getRequest().getURI().getPath().substring("/router/".length());
+        byte[] body = (query != null ? path + "?" + query : path).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponse().setStatusCode(HttpStatus.OK);
+        exchange.getResponse().getHeaders().setContentLength(body.length);
+        return exchange.getResponse().writeWith(Mono.just(exchange.getResponse().bufferFactory().wrap(body)));
+    }
+}
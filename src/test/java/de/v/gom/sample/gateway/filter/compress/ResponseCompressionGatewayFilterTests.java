@@ -0,0 +1,164 @@
+package de.v.gom.sample.gateway.filter.compress;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCompressionGatewayFilterTests {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DeflaterPool pool = new DeflaterPool(6, 4, 1024, this.meterRegistry);
+    private final ResponseCompressionGatewayFilter filter = new ResponseCompressionGatewayFilter(this.pool,
+        new RouteCompressions(0.9, this.meterRegistry), DataSize.ofKilobytes(1), ResponseCompressionGatewayFilter.DEFAULT_MEDIA_TYPES);
+
+    @Test
+    void gzipsChunkedResponse() throws IOException {
+        byte[] body = json(64 * 1024);
+
+        MockServerWebExchange exchange = this.run("gzip, deflate", body, headers -> headers.setContentType(MediaType.APPLICATION_JSON));
+
+        HttpHeaders headers = exchange.getResponse().getHeaders();
+        assertThat(headers.getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(headers.getVary()).contains(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(headers.containsKey(HttpHeaders.CONTENT_LENGTH)).isFalse();
+        byte[] compressed = body(exchange);
+        assertThat(compressed.length).isLessThan(body.length / 4);
+        assertThat(new GZIPInputStream(new ByteArrayInputStream(compressed)).readAllBytes()).isEqualTo(body);
+        assertThat(this.pool.idle(ContentEncoding.GZIP)).isEqualTo(1);
+    }
+
+    @Test
+    void deflatesWhenGzipIsNotAcceptable() throws IOException {
+        byte[] body = json(4 * 1024);
+
+        MockServerWebExchange exchange = this.run("gzip;q=0, deflate", body, headers -> {
+            headers.setContentType(MediaType.TEXT_HTML);
+            headers.setContentLength(body.length);
+            headers.setETag("\"v1\"");
+        });
+
+        HttpHeaders headers = exchange.getResponse().getHeaders();
+        assertThat(headers.getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("deflate");
+        assertThat(headers.getETag()).isEqualTo("W/\"v1\"");
+        assertThat(headers.containsKey(HttpHeaders.CONTENT_LENGTH)).isFalse();
+        assertThat(new InflaterInputStream(new ByteArrayInputStream(body(exchange))).readAllBytes()).isEqualTo(body);
+    }
+
+    @Test
+    void passesThroughSmallResponse() {
+        byte[] body = json(512);
+
+        MockServerWebExchange exchange = this.run("gzip", body, headers -> headers.setContentType(MediaType.APPLICATION_JSON));
+
+        HttpHeaders headers = exchange.getResponse().getHeaders();
+        assertThat(headers.containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+        assertThat(headers.getContentLength()).isEqualTo(body.length);
+        assertThat(body(exchange)).isEqualTo(body);
+        assertThat(this.meterRegistry.get("gateway.compression.responses").tag("result", "too-small").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void passesThroughUnsupportedResponse() {
+        byte[] body = json(4 * 1024);
+
+        List<Consumer<HttpHeaders>> responses = List.of(
+            headers -> headers.setContentType(MediaType.IMAGE_PNG),
+            headers -> {
+                headers.setContentType(MediaType.APPLICATION_JSON);
+                headers.set(HttpHeaders.CONTENT_ENCODING, "br");
+            },
+            headers -> {
+                headers.setContentType(MediaType.APPLICATION_JSON);
+                headers.setCacheControl("no-transform");
+            });
+
+        for (Consumer<HttpHeaders> response : responses) {
+            MockServerWebExchange exchange = this.run("gzip", body, response);
+            assertThat(exchange.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNotEqualTo("gzip");
+            assertThat(body(exchange)).isEqualTo(body);
+        }
+        MockServerWebExchange identity = this.run(null, body, headers -> headers.setContentType(MediaType.APPLICATION_JSON));
+        assertThat(body(identity)).isEqualTo(body);
+    }
+
+    @Test
+    void bypassesRouteWithPoorRatio() {
+        byte[] random = new byte[4 * 1024];
+        new Random(1).nextBytes(random);
+
+        for (int i = 0; i < 40; i++) {
+            this.run("gzip", random, headers -> headers.setContentType(MediaType.APPLICATION_JSON));
+        }
+
+        assertThat(this.meterRegistry.get("gateway.compression.responses").tag("result", "bypassed").counter().count()).isPositive();
+        assertThat(this.meterRegistry.get("gateway.compression.ratio").summary().mean()).isGreaterThan(0.9);
+    }
+
+    @Test
+    void negotiatesEncoding() {
+        assertThat(ContentEncoding.negotiate(List.of("gzip, deflate, br"))).isEqualTo(ContentEncoding.GZIP);
+        assertThat(ContentEncoding.negotiate(List.of("deflate;q=1, gzip;q=0.5"))).isEqualTo(ContentEncoding.DEFLATE);
+        assertThat(ContentEncoding.negotiate(List.of("*;q=0.1"))).isEqualTo(ContentEncoding.GZIP);
+        assertThat(ContentEncoding.negotiate(List.of("*, gzip;q=0"))).isEqualTo(ContentEncoding.DEFLATE);
+        assertThat(ContentEncoding.negotiate(List.of("br", "identity"))).isNull();
+        assertThat(ContentEncoding.negotiate(List.of("gzip;q=0"))).isNull();
+    }
+
+    private MockServerWebExchange run(String acceptEncoding, byte[] body, Consumer<HttpHeaders> headers) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/router");
+        if (acceptEncoding != null) {
+            request.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        this.filter.filter(exchange, upstream(body, headers)).block();
+        return exchange;
+    }
+
+    /**
+     * NettyWriteResponseFilter 와 같이 헤더를 설정한 뒤 body 를 1000 byte 단위의 DataBuffer 로 나누어 쓴다.
+     */
+    private static GatewayFilterChain upstream(byte[] body, Consumer<HttpHeaders> headers) {
+        return exchange -> {
+            headers.accept(exchange.getResponse().getHeaders());
+            Flux<DataBuffer> buffers = Flux.range(0, (body.length + 999) / 1000)
+                .map(i -> exchange.getResponse().bufferFactory()
+                    .wrap(Arrays.copyOfRange(body, i * 1000, Math.min(body.length, (i + 1) * 1000))));
+            return exchange.getResponse().writeWith(buffers);
+        };
+    }
+
+    private static byte[] body(MockServerWebExchange exchange) {
+        DataBuffer joined = DataBufferUtils.join(exchange.getResponse().getBody()).block();
+        byte[] bytes = new byte[joined.readableByteCount()];
+        joined.read(bytes);
+        DataBufferUtils.release(joined);
+        return bytes;
+    }
+
+    private static byte[] json(int size) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; json.length() < size - 1; i++) {
+            json.append(i > 0 ? "," : "").append("{\"id\":").append(i).append(",\"name\":\"user-").append(i).append("\"}");
+        }
+        return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,122 @@
+package de.v.gom.sample.gateway.filter.header;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AddRequestHeaderGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.factory.AddResponseHeaderGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.factory.RemoveRequestHeaderGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.factory.RemoveResponseHeaderGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.factory.SetRequestHeaderGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.factory.SetResponseHeaderGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.URI_TEMPLATE_VARIABLES_ATTRIBUTE;
+
+class HeaderMutationGatewayFilterTests {
+    private final HeaderMutationGatewayFilterFactory factory = new HeaderMutationGatewayFilterFactory();
+
+    @Test
+    void appliesRequestHeadersLikeSeparateFilters() {
+        AddRequestHeaderGatewayFilterFactory add = new AddRequestHeaderGatewayFilterFactory();
+        SetRequestHeaderGatewayFilterFactory set = new SetRequestHeaderGatewayFilterFactory();
+        RemoveRequestHeaderGatewayFilterFactory remove = new RemoveRequestHeaderGatewayFilterFactory();
+        List<GatewayFilter> separate = List.of(
+            add.apply(config -> config.setName("X-Test").setValue("a")),
+            add.apply(config -> config.setName("X-Test").setValue("b")),
+            set.apply(config -> config.setName("X-Tenant").setValue("{segment}")),
+            remove.apply(config -> config.setName("Cookie")),
+            add.apply(config -> config.setName("Cookie").setValue("fresh")));
+        GatewayFilter fused = this.factory.apply(config -> config
+            .addRequestHeader("X-Test", "a")
+            .addRequestHeader("X-Test", "b")
+            .setRequestHeader("X-Tenant", "{segment}")
+            .removeRequestHeader("Cookie")
+            .addRequestHeader("Cookie", "fresh"));
+
+        HttpHeaders expected = run(separate).getRequest().getHeaders();
+        HttpHeaders actual = run(List.of(fused)).getRequest().getHeaders();
+
+        assertThat(actual).isEqualTo(expected);
+        assertThat(actual.get("X-Test")).containsExactly("existing", "a", "b");
+        assertThat(actual.getFirst("X-Tenant")).isEqualTo("users");
+        assertThat(actual.get("Cookie")).containsExactly("fresh");
+    }
+
+    @Test
+    void appliesResponseHeadersAfterUpstream() {
+        AddResponseHeaderGatewayFilterFactory add = new AddResponseHeaderGatewayFilterFactory();
+        SetResponseHeaderGatewayFilterFactory set = new SetResponseHeaderGatewayFilterFactory();
+        RemoveResponseHeaderGatewayFilterFactory remove = new RemoveResponseHeaderGatewayFilterFactory();
+        List<GatewayFilter> separate = List.of(
+            add.apply(config -> config.setName("X-Response").setValue("{segment}")),
+            add.apply(config -> config.setName("X-Response").setValue("second")),
+            set.apply(config -> config.setName("Cache-Control").setValue("no-store")),
+            remove.apply(config -> config.setName("Server")));
+        GatewayFilter fused = this.factory.apply(config -> config
+            .addResponseHeader("X-Response", "{segment}")
+            .addResponseHeader("X-Response", "second")
+            .setResponseHeader("Cache-Control", "no-store")
+            .removeResponseHeader("Server"));
+
+        HttpHeaders expected = run(separate).getResponse().getHeaders();
+        HttpHeaders headers = run(List.of(fused)).getResponse().getHeaders();
+
+        assertThat(headers).isEqualTo(expected);
+        assertThat(headers.containsKey("Server")).isFalse();
+        assertThat(headers.get("X-Response")).containsExactlyInAnyOrder("users", "second");
+        assertThat(headers.getCacheControl()).isEqualTo("no-store");
+    }
+
+    @Test
+    void doesNotMutateWithoutRequestHeaders() {
+        GatewayFilter fused = this.factory.apply(config -> config.addResponseHeader("X-Response", "test"));
+        MockServerWebExchange exchange = exchange();
+        AtomicReference<ServerWebExchange> received = new AtomicReference<>();
+
+        fused.filter(exchange, upstream(received)).block();
+
+        assertThat(received.get()).isSameAs(exchange);
+        assertThat(exchange.getResponse().getHeaders().getFirst("X-Response")).isEqualTo("test");
+    }
+
+    private static ServerWebExchange run(List<GatewayFilter> filters) {
+        AtomicReference<ServerWebExchange> received = new AtomicReference<>();
+        chain(filters, 0, upstream(received)).filter(exchange()).block();
+        return received.get();
+    }
+
+    private static GatewayFilterChain chain(List<GatewayFilter> filters, int index, GatewayFilterChain upstream) {
+        if (index == filters.size()) {
+            return upstream;
+        }
+        return exchange -> filters.get(index).filter(exchange, chain(filters, index + 1, upstream));
+    }
+
+    // upstream 응답 헤더를 설정하고 필터를 거친 exchange 를 기록한다.
+    private static GatewayFilterChain upstream(AtomicReference<ServerWebExchange> received) {
+        return exchange -> {
+            received.set(exchange);
+            exchange.getResponse().getHeaders().set("Server", "application-1");
+            exchange.getResponse().getHeaders().setCacheControl("max-age=60");
+            return Mono.empty();
+        };
+    }
+
+    private static MockServerWebExchange exchange() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/filter_java/users")
+            .header("X-Test", "existing")
+            .header("Cookie", "SESSION=1"));
+        exchange.getAttributes().put(URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("segment", "users"));
+        return exchange;
+    }
+}
@@ -0,0 +1,188 @@
+package de.v.gom.sample.gateway.loadbalancer;
+
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClientResponse;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ORIGINAL_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+
+class UpstreamGroupTests {
+    private static final Duration BODY_DURATION = Duration.ofMillis(300);
+    private static final Duration SLOW_RESPONSE = Duration.ofMillis(200);
+
+    @Test
+    void rewritesRequestUrlToChosenInstance() {
+        UpstreamGroup group = new UpstreamGroup("application-1", List.of(URI.create("http://localhost:8080")),
+            UpstreamGroup.Strategy.P2C_EWMA, Duration.ofSeconds(10));
+        LoadBalancerFilter filter = new LoadBalancerFilter(Map.of("application-1", group), Duration.ofSeconds(1).toNanos());
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/filter_java/users"));
+        exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, URI.create("balanced://application-1/filter_test_2/users?page=1"));
+        GatewayFilterChain chain = e -> {
+            assertThat(group.instances().get(0).inFlight()).isEqualTo(1);
+            return Mono.empty();
+        };
+
+        filter.filter(exchange, chain).block();
+
+        assertThat((URI) exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR)).hasToString("http://localhost:8080/filter_test_2/users?page=1");
+        assertThat(exchange.getAttributes()).containsKey(GATEWAY_ORIGINAL_REQUEST_URL_ATTR);
+        assertThat(group.instances().get(0).inFlight()).isZero();
+    }
+
+    @Test
+    void choosesAnotherInstanceForEachStrategy() {
+        List<URI> uris = List.of(URI.create("http://localhost:8081"), URI.create("http://localhost:8082"), URI.create("http://localhost:8083"));
+        for (UpstreamGroup.Strategy strategy : UpstreamGroup.Strategy.values()) {
+            UpstreamGroup group = new UpstreamGroup("application-1", uris, strategy, Duration.ofSeconds(10));
+            UpstreamInstance excluded = group.instances().get(1);
+            for (int i = 0; i < 100; i++) {
+                assertThat(group.chooseOther(excluded)).isNotSameAs(excluded).isNotNull();
+            }
+        }
+        UpstreamGroup single = new UpstreamGroup("application-1", uris.subList(0, 1), UpstreamGroup.Strategy.P2C_EWMA, Duration.ofSeconds(10));
+        assertThat(single.chooseOther(single.instances().get(0))).isNull();
+    }
+
+    @Test
+    void sendsToAnotherInstanceOfSelection() {
+        UpstreamGroup group = new UpstreamGroup("application-1",
+            List.of(URI.create("http://localhost:8081"), URI.create("http://localhost:8082")),
+            UpstreamGroup.Strategy.P2C_EWMA, Duration.ofSeconds(10));
+        UpstreamInstance first = group.instances().get(0);
+        UpstreamInstance other = group.instances().get(1);
+        UpstreamSelection selection = new UpstreamSelection(group, first, 0);
+
+        URI sent = selection.other(URI.create("http://localhost:8081/filter_test_2/users?page=1"), url -> {
+            assertThat(other.inFlight()).isEqualTo(1);
+            return Mono.just(url);
+        }).block();
+
+        assertThat(sent).hasToString("http://localhost:8082/filter_test_2/users?page=1");
+        assertThat(other.inFlight()).isZero();
+        assertThat(first.inFlight()).isZero();
+    }
+
+    @Test
+    void recordsLatencyUntilUpstreamResponseHeaders() {
+        UpstreamGroup group = new UpstreamGroup("application-1", List.of(URI.create("http://localhost:8080")),
+            UpstreamGroup.Strategy.P2C_EWMA, Duration.ofSeconds(10));
+        UpstreamInstance instance = group.instances().get(0);
+        LoadBalancerFilter filter = new LoadBalancerFilter(Map.of("application-1", group), Duration.ofSeconds(1).toNanos());
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/filter_java/users"));
+        exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, URI.create("balanced://application-1/users"));
+        // upstream 응답 헤더를 받아 응답을 commit 한 뒤 느린 body 를 전달한다.
+        GatewayFilterChain chain = e -> {
+            e.getAttributes().put(CLIENT_RESPONSE_ATTR, new Object());
+            return e.getResponse().setComplete().then(Mono.delay(BODY_DURATION)).then();
+        };
+
+        filter.filter(exchange, chain).block();
+
+        assertThat(instance.inFlight()).isZero();
+        assertThat(instance.cost(System.nanoTime())).isLessThan(BODY_DURATION.toNanos() / 2);
+    }
+
+    @Test
+    void recordsErrorPenaltyWithoutUpstreamResponse() {
+        UpstreamGroup group = new UpstreamGroup("application-1", List.of(URI.create("http://localhost:8080")),
+            UpstreamGroup.Strategy.P2C_EWMA, Duration.ofSeconds(10));
+        UpstreamInstance instance = group.instances().get(0);
+        LoadBalancerFilter filter = new LoadBalancerFilter(Map.of("application-1", group), Duration.ofSeconds(1).toNanos());
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/filter_java/users"));
+        exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, URI.create("balanced://application-1/users"));
+
+        Mono<Void> filtered = filter.filter(exchange, e -> Mono.error(new IllegalStateException("connection refused")));
+
+        assertThatThrownBy(filtered::block).isInstanceOf(IllegalStateException.class);
+        assertThat(instance.inFlight()).isZero();
+        assertThat(instance.cost(System.nanoTime())).isGreaterThan(Duration.ofMillis(500).toNanos());
+    }
+
+    @Test
+    void leastOutstandingAvoidsBusyInstance() {
+        UpstreamGroup group = new UpstreamGroup("test", List.of(URI.create("http://a"), URI.create("http://b")),
+            UpstreamGroup.Strategy.LEAST_OUTSTANDING, Duration.ofSeconds(10));
+        UpstreamInstance busy = group.choose();
+        busy.started();
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(group.choose()).isNotSameAs(busy);
+        }
+    }
+
+    @Test
+    void recordsErrorPenaltyForServerErrors() {
+        UpstreamGroup group = new UpstreamGroup("application-1", List.of(URI.create("http://localhost:8080")),
+            UpstreamGroup.Strategy.P2C_EWMA, Duration.ofSeconds(10));
+        UpstreamInstance instance = group.instances().get(0);
+        LoadBalancerFilter filter = new LoadBalancerFilter(Map.of("application-1", group), Duration.ofSeconds(1).toNanos());
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/filter_java/users"));
+        exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, URI.create("balanced://application-1/users"));
+        HttpClientResponse unavailable = mock(HttpClientResponse.class);
+        when(unavailable.status()).thenReturn(HttpResponseStatus.SERVICE_UNAVAILABLE);
+        GatewayFilterChain chain = e -> {
+            e.getAttributes().put(CLIENT_RESPONSE_ATTR, unavailable);
+            e.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            return e.getResponse().setComplete();
+        };
+
+        filter.filter(exchange, chain).block();
+
+        assertThat(instance.cost(System.nanoTime())).isGreaterThan(Duration.ofMillis(500).toNanos());
+    }
+
+    /**
+     * 응답이 느린 인스턴스가 하나 섞여 있을 때 round-robin 은 요청의 1/3 을 느린 인스턴스로 보내지만,
+     * power-of-two-choices + EWMA 는 느린 인스턴스의 첫 응답 이후로는 느린 인스턴스를 선택하지 않는다.
+     */
+    @Test
+    void powerOfTwoChoicesAvoidsSlowInstance() {
+        List<URI> uris = List.of(URI.create("http://fast-1"), URI.create("http://fast-2"), URI.create("http://slow"));
+
+        Map<String, Integer> roundRobin = this.choices(new UpstreamGroup("rr", uris, UpstreamGroup.Strategy.ROUND_ROBIN, Duration.ofSeconds(10)), 9);
+        Map<String, Integer> powerOfTwo = this.choices(new UpstreamGroup("p2c", uris, UpstreamGroup.Strategy.P2C_EWMA, Duration.ofSeconds(10)), 30);
+
+        assertThat(roundRobin).containsEntry("slow", 3);
+        assertThat(powerOfTwo.getOrDefault("slow", 0)).isLessThanOrEqualTo(1);
+    }
+
+    /**
+     * LoadBalancerFilter 로 요청을 하나씩 보내고 인스턴스 별 선택 횟수를 센다. slow 인스턴스만 SLOW_RESPONSE 뒤에 응답 헤더를 받는다.
+     */
+    private Map<String, Integer> choices(UpstreamGroup group, int requests) {
+        LoadBalancerFilter filter = new LoadBalancerFilter(Map.of(group.name(), group), Duration.ofSeconds(1).toNanos());
+        Map<String, Integer> choices = new HashMap<>();
+        GatewayFilterChain chain = exchange -> {
+            URI url = exchange.getRequiredAttribute(GATEWAY_REQUEST_URL_ATTR);
+            choices.merge(url.getHost(), 1, Integer::sum);
+            Mono<Void> response = Mono.defer(() -> {
+                exchange.getAttributes().put(CLIENT_RESPONSE_ATTR, new Object());
+                return exchange.getResponse().setComplete();
+            });
+            return "slow".equals(url.getHost()) ? Mono.delay(SLOW_RESPONSE).then(response) : response;
+        };
+        for (int i = 0; i < requests; i++) {
+            MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/hello"));
+            exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, URI.create("balanced://" + group.name() + "/hello"));
+            filter.filter(exchange, chain).block();
+        }
+        return choices;
+    }
+}
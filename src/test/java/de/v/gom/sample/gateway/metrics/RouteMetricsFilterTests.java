@@ -0,0 +1,119 @@
+package de.v.gom.sample.gateway.metrics;
+
+import de.v.gom.sample.gateway.router.table.DynamicRouteTable;
+import de.v.gom.sample.gateway.router.table.DynamicRoutesChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.event.RefreshRoutesResultEvent;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+class RouteMetricsFilterTests {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicReference<List<Route>> routes = new AtomicReference<>(List.of());
+    private final RouteMetricsRegistry registry = new RouteMetricsRegistry(this.meterRegistry,
+        () -> Flux.defer(() -> Flux.fromIterable(this.routes.get())));
+    private final RouteMetricsFilter metricsFilter = new RouteMetricsFilter(this.registry);
+    private final UpstreamTimingFilter upstreamFilter = new UpstreamTimingFilter();
+    private final Route route = Route.async().id("users").uri("http://localhost:8080").predicate(exchange -> true).build();
+
+    @Test
+    void recordsAllPhasesPerRoute() {
+        this.run(HttpStatus.OK);
+        this.run(HttpStatus.BAD_GATEWAY);
+
+        assertThat(this.meterRegistry.get(RouteMetrics.REQUESTS).tag("routeId", "users").counter().count()).isEqualTo(2);
+        assertThat(this.meterRegistry.get(RouteMetrics.ERRORS).tag("routeId", "users").counter().count()).isEqualTo(1);
+        assertThat(this.meterRegistry.get(RouteMetrics.IN_FLIGHT).tag("routeId", "users").gauge().value()).isZero();
+        for (String phase : new String[]{"total", "pre-filter", "upstream"}) {
+            assertThat(this.meterRegistry.get(RouteMetrics.LATENCY).tag("routeId", "users").tag("phase", phase).timer().count())
+                .isEqualTo(2);
+        }
+    }
+
+    @Test
+    void sharesMetersAcrossRefreshedRouteInstances() {
+        RouteMetrics before = this.registry.of(this.route);
+        assertThat(this.registry.of(this.route)).isSameAs(before);
+
+        Route refreshed = Route.async().id("users").uri("http://localhost:9090").predicate(exchange -> true).build();
+        this.routes.set(List.of(refreshed));
+        this.registry.onApplicationEvent(new RefreshRoutesResultEvent(this));
+
+        assertThat(this.registry.of(refreshed)).isSameAs(before);
+    }
+
+    @Test
+    void removesMetersOfRemovedRoutes() {
+        Route orders = Route.async().id("orders").uri("http://localhost:8080").predicate(exchange -> true).build();
+        this.run(HttpStatus.OK);
+        RouteMetrics removed = this.registry.of(orders);
+        assertThat(this.meterRegistry.find(RouteMetrics.REQUESTS).tag("routeId", "orders").counter()).isNotNull();
+
+        this.routes.set(List.of(this.route));
+        this.registry.onApplicationEvent(new RefreshRoutesResultEvent(this));
+
+        assertThat(this.meterRegistry.find(RouteMetrics.REQUESTS).tag("routeId", "users").counter()).isNotNull();
+        assertThat(this.meterRegistry.find(RouteMetrics.LATENCY).tag("routeId", "users").timers()).hasSize(3);
+        assertThat(this.meterRegistry.find(RouteMetrics.LATENCY).tag("routeId", "orders").meters()).isEmpty();
+        assertThat(this.meterRegistry.find(RouteMetrics.IN_FLIGHT).tag("routeId", "orders").gauge()).isNull();
+        assertThat(this.meterRegistry.find(RouteMetrics.REQUESTS).tag("routeId", "orders").counter()).isNull();
+
+        // 같은 id 의 route 가 다시 추가되면 meter 를 새로 등록한다.
+        RouteMetrics added = this.registry.of(orders);
+        assertThat(added).isNotSameAs(removed);
+        assertThat(this.meterRegistry.find(RouteMetrics.REQUESTS).tag("routeId", "orders").counter()).isNotNull();
+    }
+
+    @Test
+    void removesMetersOfRemovedDynamicRoutes() {
+        Route dynamic = DynamicRouteTable.route("dynamic").uri("http://localhost:8080").predicate(exchange -> true).build();
+        this.registry.of(dynamic);
+        this.run(HttpStatus.OK);
+
+        this.routes.set(List.of(this.route));
+        this.registry.onDynamicRoutesChanged(new DynamicRoutesChangedEvent(this, 2));
+
+        assertThat(this.meterRegistry.find(RouteMetrics.REQUESTS).tag("routeId", "dynamic").counter()).isNull();
+        assertThat(this.meterRegistry.find(RouteMetrics.REQUESTS).tag("routeId", "users").counter()).isNotNull();
+    }
+
+    @Test
+    void keepsMetersWhenRefreshFails() {
+        this.run(HttpStatus.OK);
+
+        this.registry.onApplicationEvent(new RefreshRoutesResultEvent(this, new IllegalStateException("refresh failed")));
+
+        assertThat(this.meterRegistry.find(RouteMetrics.REQUESTS).tag("routeId", "users").counter()).isNotNull();
+    }
+
+    @Test
+    void ignoresExchangeWithoutRoute() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/users"));
+
+        this.metricsFilter.filter(exchange, e -> Mono.empty()).block();
+
+        assertThat(this.meterRegistry.getMeters()).isEmpty();
+    }
+
+    private void run(HttpStatus status) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/users"));
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, this.route);
+        GatewayFilterChain upstream = e -> {
+            e.getResponse().setStatusCode(status);
+            return Mono.empty();
+        };
+        this.metricsFilter.filter(exchange, e -> this.upstreamFilter.filter(e, upstream)).block();
+    }
+}
@@ -0,0 +1,144 @@
+package de.v.gom.sample.gateway.router.compiled;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.v.gom.sample.gateway.filter.PrefixRewritePathGatewayFilterFactory;
+import de.v.gom.sample.gateway.filter.header.HeaderMutationGatewayFilter;
+import de.v.gom.sample.gateway.router.file.RouteDefinitionConverter;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.config.GatewayProperties;
+import org.springframework.cloud.gateway.filter.FilterDefinition;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AddRequestHeaderGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.factory.AddResponseHeaderGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.factory.GatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.factory.RemoveRequestHeaderGatewayFilterFactory;
+import org.springframework.cloud.gateway.handler.predicate.MethodRoutePredicateFactory;
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
+import org.springframework.cloud.gateway.handler.predicate.RoutePredicateFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.format.support.DefaultFormattingConversionService;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.validation.beanvalidation.OptionalValidatorFactoryBean;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompiledRouteBuilderTests {
+    private final List<RoutePredicateFactory> predicates = List.of(new PathRoutePredicateFactory(), new MethodRoutePredicateFactory());
+    private final List<GatewayFilterFactory> filters = List.of(new AddRequestHeaderGatewayFilterFactory(),
+        new AddResponseHeaderGatewayFilterFactory(), new RemoveRequestHeaderGatewayFilterFactory(), new PrefixRewritePathGatewayFilterFactory());
+    private final RouteDefinitionConverter converter = converter(this.predicates, this.filters);
+
+    @Test
+    void buildsRoutesLikeRouteDefinitionLocator() {
+        RouteDefinition definition = new RouteDefinition("filter_test=http://localhost:8080,Path=/filter_test/**,Method=GET");
+        definition.setFilters(List.of(
+            new FilterDefinition("AddRequestHeader=X-Request-Test, testRequest"),
+            new FilterDefinition("AddResponseHeader=X-Response-Test, testResponse"),
+            new FilterDefinition("RewritePath=/filter_test/(?<filterTest>.*), /$\\{filterTest}")));
+        Route expected = this.converter.convert(List.of(definition)).get(0);
+
+        Route route = this.builder().build(builder -> builder.route("filter_test", "http://localhost:8080", 0)
+            .path(true, "/filter_test/**")
+            .method("GET")
+            .addRequestHeader("X-Request-Test", "testRequest")
+            .addResponseHeader("X-Response-Test", "testResponse")
+            .rewritePath("/filter_test/(?<filterTest>.*)", "/$\\{filterTest}")
+            .add()).get(0);
+
+        assertThat(route.getUri()).isEqualTo(expected.getUri());
+        // 연속된 헤더 필터는 첫 필터의 위치 순서로 합쳐지고, 나머지 필터는 같은 위치 순서를 유지한다.
+        assertThat(route.getFilters()).extracting(filter -> ((Ordered) filter).getOrder()).containsExactly(1, 3);
+        assertThat(((OrderedGatewayFilter) route.getFilters().get(0)).getDelegate()).isInstanceOf(HeaderMutationGatewayFilter.class);
+        assertThat(route.getFilters().get(1)).hasToString(expected.getFilters().get(2).toString());
+        ServerWebExchange expectedExchange = run(expected);
+        ServerWebExchange exchange = run(route);
+        assertThat(exchange.getRequest().getURI()).isEqualTo(expectedExchange.getRequest().getURI());
+        assertThat(exchange.getRequest().getHeaders()).isEqualTo(expectedExchange.getRequest().getHeaders());
+        assertThat(exchange.getResponse().getHeaders()).isEqualTo(expectedExchange.getResponse().getHeaders());
+        assertThat(matches(route, MockServerHttpRequest.get("/filter_test/a"))).isTrue();
+        assertThat(matches(route, MockServerHttpRequest.post("/filter_test/a"))).isFalse();
+        assertThat(matches(route, MockServerHttpRequest.get("/segment/a"))).isFalse();
+    }
+
+    @Test
+    void doesNotFuseHeaderFiltersAcrossDefaultFilters() {
+        GatewayFilter defaultFilter = new OrderedGatewayFilter((exchange, chain) -> chain.filter(exchange), 2);
+        CompiledRouteBuilder builder = new CompiledRouteBuilder(this.predicates, this.filters, List.of(defaultFilter),
+            this.converter::convert, new ObjectMapper());
+
+        Route route = builder.build(routes -> routes.route("headers", "http://localhost:8080", 0)
+            .addRequestHeader("X-First", "1")
+            .addRequestHeader("X-Second", "2")
+            .addRequestHeader("X-Third", "3")
+            .add()).get(0);
+
+        // 위치 순서 2 의 default filter 는 두 번째 헤더 필터보다 먼저 실행되어야 한다.
+        assertThat(route.getFilters()).extracting(filter -> ((Ordered) filter).getOrder()).containsExactly(1, 2, 2);
+        assertThat(route.getFilters().get(1)).isSameAs(defaultFilter);
+    }
+
+    @Test
+    void keepsCatalogOrderWithDefinitions() {
+        List<Route> routes = this.builder().build(builder -> {
+            builder.route("a", "http://localhost:8080", 0).path(true, "/a/**").metadata("tier", 1).add();
+            builder.definition("{\"id\":\"b\",\"uri\":\"http://localhost:8080\",\"predicates\":[{\"name\":\"Path\",\"args\":{\"_genkey_0\":\"/b/**\"}}]}");
+            builder.definition("{\"id\":\"invalid\",\"uri\":\"http://localhost:8080\",\"predicates\":[{\"name\":\"Unknown\",\"args\":{}}]}");
+            builder.route("c", "http://localhost:8080", 0).removeRequestHeader("Cookie").add();
+        });
+
+        assertThat(routes).extracting(Route::getId).containsExactly("a", "b", "c");
+        assertThat(routes.get(0).getMetadata()).containsEntry("tier", 1);
+        assertThat(matches(routes.get(1), MockServerHttpRequest.get("/b/1"))).isTrue();
+        // predicate 가 없는 route 는 모든 요청과 매칭된다.
+        assertThat(matches(routes.get(2), MockServerHttpRequest.get("/any"))).isTrue();
+    }
+
+    private CompiledRouteBuilder builder() {
+        return new CompiledRouteBuilder(this.predicates, this.filters, List.of(), this.converter::convert, new ObjectMapper());
+    }
+
+    // route 의 필터를 정렬된 순서로 실행하고, upstream 이 받은 exchange 를 돌려준다.
+    private static ServerWebExchange run(Route route) {
+        AtomicReference<ServerWebExchange> received = new AtomicReference<>();
+        GatewayFilterChain upstream = exchange -> {
+            received.set(exchange);
+            return Mono.empty();
+        };
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/filter_test/a"));
+        chain(route.getFilters(), 0, upstream).filter(exchange).block();
+        return received.get();
+    }
+
+    private static GatewayFilterChain chain(List<GatewayFilter> filters, int index, GatewayFilterChain upstream) {
+        if (index == filters.size()) {
+            return upstream;
+        }
+        return exchange -> filters.get(index).filter(exchange, chain(filters, index + 1, upstream));
+    }
+
+    private static boolean matches(Route route, MockServerHttpRequest.BaseBuilder<?> request) {
+        return Boolean.TRUE.equals(Mono.from(route.getPredicate().apply(MockServerWebExchange.from(request))).block());
+    }
+
+    private static RouteDefinitionConverter converter(List<RoutePredicateFactory> predicates, List<GatewayFilterFactory> filters) {
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.refresh();
+        OptionalValidatorFactoryBean validator = new OptionalValidatorFactoryBean();
+        validator.afterPropertiesSet();
+        ConfigurationService configurationService = new ConfigurationService(context.getBeanFactory(),
+            DefaultFormattingConversionService::new, () -> validator);
+        return new RouteDefinitionConverter(predicates, filters, new GatewayProperties(), configurationService);
+    }
+}
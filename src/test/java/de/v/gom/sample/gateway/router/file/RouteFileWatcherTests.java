@@ -0,0 +1,172 @@
+package de.v.gom.sample.gateway.router.file;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RouteFileWatcherTests {
+    private final AtomicInteger converted = new AtomicInteger();
+    private final List<RefreshRoutesEvent> events = new CopyOnWriteArrayList<>();
+    private final FileRouteLocator locator = new FileRouteLocator();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void appliesOnlyChangedRoutes() throws IOException {
+        Path file = this.directory.resolve("routes.yml");
+        write(file, """
+            routes:
+              - id: a
+                uri: http://localhost:8080
+                predicates:
+                  - Path=/a/**
+              - id: b
+                uri: http://localhost:8080
+                predicates:
+                  - name: Path
+                    args:
+                      patterns: /b/**
+              - id: c
+                uri: http://localhost:8080
+                predicates:
+                  - Path=/c/**
+            """);
+        RouteFileWatcher watcher = this.watcher(file);
+        watcher.reload(Set.of(file));
+        Route b = this.locator.routes().get("b");
+
+        write(file, """
+            routes:
+              - id: a
+                uri: http://localhost:8081
+                predicates:
+                  - Path=/a/**
+              - id: b
+                uri: http://localhost:8080
+                predicates:
+                  - name: Path
+                    args:
+                      patterns: /b/**
+              - id: d
+                uri: http://localhost:8080
+                predicates:
+                  - Path=/d/**
+            """);
+        RouteDefinitionDiff diff = watcher.reload(Set.of(file));
+
+        assertThat(diff.added()).extracting(RouteDefinition::getId).containsExactly("d");
+        assertThat(diff.changed()).extracting(RouteDefinition::getId).containsExactly("a");
+        assertThat(diff.removed()).containsExactly("c");
+        assertThat(this.converted).hasValue(5);
+        assertThat(this.locator.routes()).containsOnlyKeys("a", "b", "d");
+        assertThat(this.locator.routes().get("a").getUri().getPort()).isEqualTo(8081);
+        assertThat(this.locator.routes().get("b")).isSameAs(b);
+        assertThat(this.events).hasSize(2).allMatch(RefreshRoutesEvent::isScoped);
+    }
+
+    @Test
+    void keepsPreviousRoutesWhenFileIsInvalid() throws IOException {
+        Path file = this.directory.resolve("routes.json");
+        write(file, "{\"routes\":[{\"id\":\"a\",\"uri\":\"http://localhost:8080\",\"predicates\":[\"Path=/a/**\"]}]}");
+        RouteFileWatcher watcher = this.watcher(file);
+        watcher.reload(Set.of(file));
+
+        write(file, "{\"routes\":[{\"id\":\"a\",");
+        watcher.reload(Set.of(file));
+        write(file, "[{\"uri\":\"http://localhost:8080\"}]");
+        watcher.reload(Set.of(file));
+
+        assertThat(this.locator.routes()).containsOnlyKeys("a");
+        assertThat(this.converted).hasValue(1);
+    }
+
+    @Test
+    void watchesDirectory() throws Exception {
+        write(this.directory.resolve("a.yml"), "- id: a\n  uri: http://localhost:8080\n");
+        RouteFileWatcher watcher = this.watcher(this.directory);
+        watcher.start();
+        try {
+            assertThat(this.locator.routes()).containsOnlyKeys("a");
+
+            write(this.directory.resolve("b.json"), "[{\"id\":\"b\",\"uri\":\"http://localhost:8080\"}]");
+            Files.delete(this.directory.resolve("a.yml"));
+            write(this.directory.resolve("ignored.txt"), "- id: c");
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (!this.locator.routes().keySet().equals(Set.of("b")) && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+            assertThat(this.locator.routes()).containsOnlyKeys("b");
+        } finally {
+            watcher.stop();
+        }
+    }
+
+    @Test
+    void reloadsLargeFileQuickly() throws IOException {
+        Path file = this.directory.resolve("routes.json");
+        write(file, routes(20_000, -1));
+        RouteFileWatcher watcher = this.watcher(file);
+        watcher.reload(Set.of(file));
+
+        write(file, routes(20_000, 12_345));
+        long start = System.nanoTime();
+        RouteDefinitionDiff diff = watcher.reload(Set.of(file));
+        long elapsed = System.nanoTime() - start;
+
+        assertThat(diff.changed()).extracting(RouteDefinition::getId).containsExactly("route-12345");
+        assertThat(this.converted).hasValue(20_001);
+        assertThat(this.locator.routes()).hasSize(20_000);
+        assertThat(Duration.ofNanos(elapsed)).isLessThan(Duration.ofSeconds(1));
+    }
+
+    private RouteFileWatcher watcher(Path path) {
+        return new RouteFileWatcher(path, new RouteFileParser(new ObjectMapper(), 64 * 1024 * 1024), this::convert,
+            this.locator, event -> this.events.add((RefreshRoutesEvent) event), Duration.ofMillis(50));
+    }
+
+    // RouteDefinitionRouteLocator 대신 id / uri / metadata 만 옮긴다.
+    private List<Route> convert(List<RouteDefinition> definitions) {
+        this.converted.addAndGet(definitions.size());
+        return definitions.stream()
+            .map(definition -> Route.async()
+                .id(definition.getId())
+                .uri(definition.getUri())
+                .predicate(exchange -> true)
+                .metadata(definition.getMetadata())
+                .build())
+            .toList();
+    }
+
+    private static String routes(int count, int changed) {
+        StringBuilder json = new StringBuilder("{\"routes\":[");
+        for (int i = 0; i < count; i++) {
+            json.append(i > 0 ? "," : "")
+                .append("{\"id\":\"route-").append(i).append("\",\"uri\":\"http://localhost:").append(i == changed ? 8081 : 8080)
+                .append("\",\"predicates\":[\"Path=/route-").append(i).append("/**\",\"Method=GET\"]")
+                .append(",\"filters\":[\"AddRequestHeader=X-Route, route-").append(i).append("\"]}");
+        }
+        return json.append("]}").toString();
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,79 @@
+package de.v.gom.sample.gateway.router.index;
+
+import org.springframework.cloud.gateway.handler.AsyncPredicate;
+import org.springframework.cloud.gateway.handler.predicate.MethodRoutePredicateFactory;
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 테스트에서 사용하는 tenant route 목록과 요청 생성 도우미.
+ */
+final class RouteFixtures {
+    private static final PathRoutePredicateFactory PATH = new PathRoutePredicateFactory();
+    private static final MethodRoutePredicateFactory METHOD = new MethodRoutePredicateFactory();
+
+    private RouteFixtures() {
+    }
+
+    /**
+     * /tenant-{n}/api/** (GET), /tenant-{n}/admin/{id} (POST), /tenant-{n}/** 형태의 route 를 count 개 만든다.
+     * 마지막에는 어떤 경로에도 매칭되는 catch-all route 를 추가한다.
+     */
+    static List<Route> tenantRoutes(int count) {
+        List<Route> routes = new ArrayList<>(count + 1);
+        for (int i = 0; i < count; i++) {
+            String tenant = "tenant-" + (i / 3);
+            switch (i % 3) {
+                case 0 -> routes.add(route("api-" + i, path("/" + tenant + "/api/**").and(method(HttpMethod.GET))));
+                case 1 -> routes.add(route("admin-" + i, path("/" + tenant + "/admin/{id}").and(method(HttpMethod.POST))));
+                default -> routes.add(route("tenant-" + i, path("/" + tenant + "/**")));
+            }
+        }
+        routes.add(route("fallback", path("/**")));
+        return routes;
+    }
+
+    static Route route(String id, AsyncPredicate<ServerWebExchange> predicate) {
+        return Route.async()
+            .id(id)
+            .uri("http://localhost:8080")
+            .asyncPredicate(predicate)
+            .build();
+    }
+
+    static AsyncPredicate<ServerWebExchange> path(String... patterns) {
+        return PATH.applyAsync(config -> config.setPatterns(List.of(patterns)));
+    }
+
+    static AsyncPredicate<ServerWebExchange> method(HttpMethod... methods) {
+        return METHOD.applyAsync(config -> config.setMethods(methods));
+    }
+
+    static ServerWebExchange exchange(HttpMethod method, String path) {
+        return MockServerWebExchange.from(MockServerHttpRequest.method(method, path));
+    }
+
+    static PathContainer pathOf(ServerWebExchange exchange) {
+        return PathContainer.parsePath(exchange.getRequest().getURI().getRawPath());
+    }
+
+    /**
+     * 기존 RoutePredicateHandlerMapping 과 같은 방식으로 route 를 순서대로 평가하여 첫 번째로 매칭된 route 를 찾는다.
+     */
+    static Route firstMatch(List<Route> routes, ServerWebExchange exchange) {
+        for (Route route : routes) {
+            if (Boolean.TRUE.equals(route.getPredicate().apply(exchange).block())) {
+                return route;
+            }
+        }
+        return null;
+    }
+}
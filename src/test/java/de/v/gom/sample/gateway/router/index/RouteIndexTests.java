@@ -0,0 +1,81 @@
+package de.v.gom.sample.gateway.router.index;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.List;
+
+import static de.v.gom.sample.gateway.router.index.RouteFixtures.exchange;
+import static de.v.gom.sample.gateway.router.index.RouteFixtures.firstMatch;
+import static de.v.gom.sample.gateway.router.index.RouteFixtures.method;
+import static de.v.gom.sample.gateway.router.index.RouteFixtures.path;
+import static de.v.gom.sample.gateway.router.index.RouteFixtures.pathOf;
+import static de.v.gom.sample.gateway.router.index.RouteFixtures.route;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RouteIndexTests {
+
+    @Test
+    void literalPrefixStopsAtFirstDynamicSegment() {
+        assertThat(RouteIndex.literalPrefix("/filter_java/**")).containsExactly("filter_java");
+        assertThat(RouteIndex.literalPrefix("/mvc/router")).containsExactly("mvc", "router");
+        assertThat(RouteIndex.literalPrefix("/tenant/{id}/api")).containsExactly("tenant");
+        assertThat(RouteIndex.literalPrefix("/**")).isEmpty();
+    }
+
+    @Test
+    void matchesSameRouteAsOrderedScan() {
+        List<Route> routes = RouteFixtures.tenantRoutes(300);
+        RouteIndex index = RouteIndex.compile(routes);
+
+        List<ServerWebExchange> exchanges = List.of(
+            exchange(HttpMethod.GET, "/tenant-5/api/users"),
+            exchange(HttpMethod.POST, "/tenant-5/api/users"),
+            exchange(HttpMethod.POST, "/tenant-7/admin/1"),
+            exchange(HttpMethod.GET, "/tenant-7/admin/1"),
+            exchange(HttpMethod.GET, "/tenant-99/other"),
+            exchange(HttpMethod.DELETE, "/unknown/path"),
+            exchange(HttpMethod.GET, "/")
+        );
+        for (ServerWebExchange exchange : exchanges) {
+            Route expected = firstMatch(routes, exchange);
+            Route actual = firstMatch(index.candidates(exchange.getRequest().getMethod(), pathOf(exchange)), exchange);
+            assertThat(actual).as(exchange.getRequest().getURI().toString()).isSameAs(expected);
+        }
+    }
+
+    @Test
+    void keepsUnindexableRoutesInOriginalOrder() {
+        Route negated = route("negated", path("/a/**").negate());
+        Route either = route("either", path("/b/**").or(path("/c/**")));
+        Route exact = route("exact", path("/c/d"));
+        RouteIndex index = RouteIndex.compile(List.of(negated, either, exact));
+
+        ServerWebExchange exchange = exchange(HttpMethod.GET, "/c/d");
+        assertThat(index.candidates(HttpMethod.GET, pathOf(exchange))).containsExactly(negated, either, exact);
+    }
+
+    @Test
+    void indexesRequiredPathNextToAlternatives() {
+        Route bang = route("bang", path("/bang!/**"));
+        Route nested = route("nested", path("/x/**").and(path("/x/internal/**").negate()));
+        Route alternatives = route("alternatives", path("/y/**").and(method(HttpMethod.GET).or(method(HttpMethod.POST))));
+        RouteIndex index = RouteIndex.compile(List.of(bang, nested, alternatives));
+
+        assertThat(index.candidates(HttpMethod.GET, pathOf(exchange(HttpMethod.GET, "/z")))).isEmpty();
+        assertThat(index.candidates(HttpMethod.GET, pathOf(exchange(HttpMethod.GET, "/x/1")))).containsExactly(nested);
+        assertThat(index.candidates(HttpMethod.PUT, pathOf(exchange(HttpMethod.PUT, "/y/1")))).containsExactly(alternatives);
+    }
+
+    @Test
+    void filtersCandidatesByMethod() {
+        Route get = route("get", path("/orders/**").and(method(HttpMethod.GET)));
+        Route post = route("post", path("/orders/**").and(method(HttpMethod.POST)));
+        RouteIndex index = RouteIndex.compile(List.of(get, post));
+
+        ServerWebExchange exchange = exchange(HttpMethod.POST, "/orders/1");
+        assertThat(index.candidates(HttpMethod.POST, pathOf(exchange))).containsExactly(post);
+    }
+}
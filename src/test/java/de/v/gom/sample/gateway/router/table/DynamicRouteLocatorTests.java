@@ -0,0 +1,95 @@
+package de.v.gom.sample.gateway.router.table;
+
+import de.v.gom.sample.gateway.router.RouteSources;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.cloud.gateway.event.RefreshRoutesResultEvent;
+import org.springframework.cloud.gateway.route.Route;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DynamicRouteLocatorTests {
+    private final DynamicRouteTable table = new DynamicRouteTable();
+    private final AtomicReference<List<Route>> file = new AtomicReference<>(List.of());
+    private final AtomicInteger fetches = new AtomicInteger();
+    private final List<Object> events = new CopyOnWriteArrayList<>();
+    private DynamicRouteLocator locator;
+
+    @BeforeEach
+    void setUp() {
+        this.locator = new DynamicRouteLocator(() -> Flux.defer(() -> {
+            this.fetches.incrementAndGet();
+            return Flux.fromIterable(this.file.get());
+        }), this.table);
+        this.locator.setApplicationEventPublisher(this.events::add);
+    }
+
+    @Test
+    void seesTableChangesWithoutRefresh() {
+        this.file.set(List.of(fileRoute("file", 0)));
+        assertThat(ids()).containsExactly("file");
+
+        this.table.add(dynamicRoute("first", -1));
+        this.table.add(dynamicRoute("second", 0));
+        assertThat(ids()).containsExactly("first", "file", "second");
+
+        this.table.remove("first");
+        assertThat(ids()).containsExactly("file", "second");
+
+        // 합친 목록은 다시 만들지만 cache 된 route 는 다시 읽지 않는다.
+        assertThat(this.fetches).hasValue(1);
+        assertThat(this.events).isEmpty();
+    }
+
+    @Test
+    void mergesAgainAfterFullRefresh() {
+        this.table.add(dynamicRoute("dynamic", 0));
+        assertThat(ids()).containsExactly("dynamic");
+
+        this.file.set(List.of(fileRoute("file", 0)));
+        this.locator.onApplicationEvent(new RefreshRoutesEvent(this));
+
+        assertThat(this.events).singleElement().isInstanceOf(RefreshRoutesResultEvent.class);
+        assertThat(ids()).containsExactly("file", "dynamic");
+    }
+
+    /**
+     * 범위를 지정한 refresh 는 범위 밖의 route 를 getRoutes() 로 다시 읽으므로 dynamic route 도 cache 에 들어간다.
+     * 그 뒤에 삭제된 dynamic route 가 다시 보이거나 두 번 보이면 안 된다.
+     */
+    @Test
+    void scopedRefreshDoesNotKeepDynamicRoutes() {
+        this.file.set(List.of(fileRoute("file", 0)));
+        this.table.add(dynamicRoute("kept", 0));
+        this.table.add(dynamicRoute("removed", 0));
+        assertThat(ids()).containsExactly("file", "kept", "removed");
+
+        this.file.set(List.of(fileRoute("file", 0), fileRoute("added", 0)));
+        this.locator.onApplicationEvent(new RefreshRoutesEvent(this, Map.of(RouteSources.KEY, RouteSources.FILE)));
+        this.table.remove("removed");
+
+        assertThat(ids()).containsExactly("file", "added", "kept");
+    }
+
+    private List<String> ids() {
+        return this.locator.getRoutes().map(Route::getId).collectList().block();
+    }
+
+    private static Route fileRoute(String id, int order) {
+        return Route.async().id(id).uri("http://localhost:8080").order(order)
+            .metadata(RouteSources.KEY, RouteSources.FILE)
+            .predicate(exchange -> true).build();
+    }
+
+    private static Route dynamicRoute(String id, int order) {
+        return DynamicRouteTable.route(id).uri("http://localhost:8080").order(order).predicate(exchange -> true).build();
+    }
+}
@@ -0,0 +1,158 @@
+package de.v.gom.sample.gateway.router.table;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.NotFoundException;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DynamicRouteTableTests {
+    private static final PathRoutePredicateFactory PATH = new PathRoutePredicateFactory();
+    private static final int WRITERS = 2;
+    private static final int WRITES = 20_000;
+
+    @Test
+    void addReplaceAndRemoveRoutes() {
+        DynamicRouteTable table = new DynamicRouteTable();
+        table.add(route("a", "http://localhost:8080", "/a/**"));
+        table.add(route("b", "http://localhost:8080", "/b/**"));
+        table.replace(route("a", "http://localhost:8081", "/a/**"));
+
+        DynamicRouteTable.Snapshot snapshot = table.remove("b");
+        assertThat(snapshot.version()).isEqualTo(4);
+        assertThat(snapshot.routes()).extracting(Route::getId).containsExactly("a");
+        assertThat(snapshot.byId().get("a").getUri().getPort()).isEqualTo(8081);
+
+        assertThatThrownBy(() -> table.add(route("a", "http://localhost:8080", "/a/**"))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> table.remove("b")).isInstanceOf(NotFoundException.class);
+        assertThat(table.snapshot()).isSameAs(snapshot);
+    }
+
+    /**
+     * writer 가 route 를 계속 바꾸는 동안 reader 가 route 를 매칭해도
+     * 변경되지 않은 route 는 항상 매칭되고, 변경 중인 route 의 uri / path 가 섞여 보이지 않아야 한다.
+     * 변경 중 lookup 지연은 gateway-benchmark 의 DynamicRouteTableBenchmark 로 측정한다.
+     */
+    @Test
+    void readersNeverMissRoutesWhileWritersUpdate() throws Exception {
+        DynamicRouteTable table = new DynamicRouteTable();
+        table.add(route("stable", "http://localhost:8080", "/stable/**"));
+        table.add(route("moving", "http://localhost:8081", "/moving-8081/**"));
+
+        int readers = Math.max(2, Runtime.getRuntime().availableProcessors() - 2);
+        ExecutorService executor = Executors.newFixedThreadPool(readers + WRITERS);
+        AtomicInteger runningWriters = new AtomicInteger(WRITERS);
+        CountDownLatch started = new CountDownLatch(readers + WRITERS);
+        ServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/stable/orders"));
+
+        List<Future<ReaderResult>> results = new ArrayList<>();
+        for (int i = 0; i < readers; i++) {
+            results.add(executor.submit(() -> {
+                started.countDown();
+                ReaderResult result = new ReaderResult();
+                // writer 가 모두 끝날 때까지 읽는다.
+                while (runningWriters.get() > 0) {
+                    DynamicRouteTable.Snapshot snapshot = table.snapshot();
+                    Route matched = null;
+                    for (Route route : snapshot.routes()) {
+                        if (Boolean.TRUE.equals(route.getPredicate().apply(exchange).block())) {
+                            matched = route;
+                            break;
+                        }
+                    }
+                    Route moving = snapshot.byId().get("moving");
+                    result.record(matched != null && "stable".equals(matched.getId()),
+                        moving == null || moving.getPredicate().toString().contains("/moving-" + moving.getUri().getPort() + "/"));
+                }
+                return result;
+            }));
+        }
+        List<Future<?>> writers = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            int writer = w;
+            writers.add(executor.submit(() -> {
+                started.countDown();
+                try {
+                    started.await();
+                    for (int i = 0; i < WRITES; i++) {
+                        String id = "tenant-" + writer + "-" + (i % 100);
+                        if (table.snapshot().byId().containsKey(id)) {
+                            table.remove(id);
+                        } else {
+                            table.add(route(id, "http://localhost:8080", "/" + id + "/**"));
+                        }
+                        int port = 8081 + (i % 2);
+                        table.replace(route("moving", "http://localhost:" + port, "/moving-" + port + "/**"));
+                    }
+                } finally {
+                    runningWriters.decrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        for (Future<?> writer : writers) {
+            writer.get();
+        }
+
+        ReaderResult total = new ReaderResult();
+        for (Future<ReaderResult> result : results) {
+            total.merge(result.get());
+        }
+        // 추가 / 삭제와 replace 가 writer 마다 WRITES 번씩 반영된다.
+        assertThat(table.snapshot().version()).isEqualTo(2 + 2L * WRITERS * WRITES);
+        assertThat(total.lookups).isPositive();
+        assertThat(total.failed).isZero();
+        assertThat(total.inconsistent).isZero();
+    }
+
+    @Test
+    void rejectsRoutesWithoutDynamicSource() {
+        DynamicRouteTable table = new DynamicRouteTable();
+        Route route = Route.async().id("a").uri("http://localhost:8080").predicate(exchange -> true).build();
+
+        assertThatThrownBy(() -> table.add(route)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(table.snapshot().version()).isZero();
+    }
+
+    private static Route route(String id, String uri, String path) {
+        return DynamicRouteTable.route(id)
+            .uri(uri)
+            .asyncPredicate(PATH.applyAsync(config -> config.setPatterns(List.of(path))))
+            .build();
+    }
+
+    private static final class ReaderResult {
+        private long lookups;
+        private long failed;
+        private long inconsistent;
+
+        void record(boolean matched, boolean consistent) {
+            this.lookups++;
+            this.failed += matched ? 0 : 1;
+            this.inconsistent += consistent ? 0 : 1;
+        }
+
+        void merge(ReaderResult other) {
+            this.lookups += other.lookups;
+            this.failed += other.failed;
+            this.inconsistent += other.inconsistent;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package de.v.gom.sample.gateway.upstream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.event.RefreshRoutesResultEvent;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class UpstreamPoolRoutingFilterTests {
+    private static final UpstreamPoolSettings DEFAULTS =
+        new UpstreamPoolSettings(null, 100, -1, Duration.ofSeconds(5), Duration.ofSeconds(30), false);
+
+    private final HttpClient shared = HttpClient.create();
+    private final List<ConnectionProvider> providers = new CopyOnWriteArrayList<>();
+    private final AtomicReference<List<Route>> routes = new AtomicReference<>(List.of());
+    @SuppressWarnings("unchecked")
+    private final UpstreamPoolRoutingFilter filter = new UpstreamPoolRoutingFilter(this.shared,
+        mock(ObjectProvider.class), new HttpClientProperties(), DEFAULTS, this::client,
+        () -> Flux.defer(() -> Flux.fromIterable(this.routes.get())));
+    private final MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/"));
+
+    @AfterEach
+    void destroy() {
+        this.filter.destroy();
+    }
+
+    @Test
+    void usesSharedClientWithoutPoolMetadata() {
+        assertThat(this.filter.getHttpClient(route("plain", Map.of()), this.exchange)).isSameAs(this.shared);
+    }
+
+    @Test
+    void separatesPoolsByNameAndCachesPerRoute() {
+        Route a = route("a", Map.of(UpstreamPoolSettings.NAME, "application-1"));
+        Route b = route("b", Map.of(UpstreamPoolSettings.NAME, "application-1", UpstreamPoolSettings.MAX_CONNECTIONS, 10));
+        Route c = route("c", Map.of(UpstreamPoolSettings.MAX_CONNECTIONS, 10));
+
+        HttpClient client = this.filter.getHttpClient(a, this.exchange);
+
+        assertThat(client).isNotSameAs(this.shared);
+        assertThat(this.filter.getHttpClient(a, this.exchange)).isSameAs(client);
+        assertThat(this.filter.getHttpClient(b, this.exchange)).isSameAs(client);
+        assertThat(this.filter.getHttpClient(c, this.exchange)).isNotSameAs(client).isNotSameAs(this.shared);
+
+        Route refreshed = route("a", a.getMetadata());
+        this.routes.set(List.of(refreshed, b, c));
+        this.filter.onApplicationEvent(new RefreshRoutesResultEvent(this));
+        assertThat(this.filter.getHttpClient(refreshed, this.exchange)).isSameAs(client);
+        assertThat(this.providers).hasSize(2);
+    }
+
+    @Test
+    void rebuildsPoolWhenSettingsChange() {
+        Route a = route("a", Map.of(UpstreamPoolSettings.MAX_CONNECTIONS, 10));
+        HttpClient client = this.filter.getHttpClient(a, this.exchange);
+
+        Route resized = route("a", Map.of(UpstreamPoolSettings.MAX_CONNECTIONS, 20));
+        this.routes.set(List.of(resized));
+        this.filter.onApplicationEvent(new RefreshRoutesResultEvent(this));
+        HttpClient rebuilt = this.filter.getHttpClient(resized, this.exchange);
+
+        assertThat(rebuilt).isNotSameAs(client);
+        assertThat(this.providers).extracting(ConnectionProvider::maxConnections).containsExactly(10, 20);
+        assertThat(rebuilt.configuration().connectionProvider()).isSameAs(this.providers.get(1));
+        assertThat(this.filter.pools()).containsExactly("a");
+    }
+
+    @Test
+    void buildsPoolClientsThroughClientFactory() {
+        HttpClient client = this.filter.getHttpClient(route("a", Map.of(UpstreamPoolSettings.MAX_CONNECTIONS, 10)), this.exchange);
+
+        assertThat(this.providers).singleElement()
+            .satisfies(provider -> assertThat(provider.name()).isEqualTo("gateway-a"))
+            .satisfies(provider -> assertThat(provider.maxConnections()).isEqualTo(10));
+        assertThat(client.configuration().connectionProvider()).isSameAs(this.providers.get(0));
+    }
+
+    @Test
+    void disposesPoolsNoLongerUsedByAnyRoute() {
+        Route a = route("a", Map.of(UpstreamPoolSettings.NAME, "application-1"));
+        Route b = route("b", Map.of(UpstreamPoolSettings.NAME, "application-1"));
+        Route c = route("c", Map.of(UpstreamPoolSettings.MAX_CONNECTIONS, 10));
+        this.filter.getHttpClient(a, this.exchange);
+        this.filter.getHttpClient(c, this.exchange);
+        assertThat(this.filter.pools()).containsExactlyInAnyOrder("application-1", "c");
+
+        // a 는 삭제되었지만 같은 pool 을 사용하는 b 가 남아 있다.
+        this.routes.set(List.of(b, route("plain", Map.of())));
+        this.filter.onApplicationEvent(new RefreshRoutesResultEvent(this));
+        assertThat(this.filter.pools()).containsExactly("application-1");
+
+        // 실패한 refresh 는 pool 을 정리하지 않는다.
+        this.routes.set(List.of());
+        this.filter.onApplicationEvent(new RefreshRoutesResultEvent(this, new IllegalStateException("refresh failed")));
+        assertThat(this.filter.pools()).containsExactly("application-1");
+
+        // 삭제된 pool 을 사용하는 route 가 다시 추가되면 새로 만든다.
+        this.filter.getHttpClient(c, this.exchange);
+        assertThat(this.providers).hasSize(3);
+    }
+
+    @Test
+    void readsSettingsFromMetadata() {
+        UpstreamPoolSettings settings = UpstreamPoolSettings.of(route("a", Map.of(
+            UpstreamPoolSettings.MAX_CONNECTIONS, "20",
+            UpstreamPoolSettings.PENDING_ACQUIRE_TIMEOUT, "250ms",
+            UpstreamPoolSettings.MAX_IDLE_TIME, 1000,
+            UpstreamPoolSettings.H2C, "true")), DEFAULTS);
+
+        assertThat(settings).isEqualTo(new UpstreamPoolSettings("a", 20, -1, Duration.ofMillis(250), Duration.ofSeconds(1), true));
+        assertThat(UpstreamPoolSettings.of(route("b", Map.of("response-timeout", 100)), DEFAULTS)).isNull();
+    }
+
+    private HttpClient client(ConnectionProvider provider) {
+        this.providers.add(provider);
+        return HttpClient.create(provider);
+    }
+
+    private static Route route(String id, Map<String, Object> metadata) {
+        return Route.async()
+            .id(id)
+            .uri("http://localhost:8080")
+            .predicate(exchange -> true)
+            .metadata(metadata)
+            .build();
+    }
+}
@@ -0,0 +1,99 @@
+#!/usr/bin/env bash
+# plain fat jar 와 AOT + AppCDS 실행의 time-to-first-routed-request 와 RSS 를 비교한다.
+#
+#   startup/measure.sh <module> [runs]      (기본 5 회씩 실행하여 중앙값을 출력)
+#
+# 사전 조건
+# - startup/startup.sh build <module> 로 jar 와 AppCDS archive 를 만들어 둔다.
+# - application-1 이 8080 port 에서 실행 중이어야 한다. (gateway-redis 는 Redis 도 필요: gateway-redis/docker)
+#
+# time-to-first-routed-request 는 startup/startup.sh 를 실행(fork) 한 시점부터 gateway 를 거친 첫 요청이 upstream 의 200 응답을 받을 때까지의 시간이다.
+# JVM 이 시작된 시점이 아니므로 startup.sh 가 java 를 exec 하기 전의 준비(jar 찾기 등, 수 ms) 가 포함된다.
+# gateway-in-memory / gateway-redis 는 시작할 때 route 가 없으므로 관리 API 로 route 를 등록한 뒤 요청한다. (등록 시간 포함)
+# RSS 는 첫 요청 직후의 값이다.
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "${BASH_SOURCE[0]}")/.." && pwd)"
+MODULE="${1:?module (root | gateway-in-memory | gateway-redis)}"
+RUNS="${2:-5}"
+TIMEOUT_SECONDS=60
+
+ROUTE='{"id":"startup-route","uri":"http://localhost:8080",
+  "predicates":[{"name":"Method","args":{"method":"GET"}},{"name":"Path","args":{"pattern":"/application/**"}}],
+  "filters":[{"name":"RewritePath","args":{"regexp":"/application/(?<segment>.*)","replacement":"/v1/application/${segment}"}}]}'
+
+case "$MODULE" in
+  root) PORT="${ROOT_GATEWAY_PORT:-8000}"; ADMIN="" ;;
+  gateway-in-memory) PORT=8081; ADMIN="/v1/routes/in-memory" ;;
+  gateway-redis) PORT=8082; ADMIN="/v1/routes/redis" ;;
+  *) echo "Unknown module: $MODULE" >&2; exit 1 ;;
+esac
+
+if ! curl -sf -o /dev/null "http://localhost:8080/v1/application/startup"; then
+  echo "application-1 is not running on port 8080" >&2
+  exit 1
+fi
+
+now_ms() {
+  # macOS 의 date 는 %N 을 지원하지 않는다.
+  perl -MTime::HiRes=time -e 'printf("%d\n", time() * 1000)'
+}
+
+rss_kb() {
+  if [[ -r "/proc/$1/status" ]]; then
+    awk '/^VmRSS:/ { print $2 }' "/proc/$1/status"
+  else
+    ps -o rss= -p "$1" | tr -d ' '
+  fi
+}
+
+median() {
+  sort -n | awk '{ values[NR] = $1 } END { print (NR % 2) ? values[(NR + 1) / 2] : int((values[NR / 2] + values[NR / 2 + 1]) / 2) }'
+}
+
+# 한 번 실행하여 "<첫 요청까지 ms> <RSS KB>" 를 출력한다.
+measure() {
+  local mode="$1" start pid deadline elapsed rss
+  start="$(now_ms)"
+  "$ROOT/startup/startup.sh" "$mode" "$MODULE" >"$LOG" 2>&1 &
+  pid=$!
+  deadline=$((start + TIMEOUT_SECONDS * 1000))
+  local registered=""
+  [[ -z "$ADMIN" ]] && registered="yes"
+  while true; do
+    if [[ -z "$registered" ]]; then
+      curl -sf -o /dev/null -X POST -H 'Content-Type: application/json' -d "$ROUTE" "http://localhost:$PORT$ADMIN" && registered="yes"
+    elif curl -sf -o /dev/null "http://localhost:$PORT/application/startup"; then
+      break
+    fi
+    if (($(now_ms) > deadline)) || ! kill -0 "$pid" 2>/dev/null; then
+      echo "Gateway did not route a request within ${TIMEOUT_SECONDS}s (log: $LOG)" >&2
+      kill "$pid" 2>/dev/null || true
+      exit 1
+    fi
+    sleep 0.01
+  done
+  elapsed=$(($(now_ms) - start))
+  rss="$(rss_kb "$pid")"
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  echo "$elapsed $rss"
+}
+
+LOG="$(mktemp -t gateway-startup.XXXXXX)"
+trap 'rm -f "$LOG"' EXIT
+
+printf '%-8s %-6s %14s %8s\n' mode run 'first-req(ms)' 'rss(MB)'
+for mode in plain run; do
+  label="$([[ "$mode" == plain ]] && echo plain || echo aot-cds)"
+  results=()
+  for ((i = 1; i <= RUNS; i++)); do
+    result="$(measure "$mode")"
+    read -r elapsed rss <<<"$result"
+    printf '%-8s %-6s %14s %8s\n' "$label" "$i" "$elapsed" "$((rss / 1024))"
+    results+=("$elapsed $rss")
+  done
+  printf '%-8s %-6s %14s %8s\n' "$label" median \
+    "$(printf '%s\n' "${results[@]}" | cut -d' ' -f1 | median)" \
+    "$(($(printf '%s\n' "${results[@]}" | cut -d' ' -f2 | median) / 1024))"
+done
@@ -0,0 +1,93 @@
+#!/usr/bin/env bash
+# gateway 모듈의 시작 시간 최적화 실행 (Spring AOT + AppCDS)
+#
+#   startup/startup.sh build <module> [gradle args...]   AOT jar 를 build 하고, 풀어낸 jar 로 training run 을 실행하여 AppCDS archive 를 만든다.
+#   startup/startup.sh run <module> [app args...]        AOT + AppCDS 로 실행한다.
+#   startup/startup.sh plain <module> [app args...]      비교를 위해 fat jar 를 그대로 실행한다.
+#
+# module: root | gateway-in-memory | gateway-redis
+# 결과물은 <module>/build/startup 에 생성된다. (application.jar, lib/, application.jsa)
+# AppCDS archive 는 같은 JDK / 같은 jar 에서만 사용할 수 있으므로 jar 를 다시 build 하면 archive 도 다시 만든다.
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "${BASH_SOURCE[0]}")/.." && pwd)"
+
+module_dir() {
+  case "$1" in
+    root) echo "$ROOT" ;;
+    gateway-in-memory | gateway-redis) echo "$ROOT/$1" ;;
+    *) echo "Unknown module: $1 (root | gateway-in-memory | gateway-redis)" >&2; exit 1 ;;
+  esac
+}
+
+# 루트 gateway 는 80 port 를 사용하므로 권한 없이 실행할 수 있는 port 로 바꾼다.
+default_args() {
+  case "$1" in
+    root) echo "--server.port=${ROOT_GATEWAY_PORT:-8000}" ;;
+    *) echo "" ;;
+  esac
+}
+
+fat_jar() {
+  local jar
+  jar="$(find "$(module_dir "$1")/build/libs" -name '*.jar' ! -name '*-plain.jar' | head -n 1)"
+  if [[ -z "$jar" ]]; then
+    echo "No boot jar for $1. Run: startup/startup.sh build $1" >&2
+    exit 1
+  fi
+  echo "$jar"
+}
+
+# refresh scope 는 AOT 를 지원하지 않으므로 build(processAot) 와 실행 모두 끈다.
+COMMON_OPTS=(-Dspring.cloud.refresh.enabled=false)
+
+build() {
+  local module="$1"; shift
+  local dir startup jar
+  dir="$(module_dir "$module")"
+  startup="$dir/build/startup"
+  (cd "$dir" && ./gradlew bootJar -Paot "$@")
+  jar="$(fat_jar "$module")"
+
+  # Spring Boot 의 tools jarmode 로 jar 를 application.jar + lib/ 로 푼다. (CDS 는 중첩 jar 의 class 를 archive 하지 못한다)
+  rm -rf "$startup"
+  java -Djarmode=tools -jar "$jar" extract --destination "$startup" --application-filename application.jar
+
+  # training run: context refresh 까지 실행하고 종료하면서 load 된 class 를 dynamic AppCDS archive 로 저장한다.
+  # classpath 가 실행할 때와 같아야 하므로 같은 디렉터리에서 같은 상대 경로로 실행한다.
+  # shellcheck disable=SC2046
+  (cd "$startup" && java "${COMMON_OPTS[@]}" -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+    -XX:ArchiveClassesAtExit=application.jsa -Xlog:cds=warning -jar application.jar $(default_args "$module"))
+  echo "AppCDS archive: $startup/application.jsa ($(du -h "$startup/application.jsa" | cut -f1))"
+}
+
+run() {
+  local module="$1"; shift
+  local startup
+  startup="$(module_dir "$module")/build/startup"
+  if [[ ! -f "$startup/application.jsa" ]]; then
+    echo "No AppCDS archive for $module. Run: startup/startup.sh build $module" >&2
+    exit 1
+  fi
+  cd "$startup"
+  # shellcheck disable=SC2046
+  exec java "${COMMON_OPTS[@]}" -Dspring.aot.enabled=true -XX:SharedArchiveFile=application.jsa -Xshare:auto \
+    ${JAVA_OPTS:-} -jar application.jar $(default_args "$module") "$@"
+}
+
+plain() {
+  local module="$1"; shift
+  # shellcheck disable=SC2046
+  exec java "${COMMON_OPTS[@]}" ${JAVA_OPTS:-} -jar "$(fat_jar "$module")" $(default_args "$module") "$@"
+}
+
+if [[ $# -lt 2 ]]; then
+  sed -n '2,12p' "${BASH_SOURCE[0]}"
+  exit 1
+fi
+
+command="$1"; shift
+case "$command" in
+  build | run | plain) "$command" "$@" ;;
+  *) echo "Unknown command: $command" >&2; exit 1 ;;
+esac